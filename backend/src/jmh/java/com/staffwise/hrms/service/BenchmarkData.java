@@ -0,0 +1,212 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.PayrollDetailDTO;
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.repository.TaxConfigurationRepository;
+import com.staffwise.hrms.repository.TaxSlabRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic, seeded inputs shared by the payroll benchmarks.
+ *
+ * Everything is built in memory: repositories are replaced by fixed-answer stubs so
+ * the benchmarks measure the kernels and not the database.
+ */
+final class BenchmarkData {
+
+    static final LocalDate PERIOD_START = LocalDate.of(2025, 1, 1);
+    static final LocalDate PERIOD_END = LocalDate.of(2025, 1, 14);
+    static final int WORKING_DAYS = 10;
+
+    private static final long SEED = 20250101L;
+
+    private BenchmarkData() {
+    }
+
+    static TaxConfiguration taxConfiguration() {
+        TaxConfiguration config = TaxConfiguration.builder()
+                .financialYear("BENCH")
+                .startDate(LocalDate.of(2025, 1, 1))
+                .endDate(LocalDate.of(2025, 12, 31))
+                .build();
+        config.setId(1L);
+        return config;
+    }
+
+    static PayrollConfiguration payrollConfiguration() {
+        PayrollConfiguration config = PayrollConfiguration.builder()
+                .configName("BENCH")
+                .effectiveFrom(LocalDate.of(2025, 1, 1))
+                .build();
+        config.setId(1L);
+        return config;
+    }
+
+    /**
+     * PNG resident SWT slabs, as seeded by TaxService.initializeDefaultTaxSlabs.
+     */
+    static List<TaxSlab> residentSlabs() {
+        double[][] brackets = {
+                { 0, 12500, 0.0 },
+                { 12500, 20000, 0.22 },
+                { 20000, 33000, 0.30 },
+                { 33000, 70000, 0.35 },
+                { 70000, 250000, 0.40 },
+                { 250000, -1, 0.42 } };
+        List<TaxSlab> slabs = new ArrayList<>();
+        for (int i = 0; i < brackets.length; i++) {
+            slabs.add(TaxSlab.builder()
+                    .incomeFrom(brackets[i][0])
+                    .incomeTo(brackets[i][1] < 0 ? null : brackets[i][1])
+                    .taxRate(brackets[i][2])
+                    .isResident(true)
+                    .slabOrder(i + 1)
+                    .build());
+        }
+        return slabs;
+    }
+
+    static PayrollRunContext runContext() {
+        return PayrollRunContext.builder()
+                .periodStart(PERIOD_START)
+                .periodEnd(PERIOD_END)
+                .totalWorkingDays(WORKING_DAYS)
+                .taxConfig(taxConfiguration())
+                .payrollConfig(payrollConfiguration())
+                .residentTaxTable(CompiledTaxTable.compile(residentSlabs()))
+                .build();
+    }
+
+    static PayrollRun payrollRun() {
+        PayrollRun run = PayrollRun.builder()
+                .fortnight(1)
+                .year(2025)
+                .periodStart(PERIOD_START)
+                .periodEnd(PERIOD_END)
+                .status(PayrollStatus.COMPUTING)
+                .build();
+        run.setId(1L);
+        return run;
+    }
+
+    static List<Employee> employees(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = Employee.builder()
+                    .empCode("BENCH" + i)
+                    .firstName("Bench")
+                    .lastName("Employee" + i)
+                    .email("bench" + i + "@example.com")
+                    .password("not-used")
+                    .role(Role.EMPLOYEE)
+                    .basicSalary(15000.0 + random.nextInt(285000))
+                    .isActive(true)
+                    .build();
+            employee.setId((long) i + 1);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Attendance, leave and overtime for the given employees. Roughly one in ten has no
+     * attendance recorded so the calculator's fallback to full working days is exercised.
+     */
+    static PayrollInputTable inputs(List<Employee> employees) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        PayrollInputTable inputs = new PayrollInputTable(PERIOD_START, PERIOD_END);
+        for (Employee employee : employees) {
+            if (random.nextInt(10) > 0) {
+                inputs.putAttendance(employee.getId(), 5 + random.nextInt(WORKING_DAYS - 4), random.nextInt(3));
+            }
+            if (random.nextInt(4) == 0) {
+                inputs.putLeaveDays(employee.getId(), 1 + random.nextInt(3));
+            }
+            if (random.nextInt(3) == 0) {
+                inputs.putApprovedOvertimeHours(employee.getId(), random.nextInt(1, 33) / 2.0);
+            }
+        }
+        return inputs;
+    }
+
+    static double[] fortnightlyGrosses(int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 2);
+        double[] grosses = new double[count];
+        for (int i = 0; i < count; i++) {
+            grosses[i] = 300 + random.nextDouble() * 12000;
+        }
+        return grosses;
+    }
+
+    static List<PayrollDetail> details(int count) {
+        PayrollCalculator calculator = new PayrollCalculator();
+        PayrollRunContext context = runContext();
+        PayrollRun run = payrollRun();
+        List<Employee> employees = employees(count);
+        PayrollInputTable inputs = inputs(employees);
+
+        List<PayrollDetail> details = new ArrayList<>(count);
+        for (Employee employee : employees) {
+            details.add(calculator.calculate(employee, run, context, inputs));
+        }
+        return details;
+    }
+
+    static PayrollDetailDTO payslip() {
+        PayrollDetail detail = details(1).get(0);
+        return PayrollDetailDTO.builder()
+                .id(1L)
+                .payrollRunId(1L)
+                .employeeId(1L)
+                .employeeName("Bench Employee0")
+                .empCode("BENCH0")
+                .department("Finance")
+                .year(2025)
+                .period("Fortnight 1, 2025")
+                .basicSalary(detail.getBasicSalary())
+                .overtimePay(detail.getOvertimePay())
+                .taxDeduction(detail.getSalaryWagesTax())
+                .pfDeduction(detail.getSuperEmployee())
+                .lateDeduction(detail.getLateDeduction())
+                .totalWorkingDays(detail.getTotalWorkingDays())
+                .daysWorked(detail.getDaysWorked())
+                .leavesTaken(detail.getLeavesTaken())
+                .approvedOvertimeHours(detail.getApprovedOvertimeHours())
+                .lateCount(detail.getLateCount())
+                .grossSalary(detail.getGrossSalary())
+                .totalDeductions(detail.getTotalDeductions())
+                .netPay(detail.getNetPay())
+                .status("PROCESSED")
+                .build();
+    }
+
+    /**
+     * TaxService backed by stub repositories that always answer with the benchmark configuration.
+     */
+    static TaxService taxService() {
+        TaxConfiguration config = taxConfiguration();
+        List<TaxSlab> slabs = residentSlabs();
+
+        TaxConfigurationRepository configurations = stub(TaxConfigurationRepository.class, "findActiveConfigurationForDate",
+                Optional.of(config));
+        TaxSlabRepository slabRepository = stub(TaxSlabRepository.class, "findByConfigurationAndRegime", slabs);
+        return new TaxService(configurations, slabRepository, new TaxTableCache(slabRepository));
+    }
+
+    private static <T> T stub(Class<T> type, String method, Object answer) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (self, invoked, args) -> {
+            if (invoked.getName().equals(method)) {
+                return answer;
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + invoked.getName());
+        });
+        return type.cast(proxy);
+    }
+}
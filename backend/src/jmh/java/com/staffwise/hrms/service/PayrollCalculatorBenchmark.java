@@ -0,0 +1,76 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.Employee;
+import com.staffwise.hrms.entity.PayrollDetail;
+import com.staffwise.hrms.entity.PayrollRun;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-employee payroll computation as done by PayrollService for every partition:
+ * {@link PayrollCalculator#calculate} against a prefetched input table.
+ *
+ * calculateEmployee walks the roster one employee per invocation, so its score is the
+ * cost of a single employee; calculateRoster computes the whole roster per invocation as
+ * one batch, and computeBatch measures only the column kernel of {@link PayrollBatch}
+ * without gathering inputs or materializing details.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollCalculatorBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int employees;
+
+    private PayrollCalculator calculator;
+    private PayrollRunContext context;
+    private PayrollRun payrollRun;
+    private List<Employee> roster;
+    private PayrollInputTable inputs;
+    private PayrollBatch batch;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = new PayrollCalculator();
+        context = BenchmarkData.runContext();
+        payrollRun = BenchmarkData.payrollRun();
+        roster = BenchmarkData.employees(employees);
+        inputs = BenchmarkData.inputs(roster);
+
+        batch = new PayrollBatch(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = roster.get(i);
+            int days = inputs.getPresentDays(employee.getId());
+            batch.load(i, Math.round(employee.getBasicSalary() * 100), days == 0 ? BenchmarkData.WORKING_DAYS : days,
+                    inputs.getLateDays(employee.getId()), inputs.getApprovedOvertimeHours(employee.getId()),
+                    inputs.getLeaveDays(employee.getId()));
+        }
+    }
+
+    @Benchmark
+    public PayrollDetail calculateEmployee() {
+        Employee employee = roster.get(next);
+        next = next + 1 == employees ? 0 : next + 1;
+        return calculator.calculate(employee, payrollRun, context, inputs);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<PayrollDetail> calculateRoster() {
+        return calculator.calculateAll(roster, payrollRun, context, inputs);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long computeBatch() {
+        batch.compute(context);
+        return batch.netPay[employees - 1];
+    }
+}
@@ -0,0 +1,38 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.PayrollDetail;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PayrollDetail#calculateTotals} over computed details, one detail per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollDetailBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int employees;
+
+    private List<PayrollDetail> details;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        details = BenchmarkData.details(employees);
+    }
+
+    @Benchmark
+    public double calculateTotals() {
+        PayrollDetail detail = details.get(next);
+        next = next + 1 == employees ? 0 : next + 1;
+        detail.calculateTotals();
+        return detail.getNetPay();
+    }
+}
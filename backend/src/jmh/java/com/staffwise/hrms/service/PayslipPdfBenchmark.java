@@ -0,0 +1,32 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.PayrollDetailDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering one payslip PDF with {@link PayslipPdfService#generatePayslip}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayslipPdfBenchmark {
+
+    private PayslipPdfService payslipPdfService;
+    private PayrollDetailDTO payslip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payslipPdfService = new PayslipPdfService();
+        payslip = BenchmarkData.payslip();
+    }
+
+    @Benchmark
+    public byte[] generatePayslip() {
+        return payslipPdfService.generatePayslip(payslip);
+    }
+}
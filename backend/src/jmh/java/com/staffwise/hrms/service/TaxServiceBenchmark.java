@@ -0,0 +1,61 @@
+package com.staffwise.hrms.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaxService} calculations over synthetic fortnightly grosses, with the
+ * configuration lookup answered by stub repositories and slabs from TaxTableCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaxServiceBenchmark {
+
+    private static final LocalDate PAY_DATE = BenchmarkData.PERIOD_END;
+
+    @Param({ "1000", "10000" })
+    private int employees;
+
+    private TaxService taxService;
+    private double[] grosses;
+    private List<Double> grossList;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taxService = BenchmarkData.taxService();
+        grosses = BenchmarkData.fortnightlyGrosses(employees);
+        grossList = new ArrayList<>(employees);
+        for (double gross : grosses) {
+            grossList.add(gross);
+        }
+    }
+
+    @Benchmark
+    public TaxService.TaxResult calculateFortnightlyTax() {
+        double gross = grosses[next];
+        next = next + 1 == employees ? 0 : next + 1;
+        return taxService.calculateFortnightlyTax(gross, true, PAY_DATE);
+    }
+
+    @Benchmark
+    public TaxService.TaxResult calculateFortnightlyTaxNonResident() {
+        double gross = grosses[next];
+        next = next + 1 == employees ? 0 : next + 1;
+        return taxService.calculateFortnightlyTax(gross, false, PAY_DATE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TaxService.TaxSummary calculatePayrollTaxSummary() {
+        return taxService.calculatePayrollTaxSummary(grossList, PAY_DATE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.staffwise.hrms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Two connection pools on the same database: "interactive" for request threads, sized by
+ * spring.datasource.hikari, and "batch" for payroll computation, sized by payroll.bulkhead.
+ * Both publish hikaricp.connections.* metrics tagged with their pool name.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${payroll.bulkhead.pool-size:7}")
+    private int batchPoolSize;
+
+    @Value("${payroll.bulkhead.connection-timeout-ms:30000}")
+    private long batchConnectionTimeout;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactiveDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("interactive");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource batchDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("batch");
+        dataSource.setMaximumPoolSize(batchPoolSize);
+        // Idle outside payroll runs
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(batchConnectionTimeout);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactiveDataSource") DataSource interactiveDataSource,
+                                 @Qualifier("batchDataSource") DataSource batchDataSource) {
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource();
+        dataSource.setTargetDataSources(Map.of(
+                WorkloadRoutingDataSource.Workload.INTERACTIVE, interactiveDataSource,
+                WorkloadRoutingDataSource.Workload.BATCH, batchDataSource));
+        dataSource.setDefaultTargetDataSource(interactiveDataSource);
+        return dataSource;
+    }
+}
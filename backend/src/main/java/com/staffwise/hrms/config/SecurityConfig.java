@@ -2,6 +2,7 @@ package com.staffwise.hrms.config;
 
 import com.staffwise.hrms.security.JwtAuthenticationEntryPoint;
 import com.staffwise.hrms.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -51,6 +52,9 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+
+                // Streamed responses finish on an async dispatch; the request was authorized when it started
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 
                 // Employee endpoints - accessible by all authenticated users
                 .requestMatchers("/api/employee/profile/**").authenticated()
@@ -74,6 +78,10 @@ public class SecurityConfig {
                 
                 // Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("SYSTEM_ADMIN")
+
+                // Actuator - health for load balancers, metrics for administrators
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("SYSTEM_ADMIN")
                 
                 // All other requests need authentication
                 .anyRequest().authenticated()
@@ -0,0 +1,44 @@
+package com.staffwise.hrms.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Hands out connections from the batch pool on threads started for batch work and from
+ * the interactive pool on every other thread, so a payroll run can never take the
+ * connections request threads need.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Workload {
+        INTERACTIVE,
+        BATCH
+    }
+
+    private static final ThreadLocal<Boolean> BATCH_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Whether the current thread was started by a {@link #batchThreadFactory(String)}.
+     */
+    public static boolean isBatchThread() {
+        return BATCH_THREAD.get();
+    }
+
+    /**
+     * Thread factory for batch executors; connections opened on its threads come from the batch pool.
+     */
+    public static ThreadFactory batchThreadFactory(String threadNamePrefix) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(threadNamePrefix);
+        return task -> factory.newThread(() -> {
+            BATCH_THREAD.set(Boolean.TRUE);
+            task.run();
+        });
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isBatchThread() ? Workload.BATCH : Workload.INTERACTIVE;
+    }
+}
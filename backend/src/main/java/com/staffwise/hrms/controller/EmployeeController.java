@@ -4,6 +4,7 @@ import com.staffwise.hrms.dto.*;
 import com.staffwise.hrms.service.AttendanceService;
 import com.staffwise.hrms.service.EmployeeService;
 import com.staffwise.hrms.service.PayrollService;
+import com.staffwise.hrms.service.PayrollYearToDateService;
 import com.staffwise.hrms.service.PayslipPdfService;
 import com.staffwise.hrms.service.RequestService;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class EmployeeController {
     private final AttendanceService attendanceService;
     private final RequestService requestService;
     private final PayrollService payrollService;
+    private final PayrollYearToDateService yearToDateService;
     private final PayslipPdfService payslipPdfService;
 
     // ============ PROFILE ============
@@ -144,6 +146,15 @@ public class EmployeeController {
         return ResponseEntity.ok(ApiResponse.success(payslips));
     }
 
+    @GetMapping("/payslip/my/ytd/{year}")
+    public ResponseEntity<ApiResponse<PayrollYearToDateDTO>> getMyYearToDate(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable int year) {
+        EmployeeDTO employee = employeeService.getEmployeeByEmail(userDetails.getUsername());
+        PayrollYearToDateDTO ytd = yearToDateService.getYearToDate(employee.getId(), year);
+        return ResponseEntity.ok(ApiResponse.success(ytd));
+    }
+
     @GetMapping("/payslip/my/{month}/{year}")
     public ResponseEntity<ApiResponse<PayrollDetailDTO>> getMyPayslip(
             @AuthenticationPrincipal UserDetails userDetails,
@@ -1,19 +1,31 @@
 package com.staffwise.hrms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.staffwise.hrms.dto.*;
 import com.staffwise.hrms.entity.RequestType;
 import com.staffwise.hrms.service.AttendanceService;
+import com.staffwise.hrms.service.CalendarService;
+import com.staffwise.hrms.service.CompensationService;
 import com.staffwise.hrms.service.EmployeeService;
+import com.staffwise.hrms.service.PayrollBulkhead;
+import com.staffwise.hrms.service.PayrollClusterService;
+import com.staffwise.hrms.service.PayrollJobService;
+import com.staffwise.hrms.service.PayrollRetroService;
 import com.staffwise.hrms.service.PayrollService;
 import com.staffwise.hrms.service.RequestService;
+import com.staffwise.hrms.util.NdjsonWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -27,6 +39,13 @@ public class HRController {
     private final AttendanceService attendanceService;
     private final RequestService requestService;
     private final PayrollService payrollService;
+    private final PayrollBulkhead payrollBulkhead;
+    private final PayrollJobService payrollJobService;
+    private final PayrollClusterService payrollClusterService;
+    private final PayrollRetroService payrollRetroService;
+    private final CalendarService calendarService;
+    private final CompensationService compensationService;
+    private final ObjectMapper objectMapper;
 
     // ============ EMPLOYEE MANAGEMENT ============
 
@@ -79,6 +98,20 @@ public class HRController {
         return ResponseEntity.ok(ApiResponse.success(employees));
     }
 
+    @GetMapping("/employees/{id}/compensation")
+    public ResponseEntity<ApiResponse<List<EmployeeCompensationDTO>>> getCompensationHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(compensationService.getHistory(id)));
+    }
+
+    @PostMapping("/employees/{id}/compensation")
+    public ResponseEntity<ApiResponse<EmployeeCompensationDTO>> changeCompensation(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id,
+            @Valid @RequestBody EmployeeCompensationDTO dto) {
+        EmployeeCompensationDTO compensation = compensationService.changeCompensation(id, dto, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Compensation change recorded", compensation));
+    }
+
     // ============ ATTENDANCE MANAGEMENT ============
 
     @GetMapping("/attendance")
@@ -115,6 +148,29 @@ public class HRController {
         return ResponseEntity.ok(ApiResponse.success("Attendance updated", attendance));
     }
 
+    // ============ PUBLIC HOLIDAYS ============
+
+    @GetMapping("/holidays")
+    public ResponseEntity<ApiResponse<List<PublicHolidayDTO>>> getHolidays(@RequestParam int year) {
+        return ResponseEntity.ok(ApiResponse.success(calendarService.getHolidays(year)));
+    }
+
+    @PostMapping("/holidays")
+    public ResponseEntity<ApiResponse<PublicHolidayDTO>> addHoliday(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody PublicHolidayDTO dto) {
+        PublicHolidayDTO holiday = calendarService.addHoliday(dto, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Public holiday added", holiday));
+    }
+
+    @DeleteMapping("/holidays/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteHoliday(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id) {
+        calendarService.deleteHoliday(id, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Public holiday deleted", null));
+    }
+
     // ============ LEAVE APPROVAL ============
 
     @GetMapping("/requests/leave/pending")
@@ -161,10 +217,153 @@ public class HRController {
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestParam int fortnight,
             @RequestParam int year) {
-        PayrollRunDTO payrollRun = payrollService.computePayroll(fortnight, year, userDetails.getUsername());
+        PayrollRunDTO payrollRun = payrollBulkhead.call("compute",
+                () -> payrollService.computePayroll(fortnight, year, userDetails.getUsername()));
         return ResponseEntity.ok(ApiResponse.success("Payroll computed successfully for Fortnight " + fortnight, payrollRun));
     }
 
+    @PostMapping("/payroll/backfill")
+    public ResponseEntity<ApiResponse<List<PayrollRunDTO>>> backfillPayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam int year,
+            @RequestParam int fromFortnight,
+            @RequestParam int toFortnight) {
+        List<PayrollRunDTO> payrollRuns = payrollBulkhead.call("backfill",
+                () -> payrollService.backfillPayroll(year, fromFortnight, toFortnight, userDetails.getUsername()));
+        return ResponseEntity.ok(ApiResponse.success("Payroll backfilled for Fortnights " + fromFortnight
+                + " to " + toFortnight + ", " + year, payrollRuns));
+    }
+
+    @PostMapping("/payroll/runs/{id}/recompute")
+    public ResponseEntity<ApiResponse<PayrollRunDTO>> recomputePayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id) {
+        PayrollRunDTO payrollRun = payrollBulkhead.call("recompute",
+                () -> payrollService.recomputePayroll(id, userDetails.getUsername()));
+        return ResponseEntity.ok(ApiResponse.success("Payroll recomputed for changed employees", payrollRun));
+    }
+
+    /**
+     * Settle a backdated change against processed runs; the differences are paid by the next run.
+     */
+    @PostMapping("/payroll/retro")
+    public ResponseEntity<ApiResponse<PayrollRetroResultDTO>> runRetro(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody PayrollRetroRequestDTO request) {
+        PayrollRetroResultDTO result = payrollBulkhead.call("retro",
+                () -> payrollRetroService.runRetro(request, userDetails.getUsername()));
+        return ResponseEntity.ok(ApiResponse.success(result.getAdjustmentsCreated() + " retro adjustments created", result));
+    }
+
+    @GetMapping("/payroll/retro/pending")
+    public ResponseEntity<ApiResponse<List<PayrollAdjustmentDTO>>> getPendingAdjustments() {
+        return ResponseEntity.ok(ApiResponse.success(payrollRetroService.getPendingAdjustments()));
+    }
+
+    @GetMapping("/payroll/runs/{id}/adjustments")
+    public ResponseEntity<ApiResponse<List<PayrollAdjustmentDTO>>> getRunAdjustments(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(payrollRetroService.getAdjustmentsPaidBy(id)));
+    }
+
+    /**
+     * Dry-run a fortnight without saving anything. Streams one DETAIL line per employee
+     * and a final SUMMARY line with the totals; a stream without SUMMARY was cut short.
+     */
+    @GetMapping("/payroll/simulate")
+    public ResponseEntity<StreamingResponseBody> simulatePayroll(
+            @RequestParam int fortnight,
+            @RequestParam int year) {
+        // Reject bad periods before the response is committed
+        payrollService.validatePayrollPeriod(fortnight, year);
+
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            try {
+                PayrollRunDTO summary = payrollBulkhead.call("simulate",
+                        () -> payrollService.simulatePayroll(fortnight, year,
+                                detail -> writer.write(PayrollSimulationLineDTO.builder()
+                                        .type(PayrollSimulationLineDTO.DETAIL)
+                                        .detail(detail)
+                                        .build())));
+                writer.write(PayrollSimulationLineDTO.builder()
+                        .type(PayrollSimulationLineDTO.SUMMARY)
+                        .summary(summary)
+                        .build());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                writer.write(PayrollSimulationLineDTO.builder()
+                        .type(PayrollSimulationLineDTO.ERROR)
+                        .message(e.getMessage())
+                        .build());
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
+    // ============ PAYROLL JOBS (BACKGROUND COMPUTATION) ============
+
+    @PostMapping("/payroll/jobs")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> submitPayrollJob(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam int fortnight,
+            @RequestParam int year) {
+        PayrollJobDTO job = payrollJobService.submitJob(fortnight, year, userDetails.getUsername());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Payroll job submitted for Fortnight " + fortnight, job));
+    }
+
+    @GetMapping("/payroll/jobs")
+    public ResponseEntity<ApiResponse<List<PayrollJobDTO>>> getPayrollJobs() {
+        List<PayrollJobDTO> jobs = payrollJobService.getRecentJobs();
+        return ResponseEntity.ok(ApiResponse.success(jobs));
+    }
+
+    @GetMapping("/payroll/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> getPayrollJobProgress(@PathVariable Long jobId) {
+        PayrollJobDTO job = payrollJobService.getJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success(job));
+    }
+
+    @PostMapping("/payroll/jobs/{jobId}/resume")
+    public ResponseEntity<ApiResponse<PayrollJobDTO>> resumePayrollJob(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long jobId) {
+        PayrollJobDTO job = payrollJobService.resumeJob(jobId, userDetails.getUsername());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Payroll job resumed", job));
+    }
+
+    // ============ PAYROLL CLUSTER COMPUTE (PARTITIONS ACROSS NODES) ============
+
+    @PostMapping("/payroll/cluster/compute")
+    public ResponseEntity<ApiResponse<PayrollPartitionProgressDTO>> submitClusterPayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam int fortnight,
+            @RequestParam int year) {
+        PayrollPartitionProgressDTO progress = payrollClusterService.submitClusterRun(fortnight, year, userDetails.getUsername());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Payroll split into " + progress.getPartitions() + " partitions for Fortnight " + fortnight, progress));
+    }
+
+    @GetMapping("/payroll/cluster/runs/{runId}/partitions")
+    public ResponseEntity<ApiResponse<PayrollPartitionProgressDTO>> getClusterPayrollProgress(@PathVariable Long runId) {
+        PayrollPartitionProgressDTO progress = payrollClusterService.getProgress(runId);
+        return ResponseEntity.ok(ApiResponse.success(progress));
+    }
+
+    @PostMapping("/payroll/cluster/runs/{runId}/retry")
+    public ResponseEntity<ApiResponse<PayrollPartitionProgressDTO>> retryClusterPayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long runId) {
+        PayrollPartitionProgressDTO progress = payrollClusterService.retryFailedPartitions(runId, userDetails.getUsername());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Failed partitions queued again", progress));
+    }
+
     // ============ PAYROLL VIEW (READ-ONLY) ============
 
     @GetMapping("/payroll/runs")
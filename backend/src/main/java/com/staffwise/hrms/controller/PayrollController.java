@@ -1,8 +1,16 @@
 package com.staffwise.hrms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.staffwise.hrms.dto.*;
+import com.staffwise.hrms.service.PayrollBulkhead;
+import com.staffwise.hrms.service.PayrollDepartmentSummaryService;
 import com.staffwise.hrms.service.PayrollService;
+import com.staffwise.hrms.service.PayrollTelemetry;
+import com.staffwise.hrms.service.PayrollVarianceService;
+import com.staffwise.hrms.service.PayrollYearToDateService;
 import com.staffwise.hrms.service.PayslipPdfService;
+import com.staffwise.hrms.util.NdjsonWriter;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -11,7 +19,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -20,7 +30,13 @@ import java.util.List;
 public class PayrollController {
 
     private final PayrollService payrollService;
+    private final PayrollBulkhead payrollBulkhead;
+    private final PayrollDepartmentSummaryService departmentSummaryService;
+    private final PayrollYearToDateService yearToDateService;
+    private final PayrollVarianceService varianceService;
+    private final PayrollTelemetry payrollTelemetry;
     private final PayslipPdfService payslipPdfService;
+    private final ObjectMapper objectMapper;
 
     // ============ VIEW ENDPOINTS (HR + PAYROLL ROLES) ============
 
@@ -45,6 +61,109 @@ public class PayrollController {
         return ResponseEntity.ok(ApiResponse.success(details));
     }
 
+    @GetMapping("/view/employees/{employeeId}/ytd/{year}")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<PayrollYearToDateDTO>> getYearToDate(
+            @PathVariable Long employeeId,
+            @PathVariable int year) {
+        PayrollYearToDateDTO ytd = yearToDateService.getYearToDate(employeeId, year);
+        return ResponseEntity.ok(ApiResponse.success(ytd));
+    }
+
+    /**
+     * Time spent per phase in the last computation of a run.
+     */
+    @GetMapping("/view/runs/{runId}/telemetry")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<PayrollRunTelemetryDTO>> getRunTelemetry(@PathVariable Long runId) {
+        PayrollRunTelemetryDTO telemetry = payrollTelemetry.getRunTelemetry(runId);
+        return ResponseEntity.ok(ApiResponse.success(telemetry));
+    }
+
+    @GetMapping("/view/telemetry/slowest")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<List<PayrollRunTelemetryDTO>>> getSlowestRuns() {
+        List<PayrollRunTelemetryDTO> runs = payrollTelemetry.getSlowestRuns();
+        return ResponseEntity.ok(ApiResponse.success(runs));
+    }
+
+    @GetMapping("/view/runs/{runId}/departments")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<List<PayrollDepartmentSummaryDTO>>> getDepartmentSummaries(@PathVariable Long runId) {
+        List<PayrollDepartmentSummaryDTO> summaries = departmentSummaryService.getSummaries(runId);
+        return ResponseEntity.ok(ApiResponse.success(summaries));
+    }
+
+    /**
+     * Keyset-paginated details of a run, ordered by detail id or employee code.
+     */
+    @GetMapping("/view/runs/{runId}/details/page")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<KeysetPageDTO<PayrollDetailDTO>>> getPayrollDetailsPage(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = PayrollService.DETAIL_SORT_ID) String sortBy,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int size) {
+        KeysetPageDTO<PayrollDetailDTO> page = payrollService.getPayrollDetailsPage(runId, sortBy, after, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * All details of a run as NDJSON, one detail per line in id order.
+     */
+    @GetMapping("/view/runs/{runId}/details/stream")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamPayrollDetails(@PathVariable Long runId) {
+        // Fail with a regular error response for unknown runs before streaming starts
+        payrollService.getPayrollRunSummary(runId);
+
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            try {
+                payrollService.streamPayrollDetails(runId, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
+    @GetMapping("/view/runs/{runId}/variance")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<PayrollVarianceDTO>> getVariance(
+            @PathVariable Long runId,
+            @RequestParam(required = false) Long baseRunId,
+            @RequestParam(required = false) Double thresholdPercent) {
+        PayrollVarianceDTO variance = varianceService.compareRuns(runId, baseRunId, thresholdPercent);
+        return ResponseEntity.ok(ApiResponse.success(variance));
+    }
+
+    @GetMapping("/view/runs/{runId}/variance/stream")
+    @PreAuthorize("hasAnyRole('HR', 'PAYROLL_CHECKER', 'PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamVariance(
+            @PathVariable Long runId,
+            @RequestParam(required = false) Long baseRunId,
+            @RequestParam(required = false) Double thresholdPercent) {
+        // Fail with a regular error response for unknown runs before streaming starts
+        Long resolvedBaseRunId = varianceService.resolveBaseRunId(runId, baseRunId);
+
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(out, objectMapper);
+            try {
+                varianceService.compareRuns(runId, resolvedBaseRunId, thresholdPercent, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     // ============ PAYROLL CHECKER ENDPOINTS ============
 
     @GetMapping("/check/pending")
@@ -99,6 +218,32 @@ public class PayrollController {
         return ResponseEntity.ok(ApiResponse.success("Payroll rejected", run));
     }
 
+    @PostMapping("/authorize/reopen")
+    @PreAuthorize("hasAnyRole('PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<PayrollRunDTO>> reopenPayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody PayrollActionDTO action) {
+        PayrollRunDTO run = payrollService.reopenPayroll(action, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Payroll reopened for correction", run));
+    }
+
+    @PostMapping("/off-cycle")
+    @PreAuthorize("hasAnyRole('PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<PayrollRunDTO>> computeOffCyclePayroll(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody PayrollOffCycleRequestDTO request) {
+        PayrollRunDTO run = payrollBulkhead.call("off-cycle",
+                () -> payrollService.computeOffCycle(request, userDetails.getUsername()));
+        return ResponseEntity.ok(ApiResponse.success("Off-cycle payroll computed and processed", run));
+    }
+
+    @PostMapping("/ytd/{year}/rebuild")
+    @PreAuthorize("hasAnyRole('PAYROLL_ADMIN', 'SYSTEM_ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildYearToDate(@PathVariable int year) {
+        int employees = payrollBulkhead.call("ytd-rebuild", () -> yearToDateService.rebuild(year));
+        return ResponseEntity.ok(ApiResponse.success("Year-to-date totals rebuilt for " + year, employees));
+    }
+
     // ============ PAYROLL PROCESSING ENDPOINTS ============
 
     @GetMapping("/process/pending")
@@ -8,6 +8,7 @@ import com.staffwise.hrms.entity.TaxSlab;
 import com.staffwise.hrms.repository.TaxConfigurationRepository;
 import com.staffwise.hrms.repository.TaxSlabRepository;
 import com.staffwise.hrms.service.TaxService;
+import com.staffwise.hrms.service.TaxTableCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +32,7 @@ public class TaxConfigurationController {
     private final TaxConfigurationRepository taxConfigRepository;
     private final TaxSlabRepository taxSlabRepository;
     private final TaxService taxService;
+    private final TaxTableCache taxTableCache;
 
     // ============ TAX CONFIGURATION ENDPOINTS ============
 
@@ -92,6 +94,7 @@ public class TaxConfigurationController {
                 taxSlabRepository.save(slab);
             }
         }
+        taxTableCache.invalidate(saved.getId());
 
         log.info("Created tax configuration for year: {}", dto.getFinancialYear());
         return ResponseEntity.ok(ApiResponse.success("Tax configuration created", mapToDTO(saved)));
@@ -119,6 +122,7 @@ public class TaxConfigurationController {
         config.setDescription(dto.getDescription());
 
         TaxConfiguration saved = taxConfigRepository.save(config);
+        taxTableCache.invalidate(id);
         log.info("Updated tax configuration: {}", id);
         
         return ResponseEntity.ok(ApiResponse.success("Tax configuration updated", mapToDTO(saved)));
@@ -130,6 +134,7 @@ public class TaxConfigurationController {
                 .orElseThrow(() -> new RuntimeException("Tax configuration not found"));
         
         taxConfigRepository.delete(config);
+        taxTableCache.invalidate(id);
         log.info("Deleted tax configuration: {}", id);
         
         return ResponseEntity.ok(ApiResponse.success("Tax configuration deleted", null));
@@ -156,6 +161,7 @@ public class TaxConfigurationController {
 
         TaxSlab slab = mapSlabFromDTO(dto, config);
         TaxSlab saved = taxSlabRepository.save(slab);
+        taxTableCache.invalidate(configId);
         
         log.info("Added tax slab to configuration {}: {} - {}", configId, dto.getIncomeFrom(), dto.getIncomeTo());
         return ResponseEntity.ok(ApiResponse.success("Tax slab added", mapSlabToDTO(saved)));
@@ -177,6 +183,7 @@ public class TaxConfigurationController {
         slab.setDescription(dto.getDescription());
 
         TaxSlab saved = taxSlabRepository.save(slab);
+        taxTableCache.invalidate(saved.getTaxConfiguration().getId());
         log.info("Updated tax slab: {}", slabId);
         
         return ResponseEntity.ok(ApiResponse.success("Tax slab updated", mapSlabToDTO(saved)));
@@ -188,6 +195,7 @@ public class TaxConfigurationController {
                 .orElseThrow(() -> new RuntimeException("Tax slab not found"));
         
         taxSlabRepository.delete(slab);
+        taxTableCache.invalidate(slab.getTaxConfiguration().getId());
         log.info("Deleted tax slab: {}", slabId);
         
         return ResponseEntity.ok(ApiResponse.success("Tax slab deleted", null));
@@ -204,6 +212,7 @@ public class TaxConfigurationController {
 
         // Initialize default PNG slabs
         taxService.initializeDefaultTaxSlabs(config);
+        taxTableCache.invalidate(configId);
 
         // Return updated slabs
         List<TaxSlabDTO> slabs = taxSlabRepository.findByTaxConfigurationIdOrderBySlabOrderAsc(configId)
@@ -0,0 +1,45 @@
+package com.staffwise.hrms.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One effective-dated compensation record. When posted as a change, the department and
+ * tax residency default to those in force on effectiveFrom, and effectiveTo is derived:
+ * the change applies until the next recorded change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeCompensationDTO {
+    private Long id;
+    private Long employeeId;
+
+    @NotNull(message = "Effective date is required")
+    private LocalDate effectiveFrom;
+
+    private LocalDate effectiveTo;
+
+    @NotNull(message = "Basic salary is required")
+    @Positive(message = "Basic salary must be positive")
+    private Double basicSalary;
+
+    private Long departmentId;
+    private String departmentName;
+    private Boolean isTaxResident;
+
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+
+    private String createdBy;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollAdjustmentDTO {
+    private Long id;
+    private Long employeeId;
+    private String empCode;
+    private String employeeName;
+    private Long sourceRunId;
+    private Integer sourceFortnight;
+    private Integer sourceYear;
+    // Null while the adjustment is pending
+    private Long payrollRunId;
+    private Double grossDelta;
+    private Double salaryWagesTaxDelta;
+    private Double superEmployeeDelta;
+    private Double superEmployerDelta;
+    private Double lateDeductionDelta;
+    private Double netPayDelta;
+    private String reason;
+    private String requestedBy;
+    private LocalDateTime createdAt;
+}
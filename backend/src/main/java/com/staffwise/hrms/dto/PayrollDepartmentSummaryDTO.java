@@ -0,0 +1,24 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollDepartmentSummaryDTO {
+    private Long payrollRunId;
+    private Long departmentId;
+    private String departmentCode;
+    private String departmentName;
+    private Integer headcount;
+    private Double totalGross;
+    private Double totalSalaryWagesTax;
+    private Double totalSuperEmployee;
+    private Double totalSuperEmployer;
+    private Double totalNetPay;
+    private Double totalOvertimeHours;
+}
@@ -27,6 +27,7 @@ public class PayrollDetailDTO {
     private Double specialAllowance;
     private Double overtimePay;
     private Double bonus;
+    private Double retroPay;
     
     // Deductions
     private Double pfDeduction;
@@ -52,4 +53,47 @@ public class PayrollDetailDTO {
     private String remarks;
     private String period;
     private String status;
+
+    /**
+     * Constructor projection used by PayrollDetailRepository's detail view queries.
+     * Run-level fields (payrollRunId, month, year, period, status) are filled in by the caller.
+     */
+    public PayrollDetailDTO(Long id, Long employeeId, String firstName, String lastName, String empCode,
+                            String department, Double basicSalary, Double hra, Double transportAllowance,
+                            Double medicalAllowance, Double specialAllowance, Double overtimePay, Double bonus,
+                            Double retroPay, Double pfDeduction, Double taxDeduction, Double insuranceDeduction,
+                            Double loanDeduction, Double otherDeductions, Double leaveDeduction,
+                            Double lateDeduction, Integer totalWorkingDays, Integer daysWorked,
+                            Double leavesTaken, Double approvedOvertimeHours, Integer lateCount,
+                            Double grossSalary, Double totalDeductions, Double netPay, String remarks) {
+        this.id = id;
+        this.employeeId = employeeId;
+        this.employeeName = firstName + " " + lastName;
+        this.empCode = empCode;
+        this.department = department;
+        this.basicSalary = basicSalary;
+        this.hra = hra;
+        this.transportAllowance = transportAllowance;
+        this.medicalAllowance = medicalAllowance;
+        this.specialAllowance = specialAllowance;
+        this.overtimePay = overtimePay;
+        this.bonus = bonus;
+        this.retroPay = retroPay;
+        this.pfDeduction = pfDeduction;
+        this.taxDeduction = taxDeduction;
+        this.insuranceDeduction = insuranceDeduction;
+        this.loanDeduction = loanDeduction;
+        this.otherDeductions = otherDeductions;
+        this.leaveDeduction = leaveDeduction;
+        this.lateDeduction = lateDeduction;
+        this.totalWorkingDays = totalWorkingDays;
+        this.daysWorked = daysWorked;
+        this.leavesTaken = leavesTaken;
+        this.approvedOvertimeHours = approvedOvertimeHours;
+        this.lateCount = lateCount;
+        this.grossSalary = grossSalary;
+        this.totalDeductions = totalDeductions;
+        this.netPay = netPay;
+        this.remarks = remarks;
+    }
 }
@@ -0,0 +1,35 @@
+package com.staffwise.hrms.dto;
+
+import com.staffwise.hrms.entity.PayrollJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollJobDTO {
+    private Long id;
+    private Integer fortnight;
+    private Integer year;
+    private PayrollJobStatus status;
+    private Long payrollRunId;
+    private String requestedBy;
+    private Integer attempts;
+
+    // Progress
+    private Integer totalEmployees;
+    private Integer employeesDone;
+    private Double percentComplete;
+    private Double employeesPerSecond;
+    private Long etaSeconds;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime heartbeatAt;
+    private String errorMessage;
+}
@@ -0,0 +1,36 @@
+package com.staffwise.hrms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * An off-cycle run to pay a few employees for a fortnight outside the regular run,
+ * such as a final settlement or pay the regular run missed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollOffCycleRequestDTO {
+
+    @NotNull(message = "Fortnight is required")
+    private Integer fortnight;
+
+    @NotNull(message = "Year is required")
+    private Integer year;
+
+    @NotEmpty(message = "At least one employee is required")
+    private List<Long> employeeIds;
+
+    @NotBlank(message = "Reason is required")
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+}
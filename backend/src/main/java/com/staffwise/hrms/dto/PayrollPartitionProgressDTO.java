@@ -0,0 +1,43 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a payroll run computed in cluster mode, partition by partition.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollPartitionProgressDTO {
+    private Long payrollRunId;
+    private String runStatus;
+    private Integer partitions;
+    private Integer pending;
+    private Integer leased;
+    private Integer done;
+    private Integer failed;
+    private Integer totalEmployees;
+    private Integer employeesDone;
+    private List<Partition> details;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Partition {
+        private Integer index;
+        private Long firstEmployeeId;
+        private Long lastEmployeeId;
+        private Integer employeeCount;
+        private String status;
+        private String leaseOwner;
+        private Integer attempts;
+        private String errorMessage;
+    }
+}
@@ -0,0 +1,33 @@
+package com.staffwise.hrms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A backdated change to settle: processed runs ending on or after effectiveFrom are
+ * recomputed for the listed employees, or for every employee whose inputs changed since
+ * each run was processed when no employees are listed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRetroRequestDTO {
+
+    @NotNull(message = "Effective date is required")
+    private LocalDate effectiveFrom;
+
+    private List<Long> employeeIds;
+
+    @NotBlank(message = "Reason is required")
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+}
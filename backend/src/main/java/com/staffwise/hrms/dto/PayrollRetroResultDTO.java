@@ -0,0 +1,40 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of a retro pass: the adjustment lines it created for each processed run it recomputed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRetroResultDTO {
+    private LocalDate effectiveFrom;
+    private Integer runsRecomputed;
+    private Integer employeesRecomputed;
+    private Integer adjustmentsCreated;
+    private Double totalGrossDelta;
+    private Double totalNetPayDelta;
+    private List<Run> runs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Run {
+        private Long payrollRunId;
+        private Integer fortnight;
+        private Integer year;
+        private Integer employeesRecomputed;
+        private Integer adjustmentsCreated;
+        private Double grossDelta;
+        private Double netPayDelta;
+    }
+}
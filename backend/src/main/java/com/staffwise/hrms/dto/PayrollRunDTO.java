@@ -1,5 +1,6 @@
 package com.staffwise.hrms.dto;
 
+import com.staffwise.hrms.entity.PayrollRunType;
 import com.staffwise.hrms.entity.PayrollStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +19,8 @@ public class PayrollRunDTO {
     private Long id;
     private Integer fortnight;
     private Integer year;
+    private PayrollRunType runType;
+    private String offCycleReason;
     private LocalDate periodStart;
     private LocalDate periodEnd;
     private String period;
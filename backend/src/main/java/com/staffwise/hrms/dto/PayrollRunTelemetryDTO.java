@@ -0,0 +1,30 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRunTelemetryDTO {
+    private Long payrollRunId;
+    private String period;
+    private String operation;
+    private Integer employees;
+    private Integer partitions;
+    private Long configurationMillis;
+    private Long inputsMillis;
+    private Long calculationMillis;
+    private Long persistenceMillis;
+    private Long completionMillis;
+    private Long auditMillis;
+    private Long wallMillis;
+    private Double employeesPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,27 @@
+package com.staffwise.hrms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a streamed payroll dry-run: a computed employee, the run totals
+ * (always the last line of a complete stream) or an error that ended the stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollSimulationLineDTO {
+    public static final String DETAIL = "DETAIL";
+    public static final String SUMMARY = "SUMMARY";
+    public static final String ERROR = "ERROR";
+
+    private String type;
+    private PayrollDetailDTO detail;
+    private PayrollRunDTO summary;
+    private String message;
+}
@@ -0,0 +1,31 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of comparing a payroll run with a base run, employee by employee.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollVarianceDTO {
+    private Long baseRunId;
+    private String basePeriod;
+    private Long runId;
+    private String period;
+    private Double thresholdPercent;
+    private Integer employeesCompared;
+    private Integer joiners;
+    private Integer leavers;
+    private Integer changed;
+    private Double baseTotalNetPay;
+    private Double totalNetPay;
+    // Flagged employees in employee id order; left out when they are streamed instead
+    private List<PayrollVarianceLineDTO> lines;
+}
@@ -0,0 +1,45 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One employee flagged when comparing a payroll run with a base run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollVarianceLineDTO {
+
+    public enum VarianceType {
+        JOINER,  // paid in the run but not in the base run
+        LEAVER,  // paid in the base run but not in the run
+        CHANGED  // paid in both, with at least one field over the threshold
+    }
+
+    private Long employeeId;
+    private String empCode;
+    private String employeeName;
+    private VarianceType type;
+    private Double baseNetPay;
+    private Double netPay;
+    private List<FieldChange> changes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class FieldChange {
+        private String field;
+        private Double baseValue;
+        private Double value;
+        private Double change;
+        // Null when the base value is zero
+        private Double changePercent;
+    }
+}
@@ -0,0 +1,23 @@
+package com.staffwise.hrms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollYearToDateDTO {
+    private Long employeeId;
+    private String empCode;
+    private String employeeName;
+    private Integer financialYear;
+    private Integer runCount;
+    private Double grossSalary;
+    private Double salaryWagesTax;
+    private Double superEmployee;
+    private Double superEmployer;
+    private Double netPay;
+}
@@ -0,0 +1,26 @@
+package com.staffwise.hrms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PublicHolidayDTO {
+    private Long id;
+
+    @NotNull(message = "Holiday date is required")
+    private LocalDate holidayDate;
+
+    @NotBlank(message = "Holiday name is required")
+    @Size(max = 100, message = "Holiday name must be at most 100 characters")
+    private String name;
+}
@@ -0,0 +1,53 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+
+/**
+ * Effective-dated compensation of an employee: the salary, department and tax residency
+ * in force from effectiveFrom to effectiveTo, both inclusive. An employee's records never
+ * overlap; the latest is open-ended with a null effectiveTo. Payroll computes a period with
+ * the records covering it, so recomputing a past period does not use today's salary.
+ */
+@Entity
+@Table(name = "employee_compensation")
+@SequenceGenerator(name = "seq_generator", sequenceName = "employee_compensation_seq", allocationSize = 50)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class EmployeeCompensation extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    // Last day in force, null while the record is current
+    @Column(name = "effective_to")
+    private LocalDate effectiveTo;
+
+    // Annual basic salary in Kina
+    @Column(name = "basic_salary", nullable = false)
+    private Double basicSalary;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id")
+    private Department department;
+
+    @Column(name = "is_tax_resident", nullable = false)
+    @Builder.Default
+    private Boolean isTaxResident = true;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+}
@@ -76,4 +76,9 @@ public class EmployeeRequest extends BaseEntity {
     @Column(name = "included_in_payroll")
     @Builder.Default
     private Boolean includedInPayroll = false;
+
+    // Payroll run that consumed this overtime request
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id")
+    private PayrollRun payrollRun;
 }
@@ -0,0 +1,63 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Retro adjustment line: what one employee was under- or overpaid in a locked run,
+ * found by recomputing that run after a backdated change. Amounts are the recomputed
+ * amounts less what was already paid, in Kina, and may be negative for a recovery.
+ * The line is paid by the next run opened after it was created; until then payrollRun is null.
+ */
+@Entity
+@Table(name = "payroll_adjustments")
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_adjustment_seq", allocationSize = 50)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollAdjustment extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    // The locked run that was recomputed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_run_id", nullable = false)
+    private PayrollRun sourceRun;
+
+    // The run paying the adjustment, null while pending
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id")
+    private PayrollRun payrollRun;
+
+    @Column(name = "gross_delta", nullable = false)
+    private Double grossDelta;
+
+    @Column(name = "salary_wages_tax_delta", nullable = false)
+    private Double salaryWagesTaxDelta;
+
+    @Column(name = "super_employee_delta", nullable = false)
+    private Double superEmployeeDelta;
+
+    @Column(name = "super_employer_delta", nullable = false)
+    private Double superEmployerDelta;
+
+    @Column(name = "late_deduction_delta", nullable = false)
+    private Double lateDeductionDelta;
+
+    @Column(name = "net_pay_delta", nullable = false)
+    private Double netPayDelta;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+
+    @Column(name = "requested_by", nullable = false, length = 100)
+    private String requestedBy;
+}
@@ -0,0 +1,61 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Payroll totals of one department within a run, written when the run is computed
+ * so department views read one row instead of re-aggregating payroll details.
+ * Employees without a department are summarized under a null department.
+ */
+@Entity
+@Table(name = "payroll_department_summaries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"payroll_run_id", "department_id"}))
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_department_summary_seq", allocationSize = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollDepartmentSummary extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id", nullable = false)
+    private PayrollRun payrollRun;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id")
+    private Department department;
+
+    @Column(name = "headcount", nullable = false)
+    @Builder.Default
+    private Integer headcount = 0;
+
+    @Column(name = "total_gross")
+    @Builder.Default
+    private Double totalGross = 0.0;
+
+    @Column(name = "total_salary_wages_tax")
+    @Builder.Default
+    private Double totalSalaryWagesTax = 0.0;
+
+    @Column(name = "total_super_employee")
+    @Builder.Default
+    private Double totalSuperEmployee = 0.0;
+
+    @Column(name = "total_super_employer")
+    @Builder.Default
+    private Double totalSuperEmployer = 0.0;
+
+    @Column(name = "total_net_pay")
+    @Builder.Default
+    private Double totalNetPay = 0.0;
+
+    @Column(name = "total_overtime_hours")
+    @Builder.Default
+    private Double totalOvertimeHours = 0.0;
+}
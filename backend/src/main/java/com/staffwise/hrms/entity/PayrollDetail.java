@@ -1,5 +1,6 @@
 package com.staffwise.hrms.entity;
 
+import com.staffwise.hrms.util.MoneyUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,7 +14,7 @@ import lombok.EqualsAndHashCode;
  */
 @Entity
 @Table(name = "payroll_details")
-@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_detail_seq", allocationSize = 1)
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_detail_seq", allocationSize = 50)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +30,11 @@ public class PayrollDetail extends BaseEntity {
     @JoinColumn(name = "employee_id", nullable = false)
     private Employee employee;
 
+    // Department the employee was paid under, from their compensation for the period;
+    // null on details computed before departments were recorded here
+    @Column(name = "department_id")
+    private Long departmentId;
+
     // ============ EARNINGS (in Kina) ============
     
     @Column(name = "basic_salary", nullable = false)
@@ -63,6 +69,12 @@ public class PayrollDetail extends BaseEntity {
     @Builder.Default
     private Double leaveLoading = 0.0;
 
+    // Arrears (or a recovery, when negative) of earlier locked fortnights, from retro adjustments.
+    // Their SWT, super and late deduction differences are included in the columns below.
+    @Column(name = "retro_pay")
+    @Builder.Default
+    private Double retroPay = 0.0;
+
     // ============ STATUTORY DEDUCTIONS ============
     
     // Salary and Wages Tax (SWT) - withheld for IRC
@@ -190,26 +202,39 @@ public class PayrollDetail extends BaseEntity {
      * Calculate all totals for PNG payroll
      */
     public void calculateTotals() {
+        // Summed in whole toea so totals carry no floating point drift
+        long basic = MoneyUtil.toToeaOrZero(basicSalary);
+        long superEmployeeToea = MoneyUtil.toToeaOrZero(superEmployee);
+        long superEmployerToea = MoneyUtil.toToeaOrZero(superEmployer);
+        long swt = MoneyUtil.toToeaOrZero(salaryWagesTax);
+
         // Calculate gross salary (all earnings) - use housingAllowance, ignore legacy hra
-        this.grossSalary = basicSalary + housingAllowance + transportAllowance + mealAllowance 
-                         + specialAllowance + overtimePay + bonus + leaveLoading;
-        
+        long gross = basic + MoneyUtil.toToeaOrZero(housingAllowance) + MoneyUtil.toToeaOrZero(transportAllowance)
+                + MoneyUtil.toToeaOrZero(mealAllowance) + MoneyUtil.toToeaOrZero(specialAllowance)
+                + MoneyUtil.toToeaOrZero(overtimePay) + MoneyUtil.toToeaOrZero(bonus)
+                + MoneyUtil.toToeaOrZero(leaveLoading) + MoneyUtil.toToeaOrZero(retroPay);
+
+        // Calculate total deductions (employee portion only for net pay)
+        long deductions = swt + superEmployeeToea + MoneyUtil.toToeaOrZero(loanDeduction)
+                + MoneyUtil.toToeaOrZero(advanceDeduction) + MoneyUtil.toToeaOrZero(otherDeductions)
+                + MoneyUtil.toToeaOrZero(leaveDeduction) + MoneyUtil.toToeaOrZero(lateDeduction);
+
+        this.grossSalary = MoneyUtil.toKina(gross);
+
         // For backwards compatibility
         this.taxDeduction = salaryWagesTax;
         this.pfDeduction = superEmployee;
-        
+
         // Calculate total superannuation
-        this.superTotal = superEmployee + superEmployer;
-        
-        // Calculate total deductions (employee portion only for net pay)
-        this.totalDeductions = salaryWagesTax + superEmployee + loanDeduction 
-                             + advanceDeduction + otherDeductions + leaveDeduction + lateDeduction;
-        
+        this.superTotal = MoneyUtil.toKina(superEmployeeToea + superEmployerToea);
+
+        this.totalDeductions = MoneyUtil.toKina(deductions);
+
         // Calculate net pay (what employee receives)
-        this.netPay = grossSalary - totalDeductions;
-        
+        this.netPay = MoneyUtil.toKina(gross - deductions);
+
         // Calculate CTC (Cost to Company)
-        this.ctc = grossSalary + superEmployer;
+        this.ctc = MoneyUtil.toKina(gross + superEmployerToea);
     }
 }
 
@@ -0,0 +1,81 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background payroll computation for one fortnight.
+ * Progress is checkpointed with every committed partition of employees, so a job
+ * interrupted by a failure or a node restart resumes its PayrollRun where it stopped.
+ */
+@Entity
+@Table(name = "payroll_jobs")
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_job_seq", allocationSize = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollJob extends BaseEntity {
+
+    @Column(name = "fortnight", nullable = false)
+    private Integer fortnight;
+
+    @Column(name = "\"YEAR\"", nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PayrollJobStatus status = PayrollJobStatus.QUEUED;
+
+    // Run being computed, set once the job has started
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id")
+    private PayrollRun payrollRun;
+
+    @Column(name = "requested_by", nullable = false)
+    private String requestedBy;
+
+    @Column(name = "total_employees")
+    @Builder.Default
+    private Integer totalEmployees = 0;
+
+    // Employees committed so far, across all attempts
+    @Column(name = "employees_done")
+    @Builder.Default
+    private Integer employeesDone = 0;
+
+    // Employees already committed when the current attempt started
+    @Column(name = "resumed_from")
+    @Builder.Default
+    private Integer resumedFrom = 0;
+
+    @Column(name = "attempts")
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Refreshed with every checkpoint; a stale heartbeat marks an abandoned job
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    // "fortnight/year" while the job is queued or running, null once it finished; unique,
+    // so concurrent submissions cannot both hold a fortnight
+    @Column(name = "active_period", unique = true, length = 20)
+    private String activePeriod;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+}
@@ -0,0 +1,8 @@
+package com.staffwise.hrms.entity;
+
+public enum PayrollJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,74 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * A range of employees of a payroll run computed in cluster mode.
+ * Any node may lease a pending partition, or one whose lease expired, by bumping its
+ * version; the lease holder computes the range and marks it done in the transaction
+ * that commits its details.
+ */
+@Entity
+@Table(name = "payroll_partitions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"payroll_run_id", "partition_index"}))
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_partition_seq", allocationSize = 50)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollPartition extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id", nullable = false)
+    private PayrollRun payrollRun;
+
+    @Column(name = "partition_index", nullable = false)
+    private Integer partitionIndex;
+
+    // Inclusive range of employee ids computed by this partition
+    @Column(name = "first_employee_id", nullable = false)
+    private Long firstEmployeeId;
+
+    @Column(name = "last_employee_id", nullable = false)
+    private Long lastEmployeeId;
+
+    // Active employees in the range when the run was split
+    @Column(name = "employee_count", nullable = false)
+    private Integer employeeCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PayrollPartitionStatus status = PayrollPartitionStatus.PENDING;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Employees committed by the attempt that completed the partition
+    @Column(name = "employees_done")
+    @Builder.Default
+    private Integer employeesDone = 0;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    // Bumped by every lease change; a lease is only taken from the version a node read
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -0,0 +1,8 @@
+package com.staffwise.hrms.entity;
+
+public enum PayrollPartitionStatus {
+    PENDING,
+    LEASED,
+    DONE,
+    FAILED
+}
@@ -33,6 +33,18 @@ public class PayrollRun extends BaseEntity {
     @Column(name = "\"YEAR\"", nullable = false)
     private Integer year;
 
+    // REGULAR pays the whole roster once per fortnight; OFF_CYCLE pays a few employees
+    // outside it. PRECOMPUTED is computed ahead of the regular run and stays COMPUTING,
+    // outside the approval workflow, until the regular run takes it over.
+    // The column default covers runs saved before run types existed.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "run_type", nullable = false, columnDefinition = "varchar(20) default 'REGULAR'")
+    @Builder.Default
+    private PayrollRunType runType = PayrollRunType.REGULAR;
+
+    @Column(name = "off_cycle_reason", length = 500)
+    private String offCycleReason;
+
     // Pay period start date
     @Column(name = "period_start")
     private LocalDate periodStart;
@@ -41,8 +53,9 @@ public class PayrollRun extends BaseEntity {
     @Column(name = "period_end")
     private LocalDate periodEnd;
 
+    // varchar rather than a native ENUM, so new statuses such as COMPUTING need no column change
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "varchar(20)")
     @Builder.Default
     private PayrollStatus status = PayrollStatus.COMPUTED;
 
@@ -136,6 +149,10 @@ public class PayrollRun extends BaseEntity {
     @Column(name = "computed_at")
     private LocalDateTime computedAt;
 
+    // Digest of the configurations and working days a pre-computed run's details were computed with
+    @Column(name = "context_fingerprint", length = 32)
+    private String contextFingerprint;
+
     // Checked by Payroll Checker
     @Column(name = "checked_by")
     private String checkedBy;
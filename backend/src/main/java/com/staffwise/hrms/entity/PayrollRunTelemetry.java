@@ -0,0 +1,68 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where the time of the last computation of a run went, phase by phase, kept so slow
+ * runs can be diagnosed after the fact. Calculation and persistence are summed over the
+ * compute worker threads, so with parallel partitions they can exceed the wall time.
+ */
+@Entity
+@Table(name = "payroll_run_telemetry",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"payroll_run_id"}))
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_run_telemetry_seq", allocationSize = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollRunTelemetry extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payroll_run_id", nullable = false)
+    private PayrollRun payrollRun;
+
+    // COMPUTE or RECOMPUTE
+    @Column(name = "operation", nullable = false, length = 20)
+    private String operation;
+
+    @Column(name = "employees")
+    private Integer employees;
+
+    @Column(name = "partitions")
+    private Integer partitions;
+
+    @Column(name = "configuration_ms")
+    private Long configurationMillis;
+
+    @Column(name = "inputs_ms")
+    private Long inputsMillis;
+
+    @Column(name = "calculation_ms")
+    private Long calculationMillis;
+
+    @Column(name = "persistence_ms")
+    private Long persistenceMillis;
+
+    @Column(name = "completion_ms")
+    private Long completionMillis;
+
+    @Column(name = "audit_ms")
+    private Long auditMillis;
+
+    @Column(name = "wall_ms")
+    private Long wallMillis;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.staffwise.hrms.entity;
+
+public enum PayrollRunType {
+    REGULAR,
+    OFF_CYCLE,
+    // Computed ahead of a fortnight's regular run, which takes it over; stays COMPUTING until then
+    PRECOMPUTED
+}
@@ -1,6 +1,7 @@
 package com.staffwise.hrms.entity;
 
 public enum PayrollStatus {
+    COMPUTING,
     COMPUTED,
     CHECKED,
     REJECTED,
@@ -0,0 +1,57 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Year-to-date payroll totals of one employee in a financial year, accumulated from every
+ * PROCESSED run so tax reporting and payslips read one row instead of summing details.
+ * PNG's tax year is the calendar year, so the financial year is the payroll run's year.
+ */
+@Entity
+@Table(name = "payroll_year_to_date",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "financial_year"}))
+@SequenceGenerator(name = "seq_generator", sequenceName = "payroll_year_to_date_seq", allocationSize = 50)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PayrollYearToDate extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Column(name = "financial_year", nullable = false)
+    private Integer financialYear;
+
+    // Processed runs included in the totals
+    @Column(name = "run_count", nullable = false)
+    @Builder.Default
+    private Integer runCount = 0;
+
+    @Column(name = "gross_salary")
+    @Builder.Default
+    private Double grossSalary = 0.0;
+
+    @Column(name = "salary_wages_tax")
+    @Builder.Default
+    private Double salaryWagesTax = 0.0;
+
+    @Column(name = "super_employee")
+    @Builder.Default
+    private Double superEmployee = 0.0;
+
+    @Column(name = "super_employer")
+    @Builder.Default
+    private Double superEmployer = 0.0;
+
+    @Column(name = "net_pay")
+    @Builder.Default
+    private Double netPay = 0.0;
+}
@@ -0,0 +1,31 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+
+/**
+ * A gazetted public holiday: not a working day for payroll, leave or attendance.
+ */
+@Entity
+@Table(name = "public_holidays",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"holiday_date"}))
+@SequenceGenerator(name = "seq_generator", sequenceName = "public_holiday_seq", allocationSize = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class PublicHoliday extends BaseEntity {
+
+    @Column(name = "holiday_date", nullable = false)
+    private LocalDate holidayDate;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+}
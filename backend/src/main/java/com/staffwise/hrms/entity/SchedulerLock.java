@@ -0,0 +1,40 @@
+package com.staffwise.hrms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named lease letting one node at a time run a scheduled task.
+ * A node takes the lock by moving lockedUntil on from a time already past, in one
+ * conditional update, so exactly one of several nodes trying at once gets it.
+ */
+@Entity
+@Table(name = "scheduler_locks", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
+@SequenceGenerator(name = "seq_generator", sequenceName = "scheduler_lock_seq", allocationSize = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class SchedulerLock extends BaseEntity {
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    // Free once this time has passed, also when the holder stopped without releasing it
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    // Token of the current holder, needed to release the lock early
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+}
@@ -0,0 +1,11 @@
+package com.staffwise.hrms.exception;
+
+/**
+ * Exception thrown when batch work is refused because every batch thread is busy and
+ * the queue in front of them is full.
+ */
+public class BatchCapacityExceededException extends RuntimeException {
+    public BatchCapacityExceededException(String message) {
+        super(message);
+    }
+}
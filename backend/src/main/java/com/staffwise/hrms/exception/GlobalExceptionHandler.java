@@ -74,6 +74,13 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(BatchCapacityExceededException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBatchCapacityExceeded(BatchCapacityExceededException ex) {
+        log.warn("Batch capacity exceeded: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ApiResponse<Object>> handleIllegalState(IllegalStateException ex) {
         log.error("Illegal state: {}", ex.getMessage());
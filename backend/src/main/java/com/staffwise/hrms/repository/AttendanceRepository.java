@@ -1,14 +1,20 @@
 package com.staffwise.hrms.repository;
 
 import com.staffwise.hrms.entity.Attendance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -58,6 +64,44 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
                                    @Param("startDate") LocalDate startDate, 
                                    @Param("endDate") LocalDate endDate);
 
+    // Payroll prefetch - present and late day counts for every employee in a date range
+    @Query("SELECT a.employee.id, " +
+           "SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.isLate = true THEN 1 ELSE 0 END) " +
+           "FROM Attendance a WHERE a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY a.employee.id")
+    List<Object[]> countAttendanceByEmployeeInPeriod(@Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
+    // Incremental recompute - present and late day counts for selected employees in a date range
+    @Query("SELECT a.employee.id, " +
+           "SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.isLate = true THEN 1 ELSE 0 END) " +
+           "FROM Attendance a WHERE a.attendanceDate BETWEEN :startDate AND :endDate " +
+           "AND a.employee.id IN :empIds GROUP BY a.employee.id")
+    List<Object[]> countAttendanceForEmployeesInPeriod(@Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate,
+                                                       @Param("empIds") Collection<Long> employeeIds);
+
+    /**
+     * Payroll backfill - one row per attendance day in a date range spanning several fortnights:
+     * employee id, date, present (1/0) and late (1/0). Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.employee.id, a.attendanceDate, " +
+           "CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END, " +
+           "CASE WHEN a.isLate = true THEN 1 ELSE 0 END " +
+           "FROM Attendance a WHERE a.attendanceDate BETWEEN :startDate AND :endDate")
+    Stream<Object[]> streamAttendanceDaysInPeriod(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    // Incremental recompute - employees whose attendance in a date range changed after a point in time
+    @Query("SELECT DISTINCT a.employee.id FROM Attendance a " +
+           "WHERE a.attendanceDate BETWEEN :startDate AND :endDate AND a.updatedAt > :since")
+    List<Long> findEmployeeIdsWithAttendanceChangedSince(@Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate,
+                                                         @Param("since") LocalDateTime since);
+
     @Query("SELECT a FROM Attendance a WHERE a.employee.department.id = :deptId " +
            "AND a.attendanceDate = :date")
     List<Attendance> findByDepartmentAndDate(@Param("deptId") Long departmentId, @Param("date") LocalDate date);
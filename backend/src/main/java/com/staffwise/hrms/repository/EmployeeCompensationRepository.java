@@ -0,0 +1,49 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.EmployeeCompensation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmployeeCompensationRepository extends JpaRepository<EmployeeCompensation, Long> {
+
+    /**
+     * Records in force on any day of a date range, as rows for
+     * {@link com.staffwise.hrms.service.CompensationIndex}: employee id, effective from,
+     * effective to, basic salary, department id and tax residency, ordered by employee
+     * and effective date.
+     */
+    String INDEX_ROWS = "SELECT c.employee.id, c.effectiveFrom, c.effectiveTo, c.basicSalary, " +
+            "c.department.id, c.isTaxResident FROM EmployeeCompensation c " +
+            "WHERE c.effectiveFrom <= :endDate AND (c.effectiveTo IS NULL OR c.effectiveTo >= :startDate) ";
+
+    @Query(INDEX_ROWS + "ORDER BY c.employee.id, c.effectiveFrom")
+    List<Object[]> findIndexRowsInPeriod(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+
+    @Query(INDEX_ROWS + "AND c.employee.id IN :empIds ORDER BY c.employee.id, c.effectiveFrom")
+    List<Object[]> findIndexRowsForEmployeesInPeriod(@Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate,
+                                                     @Param("empIds") Collection<Long> employeeIds);
+
+    List<EmployeeCompensation> findByEmployeeIdOrderByEffectiveFrom(Long employeeId);
+
+    // Records in force on a day whose salary or department the employee record does not hold,
+    // such as future-dated changes that took effect since
+    @Query("SELECT c FROM EmployeeCompensation c JOIN FETCH c.employee e " +
+           "LEFT JOIN c.department cd LEFT JOIN e.department ed " +
+           "WHERE c.effectiveFrom <= :day AND (c.effectiveTo IS NULL OR c.effectiveTo >= :day) " +
+           "AND (e.basicSalary IS NULL OR e.basicSalary <> c.basicSalary OR COALESCE(cd.id, 0) <> COALESCE(ed.id, 0))")
+    List<EmployeeCompensation> findInForceNotOnEmployee(@Param("day") LocalDate day);
+
+    // Recompute and retro - employees whose compensation history was written since a time
+    @Query("SELECT DISTINCT c.employee.id FROM EmployeeCompensation c WHERE c.updatedAt > :since")
+    List<Long> findEmployeeIdsChangedSince(@Param("since") LocalDateTime since);
+}
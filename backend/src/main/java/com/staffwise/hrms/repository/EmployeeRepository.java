@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,16 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     List<Employee> findByIsActiveTrue();
 
+    long countByIsActiveTrue();
+
+    List<Employee> findByIsActiveTrueAndIdBetween(Long firstId, Long lastId);
+
+    @Query("SELECT e.id FROM Employee e WHERE e.isActive = true ORDER BY e.id")
+    List<Long> findActiveIds();
+
+    @Query("SELECT e.id FROM Employee e WHERE e.updatedAt > :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
     List<Employee> findByManagerId(Long managerId);
 
     @Query("SELECT e FROM Employee e WHERE e.department.id = :deptId AND e.isActive = true")
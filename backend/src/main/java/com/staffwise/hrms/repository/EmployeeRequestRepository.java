@@ -1,14 +1,19 @@
 package com.staffwise.hrms.repository;
 
 import com.staffwise.hrms.entity.EmployeeRequest;
+import com.staffwise.hrms.entity.PayrollRun;
 import com.staffwise.hrms.entity.RequestStatus;
 import com.staffwise.hrms.entity.RequestType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -41,6 +46,99 @@ public interface EmployeeRequestRepository extends JpaRepository<EmployeeRequest
                                                             @Param("startDate") LocalDate startDate,
                                                             @Param("endDate") LocalDate endDate);
 
+    // Payroll prefetch - approved leave days for every employee in a date range
+    @Query("SELECT r.employee.id, SUM(r.totalDays) FROM EmployeeRequest r " +
+           "WHERE r.requestType = 'LEAVE' AND r.status = 'APPROVED' " +
+           "AND ((r.fromDate BETWEEN :startDate AND :endDate) OR (r.toDate BETWEEN :startDate AND :endDate)) " +
+           "GROUP BY r.employee.id")
+    List<Object[]> sumApprovedLeaveDaysByEmployeeInPeriod(@Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate);
+
+    // Payroll backfill - approved leave requests starting or ending in a date range: employee id, from, to, days
+    @Query("SELECT r.employee.id, r.fromDate, r.toDate, r.totalDays FROM EmployeeRequest r " +
+           "WHERE r.requestType = 'LEAVE' AND r.status = 'APPROVED' " +
+           "AND ((r.fromDate BETWEEN :startDate AND :endDate) OR (r.toDate BETWEEN :startDate AND :endDate))")
+    List<Object[]> findApprovedLeavePeriodsInPeriod(@Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate);
+
+    // Payroll dry run - approved overtime hours not yet paid, per employee, in a date range
+    @Query("SELECT r.employee.id, SUM(r.overtimeHours) FROM EmployeeRequest r " +
+           "WHERE r.requestType = 'OVERTIME' AND r.status = 'APPROVED' " +
+           "AND r.overtimeDate BETWEEN :startDate AND :endDate AND r.includedInPayroll = false " +
+           "GROUP BY r.employee.id")
+    List<Object[]> sumApprovedOvertimeNotInPayrollInPeriod(@Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate);
+
+    // Payroll prefetch - overtime hours consumed by a run, per employee
+    @Query("SELECT r.employee.id, SUM(r.overtimeHours) FROM EmployeeRequest r " +
+           "WHERE r.payrollRun.id = :runId GROUP BY r.employee.id")
+    List<Object[]> sumOvertimeHoursByPayrollRun(@Param("runId") Long payrollRunId);
+
+    // Payroll backfill - overtime hours consumed by several runs, per run and employee
+    @Query("SELECT r.payrollRun.id, r.employee.id, SUM(r.overtimeHours) FROM EmployeeRequest r " +
+           "WHERE r.payrollRun.id IN :runIds GROUP BY r.payrollRun.id, r.employee.id")
+    List<Object[]> sumOvertimeHoursByPayrollRuns(@Param("runIds") Collection<Long> payrollRunIds);
+
+    /**
+     * Consume all approved, unpaid overtime of active employees in a run's period:
+     * one statement marks it as included in payroll and stamps it with the run.
+     * Employees paid off-cycle for the run's fortnight are not in the run, so their
+     * overtime approved since is left for a later run.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmployeeRequest r SET r.includedInPayroll = true, r.payrollRun = :run " +
+           "WHERE r.requestType = 'OVERTIME' AND r.status = 'APPROVED' AND r.includedInPayroll = false " +
+           "AND r.overtimeDate BETWEEN :startDate AND :endDate " +
+           "AND r.employee.id IN (SELECT e.id FROM Employee e WHERE e.isActive = true) " +
+           "AND r.employee.id NOT IN (SELECT pd.employee.id FROM PayrollDetail pd JOIN pd.payrollRun o, PayrollRun own " +
+           "WHERE own = :run AND o.fortnight = own.fortnight AND o.year = own.year AND o.runType = 'OFF_CYCLE')")
+    int consumeApprovedOvertime(@Param("run") PayrollRun payrollRun,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    // Off-cycle - approved overtime of the listed employees only, active or not
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmployeeRequest r SET r.includedInPayroll = true, r.payrollRun = :run " +
+           "WHERE r.requestType = 'OVERTIME' AND r.status = 'APPROVED' AND r.includedInPayroll = false " +
+           "AND r.overtimeDate BETWEEN :startDate AND :endDate AND r.employee.id IN :empIds")
+    int consumeApprovedOvertimeForEmployees(@Param("run") PayrollRun payrollRun,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate,
+                                            @Param("empIds") Collection<Long> employeeIds);
+
+    // Undo consumeApprovedOvertime for a run that is recomputed or discarded
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmployeeRequest r SET r.includedInPayroll = false, r.payrollRun = null " +
+           "WHERE r.payrollRun.id = :runId")
+    int releaseOvertimeByPayrollRun(@Param("runId") Long payrollRunId);
+
+    // Incremental recompute - approved leave days for selected employees in a date range
+    @Query("SELECT r.employee.id, SUM(r.totalDays) FROM EmployeeRequest r " +
+           "WHERE r.requestType = 'LEAVE' AND r.status = 'APPROVED' AND r.employee.id IN :empIds " +
+           "AND ((r.fromDate BETWEEN :startDate AND :endDate) OR (r.toDate BETWEEN :startDate AND :endDate)) " +
+           "GROUP BY r.employee.id")
+    List<Object[]> sumApprovedLeaveDaysForEmployeesInPeriod(@Param("startDate") LocalDate startDate,
+                                                            @Param("endDate") LocalDate endDate,
+                                                            @Param("empIds") Collection<Long> employeeIds);
+
+    // Incremental recompute - overtime hours consumed by a run for selected employees
+    @Query("SELECT r.employee.id, SUM(r.overtimeHours) FROM EmployeeRequest r " +
+           "WHERE r.payrollRun.id = :runId AND r.employee.id IN :empIds GROUP BY r.employee.id")
+    List<Object[]> sumOvertimeHoursByPayrollRunForEmployees(@Param("runId") Long payrollRunId,
+                                                            @Param("empIds") Collection<Long> employeeIds);
+
+    // Incremental recompute - employees with leave or overtime in a date range changed after a point in time
+    @Query("SELECT DISTINCT r.employee.id FROM EmployeeRequest r WHERE r.updatedAt > :since AND (" +
+           "(r.requestType = 'LEAVE' AND ((r.fromDate BETWEEN :startDate AND :endDate) " +
+           "OR (r.toDate BETWEEN :startDate AND :endDate))) " +
+           "OR (r.requestType = 'OVERTIME' AND r.overtimeDate BETWEEN :startDate AND :endDate))")
+    List<Long> findEmployeeIdsWithRequestsChangedSince(@Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate,
+                                                       @Param("since") LocalDateTime since);
+
     @Query("SELECT r FROM EmployeeRequest r WHERE r.employee.department.id = :deptId " +
            "AND r.requestType = :type AND r.status = 'SUBMITTED'")
     List<EmployeeRequest> findPendingByDepartmentAndType(@Param("deptId") Long departmentId,
@@ -0,0 +1,85 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollAdjustment;
+import com.staffwise.hrms.entity.PayrollRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PayrollAdjustmentRepository extends JpaRepository<PayrollAdjustment, Long> {
+
+    // Amount columns summed per employee, in the order PayrollInputTable.RetroAmounts takes them
+    String AMOUNT_SUMS = "SUM(a.grossDelta), SUM(a.salaryWagesTaxDelta), SUM(a.superEmployeeDelta), " +
+            "SUM(a.superEmployerDelta), SUM(a.lateDeductionDelta) ";
+
+    @Query("SELECT a FROM PayrollAdjustment a JOIN FETCH a.employee JOIN FETCH a.sourceRun " +
+           "WHERE a.payrollRun IS NULL ORDER BY a.employee.id, a.sourceRun.periodStart")
+    List<PayrollAdjustment> findPending();
+
+    @Query("SELECT a FROM PayrollAdjustment a JOIN FETCH a.employee JOIN FETCH a.sourceRun " +
+           "WHERE a.payrollRun.id = :runId ORDER BY a.employee.id, a.sourceRun.periodStart")
+    List<PayrollAdjustment> findByPayrollRun(@Param("runId") Long payrollRunId);
+
+    /**
+     * Stamp every pending adjustment of an active employee with the run that pays it,
+     * in one statement, as consumeApprovedOvertime does for overtime, and like it skipping
+     * employees paid off-cycle for the run's fortnight.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollAdjustment a SET a.payrollRun = :run WHERE a.payrollRun IS NULL " +
+           "AND a.employee.id IN (SELECT e.id FROM Employee e WHERE e.isActive = true) " +
+           "AND a.employee.id NOT IN (SELECT pd.employee.id FROM PayrollDetail pd JOIN pd.payrollRun o, PayrollRun own " +
+           "WHERE own = :run AND o.fortnight = own.fortnight AND o.year = own.year AND o.runType = 'OFF_CYCLE')")
+    int consumePending(@Param("run") PayrollRun payrollRun);
+
+    // Off-cycle - pending adjustments of the listed employees only, active or not
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollAdjustment a SET a.payrollRun = :run WHERE a.payrollRun IS NULL " +
+           "AND a.employee.id IN :empIds")
+    int consumePendingForEmployees(@Param("run") PayrollRun payrollRun,
+                                   @Param("empIds") Collection<Long> employeeIds);
+
+    // Undo consumePending for a run that is recomputed or discarded
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollAdjustment a SET a.payrollRun = null WHERE a.payrollRun.id = :runId")
+    int releaseByPayrollRun(@Param("runId") Long payrollRunId);
+
+    @Query("SELECT a.employee.id, " + AMOUNT_SUMS + "FROM PayrollAdjustment a " +
+           "WHERE a.payrollRun.id = :runId GROUP BY a.employee.id")
+    List<Object[]> sumByPayrollRun(@Param("runId") Long payrollRunId);
+
+    @Query("SELECT a.employee.id, " + AMOUNT_SUMS + "FROM PayrollAdjustment a " +
+           "WHERE a.payrollRun.id = :runId AND a.employee.id IN :empIds GROUP BY a.employee.id")
+    List<Object[]> sumByPayrollRunForEmployees(@Param("runId") Long payrollRunId,
+                                               @Param("empIds") Collection<Long> employeeIds);
+
+    // Dry run - adjustments not yet paid by any run
+    @Query("SELECT a.employee.id, " + AMOUNT_SUMS + "FROM PayrollAdjustment a " +
+           "WHERE a.payrollRun IS NULL AND a.employee.id IN (SELECT e.id FROM Employee e WHERE e.isActive = true) " +
+           "GROUP BY a.employee.id")
+    List<Object[]> sumPending();
+
+    // Retro - what earlier retro passes already emitted for a locked run, paid or not
+    @Query("SELECT a.employee.id, " + AMOUNT_SUMS + "FROM PayrollAdjustment a " +
+           "WHERE a.sourceRun.id = :runId AND a.employee.id IN :empIds GROUP BY a.employee.id")
+    List<Object[]> sumBySourceRunForEmployees(@Param("runId") Long sourceRunId,
+                                              @Param("empIds") Collection<Long> employeeIds);
+
+    // Reopen - whether retro already corrected a processed run
+    boolean existsBySourceRunId(Long sourceRunId);
+
+    // Incremental recompute - employees whose adjustments a run pays or could pay
+    @Query("SELECT DISTINCT a.employee.id FROM PayrollAdjustment a " +
+           "WHERE a.payrollRun IS NULL OR a.payrollRun.id = :runId")
+    List<Long> findEmployeeIdsPendingOrPaidBy(@Param("runId") Long payrollRunId);
+}
@@ -0,0 +1,29 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollDepartmentSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PayrollDepartmentSummaryRepository extends JpaRepository<PayrollDepartmentSummary, Long> {
+
+    @Query("SELECT s FROM PayrollDepartmentSummary s LEFT JOIN FETCH s.department d " +
+           "WHERE s.payrollRun.id = :runId ORDER BY d.name")
+    List<PayrollDepartmentSummary> findByPayrollRunIdWithDepartment(@Param("runId") Long payrollRunId);
+
+    boolean existsByPayrollRunId(Long payrollRunId);
+
+    // Runs computed before summaries existed, for the startup backfill
+    @Query("SELECT r.id FROM PayrollRun r WHERE r.status <> 'COMPUTING' AND r.runType <> 'PRECOMPUTED' " +
+           "AND NOT EXISTS (SELECT s.id FROM PayrollDepartmentSummary s WHERE s.payrollRun = r) ORDER BY r.id")
+    List<Long> findRunIdsWithoutSummaries();
+
+    @Modifying
+    @Query("DELETE FROM PayrollDepartmentSummary s WHERE s.payrollRun.id = :runId")
+    int deleteByPayrollRunId(@Param("runId") Long payrollRunId);
+}
@@ -1,27 +1,85 @@
 package com.staffwise.hrms.repository;
 
+import com.staffwise.hrms.dto.PayrollDetailDTO;
 import com.staffwise.hrms.entity.PayrollDetail;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PayrollDetailRepository extends JpaRepository<PayrollDetail, Long> {
 
+    // Detail rows of a run projected straight into DTOs: one query, no entities or lazy loads.
+    // The department is the one recorded on the detail, or the employee's current one on older details.
+    String DETAIL_VIEW = "SELECT new com.staffwise.hrms.dto.PayrollDetailDTO(" +
+            "pd.id, e.id, e.firstName, e.lastName, e.empCode, d.name, " +
+            "pd.basicSalary, pd.hra, pd.transportAllowance, pd.medicalAllowance, pd.specialAllowance, " +
+            "pd.overtimePay, pd.bonus, pd.retroPay, pd.pfDeduction, pd.taxDeduction, pd.insuranceDeduction, " +
+            "pd.loanDeduction, pd.otherDeductions, pd.leaveDeduction, pd.lateDeduction, " +
+            "pd.totalWorkingDays, pd.daysWorked, pd.leavesTaken, pd.approvedOvertimeHours, pd.lateCount, " +
+            "pd.grossSalary, pd.totalDeductions, pd.netPay, pd.remarks) " +
+            "FROM PayrollDetail pd JOIN pd.employee e " +
+            "LEFT JOIN Department d ON d.id = COALESCE(pd.departmentId, e.department.id) " +
+            "WHERE pd.payrollRun.id = :runId ";
+
+    @Query(DETAIL_VIEW + "ORDER BY pd.id")
+    List<PayrollDetailDTO> findDetailViewsByRun(@Param("runId") Long payrollRunId);
+
+    @Query(DETAIL_VIEW + "AND pd.id > :afterId ORDER BY pd.id")
+    List<PayrollDetailDTO> findDetailViewsByRunAfterId(@Param("runId") Long payrollRunId,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    @Query(DETAIL_VIEW + "AND e.empCode > :afterEmpCode ORDER BY e.empCode")
+    List<PayrollDetailDTO> findDetailViewsByRunAfterEmpCode(@Param("runId") Long payrollRunId,
+                                                            @Param("afterEmpCode") String afterEmpCode,
+                                                            Pageable pageable);
+
+    /**
+     * Stream a run's detail rows in id order. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DETAIL_VIEW + "ORDER BY pd.id")
+    Stream<PayrollDetailDTO> streamDetailViewsByRun(@Param("runId") Long payrollRunId);
+
+    /**
+     * Stream the detail rows of two runs ordered by employee id, then run id, so an employee's
+     * rows from both runs are adjacent: employee id, run id, emp code, first and last name and
+     * the amounts compared by {@link com.staffwise.hrms.service.PayrollVarianceService}.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.id, pd.payrollRun.id, e.empCode, e.firstName, e.lastName, " +
+           "pd.basicSalary, pd.overtimePay, pd.retroPay, pd.grossSalary, pd.salaryWagesTax, pd.superEmployee, " +
+           "pd.lateDeduction, pd.totalDeductions, pd.netPay " +
+           "FROM PayrollDetail pd JOIN pd.employee e " +
+           "WHERE pd.payrollRun.id IN (:baseRunId, :runId) ORDER BY e.id, pd.payrollRun.id")
+    Stream<Object[]> streamVarianceRowsByRuns(@Param("baseRunId") Long baseRunId, @Param("runId") Long runId);
+
     List<PayrollDetail> findByPayrollRunId(Long payrollRunId);
 
     Optional<PayrollDetail> findByPayrollRunIdAndEmployeeId(Long payrollRunId, Long employeeId);
 
+    List<PayrollDetail> findByPayrollRunIdAndEmployeeIdIn(Long payrollRunId, Collection<Long> employeeIds);
+
     @Query("SELECT pd FROM PayrollDetail pd WHERE pd.employee.id = :empId " +
            "ORDER BY pd.payrollRun.year DESC, pd.payrollRun.fortnight DESC")
     List<PayrollDetail> findByEmployeeIdOrderByPeriodDesc(@Param("empId") Long employeeId);
 
     @Query("SELECT pd FROM PayrollDetail pd WHERE pd.employee.id = :empId " +
-           "AND pd.payrollRun.fortnight = :fortnight AND pd.payrollRun.year = :year")
+           "AND pd.payrollRun.fortnight = :fortnight AND pd.payrollRun.year = :year " +
+           "AND pd.payrollRun.runType <> 'PRECOMPUTED'")
     Optional<PayrollDetail> findByEmployeeAndPeriod(@Param("empId") Long employeeId,
                                                      @Param("fortnight") Integer fortnight,
                                                      @Param("year") Integer year);
@@ -30,11 +88,61 @@ public interface PayrollDetailRepository extends JpaRepository<PayrollDetail, Lo
            "AND pd.payrollRun.status = 'PROCESSED' ORDER BY pd.payrollRun.year DESC, pd.payrollRun.fortnight DESC")
     List<PayrollDetail> findProcessedPayslips(@Param("empId") Long employeeId);
 
+    @Query("SELECT pd.employee.id FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId")
+    List<Long> findEmployeeIdsByPayrollRunId(@Param("runId") Long payrollRunId);
+
+    // Off-cycle - employees of a list already paid for a fortnight by a regular or off-cycle run
+    @Query("SELECT pd.employee.id FROM PayrollDetail pd WHERE pd.payrollRun.fortnight = :fortnight " +
+           "AND pd.payrollRun.year = :year AND pd.payrollRun.runType <> 'PRECOMPUTED' " +
+           "AND pd.employee.id IN :empIds ORDER BY pd.employee.id")
+    List<Long> findEmployeeIdsPaidInPeriod(@Param("fortnight") Integer fortnight,
+                                           @Param("year") Integer year,
+                                           @Param("empIds") Collection<Long> employeeIds);
+
+    // Employees paid for a fortnight by off-cycle runs, whom its regular run skips
+    @Query("SELECT pd.employee.id FROM PayrollDetail pd WHERE pd.payrollRun.fortnight = :fortnight " +
+           "AND pd.payrollRun.year = :year AND pd.payrollRun.runType = 'OFF_CYCLE'")
+    List<Long> findEmployeeIdsPaidOffCycle(@Param("fortnight") Integer fortnight, @Param("year") Integer year);
+
+    /**
+     * Amounts needed for run totals and department summaries, in employee id order:
+     * department id (null when unassigned), gross, total deductions, net pay, SWT,
+     * super employee, super employer and approved overtime hours. The department is the
+     * one recorded on the detail, or the employee's current one on older details.
+     */
+    @Query("SELECT COALESCE(pd.departmentId, e.department.id), pd.grossSalary, pd.totalDeductions, pd.netPay, " +
+           "pd.salaryWagesTax, pd.superEmployee, pd.superEmployer, pd.approvedOvertimeHours " +
+           "FROM PayrollDetail pd JOIN pd.employee e " +
+           "WHERE pd.payrollRun.id = :runId ORDER BY e.id")
+    List<Object[]> findAmountsByPayrollRunOrderByEmployee(@Param("runId") Long payrollRunId);
+
+    // Year-to-date accumulation - the amounts a run adds per employee, in employee id order
+    @Query("SELECT pd.employee.id, pd.grossSalary, pd.salaryWagesTax, pd.superEmployee, pd.superEmployer, pd.netPay " +
+           "FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId ORDER BY pd.employee.id")
+    List<Object[]> findYearToDateAmountsByPayrollRun(@Param("runId") Long payrollRunId);
+
+    // Year-to-date rebuild - run count and amounts of every processed run in a year, per employee
+    @Query("SELECT pd.employee.id, COUNT(pd), SUM(pd.grossSalary), SUM(pd.salaryWagesTax), " +
+           "SUM(pd.superEmployee), SUM(pd.superEmployer), SUM(pd.netPay) " +
+           "FROM PayrollDetail pd WHERE pd.payrollRun.year = :year AND pd.payrollRun.status = 'PROCESSED' " +
+           "GROUP BY pd.employee.id")
+    List<Object[]> sumProcessedAmountsByEmployeeForYear(@Param("year") Integer year);
+
+    @Modifying
+    @Query("DELETE FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId")
+    int deleteByPayrollRunId(@Param("runId") Long payrollRunId);
+
+    // Pre-computation - drops the details of employees to compute again
+    @Modifying
+    @Query("DELETE FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId AND pd.employee.id IN :empIds")
+    int deleteByPayrollRunIdAndEmployeeIdIn(@Param("runId") Long payrollRunId,
+                                            @Param("empIds") Collection<Long> employeeIds);
+
     @Query("SELECT SUM(pd.netPay) FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId")
     Double sumNetPayByPayrollRun(@Param("runId") Long payrollRunId);
 
     @Query("SELECT pd FROM PayrollDetail pd WHERE pd.payrollRun.id = :runId " +
-           "AND pd.employee.department.id = :deptId")
+           "AND COALESCE(pd.departmentId, pd.employee.department.id) = :deptId")
     List<PayrollDetail> findByPayrollRunAndDepartment(@Param("runId") Long payrollRunId,
                                                        @Param("deptId") Long departmentId);
 }
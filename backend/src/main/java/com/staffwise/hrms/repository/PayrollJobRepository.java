@@ -0,0 +1,53 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollJob;
+import com.staffwise.hrms.entity.PayrollJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PayrollJobRepository extends JpaRepository<PayrollJob, Long> {
+
+    boolean existsByFortnightAndYearAndStatusIn(Integer fortnight, Integer year, Collection<PayrollJobStatus> statuses);
+
+    List<PayrollJob> findByStatusInAndHeartbeatAtBefore(Collection<PayrollJobStatus> statuses, LocalDateTime before);
+
+    List<PayrollJob> findTop20ByOrderByCreatedAtDesc();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.employeesDone = j.employeesDone + :employees, j.heartbeatAt = :now " +
+           "WHERE j.id = :jobId")
+    int recordProgress(@Param("jobId") Long jobId, @Param("employees") int employees, @Param("now") LocalDateTime now);
+
+    /**
+     * Start an attempt of a queued or running job. Only succeeds for the caller that still sees
+     * the attempt count it dispatched the job with, so a job dispatched on two nodes, e.g. queued
+     * here while the sweep on another node took it over, runs on one of them.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.status = :running, j.attempts = j.attempts + 1, j.heartbeatAt = :now " +
+           "WHERE j.id = :jobId AND j.attempts = :seenAttempts AND j.status IN :statuses")
+    int startAttempt(@Param("jobId") Long jobId, @Param("seenAttempts") int seenAttempts,
+                     @Param("running") PayrollJobStatus running, @Param("statuses") Collection<PayrollJobStatus> statuses,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Take over an abandoned job. Only succeeds for the caller that still sees the
+     * heartbeat it read, so two nodes cannot resume the same job.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.heartbeatAt = :now WHERE j.id = :jobId AND j.heartbeatAt = :seenHeartbeat")
+    int claimJob(@Param("jobId") Long jobId, @Param("seenHeartbeat") LocalDateTime seenHeartbeat,
+                 @Param("now") LocalDateTime now);
+}
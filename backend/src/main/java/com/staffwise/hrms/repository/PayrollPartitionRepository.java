@@ -0,0 +1,65 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollPartition;
+import com.staffwise.hrms.entity.PayrollPartitionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollPartitionRepository extends JpaRepository<PayrollPartition, Long> {
+
+    List<PayrollPartition> findByPayrollRunIdOrderByPartitionIndex(Long payrollRunId);
+
+    long countByPayrollRunIdAndStatusNot(Long payrollRunId, PayrollPartitionStatus status);
+
+    // Partitions free to lease: never leased, or leased by a node whose lease ran out
+    @Query("SELECT p FROM PayrollPartition p WHERE p.status = 'PENDING' " +
+           "OR (p.status = 'LEASED' AND p.leaseExpiresAt < :now) " +
+           "ORDER BY p.payrollRun.id, p.partitionIndex")
+    List<PayrollPartition> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Lease a partition. Only succeeds for the caller that still sees the version it read,
+     * so two nodes cannot hold the same partition.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollPartition p SET p.status = 'LEASED', p.leaseOwner = :owner, " +
+           "p.leaseExpiresAt = :expiresAt, p.attempts = p.attempts + 1, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.version = :seenVersion")
+    int claim(@Param("id") Long partitionId, @Param("seenVersion") Long seenVersion,
+              @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Mark a leased partition done inside the transaction writing its details;
+    // matches nothing once the lease was lost to another node
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("UPDATE PayrollPartition p SET p.status = 'DONE', p.employeesDone = :employees, " +
+           "p.leaseExpiresAt = null, p.errorMessage = null, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.version = :leasedVersion")
+    int complete(@Param("id") Long partitionId, @Param("leasedVersion") Long leasedVersion,
+                 @Param("employees") int employees);
+
+    // Give a leased partition up after a failure, back to PENDING or to FAILED
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollPartition p SET p.status = :status, p.leaseOwner = null, p.leaseExpiresAt = null, " +
+           "p.errorMessage = :error, p.version = p.version + 1 WHERE p.id = :id AND p.version = :leasedVersion")
+    int release(@Param("id") Long partitionId, @Param("leasedVersion") Long leasedVersion,
+                @Param("status") PayrollPartitionStatus status, @Param("error") String errorMessage);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollPartition p SET p.status = 'PENDING', p.attempts = 0, p.errorMessage = null, " +
+           "p.version = p.version + 1 WHERE p.payrollRun.id = :runId AND p.status = 'FAILED'")
+    int retryFailed(@Param("runId") Long payrollRunId);
+}
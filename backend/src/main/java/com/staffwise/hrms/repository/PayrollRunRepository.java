@@ -1,24 +1,44 @@
 package com.staffwise.hrms.repository;
 
 import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollRunType;
 import com.staffwise.hrms.entity.PayrollStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
 
-    Optional<PayrollRun> findByFortnightAndYear(Integer fortnight, Integer year);
+    // The regular run of a fortnight; off-cycle runs for the same period are not counted
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.fortnight = :fortnight AND pr.year = :year AND pr.runType = 'REGULAR'")
+    Optional<PayrollRun> findByFortnightAndYear(@Param("fortnight") Integer fortnight, @Param("year") Integer year);
 
-    List<PayrollRun> findByYear(Integer year);
+    // The run pre-computed for a fortnight ahead of its regular run
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.fortnight = :fortnight AND pr.year = :year AND pr.runType = 'PRECOMPUTED'")
+    Optional<PayrollRun> findPrecomputed(@Param("fortnight") Integer fortnight, @Param("year") Integer year);
+
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.year = :year AND pr.runType <> 'PRECOMPUTED'")
+    List<PayrollRun> findByYear(@Param("year") Integer year);
+
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.year = :year AND pr.fortnight BETWEEN :fromFortnight AND :toFortnight " +
+           "AND pr.runType = 'REGULAR' ORDER BY pr.fortnight")
+    List<PayrollRun> findByYearAndFortnightBetweenOrderByFortnight(@Param("year") Integer year,
+                                                                   @Param("fromFortnight") Integer fromFortnight,
+                                                                   @Param("toFortnight") Integer toFortnight);
 
     List<PayrollRun> findByStatus(PayrollStatus status);
 
+    // Retro - runs in a status whose period ends on or after a date, oldest first
+    List<PayrollRun> findByStatusAndPeriodEndGreaterThanEqualOrderByPeriodStart(PayrollStatus status, LocalDate periodEnd);
+
     @Query("SELECT pr FROM PayrollRun pr WHERE pr.status IN ('COMPUTED', 'REJECTED') ORDER BY pr.year DESC, pr.fortnight DESC")
     List<PayrollRun> findPayrollsForChecking();
 
@@ -29,14 +49,28 @@ public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
     @Query("SELECT pr FROM PayrollRun pr WHERE pr.status = 'AUTHORIZED' ORDER BY pr.year DESC, pr.fortnight DESC")
     List<PayrollRun> findPayrollsForProcessing();
 
-    @Query("SELECT pr FROM PayrollRun pr ORDER BY pr.year DESC, pr.fortnight DESC")
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.runType <> 'PRECOMPUTED' ORDER BY pr.year DESC, pr.fortnight DESC")
     List<PayrollRun> findAllOrderByPeriodDesc();
 
+    // Any run but a pre-computed one, which stays out of sight until its regular run takes it over
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.id = :id AND pr.runType <> 'PRECOMPUTED'")
+    Optional<PayrollRun> findVisibleById(@Param("id") Long id);
+
+    Optional<PayrollRun> findFirstByRunTypeAndPeriodStartBeforeOrderByPeriodStartDesc(PayrollRunType runType, LocalDate periodStart);
+
+    // Cluster compute - claims a fully computed run for completion exactly once, whichever node
+    // finishes last; joins the completion's transaction, so a failed completion leaves it COMPUTING
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollRun r SET r.status = 'CHECKED' WHERE r.id = :runId AND r.status = 'COMPUTING'")
+    int claimCompletion(@Param("runId") Long payrollRunId);
+
     @Query("SELECT CASE WHEN COUNT(pr) > 0 THEN true ELSE false END FROM PayrollRun pr " +
-           "WHERE pr.fortnight = :fortnight AND pr.year = :year AND pr.status = 'PROCESSED'")
+           "WHERE pr.fortnight = :fortnight AND pr.year = :year AND pr.status = 'PROCESSED' AND pr.runType = 'REGULAR'")
     boolean isPayrollProcessed(@Param("fortnight") Integer fortnight, @Param("year") Integer year);
 
     // For backwards compatibility - find by month/year by mapping to fortnights
-    @Query("SELECT pr FROM PayrollRun pr WHERE pr.fortnight IN (:fortnight1, :fortnight2) AND pr.year = :year")
+    @Query("SELECT pr FROM PayrollRun pr WHERE pr.fortnight IN (:fortnight1, :fortnight2) AND pr.year = :year " +
+           "AND pr.runType <> 'PRECOMPUTED'")
     List<PayrollRun> findByMonthAndYear(@Param("fortnight1") Integer fortnight1, @Param("fortnight2") Integer fortnight2, @Param("year") Integer year);
 }
@@ -0,0 +1,19 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollRunTelemetry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunTelemetryRepository extends JpaRepository<PayrollRunTelemetry, Long> {
+
+    Optional<PayrollRunTelemetry> findByPayrollRunId(Long payrollRunId);
+
+    @Query("SELECT t FROM PayrollRunTelemetry t JOIN FETCH t.payrollRun ORDER BY t.wallMillis DESC")
+    List<PayrollRunTelemetry> findSlowest(Pageable pageable);
+}
@@ -0,0 +1,35 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PayrollYearToDate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollYearToDateRepository extends JpaRepository<PayrollYearToDate, Long> {
+
+    @Query("SELECT y FROM PayrollYearToDate y JOIN FETCH y.employee " +
+           "WHERE y.employee.id = :empId AND y.financialYear = :year")
+    Optional<PayrollYearToDate> findByEmployeeAndFinancialYear(@Param("empId") Long employeeId,
+                                                               @Param("year") Integer financialYear);
+
+    // Locked until the caller commits, so concurrent runs add to the totals one after the other;
+    // locks are taken in employee id order so two runs with overlapping employees cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT y FROM PayrollYearToDate y WHERE y.financialYear = :year AND y.employee.id IN :empIds " +
+           "ORDER BY y.employee.id")
+    List<PayrollYearToDate> findByFinancialYearAndEmployeeIdsForUpdate(@Param("year") Integer financialYear,
+                                                              @Param("empIds") Collection<Long> employeeIds);
+
+    @Modifying
+    @Query("DELETE FROM PayrollYearToDate y WHERE y.financialYear = :year")
+    int deleteByFinancialYear(@Param("year") Integer financialYear);
+}
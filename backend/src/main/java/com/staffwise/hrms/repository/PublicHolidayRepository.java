@@ -0,0 +1,16 @@
+package com.staffwise.hrms.repository;
+
+import com.staffwise.hrms.entity.PublicHoliday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PublicHolidayRepository extends JpaRepository<PublicHoliday, Long> {
+
+    List<PublicHoliday> findByHolidayDateBetweenOrderByHolidayDate(LocalDate startDate, LocalDate endDate);
+
+    boolean existsByHolidayDate(LocalDate holidayDate);
+}
@@ -28,6 +28,7 @@ public class AttendanceService {
     private final AttendanceRepository attendanceRepository;
     private final EmployeeRepository employeeRepository;
     private final AuditService auditService;
+    private final CalendarService calendarService;
 
     private static final LocalTime STANDARD_CHECK_IN = LocalTime.of(9, 0);
     private static final LocalTime STANDARD_CHECK_OUT = LocalTime.of(18, 0);
@@ -63,15 +64,16 @@ public class AttendanceService {
             throw new IllegalStateException("Already checked in for today");
         }
 
+        AttendanceStatus status = calendarStatus(today);
         Attendance attendance = Attendance.builder()
                 .employee(employee)
                 .attendanceDate(today)
                 .checkInTime(now)
-                .status(AttendanceStatus.PRESENT)
+                .status(status != null ? status : AttendanceStatus.PRESENT)
                 .build();
 
-        // Check for late arrival
-        if (now.isAfter(STANDARD_CHECK_IN.plusMinutes(GRACE_PERIOD_MINUTES))) {
+        // Check for late arrival; there are no standard hours on weekends and holidays
+        if (status == null && now.isAfter(STANDARD_CHECK_IN.plusMinutes(GRACE_PERIOD_MINUTES))) {
             attendance.setIsLate(true);
             attendance.setLateMinutes((int) ChronoUnit.MINUTES.between(STANDARD_CHECK_IN, now));
         }
@@ -115,6 +117,7 @@ public class AttendanceService {
         Attendance attendance = attendanceRepository.findById(attendanceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found"));
 
+        validateStatus(attendance.getAttendanceDate(), dto.getStatus());
         String oldValues = mapToDTO(attendance).toString();
 
         attendance.setCheckInTime(dto.getCheckInTime());
@@ -148,6 +151,7 @@ public class AttendanceService {
         if (existing.isPresent()) {
             throw new IllegalStateException("Attendance record already exists for this date");
         }
+        validateStatus(dto.getAttendanceDate(), dto.getStatus());
 
         Attendance attendance = Attendance.builder()
                 .employee(employee)
@@ -182,6 +186,28 @@ public class AttendanceService {
         return overtime != null ? overtime : 0.0;
     }
 
+    /**
+     * WEEKEND or HOLIDAY for a date the calendar does not treat as a working day, null otherwise.
+     */
+    private AttendanceStatus calendarStatus(LocalDate date) {
+        switch (calendarService.getDayType(date)) {
+            case WEEKEND:
+                return AttendanceStatus.WEEKEND;
+            case HOLIDAY:
+                return AttendanceStatus.HOLIDAY;
+            default:
+                return null;
+        }
+    }
+
+    private void validateStatus(LocalDate date, AttendanceStatus status) {
+        if ((status == AttendanceStatus.WEEKEND || status == AttendanceStatus.HOLIDAY)
+                && status != calendarStatus(date)) {
+            throw new IllegalStateException(date + " is not a " + status.name().toLowerCase()
+                    + " in the working-day calendar");
+        }
+    }
+
     private AttendanceDTO mapToDTO(Attendance attendance) {
         return AttendanceDTO.builder()
                 .id(attendance.getId())
@@ -0,0 +1,156 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.staffwise.hrms.dto.PublicHolidayDTO;
+import com.staffwise.hrms.entity.PublicHoliday;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.PublicHolidayRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Working days and public holidays, shared by payroll, leave and attendance.
+ *
+ * Each year is compiled into a WorkingDayYear bitset on first use and cached, so counting
+ * the working days of a range costs a few popcounts rather than a walk over its dates.
+ * A year is invalidated whenever one of its holidays is added or removed here, after the
+ * change is saved; the expiry only bounds staleness for changes made on another node or
+ * directly in the database.
+ */
+@Service
+@Slf4j
+public class CalendarService {
+
+    private static final int EXPIRY_MINUTES = 30;
+
+    public enum DayType {
+        WORKING, WEEKEND, HOLIDAY
+    }
+
+    private final PublicHolidayRepository publicHolidayRepository;
+
+    private final LoadingCache<Integer, WorkingDayYear> years;
+
+    public CalendarService(PublicHolidayRepository publicHolidayRepository) {
+        this.publicHolidayRepository = publicHolidayRepository;
+        this.years = CacheBuilder.newBuilder()
+                .expireAfterWrite(EXPIRY_MINUTES, TimeUnit.MINUTES)
+                .build(new CacheLoader<Integer, WorkingDayYear>() {
+                    @Override
+                    public WorkingDayYear load(Integer year) {
+                        return compile(year);
+                    }
+                });
+    }
+
+    // ============ WORKING DAYS ============
+
+    /**
+     * Working days between two dates, both inclusive. Zero when the end is before the start.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return 0;
+        }
+        if (start.getYear() == end.getYear()) {
+            return getYear(start.getYear()).countWorkingDays(start, end);
+        }
+
+        int workingDays = getYear(start.getYear()).countWorkingDays(start, LocalDate.of(start.getYear(), 12, 31))
+                + getYear(end.getYear()).countWorkingDays(LocalDate.of(end.getYear(), 1, 1), end);
+        for (int year = start.getYear() + 1; year < end.getYear(); year++) {
+            workingDays += getYear(year).countWorkingDays();
+        }
+        return workingDays;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return getYear(date.getYear()).isWorkingDay(date);
+    }
+
+    /**
+     * Whether a date is a working day, a weekend day or a public holiday. A holiday
+     * falling on a weekend is reported as a holiday.
+     */
+    public DayType getDayType(LocalDate date) {
+        WorkingDayYear year = getYear(date.getYear());
+        if (year.isHoliday(date)) {
+            return DayType.HOLIDAY;
+        }
+        return year.isWorkingDay(date) ? DayType.WORKING : DayType.WEEKEND;
+    }
+
+    /**
+     * Drop the compiled working days of a year after its holidays changed.
+     */
+    public void invalidate(int year) {
+        years.invalidate(year);
+        log.debug("Invalidated working-day calendar for {}", year);
+    }
+
+    // ============ PUBLIC HOLIDAYS ============
+
+    public List<PublicHolidayDTO> getHolidays(int year) {
+        return publicHolidayRepository.findByHolidayDateBetweenOrderByHolidayDate(
+                        LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public PublicHolidayDTO addHoliday(PublicHolidayDTO dto, String createdBy) {
+        if (publicHolidayRepository.existsByHolidayDate(dto.getHolidayDate())) {
+            throw new IllegalStateException("A public holiday already exists on " + dto.getHolidayDate());
+        }
+
+        PublicHoliday saved = publicHolidayRepository.save(PublicHoliday.builder()
+                .holidayDate(dto.getHolidayDate())
+                .name(dto.getName())
+                .build());
+        invalidate(saved.getHolidayDate().getYear());
+
+        log.info("Public holiday {} on {} added by {}", saved.getName(), saved.getHolidayDate(), createdBy);
+        return mapToDTO(saved);
+    }
+
+    public void deleteHoliday(Long id, String deletedBy) {
+        PublicHoliday holiday = publicHolidayRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Public holiday not found"));
+
+        publicHolidayRepository.delete(holiday);
+        invalidate(holiday.getHolidayDate().getYear());
+
+        log.info("Public holiday {} on {} deleted by {}", holiday.getName(), holiday.getHolidayDate(), deletedBy);
+    }
+
+    // ============ HELPER METHODS ============
+
+    private WorkingDayYear getYear(int year) {
+        return years.getUnchecked(year);
+    }
+
+    private WorkingDayYear compile(int year) {
+        List<LocalDate> holidays = publicHolidayRepository.findByHolidayDateBetweenOrderByHolidayDate(
+                        LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)).stream()
+                .map(PublicHoliday::getHolidayDate)
+                .collect(Collectors.toList());
+        WorkingDayYear compiled = WorkingDayYear.of(year, holidays);
+        log.debug("Compiled working-day calendar for {}: {} working days, {} public holidays",
+                year, compiled.countWorkingDays(), holidays.size());
+        return compiled;
+    }
+
+    private PublicHolidayDTO mapToDTO(PublicHoliday holiday) {
+        return PublicHolidayDTO.builder()
+                .id(holiday.getId())
+                .holidayDate(holiday.getHolidayDate())
+                .name(holiday.getName())
+                .build();
+    }
+}
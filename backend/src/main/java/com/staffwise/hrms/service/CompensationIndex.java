@@ -0,0 +1,161 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.util.MoneyUtil;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Effective-dated compensation of a set of employees, indexed by date.
+ *
+ * Each employee's records are held as parallel arrays sorted by their first day, in epoch
+ * days, with salaries in toea. An employee's records never overlap, so the record in force
+ * on a date is the last one starting on or before it, found by binary search in O(log n),
+ * and the records covering a period follow it. The index is built from one query for a
+ * whole roster and date range, so payroll reads no compensation per employee or per period.
+ *
+ * Instances are immutable and safe to share between compute threads.
+ */
+public final class CompensationIndex {
+
+    public static final CompensationIndex EMPTY = new CompensationIndex(Map.of());
+
+    // Last day of a record that is still in force
+    private static final long OPEN_ENDED = Long.MAX_VALUE;
+
+    /**
+     * Compensation of one employee on a date or over a period, annual basic in toea.
+     */
+    public record Compensation(long annualBasic, Long departmentId, boolean taxResident) {
+    }
+
+    private static final class Timeline {
+        final long[] firstDays;
+        final long[] lastDays;
+        final long[] annualBasic;
+        final Long[] departmentIds;
+        final boolean[] taxResident;
+
+        Timeline(List<Object[]> rows) {
+            int size = rows.size();
+            firstDays = new long[size];
+            lastDays = new long[size];
+            annualBasic = new long[size];
+            departmentIds = new Long[size];
+            taxResident = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                Object[] row = rows.get(i);
+                firstDays[i] = ((LocalDate) row[1]).toEpochDay();
+                lastDays[i] = row[2] != null ? ((LocalDate) row[2]).toEpochDay() : OPEN_ENDED;
+                annualBasic[i] = MoneyUtil.toToeaOrZero((Double) row[3]);
+                departmentIds[i] = (Long) row[4];
+                taxResident[i] = row[5] == null || (Boolean) row[5];
+            }
+        }
+
+        /**
+         * Index of the last record starting on or before the day, or -1.
+         */
+        int floor(long day) {
+            int low = 0;
+            int high = firstDays.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (firstDays[mid] <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        Compensation at(int index, long annualBasic) {
+            return new Compensation(annualBasic, departmentIds[index], taxResident[index]);
+        }
+    }
+
+    private final Map<Long, Timeline> timelines;
+
+    private CompensationIndex(Map<Long, Timeline> timelines) {
+        this.timelines = timelines;
+    }
+
+    /**
+     * Build the index from rows of employee id, effective from, effective to (null while in
+     * force), basic salary, department id and tax residency, ordered by employee and effective from.
+     */
+    public static CompensationIndex of(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return EMPTY;
+        }
+        Map<Long, Timeline> timelines = new HashMap<>();
+        int from = 0;
+        while (from < rows.size()) {
+            Long employeeId = (Long) rows.get(from)[0];
+            int to = from + 1;
+            while (to < rows.size() && employeeId.equals(rows.get(to)[0])) {
+                to++;
+            }
+            timelines.put(employeeId, new Timeline(rows.subList(from, to)));
+            from = to;
+        }
+        return new CompensationIndex(timelines);
+    }
+
+    /**
+     * Number of employees with records in the index.
+     */
+    public int size() {
+        return timelines.size();
+    }
+
+    /**
+     * The compensation in force on a date, or null if the employee has no record covering it.
+     */
+    public Compensation find(Long employeeId, LocalDate date) {
+        Timeline timeline = timelines.get(employeeId);
+        if (timeline == null) {
+            return null;
+        }
+        long day = date.toEpochDay();
+        int index = timeline.floor(day);
+        if (index < 0 || timeline.lastDays[index] < day) {
+            return null;
+        }
+        return timeline.at(index, timeline.annualBasic[index]);
+    }
+
+    /**
+     * The compensation of a period: annual basic averaged over the calendar days each record
+     * covers, with the department and tax residency of the last record in the period.
+     * Days no record covers are left out. Null if no record covers any day of the period.
+     */
+    public Compensation findForPeriod(Long employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        Timeline timeline = timelines.get(employeeId);
+        if (timeline == null) {
+            return null;
+        }
+        long first = periodStart.toEpochDay();
+        long last = periodEnd.toEpochDay();
+
+        long weighted = 0;
+        long coveredDays = 0;
+        int latest = -1;
+        for (int i = Math.max(0, timeline.floor(first)); i < timeline.firstDays.length && timeline.firstDays[i] <= last; i++) {
+            long from = Math.max(first, timeline.firstDays[i]);
+            long to = Math.min(last, timeline.lastDays[i]);
+            if (from <= to) {
+                weighted += timeline.annualBasic[i] * (to - from + 1);
+                coveredDays += to - from + 1;
+                latest = i;
+            }
+        }
+        if (latest < 0) {
+            return null;
+        }
+        return timeline.at(latest, (weighted + coveredDays / 2) / coveredDays);
+    }
+}
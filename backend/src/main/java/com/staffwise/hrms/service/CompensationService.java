@@ -0,0 +1,198 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.EmployeeCompensationDTO;
+import com.staffwise.hrms.entity.Department;
+import com.staffwise.hrms.entity.Employee;
+import com.staffwise.hrms.entity.EmployeeCompensation;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.DepartmentRepository;
+import com.staffwise.hrms.repository.EmployeeCompensationRepository;
+import com.staffwise.hrms.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains each employee's effective-dated compensation history.
+ *
+ * A change takes effect from its date until the next recorded change: the record in force
+ * on that date is cut off the day before, so an employee's records never overlap. An
+ * employee without history gets one first, holding the current salary and department from
+ * the date of joining, so periods before the change keep being paid at the old salary.
+ * Employee.basicSalary and department stay the values in force today: a change in force
+ * already is copied to them when recorded, a future-dated one by {@link CompensationSyncService}
+ * once it takes effect.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CompensationService {
+
+    private final EmployeeCompensationRepository compensationRepository;
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final AuditService auditService;
+
+    public List<EmployeeCompensationDTO> getHistory(Long employeeId) {
+        if (!employeeRepository.existsById(employeeId)) {
+            throw new ResourceNotFoundException("Employee not found with id: " + employeeId);
+        }
+        return compensationRepository.findByEmployeeIdOrderByEffectiveFrom(employeeId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Record a change of salary, department or tax residency effective from a date, which may
+     * be in the past; a retro pass then settles the processed runs it affects.
+     */
+    public EmployeeCompensationDTO changeCompensation(Long employeeId, EmployeeCompensationDTO dto, String changedBy) {
+        Employee employee = employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id: " + employeeId));
+        Department department = dto.getDepartmentId() != null
+                ? departmentRepository.findById(dto.getDepartmentId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + dto.getDepartmentId()))
+                : null;
+
+        EmployeeCompensation saved = recordChange(employee, dto.getEffectiveFrom(), dto.getBasicSalary(),
+                department, dto.getIsTaxResident(), dto.getReason(), changedBy);
+
+        auditService.logAction("Employee", employeeId, "COMPENSATION", changedBy, null,
+                "Compensation effective " + saved.getEffectiveFrom() + ": basic salary " + saved.getBasicSalary()
+                        + ", department " + (saved.getDepartment() != null ? saved.getDepartment().getId() : null)
+                        + ", tax resident " + saved.getIsTaxResident());
+
+        log.info("Compensation of employee {} changed effective {} by {}", employee.getEmpCode(),
+                saved.getEffectiveFrom(), changedBy);
+        return mapToDTO(saved);
+    }
+
+    /**
+     * Open the history of a new employee with their salary and department from the date of joining.
+     */
+    public void openHistory(Employee employee, String changedBy) {
+        EmployeeCompensation first = initialRecord(employee, null);
+        first.setCreatedBy(changedBy);
+        compensationRepository.save(first);
+    }
+
+    /**
+     * Insert a change into the employee's history. Values left null keep those in force on
+     * the effective date. The employee's current salary and department follow the change
+     * when it is in force today.
+     */
+    public EmployeeCompensation recordChange(Employee employee, LocalDate effectiveFrom, Double basicSalary,
+                                             Department department, Boolean taxResident, String reason, String changedBy) {
+        List<EmployeeCompensation> history = new ArrayList<>(
+                compensationRepository.findByEmployeeIdOrderByEffectiveFrom(employee.getId()));
+        if (history.isEmpty()) {
+            EmployeeCompensation first = initialRecord(employee, "Salary and department before the first recorded change");
+            first.setCreatedBy(changedBy);
+            history.add(compensationRepository.save(first));
+        }
+
+        EmployeeCompensation covering = null;
+        EmployeeCompensation next = null;
+        for (EmployeeCompensation record : history) {
+            if (!record.getEffectiveFrom().isAfter(effectiveFrom)) {
+                if (record.getEffectiveTo() == null || !record.getEffectiveTo().isBefore(effectiveFrom)) {
+                    covering = record;
+                }
+            } else if (next == null) {
+                next = record;
+            }
+        }
+
+        EmployeeCompensation record;
+        if (covering != null && covering.getEffectiveFrom().equals(effectiveFrom)) {
+            // Another change on the same day corrects that record
+            record = covering;
+            record.setUpdatedBy(changedBy);
+        } else {
+            record = EmployeeCompensation.builder()
+                    .employee(employee)
+                    .effectiveFrom(effectiveFrom)
+                    .effectiveTo(covering != null ? covering.getEffectiveTo()
+                            : next != null ? next.getEffectiveFrom().minusDays(1) : null)
+                    .build();
+            record.setCreatedBy(changedBy);
+            if (covering != null) {
+                covering.setEffectiveTo(effectiveFrom.minusDays(1));
+                covering.setUpdatedBy(changedBy);
+                compensationRepository.save(covering);
+            }
+        }
+
+        record.setBasicSalary(basicSalary != null ? basicSalary
+                : covering != null ? covering.getBasicSalary() : employee.getBasicSalary());
+        record.setDepartment(department != null ? department
+                : covering != null ? covering.getDepartment() : employee.getDepartment());
+        record.setIsTaxResident(taxResident != null ? taxResident
+                : covering != null ? covering.getIsTaxResident() : Boolean.TRUE);
+        record.setReason(reason);
+        EmployeeCompensation saved = compensationRepository.save(record);
+
+        LocalDate today = LocalDate.now();
+        if (!saved.getEffectiveFrom().isAfter(today)
+                && (saved.getEffectiveTo() == null || !saved.getEffectiveTo().isBefore(today))) {
+            employee.setBasicSalary(saved.getBasicSalary());
+            employee.setDepartment(saved.getDepartment());
+            employee.setUpdatedBy(changedBy);
+            employeeRepository.save(employee);
+        }
+        return saved;
+    }
+
+    /**
+     * Copy the salary and department in force on a day onto the employee records that differ.
+     *
+     * @return the number of employees updated
+     */
+    public int syncInForce(LocalDate day, String changedBy) {
+        List<EmployeeCompensation> inForce = compensationRepository.findInForceNotOnEmployee(day);
+        for (EmployeeCompensation record : inForce) {
+            Employee employee = record.getEmployee();
+            employee.setBasicSalary(record.getBasicSalary());
+            employee.setDepartment(record.getDepartment());
+            employee.setUpdatedBy(changedBy);
+            log.info("Compensation of employee {} effective {} now in force: basic salary {}",
+                    employee.getEmpCode(), record.getEffectiveFrom(), record.getBasicSalary());
+        }
+        employeeRepository.saveAll(inForce.stream().map(EmployeeCompensation::getEmployee).collect(Collectors.toList()));
+        return inForce.size();
+    }
+
+    private EmployeeCompensation initialRecord(Employee employee, String reason) {
+        return EmployeeCompensation.builder()
+                .employee(employee)
+                .effectiveFrom(employee.getDateOfJoining() != null ? employee.getDateOfJoining() : LocalDate.EPOCH)
+                .basicSalary(employee.getBasicSalary() != null ? employee.getBasicSalary() : 0.0)
+                .department(employee.getDepartment())
+                .reason(reason)
+                .build();
+    }
+
+    private EmployeeCompensationDTO mapToDTO(EmployeeCompensation record) {
+        Department department = record.getDepartment();
+        return EmployeeCompensationDTO.builder()
+                .id(record.getId())
+                .employeeId(record.getEmployee().getId())
+                .effectiveFrom(record.getEffectiveFrom())
+                .effectiveTo(record.getEffectiveTo())
+                .basicSalary(record.getBasicSalary())
+                .departmentId(department != null ? department.getId() : null)
+                .departmentName(department != null ? department.getName() : null)
+                .isTaxResident(record.getIsTaxResident())
+                .reason(record.getReason())
+                .createdBy(record.getCreatedBy())
+                .createdAt(record.getCreatedAt())
+                .build();
+    }
+}
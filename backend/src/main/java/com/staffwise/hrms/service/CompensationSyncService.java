@@ -0,0 +1,64 @@
+package com.staffwise.hrms.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Moves future-dated compensation changes onto the employee record once they take effect.
+ *
+ * Payroll reads salaries from the compensation history, but Employee.basicSalary and department
+ * are what the rest of the application shows and edits. Shortly after midnight the values in
+ * force that day are copied onto the employees that still hold older ones.
+ *
+ * Every node schedules the sync; a lease in scheduler_locks lets one node at a time run it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompensationSyncService {
+
+    public static final String LOCK_NAME = "compensation-sync";
+
+    private static final String SYNCED_BY = "compensation-sync";
+
+    private final CompensationService compensationService;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${payroll.compensation.lock-seconds:600}")
+    private long lockSeconds;
+
+    @Scheduled(cron = "${payroll.compensation.sync-cron:0 5 0 * * *}")
+    public void syncDaily() {
+        try {
+            sync(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Compensation sync failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy the compensation in force on a day onto employee records, unless another node is doing so.
+     *
+     * @return the number of employees updated, or -1 if another node holds the lock
+     */
+    public int sync(LocalDate day) {
+        String lock = schedulerLockService.tryLock(LOCK_NAME, Duration.ofSeconds(lockSeconds));
+        if (lock == null) {
+            log.debug("Compensation sync skipped: running elsewhere");
+            return -1;
+        }
+        try {
+            int updated = compensationService.syncInForce(day, SYNCED_BY);
+            log.info("Compensation sync for {} updated {} employees", day, updated);
+            return updated;
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME, lock);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.TaxSlab;
+
+import java.util.List;
+
+/**
+ * Progressive SWT slabs of one tax configuration and regime, compiled for lookup.
+ *
+ * Slab bounds and rates are held in primitive arrays together with the tax accumulated
+ * by all slabs below each one, so the annual tax for an income is a binary search for
+ * the slab containing it plus one multiply-add. Cumulative amounts are summed in slab
+ * order, giving exactly the result of walking the slabs one by one.
+ *
+ * Slabs that are not ascending and non-overlapping in slab order cannot be compiled
+ * that way; such tables keep the slabs and fall back to the slab walk.
+ *
+ * Instances are immutable and safe to share between compute threads.
+ */
+public final class CompiledTaxTable {
+
+    private static final CompiledTaxTable EMPTY =
+            new CompiledTaxTable(new double[0], new double[0], new double[0], new double[0], null);
+
+    private final double[] incomeFrom;
+    private final double[] incomeTo;
+    private final double[] rates;
+    private final double[] cumulativeTax;
+
+    // Only set when the slabs are irregular and must be walked one by one
+    private final double[][] irregularSlabs;
+
+    private CompiledTaxTable(double[] incomeFrom, double[] incomeTo, double[] rates,
+                             double[] cumulativeTax, double[][] irregularSlabs) {
+        this.incomeFrom = incomeFrom;
+        this.incomeTo = incomeTo;
+        this.rates = rates;
+        this.cumulativeTax = cumulativeTax;
+        this.irregularSlabs = irregularSlabs;
+    }
+
+    /**
+     * Compile slabs given in slab order. An open-ended slab (null incomeTo) is unbounded.
+     */
+    public static CompiledTaxTable compile(List<TaxSlab> slabs) {
+        if (slabs == null || slabs.isEmpty()) {
+            return EMPTY;
+        }
+
+        int size = slabs.size();
+        double[] from = new double[size];
+        double[] to = new double[size];
+        double[] rates = new double[size];
+        boolean regular = true;
+
+        for (int i = 0; i < size; i++) {
+            TaxSlab slab = slabs.get(i);
+            from[i] = slab.getIncomeFrom();
+            to[i] = slab.getIncomeTo() != null ? slab.getIncomeTo() : Double.MAX_VALUE;
+            rates[i] = slab.getTaxRate();
+
+            if (to[i] <= from[i] || (i > 0 && from[i] < to[i - 1])) {
+                regular = false;
+            }
+        }
+
+        if (!regular) {
+            return new CompiledTaxTable(new double[0], new double[0], new double[0], new double[0],
+                    new double[][] { from, to, rates });
+        }
+
+        double[] cumulative = new double[size];
+        double running = 0.0;
+        for (int i = 0; i < size; i++) {
+            cumulative[i] = running;
+            running += (to[i] - from[i]) * rates[i];
+        }
+        return new CompiledTaxTable(from, to, rates, cumulative, null);
+    }
+
+    public boolean isEmpty() {
+        return incomeFrom.length == 0 && irregularSlabs == null;
+    }
+
+    public boolean isCompiled() {
+        return irregularSlabs == null;
+    }
+
+    /**
+     * Annual tax payable on the given annual taxable income.
+     */
+    public double annualTax(double annualIncome) {
+        if (irregularSlabs != null) {
+            return walkSlabs(annualIncome);
+        }
+
+        // Last slab whose lower bound is below the income
+        int low = 0;
+        int high = incomeFrom.length - 1;
+        int slab = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (incomeFrom[mid] < annualIncome) {
+                slab = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (slab < 0) {
+            return 0.0;
+        }
+        return cumulativeTax[slab] + (Math.min(annualIncome, incomeTo[slab]) - incomeFrom[slab]) * rates[slab];
+    }
+
+    private double walkSlabs(double annualIncome) {
+        double[] from = irregularSlabs[0];
+        double[] to = irregularSlabs[1];
+        double[] rates = irregularSlabs[2];
+
+        double annualTax = 0.0;
+        for (int i = 0; i < from.length; i++) {
+            if (annualIncome > from[i]) {
+                double taxableInSlab = annualIncome >= to[i] ? to[i] - from[i] : annualIncome - from[i];
+                if (taxableInSlab > 0) {
+                    annualTax += taxableInSlab * rates[i];
+                }
+            }
+        }
+        return annualTax;
+    }
+}
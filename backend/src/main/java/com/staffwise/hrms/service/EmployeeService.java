@@ -31,6 +31,7 @@ public class EmployeeService {
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
+    private final CompensationService compensationService;
 
     public List<EmployeeDTO> getAllEmployees() {
         return employeeRepository.findAll().stream()
@@ -69,6 +70,7 @@ public class EmployeeService {
         employee.setCreatedBy(createdBy);
         
         Employee savedEmployee = employeeRepository.save(employee);
+        compensationService.openHistory(savedEmployee, createdBy);
         
         // Initialize leave balances for current year
         initializeLeaveBalances(savedEmployee);
@@ -84,6 +86,17 @@ public class EmployeeService {
                 .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id: " + id));
 
         String oldValues = mapToDTO(employee).toString();
+
+        // A salary or department edit takes effect today; backdated changes go through CompensationService
+        Long departmentId = employee.getDepartment() != null ? employee.getDepartment().getId() : null;
+        boolean salaryChanged = dto.getBasicSalary() != null && !dto.getBasicSalary().equals(employee.getBasicSalary());
+        boolean departmentChanged = dto.getDepartmentId() != null && !dto.getDepartmentId().equals(departmentId);
+        if (salaryChanged || departmentChanged) {
+            compensationService.recordChange(employee, LocalDate.now(),
+                    salaryChanged ? dto.getBasicSalary() : null,
+                    departmentChanged ? departmentRepository.findById(dto.getDepartmentId()).orElse(null) : null,
+                    null, "Employee record updated", updatedBy);
+        }
         
         updateEntityFromDTO(employee, dto);
         employee.setUpdatedBy(updatedBy);
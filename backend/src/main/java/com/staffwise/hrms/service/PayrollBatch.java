@@ -0,0 +1,195 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.PayrollConfiguration;
+import com.staffwise.hrms.entity.TaxConfiguration;
+import com.staffwise.hrms.util.MoneyUtil;
+
+/**
+ * Column-oriented payroll kernel for a batch of employees.
+ *
+ * Inputs and results are held as struct-of-arrays indexed by employee slot, with money in
+ * toea. {@link #compute} resolves the run configuration once and then fills each result
+ * column in its own loop over primitives, without allocating; entities are built from the
+ * columns afterwards by {@link PayrollCalculator}.
+ *
+ * A batch is filled and computed by one thread; it is not safe to share.
+ */
+public final class PayrollBatch {
+
+    // Default constants only used as fallback when no configuration exists
+    static final int DEFAULT_FORTNIGHTS_PER_YEAR = 26;
+    private static final double DEFAULT_STANDARD_HOURS_PER_DAY = 8.0;
+    private static final double DEFAULT_OVERTIME_MULTIPLIER = 1.5;
+    private static final double DEFAULT_LATE_DEDUCTION = 50.0;
+    private static final int DEFAULT_ROUNDING_PRECISION = 2;
+
+    // Tax fallback rates
+    private static final double DEFAULT_SUPER_EMPLOYEE_PERCENTAGE = 0.06;
+    private static final double DEFAULT_SUPER_EMPLOYER_PERCENTAGE = 0.084;
+    private static final double DEFAULT_TAX_PERCENTAGE = 0.10;
+
+    // Non-residents pay SWT at a flat rate on all income, as in TaxService
+    private static final double NON_RESIDENT_TAX_RATE = 0.22;
+
+    final int size;
+
+    // Inputs
+    final long[] annualBasic;
+    final int[] daysWorked;
+    final int[] lateCount;
+    final double[] overtimeHours;
+    final double[] leaveDays;
+    final boolean[] nonResident;
+
+    // Retro adjustments of earlier locked fortnights, added on top of this fortnight's amounts
+    final long[] retroGross;
+    final long[] retroSalaryWagesTax;
+    final long[] retroSuperEmployee;
+    final long[] retroSuperEmployer;
+    final long[] retroLateDeduction;
+
+    // Results
+    final long[] basic;
+    final long[] overtimePay;
+    final long[] gross;
+    final long[] salaryWagesTax;
+    final long[] superEmployee;
+    final long[] superEmployer;
+    final long[] lateDeduction;
+    final long[] totalDeductions;
+    final long[] netPay;
+
+    int fortnightsPerYear;
+
+    public PayrollBatch(int size) {
+        this.size = size;
+        annualBasic = new long[size];
+        daysWorked = new int[size];
+        lateCount = new int[size];
+        overtimeHours = new double[size];
+        leaveDays = new double[size];
+        nonResident = new boolean[size];
+        retroGross = new long[size];
+        retroSalaryWagesTax = new long[size];
+        retroSuperEmployee = new long[size];
+        retroSuperEmployer = new long[size];
+        retroLateDeduction = new long[size];
+
+        basic = new long[size];
+        overtimePay = new long[size];
+        gross = new long[size];
+        salaryWagesTax = new long[size];
+        superEmployee = new long[size];
+        superEmployer = new long[size];
+        lateDeduction = new long[size];
+        totalDeductions = new long[size];
+        netPay = new long[size];
+    }
+
+    /**
+     * Set the inputs of one employee slot. Days worked must already include the
+     * fallback to full working days for employees without attendance.
+     */
+    public void load(int slot, long annualBasicToea, int days, int late, double overtime, double leave) {
+        annualBasic[slot] = annualBasicToea;
+        daysWorked[slot] = days;
+        lateCount[slot] = late;
+        overtimeHours[slot] = overtime;
+        leaveDays[slot] = leave;
+    }
+
+    /**
+     * Set the tax residency of one employee slot; slots are resident unless set otherwise.
+     */
+    public void loadTaxResidency(int slot, boolean taxResident) {
+        nonResident[slot] = !taxResident;
+    }
+
+    /**
+     * Add retro adjustments to one employee slot. They were computed at the rates of the
+     * fortnights they correct, so they are added after this fortnight's SWT and super.
+     */
+    public void loadRetro(int slot, PayrollInputTable.RetroAmounts amounts) {
+        retroGross[slot] = amounts.gross();
+        retroSalaryWagesTax[slot] = amounts.salaryWagesTax();
+        retroSuperEmployee[slot] = amounts.superEmployee();
+        retroSuperEmployer[slot] = amounts.superEmployer();
+        retroLateDeduction[slot] = amounts.lateDeduction();
+    }
+
+    /**
+     * Compute earnings, super, SWT and net pay of every slot.
+     * NO HARDCODED ALLOWANCES - only Basic Salary + Overtime from approved requests.
+     */
+    public void compute(PayrollRunContext context) {
+        TaxConfiguration taxConfig = context.getTaxConfig();
+        PayrollConfiguration payrollConfig = context.getPayrollConfig();
+        CompiledTaxTable taxTable = context.getResidentTaxTable();
+
+        fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
+        double standardHoursPerDay = payrollConfig != null ? payrollConfig.getStandardHoursPerDay() : DEFAULT_STANDARD_HOURS_PER_DAY;
+        double overtimeMultiplier = payrollConfig != null ? payrollConfig.getOvertimeRateMultiplier() : DEFAULT_OVERTIME_MULTIPLIER;
+        double lateDeductionAmount = payrollConfig != null ? payrollConfig.getLateDeductionAmount() : DEFAULT_LATE_DEDUCTION;
+        int precision = payrollConfig != null && payrollConfig.getRoundingPrecision() != null
+                ? payrollConfig.getRoundingPrecision() : DEFAULT_ROUNDING_PRECISION;
+        double superEmployeeRate = (taxConfig != null && taxConfig.getSuperEmployeePercentage() != null)
+                ? taxConfig.getSuperEmployeePercentage() : DEFAULT_SUPER_EMPLOYEE_PERCENTAGE;
+        double superEmployerRate = (taxConfig != null && taxConfig.getSuperEmployerPercentage() != null)
+                ? taxConfig.getSuperEmployerPercentage() : DEFAULT_SUPER_EMPLOYER_PERCENTAGE;
+
+        // A fortnight's basic is annual basic x days worked / working days in a year
+        long periodDays = (long) fortnightsPerYear * context.getTotalWorkingDays();
+        // Overtime pay per hour of overtime and toea of annual basic: hourly rate x multiplier
+        double overtimeFactor = overtimeMultiplier / (periodDays * standardHoursPerDay);
+        long latePenalty = MoneyUtil.round(MoneyUtil.toToea(lateDeductionAmount), precision);
+
+        // Earnings
+        for (int i = 0; i < size; i++) {
+            basic[i] = MoneyUtil.round(MoneyUtil.prorate(annualBasic[i], daysWorked[i], periodDays), precision);
+        }
+        for (int i = 0; i < size; i++) {
+            overtimePay[i] = MoneyUtil.round(MoneyUtil.multiply(annualBasic[i], overtimeHours[i] * overtimeFactor), precision);
+        }
+        for (int i = 0; i < size; i++) {
+            gross[i] = basic[i] + overtimePay[i];
+        }
+
+        // Superannuation on basic salary
+        for (int i = 0; i < size; i++) {
+            superEmployee[i] = MoneyUtil.round(MoneyUtil.multiply(basic[i], superEmployeeRate), precision);
+            superEmployer[i] = MoneyUtil.round(MoneyUtil.multiply(basic[i], superEmployerRate), precision);
+        }
+
+        // SWT on gross (taxable income), from the annual slabs rounded to toea once per fortnight
+        if (taxConfig == null || taxTable == null || taxTable.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                salaryWagesTax[i] = MoneyUtil.round(MoneyUtil.multiply(gross[i], DEFAULT_TAX_PERCENTAGE), precision);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                double annualTax = taxTable.annualTax(MoneyUtil.toKina(gross[i] * fortnightsPerYear));
+                salaryWagesTax[i] = MoneyUtil.round(MoneyUtil.toToea(annualTax / fortnightsPerYear), precision);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (nonResident[i]) {
+                salaryWagesTax[i] = MoneyUtil.round(MoneyUtil.multiply(gross[i], NON_RESIDENT_TAX_RATE), precision);
+            }
+        }
+
+        // Retro adjustments, already at the rates of the fortnights they correct
+        for (int i = 0; i < size; i++) {
+            gross[i] += retroGross[i];
+            salaryWagesTax[i] += retroSalaryWagesTax[i];
+            superEmployee[i] += retroSuperEmployee[i];
+            superEmployer[i] += retroSuperEmployer[i];
+        }
+
+        // Deductions and net pay
+        for (int i = 0; i < size; i++) {
+            lateDeduction[i] = lateCount[i] * latePenalty + retroLateDeduction[i];
+            totalDeductions[i] = salaryWagesTax[i] + superEmployee[i] + lateDeduction[i];
+            netPay[i] = gross[i] - totalDeductions[i];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.config.WorkloadRoutingDataSource;
+import com.staffwise.hrms.exception.BatchCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead between batch work and interactive traffic.
+ *
+ * Payroll computation requested over HTTP runs on a small bounded executor whose threads
+ * draw connections from the batch pool (see {@link WorkloadRoutingDataSource}); the request
+ * thread waits for the result. Once every batch thread is busy and the queue is full,
+ * further batch work is refused instead of tying up more request threads, so interactive
+ * requests keep the rest of the web threads and the whole interactive pool.
+ *
+ * Published metrics: executor.* tagged name=payroll.batch for the executor,
+ * payroll.batch.call per workload, payroll.batch.rejected, and hikaricp.connections.*
+ * per pool for both sides.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollBulkhead {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payroll.bulkhead.threads:2}")
+    private int threads;
+
+    @Value("${payroll.bulkhead.queue-capacity:4}")
+    private int queueCapacity;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+                0L, TimeUnit.MILLISECONDS, queue, WorkloadRoutingDataSource.batchThreadFactory("payroll-batch-"));
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "payroll.batch");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Run batch work on the bulkhead and wait for its result. Work started from a batch
+     * thread already holds its share and runs in place.
+     *
+     * @throws BatchCapacityExceededException if the bulkhead is full
+     */
+    public <T> T call(String workload, Supplier<T> task) {
+        if (WorkloadRoutingDataSource.isBatchThread()) {
+            return task.get();
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            Counter.builder("payroll.batch.rejected")
+                    .description("Batch work refused because the bulkhead was full")
+                    .tag("workload", workload)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Refused {}: all {} batch threads busy and {} queued", workload, threads, queueCapacity);
+            throw new BatchCapacityExceededException(
+                    "Payroll processing is at capacity, please retry once the running computations finish");
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for " + workload, e);
+        } finally {
+            sample.stop(Timer.builder("payroll.batch.call")
+                    .description("Time from submitting batch work to its result, including time queued")
+                    .tag("workload", workload)
+                    .register(meterRegistry));
+        }
+    }
+}
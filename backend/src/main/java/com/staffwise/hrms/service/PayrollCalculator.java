@@ -0,0 +1,126 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fortnightly payroll calculation.
+ * Stateless and free of database access: every input comes from the
+ * {@link PayrollRunContext} and the prefetched {@link PayrollInputTable},
+ * so it can be called from any compute thread.
+ *
+ * Employees are gathered into a {@link PayrollBatch}, computed column by column
+ * and only then materialized as PayrollDetail entities.
+ */
+@Service
+@Slf4j
+public class PayrollCalculator {
+
+    /**
+     * Compute payroll for a single employee. The returned detail is not persisted.
+     */
+    public PayrollDetail calculate(Employee employee, PayrollRun payrollRun,
+                                   PayrollRunContext context, PayrollInputTable inputs) {
+        return calculateAll(List.of(employee), payrollRun, context, inputs).get(0);
+    }
+
+    /**
+     * Compute payroll for a batch of employees, returning details in the same order.
+     * The returned details are not persisted.
+     */
+    public List<PayrollDetail> calculateAll(List<Employee> employees, PayrollRun payrollRun,
+                                            PayrollRunContext context, PayrollInputTable inputs) {
+        int totalWorkingDays = context.getTotalWorkingDays();
+        PayrollBatch batch = new PayrollBatch(employees.size());
+        Long[] departmentIds = new Long[batch.size];
+
+        // Gather inputs from the prefetched input table
+        for (int i = 0; i < batch.size; i++) {
+            Employee employee = employees.get(i);
+            Long employeeId = employee.getId();
+
+            // No attendance recorded means the full fortnight is paid
+            int daysWorked = inputs.getPresentDays(employeeId);
+            if (daysWorked == 0) {
+                daysWorked = totalWorkingDays;
+            }
+
+            // Salary and residency in force over the period; the current salary when there is no history
+            CompensationIndex.Compensation compensation = inputs.getCompensation(employeeId);
+            long annualBasic = compensation != null
+                    ? compensation.annualBasic() : MoneyUtil.toToeaOrZero(employee.getBasicSalary());
+            batch.load(i, annualBasic, daysWorked,
+                    inputs.getLateDays(employeeId), inputs.getApprovedOvertimeHours(employeeId),
+                    inputs.getLeaveDays(employeeId));
+            if (compensation != null) {
+                batch.loadTaxResidency(i, compensation.taxResident());
+                departmentIds[i] = compensation.departmentId();
+            } else if (employee.getDepartment() != null) {
+                departmentIds[i] = employee.getDepartment().getId();
+            }
+            PayrollInputTable.RetroAmounts retro = inputs.getRetroAdjustment(employeeId);
+            if (retro != null) {
+                batch.loadRetro(i, retro);
+            }
+        }
+
+        batch.compute(context);
+
+        List<PayrollDetail> details = new ArrayList<>(batch.size);
+        for (int i = 0; i < batch.size; i++) {
+            details.add(materialize(batch, i, employees.get(i), departmentIds[i], payrollRun, totalWorkingDays));
+        }
+
+        log.debug("Calculated payroll for {} employees", batch.size);
+        return details;
+    }
+
+    /**
+     * Build the detail of one slot; money is converted from toea to Kina here.
+     * Totals are set from the batch; calculateTotals would give the same result.
+     */
+    private PayrollDetail materialize(PayrollBatch batch, int slot, Employee employee, Long departmentId,
+                                      PayrollRun payrollRun, int totalWorkingDays) {
+        long taxableIncome = batch.gross[slot];
+
+        return PayrollDetail.builder()
+                .payrollRun(payrollRun)
+                .employee(employee)
+                .departmentId(departmentId)
+                .basicSalary(MoneyUtil.toKina(batch.basic[slot]))
+                // NO housing/transport/medical allowances - removed hardcoding
+                .housingAllowance(0.0)
+                .transportAllowance(0.0)
+                .mealAllowance(0.0)
+                .medicalAllowance(0.0)
+                .hra(0.0)
+                .overtimePay(MoneyUtil.toKina(batch.overtimePay[slot]))
+                .retroPay(MoneyUtil.toKina(batch.retroGross[slot]))
+                .salaryWagesTax(MoneyUtil.toKina(batch.salaryWagesTax[slot]))
+                .superEmployee(MoneyUtil.toKina(batch.superEmployee[slot]))
+                .superEmployer(MoneyUtil.toKina(batch.superEmployer[slot]))
+                .superTotal(MoneyUtil.toKina(batch.superEmployee[slot] + batch.superEmployer[slot]))
+                .pfDeduction(MoneyUtil.toKina(batch.superEmployee[slot]))
+                .taxDeduction(MoneyUtil.toKina(batch.salaryWagesTax[slot]))
+                .taxableIncome(MoneyUtil.toKina(taxableIncome))
+                // Projected from this fortnight's own earnings; arrears are not recurring income
+                .projectedAnnualIncome(MoneyUtil.toKina((taxableIncome - batch.retroGross[slot]) * batch.fortnightsPerYear))
+                .isTaxResident(!batch.nonResident[slot])
+                .lateDeduction(MoneyUtil.toKina(batch.lateDeduction[slot]))
+                .totalWorkingDays(totalWorkingDays)
+                .daysWorked(batch.daysWorked[slot])
+                .leavesTaken(batch.leaveDays[slot])
+                .approvedOvertimeHours(batch.overtimeHours[slot])
+                .lateCount(batch.lateCount[slot])
+                .grossSalary(MoneyUtil.toKina(batch.gross[slot]))
+                .totalDeductions(MoneyUtil.toKina(batch.totalDeductions[slot]))
+                .netPay(MoneyUtil.toKina(batch.netPay[slot]))
+                .ctc(MoneyUtil.toKina(batch.gross[slot] + batch.superEmployer[slot]))
+                .build();
+    }
+}
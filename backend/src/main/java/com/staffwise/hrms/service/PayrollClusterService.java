@@ -0,0 +1,314 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.collect.Lists;
+import com.staffwise.hrms.dto.PayrollPartitionProgressDTO;
+import com.staffwise.hrms.entity.PayrollPartition;
+import com.staffwise.hrms.entity.PayrollPartitionStatus;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollStatus;
+import com.staffwise.hrms.exception.BatchCapacityExceededException;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.EmployeeRepository;
+import com.staffwise.hrms.repository.PayrollPartitionRepository;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Computes payroll runs across every backend node sharing the database.
+ *
+ * A cluster run is split into partitions of consecutive employee ids, stored in
+ * payroll_partitions. Each node polls for partitions that are pending or whose lease has
+ * expired and leases one by moving its version on from the value it read, so exactly one
+ * node wins a partition. The winner computes the range and marks the partition done in the
+ * transaction that commits its details; if the lease was lost in the meantime, that
+ * transaction rolls back instead. The node that finishes the last partition completes the run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollClusterService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Claimable partitions read per attempt to lease one
+    private static final int CLAIM_CANDIDATES = 10;
+
+    private final PayrollPartitionRepository partitionRepository;
+    private final PayrollRunRepository payrollRunRepository;
+    private final EmployeeRepository employeeRepository;
+    private final PayrollService payrollService;
+    private final PayrollTelemetry payrollTelemetry;
+    private final PayrollBulkhead payrollBulkhead;
+
+    @Value("${payroll.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payroll.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${payroll.cluster.partition-size:500}")
+    private int partitionSize;
+
+    @Value("${payroll.cluster.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${payroll.cluster.max-attempts:3}")
+    private int maxAttempts;
+
+    @PostConstruct
+    void init() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        if (enabled) {
+            log.info("Payroll cluster compute enabled on node {}", nodeId);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // ============ RUN SUBMISSION ============
+
+    /**
+     * Open a run and split its active employees into partitions for any node to compute.
+     */
+    public PayrollPartitionProgressDTO submitClusterRun(int fortnight, int year, String computedBy) {
+        if (!enabled) {
+            throw new IllegalStateException("Payroll cluster compute is not enabled");
+        }
+
+        PayrollRun run = payrollService.openPayrollRun(fortnight, year, computedBy, false);
+
+        List<PayrollPartition> partitions = new ArrayList<>();
+        for (List<Long> ids : Lists.partition(employeeRepository.findActiveIds(), Math.max(1, partitionSize))) {
+            partitions.add(PayrollPartition.builder()
+                    .payrollRun(run)
+                    .partitionIndex(partitions.size())
+                    .firstEmployeeId(ids.get(0))
+                    .lastEmployeeId(ids.get(ids.size() - 1))
+                    .employeeCount(ids.size())
+                    .build());
+        }
+        partitionRepository.saveAll(partitions);
+
+        log.info("Payroll run {} for Fortnight {}/{} split into {} partitions for cluster compute by {}",
+                run.getId(), fortnight, year, partitions.size(), computedBy);
+
+        // A run without active employees has nothing to wait for; otherwise it is timed
+        // by the nodes computing its partitions
+        boolean completed = partitions.isEmpty() && completeIfDone(run.getId(), computedBy);
+        if (!completed) {
+            payrollTelemetry.forgetRun(run.getId());
+        }
+        return getProgress(run.getId());
+    }
+
+    /**
+     * Put the failed partitions of a run back in the queue with their attempts reset, or
+     * complete the run again if all its partitions are done but its completion failed.
+     */
+    public PayrollPartitionProgressDTO retryFailedPartitions(Long runId, String requestedBy) {
+        PayrollRun run = findPayrollRun(runId);
+        if (run.getStatus() != PayrollStatus.COMPUTING) {
+            throw new IllegalStateException("Only payroll runs still computing can be retried");
+        }
+
+        int retried = partitionRepository.retryFailed(runId);
+        if (retried == 0) {
+            if (completeIfDone(runId, run.getComputedBy())) {
+                log.info("Completion of payroll run {} retried by {}", runId, requestedBy);
+                return getProgress(runId);
+            }
+            throw new IllegalStateException("Payroll run has no failed partitions");
+        }
+
+        log.info("{} failed partitions of payroll run {} queued again by {}", retried, runId, requestedBy);
+        return getProgress(runId);
+    }
+
+    // ============ PARTITION PROCESSING ============
+
+    /**
+     * Lease and compute partitions until none are left to claim. Partitions are computed on
+     * the payroll bulkhead; while it is full this poll leaves them to the next one.
+     *
+     * @return the number of partitions this node completed
+     */
+    @Scheduled(fixedDelayString = "${payroll.cluster.poll-interval-ms:5000}",
+               initialDelayString = "${payroll.cluster.poll-initial-delay-ms:10000}")
+    public int processPartitions() {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            return payrollBulkhead.call("cluster-partitions", this::computeClaimablePartitions);
+        } catch (BatchCapacityExceededException e) {
+            log.info("Node {} skipped polling for partitions: {}", nodeId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int computeClaimablePartitions() {
+        int completed = 0;
+        PayrollPartition partition;
+        while ((partition = claimNext()) != null) {
+            if (computePartition(partition)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Lease the first claimable partition another node does not take first.
+     *
+     * @return the leased partition at its new version, or null if none is left
+     */
+    private PayrollPartition claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        for (PayrollPartition candidate : partitionRepository.findClaimable(now, PageRequest.of(0, CLAIM_CANDIDATES))) {
+            if (partitionRepository.claim(candidate.getId(), candidate.getVersion(), nodeId,
+                    now.plusSeconds(leaseSeconds)) == 1) {
+                if (candidate.getStatus() == PayrollPartitionStatus.LEASED) {
+                    log.warn("Node {} reclaimed partition {} of payroll run {} from expired lease of {}",
+                            nodeId, candidate.getPartitionIndex(), candidate.getPayrollRun().getId(),
+                            candidate.getLeaseOwner());
+                }
+                candidate.setVersion(candidate.getVersion() + 1);
+                candidate.setAttempts(candidate.getAttempts() + 1);
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean computePartition(PayrollPartition partition) {
+        Long runId = partition.getPayrollRun().getId();
+        Long leasedVersion = partition.getVersion();
+        long started = System.currentTimeMillis();
+
+        try {
+            int employees = payrollService.computeEmployeeRange(runId,
+                    partition.getFirstEmployeeId(), partition.getLastEmployeeId(),
+                    computed -> {
+                        if (partitionRepository.complete(partition.getId(), leasedVersion, computed) != 1) {
+                            throw new IllegalStateException("Lease on partition " + partition.getPartitionIndex()
+                                    + " of payroll run " + runId + " was lost");
+                        }
+                    });
+            log.info("Node {} computed partition {} of payroll run {} ({} employees) in {} ms",
+                    nodeId, partition.getPartitionIndex(), runId, employees, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            boolean exhausted = partition.getAttempts() >= maxAttempts;
+            String message = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                    ? e.getMessage().substring(0, MAX_ERROR_LENGTH) : e.getMessage();
+            // Matches nothing when the lease already passed to another node
+            partitionRepository.release(partition.getId(), leasedVersion,
+                    exhausted ? PayrollPartitionStatus.FAILED : PayrollPartitionStatus.PENDING, message);
+            log.error("Node {} failed partition {} of payroll run {} (attempt {}): {}",
+                    nodeId, partition.getPartitionIndex(), runId, partition.getAttempts(), e.getMessage(), e);
+            return false;
+        }
+
+        PayrollRun run = findPayrollRun(runId);
+        if (!completeIfDone(runId, run.getComputedBy())) {
+            // Another node completes the run; what this node timed stays in its metrics only
+            payrollTelemetry.forgetRun(runId);
+        }
+        return true;
+    }
+
+    /**
+     * Complete the run once every partition is done. Moving it out of COMPUTING is
+     * conditional, so only one node completes it even if several finish together.
+     *
+     * @return whether this node completed the run
+     */
+    private boolean completeIfDone(Long runId, String computedBy) {
+        if (partitionRepository.countByPayrollRunIdAndStatusNot(runId, PayrollPartitionStatus.DONE) != 0) {
+            return false;
+        }
+        if (payrollService.completeClusterRun(runId, computedBy) == null) {
+            return false;
+        }
+        log.info("Node {} completed payroll run {}: all partitions done", nodeId, runId);
+        return true;
+    }
+
+    // ============ PROGRESS ============
+
+    public PayrollPartitionProgressDTO getProgress(Long runId) {
+        PayrollRun run = findPayrollRun(runId);
+        List<PayrollPartition> partitions = partitionRepository.findByPayrollRunIdOrderByPartitionIndex(runId);
+
+        int[] byStatus = new int[PayrollPartitionStatus.values().length];
+        int totalEmployees = 0;
+        int employeesDone = 0;
+        for (PayrollPartition partition : partitions) {
+            byStatus[partition.getStatus().ordinal()]++;
+            totalEmployees += partition.getEmployeeCount();
+            if (partition.getStatus() == PayrollPartitionStatus.DONE) {
+                employeesDone += partition.getEmployeesDone();
+            }
+        }
+
+        return PayrollPartitionProgressDTO.builder()
+                .payrollRunId(runId)
+                .runStatus(run.getStatus().name())
+                .partitions(partitions.size())
+                .pending(byStatus[PayrollPartitionStatus.PENDING.ordinal()])
+                .leased(byStatus[PayrollPartitionStatus.LEASED.ordinal()])
+                .done(byStatus[PayrollPartitionStatus.DONE.ordinal()])
+                .failed(byStatus[PayrollPartitionStatus.FAILED.ordinal()])
+                .totalEmployees(totalEmployees)
+                .employeesDone(employeesDone)
+                .details(partitions.stream()
+                        .map(this::mapToDTO)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    // ============ HELPER METHODS ============
+
+    private PayrollPartitionProgressDTO.Partition mapToDTO(PayrollPartition partition) {
+        return PayrollPartitionProgressDTO.Partition.builder()
+                .index(partition.getPartitionIndex())
+                .firstEmployeeId(partition.getFirstEmployeeId())
+                .lastEmployeeId(partition.getLastEmployeeId())
+                .employeeCount(partition.getEmployeeCount())
+                .status(partition.getStatus().name())
+                .leaseOwner(partition.getLeaseOwner())
+                .attempts(partition.getAttempts())
+                .errorMessage(partition.getErrorMessage())
+                .build();
+    }
+
+    private PayrollRun findPayrollRun(Long runId) {
+        return payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.collect.Lists;
+import com.staffwise.hrms.config.WorkloadRoutingDataSource;
+import com.staffwise.hrms.entity.Employee;
+import com.staffwise.hrms.entity.PayrollDetail;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.repository.PayrollDetailRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Partitioned payroll compute engine.
+ *
+ * Active employees are ordered by id and split into contiguous id-range partitions.
+ * Each partition is computed and written in its own short transaction, in parallel on
+ * a bounded thread pool. Partition results are merged back in employee id order, so
+ * the run totals are identical to a single-threaded pass over the same roster.
+ *
+ * Parallelism and partition size come from application.yml (payroll.compute.*);
+ * a parallelism of 1 computes every partition on the calling thread.
+ *
+ * Without a checkpoint a run is all-or-nothing. With one, the checkpoint is recorded in
+ * each partition's transaction and committed partitions survive a failure, so the run
+ * can later be resumed from the employees that are still missing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollComputeEngine {
+
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollDetailWriter payrollDetailWriter;
+    private final PayrollDetailRepository payrollDetailRepository;
+    private final PayrollTelemetry payrollTelemetry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payroll.compute.parallelism:4}")
+    private int parallelism;
+
+    @Value("${payroll.compute.partition-size:500}")
+    private int partitionSize;
+
+    private ExecutorService executor;
+    private TransactionTemplate partitionTransaction;
+
+    /**
+     * Progress hook called inside each partition's transaction, after its details are written.
+     */
+    @FunctionalInterface
+    public interface PartitionCheckpoint {
+        void record(int employeesInPartition);
+    }
+
+    /**
+     * Totals of the employees computed by one call, summed in employee id order.
+     */
+    public static class RunTotals {
+        public int employeeCount = 0;
+        public double totalGross = 0;
+        public double totalDeductions = 0;
+        public double totalNetPay = 0;
+    }
+
+    /**
+     * Per-employee amounts of one committed partition in toea, in partition order.
+     */
+    private static class PartitionResult {
+        final long[] gross;
+        final long[] deductions;
+        final long[] netPay;
+        long calculationNanos;
+
+        PartitionResult(int size) {
+            gross = new long[size];
+            deductions = new long[size];
+            netPay = new long[size];
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                WorkloadRoutingDataSource.batchThreadFactory("payroll-compute-"));
+        partitionTransaction = new TransactionTemplate(transactionManager);
+        partitionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Compute and persist payroll details for the given employees against an already
+     * committed run. If any partition fails, details written by the other partitions are
+     * removed before the failure is rethrown.
+     */
+    public RunTotals compute(PayrollRun payrollRun, List<Employee> employees,
+                             PayrollRunContext context, PayrollInputTable inputs) {
+        return compute(payrollRun, employees, context, inputs, null);
+    }
+
+    /**
+     * Compute and persist payroll details, recording the checkpoint with every committed
+     * partition. A null checkpoint behaves like {@link #compute(PayrollRun, List, PayrollRunContext, PayrollInputTable)}.
+     */
+    public RunTotals compute(PayrollRun payrollRun, List<Employee> employees, PayrollRunContext context,
+                             PayrollInputTable inputs, PartitionCheckpoint checkpoint) {
+        long started = System.currentTimeMillis();
+
+        List<Employee> ordered = new ArrayList<>(employees);
+        ordered.sort(Comparator.comparing(Employee::getId));
+        List<List<Employee>> partitions = Lists.partition(ordered, Math.max(1, partitionSize));
+
+        List<PartitionResult> results;
+        try {
+            results = parallelism > 1 && partitions.size() > 1
+                    ? computeInParallel(payrollRun, partitions, context, inputs, checkpoint)
+                    : computeSequentially(payrollRun, partitions, context, inputs, checkpoint);
+        } catch (RuntimeException e) {
+            if (checkpoint == null) {
+                log.error("Payroll computation failed for run {}, discarding partial results", payrollRun.getId());
+                discardPartialResults(payrollRun);
+            } else {
+                log.error("Payroll computation failed for run {}, keeping committed partitions", payrollRun.getId());
+            }
+            throw e;
+        }
+
+        RunTotals totals = merge(results);
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Computed {} employees for payroll run {} in {} partitions (parallelism {}) in {} ms - {} rows/s",
+                totals.employeeCount, payrollRun.getId(), partitions.size(), parallelism,
+                elapsedMs, totals.employeeCount * 1000L / elapsedMs);
+        return totals;
+    }
+
+    /**
+     * Compute and persist the given employees as one partition transaction, whatever the
+     * configured partition size, for callers that have already partitioned the roster.
+     * The checkpoint is recorded once, before the partition commits.
+     */
+    public RunTotals computeSinglePartition(PayrollRun payrollRun, List<Employee> employees, PayrollRunContext context,
+                                            PayrollInputTable inputs, PartitionCheckpoint checkpoint) {
+        List<Employee> ordered = new ArrayList<>(employees);
+        ordered.sort(Comparator.comparing(Employee::getId));
+        return merge(List.of(computePartition(payrollRun, ordered, context, inputs, checkpoint)));
+    }
+
+    private List<PartitionResult> computeSequentially(PayrollRun payrollRun, List<List<Employee>> partitions,
+                                                      PayrollRunContext context, PayrollInputTable inputs,
+                                                      PartitionCheckpoint checkpoint) {
+        List<PartitionResult> results = new ArrayList<>(partitions.size());
+        for (List<Employee> partition : partitions) {
+            results.add(computePartition(payrollRun, partition, context, inputs, checkpoint));
+        }
+        return results;
+    }
+
+    private List<PartitionResult> computeInParallel(PayrollRun payrollRun, List<List<Employee>> partitions,
+                                                    PayrollRunContext context, PayrollInputTable inputs,
+                                                    PartitionCheckpoint checkpoint) {
+        List<Future<PartitionResult>> futures = new ArrayList<>(partitions.size());
+        for (List<Employee> partition : partitions) {
+            futures.add(executor.submit(() -> computePartition(payrollRun, partition, context, inputs, checkpoint)));
+        }
+
+        List<PartitionResult> results = new ArrayList<>(partitions.size());
+        try {
+            for (Future<PartitionResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            cancelAndAwait(futures);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Payroll partition failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAndAwait(futures);
+            throw new IllegalStateException("Payroll computation was interrupted", e);
+        }
+    }
+
+    /**
+     * Compute one partition, then write its details as JDBC batches and commit them.
+     * The calculation and the write with its commit are timed separately and reported to
+     * {@link PayrollTelemetry} and as a {@link PayrollPartitionEvent}.
+     */
+    private PartitionResult computePartition(PayrollRun payrollRun, List<Employee> partition,
+                                             PayrollRunContext context, PayrollInputTable inputs,
+                                             PartitionCheckpoint checkpoint) {
+        PayrollPartitionEvent event = new PayrollPartitionEvent();
+        event.begin();
+        long started = System.nanoTime();
+
+        PartitionResult partitionResult = partitionTransaction.execute(status -> {
+            PartitionResult result = new PartitionResult(partition.size());
+            long calculationStarted = System.nanoTime();
+            List<PayrollDetail> details = payrollCalculator.calculateAll(partition, payrollRun, context, inputs);
+
+            for (int i = 0; i < details.size(); i++) {
+                PayrollDetail detail = details.get(i);
+                result.gross[i] = MoneyUtil.toToea(detail.getGrossSalary());
+                result.deductions[i] = MoneyUtil.toToea(detail.getTotalDeductions());
+                result.netPay[i] = MoneyUtil.toToea(detail.getNetPay());
+            }
+            result.calculationNanos = System.nanoTime() - calculationStarted;
+
+            payrollDetailWriter.write(details);
+            if (checkpoint != null) {
+                checkpoint.record(partition.size());
+            }
+            return result;
+        });
+
+        long persistenceNanos = System.nanoTime() - started - partitionResult.calculationNanos;
+        payrollTelemetry.record(payrollRun.getId(), PayrollTelemetry.Phase.CALCULATION, partitionResult.calculationNanos);
+        payrollTelemetry.record(payrollRun.getId(), PayrollTelemetry.Phase.PERSISTENCE, persistenceNanos);
+        payrollTelemetry.partitionComputed(payrollRun.getId(), partition.size());
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.payrollRunId = payrollRun.getId();
+            event.employees = partition.size();
+            event.calculationNanos = partitionResult.calculationNanos;
+            event.persistenceNanos = persistenceNanos;
+            event.commit();
+        }
+        return partitionResult;
+    }
+
+    private RunTotals merge(List<PartitionResult> results) {
+        RunTotals totals = new RunTotals();
+        long gross = 0;
+        long deductions = 0;
+        long netPay = 0;
+        for (PartitionResult result : results) {
+            for (int i = 0; i < result.gross.length; i++) {
+                gross += result.gross[i];
+                deductions += result.deductions[i];
+                netPay += result.netPay[i];
+            }
+            totals.employeeCount += result.gross.length;
+        }
+        totals.totalGross = MoneyUtil.toKina(gross);
+        totals.totalDeductions = MoneyUtil.toKina(deductions);
+        totals.totalNetPay = MoneyUtil.toKina(netPay);
+        return totals;
+    }
+
+    /**
+     * Cancel partitions that have not started and wait for running ones to finish,
+     * so nothing is still writing when partial results are discarded.
+     */
+    private void cancelAndAwait(List<Future<PartitionResult>> futures) {
+        for (Future<PartitionResult> future : futures) {
+            if (!future.cancel(false)) {
+                try {
+                    future.get();
+                } catch (Exception ignored) {
+                    // Already failed or finished - cleanup covers it either way
+                }
+            }
+        }
+    }
+
+    private void discardPartialResults(PayrollRun payrollRun) {
+        partitionTransaction.executeWithoutResult(status ->
+                payrollDetailRepository.deleteByPayrollRunId(payrollRun.getId()));
+    }
+}
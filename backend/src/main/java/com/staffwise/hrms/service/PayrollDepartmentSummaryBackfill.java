@@ -0,0 +1,48 @@
+package com.staffwise.hrms.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Summarizes the departments of payroll runs computed before department summaries existed,
+ * once at startup, so that reading summaries never has to write them.
+ *
+ * Every node runs it on startup; a lease in scheduler_locks lets one node at a time do so,
+ * and a node that finds the lock taken leaves the runs to its holder.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollDepartmentSummaryBackfill implements ApplicationRunner {
+
+    public static final String LOCK_NAME = "payroll-department-summary-backfill";
+
+    private static final Duration LOCK_LEASE = Duration.ofHours(1);
+
+    private final PayrollDepartmentSummaryService departmentSummaryService;
+    private final SchedulerLockService schedulerLockService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String lock = schedulerLockService.tryLock(LOCK_NAME, LOCK_LEASE);
+        if (lock == null) {
+            log.debug("Department summary backfill skipped: running elsewhere");
+            return;
+        }
+        try {
+            int summarized = departmentSummaryService.rebuildMissing();
+            if (summarized > 0) {
+                log.info("Summarized departments of {} payroll runs computed before summaries existed", summarized);
+            }
+        } catch (RuntimeException e) {
+            log.error("Department summary backfill failed: {}", e.getMessage(), e);
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME, lock);
+        }
+    }
+}
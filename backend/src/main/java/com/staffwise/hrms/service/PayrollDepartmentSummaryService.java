@@ -0,0 +1,149 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.PayrollDepartmentSummaryDTO;
+import com.staffwise.hrms.entity.Department;
+import com.staffwise.hrms.entity.PayrollDepartmentSummary;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.DepartmentRepository;
+import com.staffwise.hrms.repository.PayrollDepartmentSummaryRepository;
+import com.staffwise.hrms.repository.PayrollDetailRepository;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-department payroll summaries of a run.
+ *
+ * Summaries are rebuilt from the detail amounts each time a run is computed or
+ * recomputed, so department views and reports read them directly instead of
+ * summing payroll details per request. Runs computed before summaries existed
+ * get theirs from {@link PayrollDepartmentSummaryBackfill} at startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PayrollDepartmentSummaryService {
+
+    private final PayrollDepartmentSummaryRepository summaryRepository;
+    private final PayrollDetailRepository payrollDetailRepository;
+    private final PayrollRunRepository payrollRunRepository;
+    private final DepartmentRepository departmentRepository;
+
+    /**
+     * Running totals of one department, money in toea.
+     */
+    private static class DepartmentTotals {
+        int headcount;
+        long gross;
+        long salaryWagesTax;
+        long superEmployee;
+        long superEmployer;
+        long netPay;
+        double overtimeHours;
+    }
+
+    /**
+     * Replace the summaries of a run from its detail amounts, as returned by
+     * {@link PayrollDetailRepository#findAmountsByPayrollRunOrderByEmployee}.
+     */
+    public List<PayrollDepartmentSummary> rebuild(PayrollRun payrollRun, List<Object[]> amounts) {
+        Map<Long, DepartmentTotals> totalsByDepartment = new LinkedHashMap<>();
+        for (Object[] row : amounts) {
+            DepartmentTotals totals = totalsByDepartment.computeIfAbsent((Long) row[0], id -> new DepartmentTotals());
+            totals.headcount++;
+            totals.gross += toea(row[1]);
+            totals.netPay += toea(row[3]);
+            totals.salaryWagesTax += toea(row[4]);
+            totals.superEmployee += toea(row[5]);
+            totals.superEmployer += toea(row[6]);
+            totals.overtimeHours += row[7] != null ? ((Number) row[7]).doubleValue() : 0.0;
+        }
+
+        List<PayrollDepartmentSummary> summaries = new ArrayList<>();
+        totalsByDepartment.forEach((departmentId, totals) -> summaries.add(PayrollDepartmentSummary.builder()
+                .payrollRun(payrollRun)
+                .department(departmentId != null ? departmentRepository.getReferenceById(departmentId) : null)
+                .headcount(totals.headcount)
+                .totalGross(MoneyUtil.toKina(totals.gross))
+                .totalSalaryWagesTax(MoneyUtil.toKina(totals.salaryWagesTax))
+                .totalSuperEmployee(MoneyUtil.toKina(totals.superEmployee))
+                .totalSuperEmployer(MoneyUtil.toKina(totals.superEmployer))
+                .totalNetPay(MoneyUtil.toKina(totals.netPay))
+                .totalOvertimeHours(totals.overtimeHours)
+                .build()));
+
+        summaryRepository.deleteByPayrollRunId(payrollRun.getId());
+        log.debug("Summarized payroll run {} into {} departments", payrollRun.getId(), summaries.size());
+        return summaryRepository.saveAll(summaries);
+    }
+
+    /**
+     * Rebuild the summaries of a run from its committed details.
+     */
+    public List<PayrollDepartmentSummary> rebuild(PayrollRun payrollRun) {
+        return rebuild(payrollRun, payrollDetailRepository.findAmountsByPayrollRunOrderByEmployee(payrollRun.getId()));
+    }
+
+    /**
+     * Remove the summaries of a run that is being discarded.
+     */
+    public void delete(Long runId) {
+        summaryRepository.deleteByPayrollRunId(runId);
+    }
+
+    /**
+     * Build the summaries of every computed run that has none.
+     *
+     * @return the number of runs summarized
+     */
+    public int rebuildMissing() {
+        List<Long> runIds = summaryRepository.findRunIdsWithoutSummaries();
+        for (Long runId : runIds) {
+            rebuild(payrollRunRepository.getReferenceById(runId));
+        }
+        return runIds.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PayrollDepartmentSummaryDTO> getSummaries(Long runId) {
+        if (payrollRunRepository.findVisibleById(runId).isEmpty()) {
+            throw new ResourceNotFoundException("Payroll run not found");
+        }
+
+        return summaryRepository.findByPayrollRunIdWithDepartment(runId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private long toea(Object value) {
+        return value != null ? MoneyUtil.toToea(((Number) value).doubleValue()) : 0L;
+    }
+
+    private PayrollDepartmentSummaryDTO mapToDTO(PayrollDepartmentSummary summary) {
+        Department department = summary.getDepartment();
+        return PayrollDepartmentSummaryDTO.builder()
+                .payrollRunId(summary.getPayrollRun().getId())
+                .departmentId(department != null ? department.getId() : null)
+                .departmentCode(department != null ? department.getDeptCode() : null)
+                .departmentName(department != null ? department.getName() : null)
+                .headcount(summary.getHeadcount())
+                .totalGross(summary.getTotalGross())
+                .totalSalaryWagesTax(summary.getTotalSalaryWagesTax())
+                .totalSuperEmployee(summary.getTotalSuperEmployee())
+                .totalSuperEmployer(summary.getTotalSuperEmployer())
+                .totalNetPay(summary.getTotalNetPay())
+                .totalOvertimeHours(summary.getTotalOvertimeHours())
+                .build();
+    }
+}
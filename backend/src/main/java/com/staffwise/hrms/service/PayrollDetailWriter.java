@@ -0,0 +1,54 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.PayrollDetail;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persistence stage for computed payroll details.
+ *
+ * Details are persisted in chunks matching hibernate.jdbc.batch_size so each chunk
+ * goes out as one JDBC batch; the persistence context is flushed and cleared after
+ * every chunk to keep memory flat regardless of roster size.
+ */
+@Service
+@Slf4j
+public class PayrollDetailWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Insert the given details within the caller's transaction.
+     * Returns the number of rows written.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int write(List<PayrollDetail> details) {
+        long started = System.nanoTime();
+        int chunk = Math.max(1, batchSize);
+
+        for (int i = 0; i < details.size(); i++) {
+            entityManager.persist(details.get(i));
+            if ((i + 1) % chunk == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        log.debug("Wrote {} payroll details in {} ms", details.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return details.size();
+    }
+}
@@ -0,0 +1,241 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.repository.AttendanceRepository;
+import com.staffwise.hrms.repository.EmployeeCompensationRepository;
+import com.staffwise.hrms.repository.EmployeeRequestRepository;
+import com.staffwise.hrms.repository.PayrollAdjustmentRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Loads all per-employee payroll inputs for a pay period with a fixed number
+ * of grouped queries, independent of how many employees are on the roster.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PayrollInputService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final EmployeeRequestRepository requestRepository;
+    private final PayrollAdjustmentRepository adjustmentRepository;
+    private final EmployeeCompensationRepository compensationRepository;
+
+    /**
+     * Inputs of a saved run. Overtime and retro adjustments are what the run consumed when it was opened.
+     */
+    public PayrollInputTable loadInputs(PayrollRun payrollRun) {
+        LocalDate startDate = payrollRun.getPeriodStart();
+        LocalDate endDate = payrollRun.getPeriodEnd();
+        PayrollInputTable inputs = new PayrollInputTable(startDate, endDate);
+        populate(inputs,
+                attendanceRepository.countAttendanceByEmployeeInPeriod(startDate, endDate),
+                requestRepository.sumApprovedLeaveDaysByEmployeeInPeriod(startDate, endDate),
+                requestRepository.sumOvertimeHoursByPayrollRun(payrollRun.getId()),
+                adjustmentRepository.sumByPayrollRun(payrollRun.getId()));
+        inputs.setCompensation(CompensationIndex.of(compensationRepository.findIndexRowsInPeriod(startDate, endDate)));
+        return inputs;
+    }
+
+    /**
+     * Inputs of a period that has no saved run, as used by dry runs.
+     * Overtime and retro adjustments are those not yet paid by any run.
+     */
+    public PayrollInputTable loadUnpaidInputs(LocalDate startDate, LocalDate endDate) {
+        PayrollInputTable inputs = new PayrollInputTable(startDate, endDate);
+        populate(inputs,
+                attendanceRepository.countAttendanceByEmployeeInPeriod(startDate, endDate),
+                requestRepository.sumApprovedLeaveDaysByEmployeeInPeriod(startDate, endDate),
+                requestRepository.sumApprovedOvertimeNotInPayrollInPeriod(startDate, endDate),
+                adjustmentRepository.sumPending());
+        inputs.setCompensation(CompensationIndex.of(compensationRepository.findIndexRowsInPeriod(startDate, endDate)));
+        return inputs;
+    }
+
+    /**
+     * Inputs of a run for a subset of employees, used when only those rows are recomputed.
+     */
+    public PayrollInputTable loadInputsForEmployees(PayrollRun payrollRun, Collection<Long> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return new PayrollInputTable(payrollRun.getPeriodStart(), payrollRun.getPeriodEnd());
+        }
+        return loadInputsForEmployees(payrollRun, employeeIds, loadCompensation(
+                payrollRun.getPeriodStart(), payrollRun.getPeriodEnd(), employeeIds));
+    }
+
+    /**
+     * Inputs of a run for a subset of employees, with compensation from an index already
+     * loaded for a range covering the run, as when several runs are recomputed in turn.
+     */
+    public PayrollInputTable loadInputsForEmployees(PayrollRun payrollRun, Collection<Long> employeeIds,
+                                                    CompensationIndex compensation) {
+        LocalDate startDate = payrollRun.getPeriodStart();
+        LocalDate endDate = payrollRun.getPeriodEnd();
+        PayrollInputTable inputs = new PayrollInputTable(startDate, endDate);
+        if (employeeIds.isEmpty()) {
+            return inputs;
+        }
+        populate(inputs,
+                attendanceRepository.countAttendanceForEmployeesInPeriod(startDate, endDate, employeeIds),
+                requestRepository.sumApprovedLeaveDaysForEmployeesInPeriod(startDate, endDate, employeeIds),
+                requestRepository.sumOvertimeHoursByPayrollRunForEmployees(payrollRun.getId(), employeeIds),
+                adjustmentRepository.sumByPayrollRunForEmployees(payrollRun.getId(), employeeIds));
+        inputs.setCompensation(compensation);
+        return inputs;
+    }
+
+    /**
+     * Compensation records of the given employees in force on any day of a date range,
+     * read with one query however many periods the range spans.
+     */
+    public CompensationIndex loadCompensation(LocalDate startDate, LocalDate endDate, Collection<Long> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return CompensationIndex.EMPTY;
+        }
+        return CompensationIndex.of(compensationRepository.findIndexRowsForEmployeesInPeriod(startDate, endDate, employeeIds));
+    }
+
+    /**
+     * Inputs of several saved runs covering consecutive fortnights, in the order of the runs.
+     * Attendance, leave and compensation for the whole range are read once and bucketed into
+     * each run's period; overtime is what each run consumed when it was opened. A leave request counts
+     * towards every period its first or last day falls in, as in {@link #loadInputs}.
+     */
+    public List<PayrollInputTable> loadInputsForRuns(List<PayrollRun> payrollRuns) {
+        List<PayrollInputTable> tables = new ArrayList<>(payrollRuns.size());
+        Map<Long, Integer> indexByRun = new HashMap<>();
+        for (PayrollRun run : payrollRuns) {
+            indexByRun.put(run.getId(), tables.size());
+            tables.add(new PayrollInputTable(run.getPeriodStart(), run.getPeriodEnd()));
+        }
+        if (tables.isEmpty()) {
+            return tables;
+        }
+
+        LocalDate startDate = tables.get(0).getPeriodStart();
+        LocalDate endDate = tables.get(tables.size() - 1).getPeriodEnd();
+        List<Map<Long, int[]>> attendance = new ArrayList<>(tables.size());
+        List<Map<Long, Double>> leaves = new ArrayList<>(tables.size());
+        for (int i = 0; i < tables.size(); i++) {
+            attendance.add(new HashMap<>());
+            leaves.add(new HashMap<>());
+        }
+
+        int attendanceRows = 0;
+        try (Stream<Object[]> days = attendanceRepository.streamAttendanceDaysInPeriod(startDate, endDate)) {
+            for (Object[] row : (Iterable<Object[]>) days::iterator) {
+                int period = periodOf(tables, (LocalDate) row[1]);
+                if (period >= 0) {
+                    int[] counts = attendance.get(period).computeIfAbsent((Long) row[0], id -> new int[2]);
+                    counts[0] += toInt(row[2]);
+                    counts[1] += toInt(row[3]);
+                }
+                attendanceRows++;
+            }
+        }
+
+        List<Object[]> leaveRows = requestRepository.findApprovedLeavePeriodsInPeriod(startDate, endDate);
+        for (Object[] row : leaveRows) {
+            double days = row[3] != null ? ((Number) row[3]).doubleValue() : 0.0;
+            int fromPeriod = periodOf(tables, (LocalDate) row[1]);
+            int toPeriod = periodOf(tables, (LocalDate) row[2]);
+            if (fromPeriod >= 0) {
+                leaves.get(fromPeriod).merge((Long) row[0], days, Double::sum);
+            }
+            if (toPeriod >= 0 && toPeriod != fromPeriod) {
+                leaves.get(toPeriod).merge((Long) row[0], days, Double::sum);
+            }
+        }
+
+        // One index over the whole range serves every period
+        CompensationIndex compensation = CompensationIndex.of(compensationRepository.findIndexRowsInPeriod(startDate, endDate));
+        for (int i = 0; i < tables.size(); i++) {
+            PayrollInputTable inputs = tables.get(i);
+            attendance.get(i).forEach((employeeId, counts) -> inputs.putAttendance(employeeId, counts[0], counts[1]));
+            leaves.get(i).forEach(inputs::putLeaveDays);
+            inputs.setCompensation(compensation);
+        }
+
+        List<Object[]> overtimeRows = requestRepository.sumOvertimeHoursByPayrollRuns(indexByRun.keySet());
+        for (Object[] row : overtimeRows) {
+            tables.get(indexByRun.get((Long) row[0]))
+                    .putApprovedOvertimeHours((Long) row[1], row[2] != null ? ((Number) row[2]).doubleValue() : 0.0);
+        }
+
+        log.debug("Loaded payroll inputs for {} periods from {} to {}: {} attendance rows, {} leave rows, {} overtime rows",
+                tables.size(), startDate, endDate, attendanceRows, leaveRows.size(), overtimeRows.size());
+        return tables;
+    }
+
+    /**
+     * Index of the period containing the date, or -1. Periods are consecutive and in date order.
+     */
+    private int periodOf(List<PayrollInputTable> tables, LocalDate date) {
+        int low = 0;
+        int high = tables.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PayrollInputTable table = tables.get(mid);
+            if (date.isBefore(table.getPeriodStart())) {
+                high = mid - 1;
+            } else if (date.isAfter(table.getPeriodEnd())) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private void populate(PayrollInputTable inputs, List<Object[]> attendance, List<Object[]> leaves,
+                          List<Object[]> overtimes, List<Object[]> retroAdjustments) {
+        for (Object[] row : attendance) {
+            inputs.putAttendance((Long) row[0], toInt(row[1]), toInt(row[2]));
+        }
+
+        for (Object[] row : leaves) {
+            inputs.putLeaveDays((Long) row[0], row[1] != null ? ((Number) row[1]).doubleValue() : 0.0);
+        }
+
+        for (Object[] row : overtimes) {
+            inputs.putApprovedOvertimeHours((Long) row[0], row[1] != null ? ((Number) row[1]).doubleValue() : 0.0);
+        }
+
+        for (Object[] row : retroAdjustments) {
+            inputs.putRetroAdjustment((Long) row[0], retroAmounts(row));
+        }
+
+        log.debug("Loaded payroll inputs for {} to {}: {} attendance rows, {} leave rows, {} overtime rows, "
+                        + "{} retro adjustment rows", inputs.getPeriodStart(), inputs.getPeriodEnd(),
+                attendance.size(), leaves.size(), overtimes.size(), retroAdjustments.size());
+    }
+
+    /**
+     * Amounts of a row of PayrollAdjustmentRepository's per-employee sums, in toea.
+     */
+    static PayrollInputTable.RetroAmounts retroAmounts(Object[] row) {
+        return new PayrollInputTable.RetroAmounts(toToea(row[1]), toToea(row[2]), toToea(row[3]),
+                toToea(row[4]), toToea(row[5]));
+    }
+
+    private static long toToea(Object amount) {
+        return amount != null ? MoneyUtil.toToea(((Number) amount).doubleValue()) : 0L;
+    }
+
+    private int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.staffwise.hrms.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory payroll inputs for one pay period, keyed by employee id.
+ * Built once per run by {@link PayrollInputService} so the compute loop
+ * reads attendance, leave, overtime, retro adjustments and effective-dated compensation
+ * from here instead of the database.
+ * Populated before the compute partitions start and read-only afterwards,
+ * so it can be shared between compute threads.
+ */
+public class PayrollInputTable {
+
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+
+    private final Map<Long, Integer> presentDays = new HashMap<>();
+    private final Map<Long, Integer> lateDays = new HashMap<>();
+    private final Map<Long, Double> leaveDays = new HashMap<>();
+    private final Map<Long, Double> overtimeHours = new HashMap<>();
+    private final Map<Long, RetroAmounts> retroAdjustments = new HashMap<>();
+    private CompensationIndex compensation = CompensationIndex.EMPTY;
+
+    /**
+     * Sum of the retro adjustments a run pays one employee, in toea.
+     */
+    public record RetroAmounts(long gross, long salaryWagesTax, long superEmployee,
+                               long superEmployer, long lateDeduction) {
+    }
+
+    public PayrollInputTable(LocalDate periodStart, LocalDate periodEnd) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    void putAttendance(Long employeeId, int present, int late) {
+        presentDays.put(employeeId, present);
+        lateDays.put(employeeId, late);
+    }
+
+    void putLeaveDays(Long employeeId, double days) {
+        leaveDays.put(employeeId, days);
+    }
+
+    void putApprovedOvertimeHours(Long employeeId, double hours) {
+        overtimeHours.put(employeeId, hours);
+    }
+
+    void putRetroAdjustment(Long employeeId, RetroAmounts amounts) {
+        retroAdjustments.put(employeeId, amounts);
+    }
+
+    void setCompensation(CompensationIndex compensation) {
+        this.compensation = compensation;
+    }
+
+    public int getPresentDays(Long employeeId) {
+        return presentDays.getOrDefault(employeeId, 0);
+    }
+
+    public int getLateDays(Long employeeId) {
+        return lateDays.getOrDefault(employeeId, 0);
+    }
+
+    public double getLeaveDays(Long employeeId) {
+        return leaveDays.getOrDefault(employeeId, 0.0);
+    }
+
+    public double getApprovedOvertimeHours(Long employeeId) {
+        return overtimeHours.getOrDefault(employeeId, 0.0);
+    }
+
+    /**
+     * Retro adjustments paid to the employee in this period, or null if there are none.
+     */
+    public RetroAmounts getRetroAdjustment(Long employeeId) {
+        return retroAdjustments.get(employeeId);
+    }
+
+    /**
+     * The employee's compensation over this period, or null if no record covers it,
+     * in which case the employee's current salary and department apply.
+     */
+    public CompensationIndex.Compensation getCompensation(Long employeeId) {
+        return compensation.findForPeriod(employeeId, periodStart, periodEnd);
+    }
+}
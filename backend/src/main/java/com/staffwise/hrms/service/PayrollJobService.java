@@ -0,0 +1,326 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.config.WorkloadRoutingDataSource;
+import com.staffwise.hrms.dto.PayrollJobDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.entity.PayrollJob;
+import com.staffwise.hrms.entity.PayrollJobStatus;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollStatus;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.PayrollJobRepository;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Runs payroll computation as background jobs.
+ *
+ * A submitted job opens a PayrollRun and computes it through {@link PayrollService} with a
+ * checkpoint per committed partition, so progress survives a node stopping: jobs whose
+ * heartbeat went stale are picked up again by a periodic sweep on any node and continue
+ * after the last committed partition. A job that fails discards its run, as
+ * {@link PayrollService#computePayroll} does, and computes the fortnight again if resumed.
+ *
+ * A fortnight has at most one queued or running job, and each attempt of a job is claimed
+ * with a conditional update before it starts, so it never runs on two nodes at once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollJobService {
+
+    private static final List<PayrollJobStatus> ACTIVE_STATUSES =
+            List.of(PayrollJobStatus.QUEUED, PayrollJobStatus.RUNNING);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PayrollJobRepository payrollJobRepository;
+    private final PayrollRunRepository payrollRunRepository;
+    private final PayrollService payrollService;
+    private final PayrollTelemetry payrollTelemetry;
+
+    @Value("${payroll.job.workers:1}")
+    private int workers;
+
+    @Value("${payroll.job.stale-after-seconds:300}")
+    private long staleAfterSeconds;
+
+    private ExecutorService executor;
+
+    // Jobs queued or running on this node; the sweep never treats them as abandoned
+    private final Set<Long> localJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(Math.max(1, workers), WorkloadRoutingDataSource.batchThreadFactory("payroll-job-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Running jobs are left RUNNING and get resumed once their heartbeat goes stale
+        executor.shutdown();
+    }
+
+    // ============ JOB SUBMISSION ============
+
+    public PayrollJobDTO submitJob(int fortnight, int year, String requestedBy) {
+        if (payrollRunRepository.findByFortnightAndYear(fortnight, year).isPresent()) {
+            throw new IllegalStateException("Payroll already exists for Fortnight " + fortnight + ", " + year);
+        }
+        if (payrollJobRepository.existsByFortnightAndYearAndStatusIn(fortnight, year, ACTIVE_STATUSES)) {
+            throw new IllegalStateException("A payroll job is already in progress for Fortnight " + fortnight + ", " + year);
+        }
+
+        PayrollJob job;
+        try {
+            job = payrollJobRepository.saveAndFlush(PayrollJob.builder()
+                    .fortnight(fortnight)
+                    .year(year)
+                    .status(PayrollJobStatus.QUEUED)
+                    .activePeriod(activePeriod(fortnight, year))
+                    .requestedBy(requestedBy)
+                    .heartbeatAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Submitted concurrently with another job for the fortnight
+            throw new IllegalStateException("A payroll job is already in progress for Fortnight " + fortnight + ", " + year);
+        }
+
+        log.info("Payroll job {} submitted for Fortnight {}/{} by {}", job.getId(), fortnight, year, requestedBy);
+        dispatch(job.getId(), job.getAttempts());
+        return mapToDTO(job);
+    }
+
+    /**
+     * Resume a failed job. Its run was discarded when it failed, so the fortnight is computed again.
+     */
+    public PayrollJobDTO resumeJob(Long jobId, String requestedBy) {
+        PayrollJob job = payrollJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll job not found"));
+
+        if (job.getStatus() != PayrollJobStatus.FAILED) {
+            throw new IllegalStateException("Only failed payroll jobs can be resumed");
+        }
+
+        job.setStatus(PayrollJobStatus.QUEUED);
+        job.setActivePeriod(activePeriod(job.getFortnight(), job.getYear()));
+        job.setErrorMessage(null);
+        job.setHeartbeatAt(LocalDateTime.now());
+        PayrollJob saved;
+        try {
+            saved = payrollJobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("A payroll job is already in progress for Fortnight "
+                    + job.getFortnight() + ", " + job.getYear());
+        }
+
+        log.info("Payroll job {} resumed by {}", jobId, requestedBy);
+        dispatch(jobId, saved.getAttempts());
+        return mapToDTO(saved);
+    }
+
+    /**
+     * Pick up jobs whose node stopped heartbeating, e.g. after a crash or restart.
+     */
+    @Scheduled(fixedDelayString = "${payroll.job.sweep-interval-ms:60000}",
+               initialDelayString = "${payroll.job.sweep-initial-delay-ms:30000}")
+    public void resumeAbandonedJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        for (PayrollJob job : payrollJobRepository.findByStatusInAndHeartbeatAtBefore(ACTIVE_STATUSES, staleBefore)) {
+            if (localJobs.contains(job.getId())) {
+                continue;
+            }
+            if (payrollJobRepository.claimJob(job.getId(), job.getHeartbeatAt(), LocalDateTime.now()) == 1) {
+                log.warn("Resuming abandoned payroll job {} for Fortnight {}/{} after {} employees",
+                        job.getId(), job.getFortnight(), job.getYear(), job.getEmployeesDone());
+                dispatch(job.getId(), job.getAttempts());
+            }
+        }
+    }
+
+    // ============ JOB QUERIES ============
+
+    public PayrollJobDTO getJob(Long jobId) {
+        return payrollJobRepository.findById(jobId)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll job not found"));
+    }
+
+    public List<PayrollJobDTO> getRecentJobs() {
+        return payrollJobRepository.findTop20ByOrderByCreatedAtDesc().stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // ============ JOB EXECUTION ============
+
+    /**
+     * Queue a job on this node. The attempt count it was dispatched with is claimed when it
+     * starts; if another node started an attempt in the meantime, this one does nothing.
+     */
+    private void dispatch(Long jobId, int seenAttempts) {
+        localJobs.add(jobId);
+        executor.submit(() -> {
+            try {
+                runJob(jobId, seenAttempts);
+            } finally {
+                localJobs.remove(jobId);
+            }
+        });
+    }
+
+    private void runJob(Long jobId, int seenAttempts) {
+        if (payrollJobRepository.startAttempt(jobId, seenAttempts, PayrollJobStatus.RUNNING,
+                ACTIVE_STATUSES, LocalDateTime.now()) != 1) {
+            log.info("Payroll job {} was started elsewhere or is no longer active", jobId);
+            return;
+        }
+        PayrollJob job = payrollJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll job not found"));
+
+        Long runId = null;
+        try {
+            PayrollRun run = job.getPayrollRun() != null
+                    ? payrollRunRepository.findById(job.getPayrollRun().getId()).orElse(null)
+                    : null;
+            if (run == null) {
+                run = payrollService.openPayrollRun(job.getFortnight(), job.getYear(), job.getRequestedBy());
+                job.setPayrollRun(run);
+                job.setTotalEmployees(run.getTotalEmployees());
+            }
+            runId = run.getId();
+
+            LocalDateTime now = LocalDateTime.now();
+            job.setResumedFrom(job.getEmployeesDone());
+            job.setStartedAt(now);
+            job.setHeartbeatAt(now);
+            payrollJobRepository.save(job);
+
+            // A previous attempt may have stopped between completing the run and the job
+            if (run.getStatus() == PayrollStatus.COMPUTING) {
+                payrollService.computeRemainingEmployees(run.getId(),
+                        employees -> payrollJobRepository.recordProgress(jobId, employees, LocalDateTime.now()));
+                PayrollRunDTO completed = payrollService.completePayrollRun(run.getId(), job.getRequestedBy());
+                finishJob(jobId, PayrollJobStatus.COMPLETED, completed.getTotalEmployees(), null);
+            } else {
+                finishJob(jobId, PayrollJobStatus.COMPLETED, run.getTotalEmployees(), null);
+            }
+            log.info("Payroll job {} completed for Fortnight {}/{}", jobId, job.getFortnight(), job.getYear());
+        } catch (RuntimeException e) {
+            log.error("Payroll job {} failed: {}", jobId, e.getMessage(), e);
+            failJob(jobId, runId, e.getMessage());
+        }
+    }
+
+    /**
+     * Mark a job FAILED and discard its run if it is still COMPUTING. The job lets go of the run
+     * first, as the run cannot be deleted while a job refers to it.
+     */
+    private void failJob(Long jobId, Long runId, String errorMessage) {
+        PayrollJob job = payrollJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll job not found"));
+        // The run may have been opened without the job having been saved with it yet
+        PayrollRun run = runId != null ? payrollRunRepository.findById(runId).orElse(null) : null;
+        boolean discard = run != null && run.getStatus() == PayrollStatus.COMPUTING;
+        if (discard) {
+            job.setPayrollRun(null);
+            job.setEmployeesDone(0);
+            job.setResumedFrom(0);
+        }
+        finishJob(job, PayrollJobStatus.FAILED, null, errorMessage);
+
+        if (discard) {
+            try {
+                payrollService.discardPayrollRun(run.getId());
+            } catch (RuntimeException e) {
+                log.error("Payroll job {} could not discard payroll run {}: {}", jobId, run.getId(), e.getMessage(), e);
+            }
+        }
+        if (runId != null) {
+            // Whatever this attempt timed for the run is never completed
+            payrollTelemetry.discardRun(runId);
+        }
+    }
+
+    private void finishJob(Long jobId, PayrollJobStatus status, Integer totalEmployees, String errorMessage) {
+        // Reload so checkpointed progress is not overwritten
+        finishJob(payrollJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll job not found")),
+                status, totalEmployees, errorMessage);
+    }
+
+    private void finishJob(PayrollJob job, PayrollJobStatus status, Integer totalEmployees, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(status);
+        job.setActivePeriod(null);
+        job.setFinishedAt(now);
+        job.setHeartbeatAt(now);
+        if (totalEmployees != null) {
+            job.setTotalEmployees(totalEmployees);
+            job.setEmployeesDone(totalEmployees);
+        }
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+        job.setErrorMessage(errorMessage);
+        payrollJobRepository.save(job);
+    }
+
+    private static String activePeriod(int fortnight, int year) {
+        return fortnight + "/" + year;
+    }
+
+    // ============ MAPPING METHODS ============
+
+    private PayrollJobDTO mapToDTO(PayrollJob job) {
+        int total = job.getTotalEmployees() != null ? job.getTotalEmployees() : 0;
+        int done = job.getEmployeesDone() != null ? job.getEmployeesDone() : 0;
+
+        Double rate = null;
+        Long eta = null;
+        if (job.getStartedAt() != null) {
+            LocalDateTime until = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            double seconds = Math.max(Duration.between(job.getStartedAt(), until).toMillis(), 1) / 1000.0;
+            int doneThisAttempt = done - (job.getResumedFrom() != null ? job.getResumedFrom() : 0);
+            rate = doneThisAttempt / seconds;
+            if (job.getStatus() == PayrollJobStatus.RUNNING && rate > 0) {
+                eta = (long) Math.ceil(Math.max(total - done, 0) / rate);
+            }
+        }
+
+        return PayrollJobDTO.builder()
+                .id(job.getId())
+                .fortnight(job.getFortnight())
+                .year(job.getYear())
+                .status(job.getStatus())
+                .payrollRunId(job.getPayrollRun() != null ? job.getPayrollRun().getId() : null)
+                .requestedBy(job.getRequestedBy())
+                .attempts(job.getAttempts())
+                .totalEmployees(total)
+                .employeesDone(done)
+                .percentComplete(total > 0 ? Math.min(100.0, done * 100.0 / total) : 0.0)
+                .employeesPerSecond(rate)
+                .etaSeconds(eta)
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .heartbeatAt(job.getHeartbeatAt())
+                .errorMessage(job.getErrorMessage())
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.staffwise.hrms.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one partition of employees computed and committed by
+ * {@link PayrollComputeEngine}. Its duration covers the whole partition transaction.
+ */
+@Name("com.staffwise.payroll.Partition")
+@Label("Payroll Partition")
+@Category({"StaffWise", "Payroll"})
+@Description("A batch of employees computed and written in one transaction")
+@StackTrace(false)
+class PayrollPartitionEvent extends Event {
+
+    @Label("Payroll Run Id")
+    long payrollRunId;
+
+    @Label("Employees")
+    int employees;
+
+    @Label("Calculation")
+    @Timespan(Timespan.NANOSECONDS)
+    long calculationNanos;
+
+    @Label("Persistence")
+    @Description("Writing the details and committing the transaction")
+    @Timespan(Timespan.NANOSECONDS)
+    long persistenceNanos;
+}
@@ -0,0 +1,91 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.exception.BatchCapacityExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Pre-computes the payroll that is due next, off-peak.
+ *
+ * Overnight, the fortnight due next is computed into a pre-computed run. During the day that
+ * run is refreshed for the employees whose attendance, requests or records changed. When HR
+ * computes the fortnight, the regular run takes the pre-computed one over and only computes the
+ * employees changed since its last refresh (see {@link PayrollService#openPayrollRun}).
+ *
+ * Every node schedules both tasks. A lease in scheduler_locks lets one node at a time run them,
+ * and taking a run over needs the same lock, so it never overlaps a refresh.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollPrecomputeService {
+
+    public static final String LOCK_NAME = "payroll-precompute";
+
+    private final PayrollService payrollService;
+    private final SchedulerLockService schedulerLockService;
+    private final PayrollBulkhead payrollBulkhead;
+
+    @Value("${payroll.precompute.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payroll.precompute.lock-seconds:3600}")
+    private long lockSeconds;
+
+    /**
+     * Compute the fortnight due next from scratch, or refresh it if it was pre-computed before.
+     */
+    @Scheduled(cron = "${payroll.precompute.cron:0 0 2 * * *}")
+    public void precomputeOvernight() {
+        if (enabled) {
+            runScheduled(true);
+        }
+    }
+
+    /**
+     * Refresh the fortnight due next for changed employees, if it was pre-computed.
+     */
+    @Scheduled(fixedDelayString = "${payroll.precompute.refresh-interval-ms:900000}",
+               initialDelayString = "${payroll.precompute.refresh-initial-delay-ms:60000}")
+    public void refreshPrecomputed() {
+        if (enabled) {
+            runScheduled(false);
+        }
+    }
+
+    /**
+     * Pre-compute or refresh the fortnight due on a day, unless another node is doing so.
+     *
+     * @return the number of employees computed, or -1 if another node holds the lock
+     */
+    public int precompute(LocalDate day, boolean buildIfMissing) {
+        String lock = schedulerLockService.tryLock(LOCK_NAME, Duration.ofSeconds(lockSeconds));
+        if (lock == null) {
+            log.debug("Payroll pre-computation skipped: running elsewhere");
+            return -1;
+        }
+        try {
+            int[] due = payrollService.findDueFortnight(day);
+            return payrollBulkhead.call("precompute",
+                    () -> payrollService.precomputePayroll(due[0], due[1], buildIfMissing));
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME, lock);
+        }
+    }
+
+    private void runScheduled(boolean buildIfMissing) {
+        try {
+            precompute(LocalDate.now(), buildIfMissing);
+        } catch (BatchCapacityExceededException e) {
+            log.info("Payroll pre-computation skipped until the next schedule: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Payroll pre-computation failed: {}", e.getMessage(), e);
+        }
+    }
+}
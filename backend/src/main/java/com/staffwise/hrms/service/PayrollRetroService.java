@@ -0,0 +1,310 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.collect.Lists;
+import com.staffwise.hrms.dto.PayrollAdjustmentDTO;
+import com.staffwise.hrms.dto.PayrollRetroRequestDTO;
+import com.staffwise.hrms.dto.PayrollRetroResultDTO;
+import com.staffwise.hrms.entity.Employee;
+import com.staffwise.hrms.entity.PayrollAdjustment;
+import com.staffwise.hrms.entity.PayrollDetail;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollStatus;
+import com.staffwise.hrms.repository.AttendanceRepository;
+import com.staffwise.hrms.repository.EmployeeCompensationRepository;
+import com.staffwise.hrms.repository.EmployeeRepository;
+import com.staffwise.hrms.repository.EmployeeRequestRepository;
+import com.staffwise.hrms.repository.PayrollAdjustmentRepository;
+import com.staffwise.hrms.repository.PayrollDetailRepository;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Retroactive pay: settles backdated changes against runs that are already processed.
+ *
+ * Processed runs are locked and are never reopened here. Instead each affected run is
+ * recomputed in memory, in batches of employees, with the inputs of its period as they
+ * are now and the tax and payroll configurations that applied to it. Whatever an employee
+ * should have been paid beyond what the run paid, less what earlier retro passes already
+ * emitted for that run, becomes a {@link PayrollAdjustment} line that the next run pays.
+ * Repeating a pass therefore emits nothing new, and a pass that fails part-way keeps the
+ * batches it committed and can simply be run again.
+ *
+ * Salaries come from the employees' effective-dated compensation, indexed once for every run
+ * of the pass, so a backdated raise recorded there is applied from its effective date only,
+ * pro rata within the fortnight it takes effect in. Employees without compensation history
+ * are recomputed at their current salary. Runs not yet processed are corrected by
+ * recomputing them instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollRetroService {
+
+    private final PayrollRunRepository payrollRunRepository;
+    private final PayrollDetailRepository payrollDetailRepository;
+    private final PayrollAdjustmentRepository adjustmentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final EmployeeRequestRepository requestRepository;
+    private final EmployeeCompensationRepository compensationRepository;
+    private final PayrollInputService payrollInputService;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollService payrollService;
+    private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payroll.retro.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Differences of one run, in toea.
+     */
+    private static class RunTally {
+        int employees;
+        int adjustments;
+        long gross;
+        long netPay;
+    }
+
+    // ============ RETRO PASS ============
+
+    /**
+     * Recompute the processed runs ending on or after the effective date and emit the
+     * differences as adjustments for the next run. Each batch of employees is read,
+     * recomputed and its adjustments saved in one transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRetroResultDTO runRetro(PayrollRetroRequestDTO request, String requestedBy) {
+        long started = System.currentTimeMillis();
+        LocalDate effectiveFrom = request.getEffectiveFrom();
+        Set<Long> requested = request.getEmployeeIds() != null && !request.getEmployeeIds().isEmpty()
+                ? new HashSet<>(request.getEmployeeIds()) : null;
+
+        List<PayrollRun> runs = payrollRunRepository
+                .findByStatusAndPeriodEndGreaterThanEqualOrderByPeriodStart(PayrollStatus.PROCESSED, effectiveFrom);
+
+        Map<Long, List<Long>> affectedByRun = new HashMap<>();
+        Set<Long> affected = new HashSet<>();
+        for (PayrollRun run : runs) {
+            List<Long> employeeIds = affectedEmployees(run, requested);
+            affectedByRun.put(run.getId(), employeeIds);
+            affected.addAll(employeeIds);
+        }
+        // One compensation index covers every run of the pass
+        CompensationIndex compensation = affected.isEmpty() ? CompensationIndex.EMPTY
+                : payrollInputService.loadCompensation(runs.get(0).getPeriodStart(),
+                        runs.stream().map(PayrollRun::getPeriodEnd).max(Comparator.naturalOrder()).orElseThrow(),
+                        affected);
+
+        List<PayrollRetroResultDTO.Run> results = new ArrayList<>();
+        RunTally total = new RunTally();
+        for (PayrollRun run : runs) {
+            List<Long> employeeIds = affectedByRun.get(run.getId());
+            if (employeeIds.isEmpty()) {
+                continue;
+            }
+
+            PayrollRunContext context = payrollService.getRunContext(run);
+            RunTally tally = new RunTally();
+            for (List<Long> batch : Lists.partition(employeeIds, Math.max(1, batchSize))) {
+                transactionTemplate.executeWithoutResult(status ->
+                        recomputeBatch(run, batch, context, compensation, request.getReason(), requestedBy, tally));
+            }
+
+            if (tally.adjustments > 0) {
+                auditService.logAction("PayrollRun", run.getId(), "RETRO", requestedBy, null,
+                        "Retro adjustments for " + tally.adjustments + " employees effective " + effectiveFrom
+                                + ", net pay change " + MoneyUtil.toKina(tally.netPay) + ": " + request.getReason());
+            }
+            log.info("Retro recomputed {} employees of processed run {} (Fortnight {}/{}): {} adjustments, net pay change {}",
+                    tally.employees, run.getId(), run.getFortnight(), run.getYear(), tally.adjustments,
+                    MoneyUtil.toKina(tally.netPay));
+
+            total.employees += tally.employees;
+            total.adjustments += tally.adjustments;
+            total.gross += tally.gross;
+            total.netPay += tally.netPay;
+            results.add(PayrollRetroResultDTO.Run.builder()
+                    .payrollRunId(run.getId())
+                    .fortnight(run.getFortnight())
+                    .year(run.getYear())
+                    .employeesRecomputed(tally.employees)
+                    .adjustmentsCreated(tally.adjustments)
+                    .grossDelta(MoneyUtil.toKina(tally.gross))
+                    .netPayDelta(MoneyUtil.toKina(tally.netPay))
+                    .build());
+        }
+
+        log.info("Retro pass effective {} by {}: {} runs, {} employee fortnights, {} adjustments in {} ms",
+                effectiveFrom, requestedBy, results.size(), total.employees, total.adjustments,
+                System.currentTimeMillis() - started);
+
+        return PayrollRetroResultDTO.builder()
+                .effectiveFrom(effectiveFrom)
+                .runsRecomputed(results.size())
+                .employeesRecomputed(total.employees)
+                .adjustmentsCreated(total.adjustments)
+                .totalGrossDelta(MoneyUtil.toKina(total.gross))
+                .totalNetPayDelta(MoneyUtil.toKina(total.netPay))
+                .runs(results)
+                .build();
+    }
+
+    /**
+     * Employees paid by the run that the pass covers, in id order: the requested ones, or
+     * those whose attendance, requests, employee record or compensation changed since the run was processed.
+     */
+    private List<Long> affectedEmployees(PayrollRun run, Set<Long> requested) {
+        Set<Long> candidates;
+        if (requested != null) {
+            candidates = requested;
+        } else {
+            LocalDateTime since = run.getProcessedAt() != null ? run.getProcessedAt() : run.getComputedAt();
+            candidates = new HashSet<>();
+            candidates.addAll(attendanceRepository.findEmployeeIdsWithAttendanceChangedSince(
+                    run.getPeriodStart(), run.getPeriodEnd(), since));
+            candidates.addAll(requestRepository.findEmployeeIdsWithRequestsChangedSince(
+                    run.getPeriodStart(), run.getPeriodEnd(), since));
+            candidates.addAll(employeeRepository.findIdsUpdatedSince(since));
+            candidates.addAll(compensationRepository.findEmployeeIdsChangedSince(since));
+        }
+
+        Set<Long> affected = new TreeSet<>();
+        for (Long employeeId : payrollDetailRepository.findEmployeeIdsByPayrollRunId(run.getId())) {
+            if (candidates.contains(employeeId)) {
+                affected.add(employeeId);
+            }
+        }
+        return new ArrayList<>(affected);
+    }
+
+    private void recomputeBatch(PayrollRun run, List<Long> employeeIds, PayrollRunContext context,
+                                CompensationIndex compensation, String reason, String requestedBy, RunTally tally) {
+        List<Employee> employees = new ArrayList<>(employeeRepository.findAllById(employeeIds));
+        employees.sort(Comparator.comparing(Employee::getId));
+
+        Map<Long, PayrollDetail> paid = payrollDetailRepository
+                .findByPayrollRunIdAndEmployeeIdIn(run.getId(), employeeIds).stream()
+                .collect(Collectors.toMap(detail -> detail.getEmployee().getId(), Function.identity()));
+        Map<Long, PayrollInputTable.RetroAmounts> emitted = new HashMap<>();
+        for (Object[] row : adjustmentRepository.sumBySourceRunForEmployees(run.getId(), employeeIds)) {
+            emitted.put((Long) row[0], PayrollInputService.retroAmounts(row));
+        }
+
+        // The run's own inputs, including the overtime and adjustments it paid
+        PayrollInputTable inputs = payrollInputService.loadInputsForEmployees(run, employeeIds, compensation);
+        List<PayrollDetail> recomputed = payrollCalculator.calculateAll(employees, run, context, inputs);
+
+        List<PayrollAdjustment> adjustments = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            PayrollDetail previous = paid.get(employees.get(i).getId());
+            if (previous == null) {
+                continue;
+            }
+            PayrollAdjustment adjustment = difference(employees.get(i), run, recomputed.get(i), previous,
+                    emitted.get(employees.get(i).getId()));
+            if (adjustment != null) {
+                adjustment.setReason(reason);
+                adjustment.setRequestedBy(requestedBy);
+                adjustments.add(adjustment);
+                tally.gross += MoneyUtil.toToea(adjustment.getGrossDelta());
+                tally.netPay += MoneyUtil.toToea(adjustment.getNetPayDelta());
+            }
+            tally.employees++;
+        }
+
+        adjustmentRepository.saveAll(adjustments);
+        tally.adjustments += adjustments.size();
+    }
+
+    /**
+     * The adjustment still owed for one employee of the run, or null if nothing is.
+     */
+    private PayrollAdjustment difference(Employee employee, PayrollRun run, PayrollDetail recomputed,
+                                         PayrollDetail previous, PayrollInputTable.RetroAmounts emitted) {
+        long gross = MoneyUtil.toToeaOrZero(recomputed.getGrossSalary()) - MoneyUtil.toToeaOrZero(previous.getGrossSalary());
+        long tax = MoneyUtil.toToeaOrZero(recomputed.getSalaryWagesTax()) - MoneyUtil.toToeaOrZero(previous.getSalaryWagesTax());
+        long superEmployee = MoneyUtil.toToeaOrZero(recomputed.getSuperEmployee()) - MoneyUtil.toToeaOrZero(previous.getSuperEmployee());
+        long superEmployer = MoneyUtil.toToeaOrZero(recomputed.getSuperEmployer()) - MoneyUtil.toToeaOrZero(previous.getSuperEmployer());
+        long late = MoneyUtil.toToeaOrZero(recomputed.getLateDeduction()) - MoneyUtil.toToeaOrZero(previous.getLateDeduction());
+        if (emitted != null) {
+            gross -= emitted.gross();
+            tax -= emitted.salaryWagesTax();
+            superEmployee -= emitted.superEmployee();
+            superEmployer -= emitted.superEmployer();
+            late -= emitted.lateDeduction();
+        }
+        if (gross == 0 && tax == 0 && superEmployee == 0 && superEmployer == 0 && late == 0) {
+            return null;
+        }
+
+        return PayrollAdjustment.builder()
+                .employee(employee)
+                .sourceRun(run)
+                .grossDelta(MoneyUtil.toKina(gross))
+                .salaryWagesTaxDelta(MoneyUtil.toKina(tax))
+                .superEmployeeDelta(MoneyUtil.toKina(superEmployee))
+                .superEmployerDelta(MoneyUtil.toKina(superEmployer))
+                .lateDeductionDelta(MoneyUtil.toKina(late))
+                .netPayDelta(MoneyUtil.toKina(gross - tax - superEmployee - late))
+                .build();
+    }
+
+    // ============ QUERY METHODS ============
+
+    @Transactional(readOnly = true)
+    public List<PayrollAdjustmentDTO> getPendingAdjustments() {
+        return adjustmentRepository.findPending().stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PayrollAdjustmentDTO> getAdjustmentsPaidBy(Long runId) {
+        return adjustmentRepository.findByPayrollRun(runId).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private PayrollAdjustmentDTO mapToDTO(PayrollAdjustment adjustment) {
+        return PayrollAdjustmentDTO.builder()
+                .id(adjustment.getId())
+                .employeeId(adjustment.getEmployee().getId())
+                .empCode(adjustment.getEmployee().getEmpCode())
+                .employeeName(adjustment.getEmployee().getFullName())
+                .sourceRunId(adjustment.getSourceRun().getId())
+                .sourceFortnight(adjustment.getSourceRun().getFortnight())
+                .sourceYear(adjustment.getSourceRun().getYear())
+                .payrollRunId(adjustment.getPayrollRun() != null ? adjustment.getPayrollRun().getId() : null)
+                .grossDelta(adjustment.getGrossDelta())
+                .salaryWagesTaxDelta(adjustment.getSalaryWagesTaxDelta())
+                .superEmployeeDelta(adjustment.getSuperEmployeeDelta())
+                .superEmployerDelta(adjustment.getSuperEmployerDelta())
+                .lateDeductionDelta(adjustment.getLateDeductionDelta())
+                .netPayDelta(adjustment.getNetPayDelta())
+                .reason(adjustment.getReason())
+                .requestedBy(adjustment.getRequestedBy())
+                .createdAt(adjustment.getCreatedAt())
+                .build();
+    }
+}
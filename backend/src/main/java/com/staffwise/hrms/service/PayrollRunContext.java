@@ -0,0 +1,27 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.PayrollConfiguration;
+import com.staffwise.hrms.entity.TaxConfiguration;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Run-wide payroll settings resolved once before computation starts:
+ * the pay period, its working days and the active tax/payroll configurations.
+ * Either configuration may be null, in which case the calculator falls back to defaults.
+ */
+@Getter
+@Builder
+public class PayrollRunContext {
+
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final int totalWorkingDays;
+    private final TaxConfiguration taxConfig;
+    private final PayrollConfiguration payrollConfig;
+
+    // Compiled resident SWT slabs for taxConfig
+    private final CompiledTaxTable residentTaxTable;
+}
@@ -1,24 +1,44 @@
 package com.staffwise.hrms.service;
 
+import com.google.common.collect.Lists;
+import com.staffwise.hrms.dto.KeysetPageDTO;
 import com.staffwise.hrms.dto.PayrollActionDTO;
 import com.staffwise.hrms.dto.PayrollDetailDTO;
+import com.staffwise.hrms.dto.PayrollOffCycleRequestDTO;
 import com.staffwise.hrms.dto.PayrollRunDTO;
 import com.staffwise.hrms.entity.*;
 import com.staffwise.hrms.exception.ResourceNotFoundException;
 import com.staffwise.hrms.exception.InvalidPayrollStateException;
 import com.staffwise.hrms.repository.*;
+import com.staffwise.hrms.util.MoneyUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,344 +49,1050 @@ public class PayrollService {
     private final PayrollRunRepository payrollRunRepository;
     private final PayrollDetailRepository payrollDetailRepository;
     private final EmployeeRepository employeeRepository;
-    private final AttendanceRepository attendanceRepository;
     private final EmployeeRequestRepository requestRepository;
+    private final PayrollAdjustmentRepository adjustmentRepository;
+    private final EmployeeCompensationRepository compensationRepository;
+    private final AttendanceRepository attendanceRepository;
     private final TaxConfigurationRepository taxConfigurationRepository;
     private final TaxSlabRepository taxSlabRepository;
     private final PayrollConfigurationRepository payrollConfigurationRepository;
+    private final PayrollInputService payrollInputService;
+    private final PayrollComputeEngine payrollComputeEngine;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollDetailWriter payrollDetailWriter;
+    private final PayrollDepartmentSummaryService departmentSummaryService;
+    private final PayrollYearToDateService yearToDateService;
+    private final TaxTableCache taxTableCache;
+    private final CalendarService calendarService;
+    private final PayrollTelemetry payrollTelemetry;
     private final AuditService auditService;
+    private final SchedulerLockService schedulerLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payroll.off-cycle.max-employees:25}")
+    private int maxOffCycleEmployees;
 
     // Default constants only used as fallback when no configuration exists
     private static final int DEFAULT_FORTNIGHTS_PER_YEAR = 26;
     private static final int DEFAULT_WORKING_DAYS_PER_FORTNIGHT = 10;
-    private static final double DEFAULT_STANDARD_HOURS_PER_DAY = 8.0;
-    private static final double DEFAULT_OVERTIME_MULTIPLIER = 1.5;
-    private static final double DEFAULT_LATE_DEDUCTION = 50.0;
     private static final int DAYS_IN_FORTNIGHT = 14;
-    
-    // Tax fallback rates
-    private static final double DEFAULT_SUPER_EMPLOYEE_PERCENTAGE = 0.06;
-    private static final double DEFAULT_TAX_PERCENTAGE = 0.10;
+
+    // Computed-by of a pre-computed run until its regular run takes it over
+    private static final String PRECOMPUTED_BY = "precompute-scheduler";
+
+    // Lease of the pre-computation lock while a regular run takes a pre-computed one over
+    private static final Duration PRECOMPUTE_TAKEOVER_LEASE = Duration.ofMinutes(5);
+
+    // Status reported on details of a dry run, which belong to no saved run
+    private static final String DRY_RUN_STATUS = "DRY_RUN";
+
+    // Employees computed together per batch in a dry run
+    private static final int SIMULATION_BATCH_SIZE = 500;
+
+    // Keyset orders for paging through run details
+    public static final String DETAIL_SORT_ID = "id";
+    public static final String DETAIL_SORT_EMP_CODE = "empCode";
+    private static final int MAX_DETAIL_PAGE_SIZE = 1000;
 
     // ============ PAYROLL COMPUTATION (HR) - FORTNIGHTLY ============
 
     /**
      * Compute fortnightly payroll.
      * All rates and configurations come from database - NO HARDCODING!
+     * Runs outside a surrounding transaction: employees are computed in partitions by
+     * {@link PayrollComputeEngine}, each committing on its own. The run is all-or-nothing;
+     * use {@link PayrollJobService} for a background, resumable computation.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PayrollRunDTO computePayroll(int fortnight, int year, String computedBy) {
-        // Get payroll configuration
-        PayrollConfiguration payrollConfig = getActivePayrollConfiguration(LocalDate.of(year, 1, 1));
-        int fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
-        
-        // Validate fortnight
-        if (fortnight < 1 || fortnight > fortnightsPerYear) {
-            throw new IllegalArgumentException("Fortnight must be between 1 and " + fortnightsPerYear);
+        PayrollRun payrollRun = openPayrollRun(fortnight, year, computedBy);
+        try {
+            computeRemainingEmployees(payrollRun.getId(), null);
+        } catch (RuntimeException e) {
+            discardPayrollRun(payrollRun.getId());
+            throw e;
         }
+        return completePayrollRun(payrollRun.getId(), computedBy);
+    }
+
+    /**
+     * Delete a run that failed while COMPUTING, with any details it committed, and hand its
+     * overtime and retro adjustments back so the fortnight can be computed again.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void discardPayrollRun(Long runId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            PayrollRun run = payrollRunRepository.findById(runId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+            if (run.getStatus() != PayrollStatus.COMPUTING) {
+                throw new InvalidPayrollStateException("Only payroll runs still COMPUTING can be discarded");
+            }
+            requestRepository.releaseOvertimeByPayrollRun(runId);
+            adjustmentRepository.releaseByPayrollRun(runId);
+            departmentSummaryService.delete(runId);
+            payrollDetailRepository.deleteByPayrollRunId(runId);
+            payrollRunRepository.deleteById(runId);
+        });
+        payrollTelemetry.discardRun(runId);
+        log.info("Discarded payroll run {}", runId);
+    }
+
+    /**
+     * Validate the period and save a new run in COMPUTING status.
+     * The run is committed up front so that compute partitions can write
+     * their details against it in their own transactions. The approved overtime and
+     * pending retro adjustments it pays are consumed in the same transaction, with
+     * a single update each.
+     *
+     * A run pre-computed for the fortnight is taken over instead, see {@link #openPayrollRun(int, int, String, boolean)}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRun openPayrollRun(int fortnight, int year, String computedBy) {
+        return openPayrollRun(fortnight, year, computedBy, true);
+    }
+
+    /**
+     * Validate the period and save a new run in COMPUTING status. If {@link PayrollPrecomputeService}
+     * pre-computed the fortnight, that run is taken over when usePrecomputed is set: the details of
+     * employees whose inputs changed since its last refresh are dropped, so computing the remaining
+     * employees only computes those. Otherwise the pre-computed run is discarded, for callers that
+     * compute every employee themselves.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRun openPayrollRun(int fortnight, int year, String computedBy, boolean usePrecomputed) {
+        validatePayrollPeriod(fortnight, year);
 
         // Check if payroll already exists for this fortnight
         if (payrollRunRepository.findByFortnightAndYear(fortnight, year).isPresent()) {
             throw new IllegalStateException("Payroll already exists for Fortnight " + fortnight + ", " + year);
         }
 
+        Optional<PayrollRun> precomputed = payrollRunRepository.findPrecomputed(fortnight, year);
+        if (precomputed.isPresent()) {
+            // Waits for no refresh: one in progress would write details while the run is taken over
+            String lock = schedulerLockService.tryLock(PayrollPrecomputeService.LOCK_NAME, PRECOMPUTE_TAKEOVER_LEASE);
+            if (lock == null) {
+                throw new IllegalStateException("Payroll for Fortnight " + fortnight + ", " + year
+                        + " is being pre-computed, please try again in a few minutes");
+            }
+            try {
+                if (usePrecomputed) {
+                    return takeOverPrecomputedRun(precomputed.get().getId(), computedBy);
+                }
+                discardPrecomputedRun(precomputed.get().getId());
+            } finally {
+                schedulerLockService.unlock(PayrollPrecomputeService.LOCK_NAME, lock);
+            }
+        }
+
         // Calculate period dates
         LocalDate[] periodDates = calculateFortnightDates(fortnight, year);
-        LocalDate periodStart = periodDates[0];
-        LocalDate periodEnd = periodDates[1];
 
-        // Fetch active tax configuration for this period
-        TaxConfiguration taxConfig = getActiveTaxConfiguration(periodStart);
-        if (taxConfig != null) {
-            log.info("Using tax configuration: {} (Financial Year {})", 
-                    taxConfig.getDescription(), taxConfig.getFinancialYear());
-        }
-        
-        if (payrollConfig != null) {
-            log.info("Using payroll configuration: {} (Overtime multiplier: {}x)", 
-                    payrollConfig.getConfigName(), payrollConfig.getOvertimeRateMultiplier());
-        }
-
-        List<Employee> activeEmployees = employeeRepository.findByIsActiveTrue();
-        
         PayrollRun payrollRun = PayrollRun.builder()
                 .fortnight(fortnight)
                 .year(year)
-                .periodStart(periodStart)
-                .periodEnd(periodEnd)
-                .status(PayrollStatus.CHECKED)  // Auto-checked after computation (Step 1 complete)
+                .periodStart(periodDates[0])
+                .periodEnd(periodDates[1])
+                .status(PayrollStatus.COMPUTING)
                 .runDate(LocalDateTime.now())
-                .totalEmployees(activeEmployees.size())
+                .totalEmployees((int) employeeRepository.countByIsActiveTrue())
                 .computedBy(computedBy)
                 .computedAt(LocalDateTime.now())
-                .checkedBy(computedBy)  // Same person who computed
-                .checkedAt(LocalDateTime.now())
                 .build();
 
-        payrollRun = payrollRunRepository.save(payrollRun);
+        long started = System.nanoTime();
+        PayrollRun opened = transactionTemplate.execute(status -> {
+            // Flushed so the bulk update below can reference the new row
+            PayrollRun saved = payrollRunRepository.saveAndFlush(payrollRun);
+            int overtime = requestRepository.consumeApprovedOvertime(saved, saved.getPeriodStart(), saved.getPeriodEnd());
+            int adjustments = adjustmentRepository.consumePending(saved);
+            log.info("Payroll run {} consumed {} approved overtime requests and {} retro adjustments",
+                    saved.getId(), overtime, adjustments);
+            return saved;
+        });
+        payrollTelemetry.beginRun(opened.getId(), PayrollTelemetry.OPERATION_COMPUTE);
+        payrollTelemetry.record(opened.getId(), PayrollTelemetry.Phase.PERSISTENCE, System.nanoTime() - started);
+        return opened;
+    }
 
-        double totalGross = 0;
-        double totalDeductions = 0;
-        double totalNetPay = 0;
+    /**
+     * Validate a fortnight against the payroll configuration of its year.
+     */
+    @Transactional(readOnly = true)
+    public void validatePayrollPeriod(int fortnight, int year) {
+        // Get payroll configuration
+        PayrollConfiguration payrollConfig = getActivePayrollConfiguration(LocalDate.of(year, 1, 1));
+        int fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
 
-        int totalWorkingDays = calculateWorkingDaysInPeriod(periodStart, periodEnd);
+        // Validate fortnight
+        if (fortnight < 1 || fortnight > fortnightsPerYear) {
+            throw new IllegalArgumentException("Fortnight must be between 1 and " + fortnightsPerYear);
+        }
+    }
+
+    /**
+     * Compute every active employee that has no detail row in the run yet.
+     * On a new run this is the whole roster; on a run interrupted part-way it resumes
+     * after the last committed partition. With a checkpoint, committed partitions are kept
+     * if computation fails; without one, the partial results are discarded.
+     *
+     * @return the number of employees computed by this call
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int computeRemainingEmployees(Long runId, PayrollComputeEngine.PartitionCheckpoint checkpoint) {
+        PayrollRun payrollRun = payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
 
-        for (Employee employee : activeEmployees) {
-            PayrollDetail detail = computeEmployeePayroll(employee, payrollRun, fortnight, year, 
-                    totalWorkingDays, periodStart, periodEnd, taxConfig, payrollConfig);
-            
-            totalGross += detail.getGrossSalary();
-            totalDeductions += detail.getTotalDeductions();
-            totalNetPay += detail.getNetPay();
+        if (payrollRun.getStatus() != PayrollStatus.COMPUTING) {
+            throw new InvalidPayrollStateException("Payroll must be in COMPUTING status to compute employees");
         }
 
-        payrollRun.setTotalGross(totalGross);
-        payrollRun.setTotalDeductions(totalDeductions);
-        payrollRun.setTotalNetPay(totalNetPay);
+        PayrollRunContext context = buildRunContext(payrollRun);
 
-        PayrollRun saved = payrollRunRepository.save(payrollRun);
+        long inputsStarted = System.nanoTime();
+        List<Employee> remainingEmployees = findEmployeesWithoutDetail(payrollRun);
+
+        // Prefetch attendance, leave and consumed overtime for the whole roster in a few grouped queries
+        PayrollInputTable inputs = payrollInputService.loadInputs(payrollRun);
+        payrollTelemetry.record(runId, PayrollTelemetry.Phase.INPUTS, System.nanoTime() - inputsStarted);
+
+        return payrollComputeEngine.compute(payrollRun, remainingEmployees, context, inputs, checkpoint)
+                .employeeCount;
+    }
+
+    /**
+     * Active employees without a detail row in the run, other than those paid off-cycle for
+     * its fortnight. Employees committed by an earlier attempt, or kept from pre-computation,
+     * are skipped.
+     */
+    private List<Employee> findEmployeesWithoutDetail(PayrollRun payrollRun) {
+        Set<Long> computed = new HashSet<>(payrollDetailRepository.findEmployeeIdsByPayrollRunId(payrollRun.getId()));
+        Set<Long> paidOffCycle = findEmployeeIdsPaidOffCycle(payrollRun);
+        List<Employee> remainingEmployees = employeeRepository.findByIsActiveTrue().stream()
+                .filter(employee -> !computed.contains(employee.getId()) && !paidOffCycle.contains(employee.getId()))
+                .collect(Collectors.toList());
+        if (!computed.isEmpty()) {
+            log.info("Payroll run {}: {} employees already computed, {} remaining",
+                    payrollRun.getId(), computed.size(), remainingEmployees.size());
+        }
+        return remainingEmployees;
+    }
+
+    /**
+     * Compute the active employees whose ids fall in an inclusive range, for one partition of
+     * a run computed in cluster mode. Only their inputs are loaded and the range is written in
+     * one transaction; the checkpoint runs inside it, so throwing from it discards the range.
+     *
+     * @return the number of employees computed
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int computeEmployeeRange(Long runId, Long firstEmployeeId, Long lastEmployeeId,
+                                    PayrollComputeEngine.PartitionCheckpoint checkpoint) {
+        PayrollRun payrollRun = payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+
+        if (payrollRun.getStatus() != PayrollStatus.COMPUTING) {
+            throw new InvalidPayrollStateException("Payroll must be in COMPUTING status to compute employees");
+        }
+
+        PayrollRunContext context = buildRunContext(payrollRun);
+        long inputsStarted = System.nanoTime();
+        Set<Long> paidOffCycle = findEmployeeIdsPaidOffCycle(payrollRun);
+        List<Employee> employees = employeeRepository.findByIsActiveTrueAndIdBetween(firstEmployeeId, lastEmployeeId).stream()
+                .filter(employee -> !paidOffCycle.contains(employee.getId()))
+                .collect(Collectors.toList());
+        PayrollInputTable inputs = payrollInputService.loadInputsForEmployees(payrollRun,
+                employees.stream().map(Employee::getId).collect(Collectors.toList()));
+        payrollTelemetry.record(runId, PayrollTelemetry.Phase.INPUTS, System.nanoTime() - inputsStarted);
+
+        return payrollComputeEngine.computeSinglePartition(payrollRun, employees, context, inputs, checkpoint)
+                .employeeCount;
+    }
+
+    /**
+     * Total the run and its departments from the committed details and move it to CHECKED.
+     * Details are summed in employee id order, so the totals do not depend on
+     * how the run was partitioned or how often it was resumed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRunDTO completePayrollRun(Long runId, String computedBy) {
+        try {
+            return completeAndAudit(runId, computedBy, false);
+        } finally {
+            // Already gone once the run's summary is stored; only a failed completion leaves its timings behind
+            payrollTelemetry.discardRun(runId);
+        }
+    }
+
+    /**
+     * Complete a run whose partitions were computed across nodes, unless another node already
+     * did. The run leaves COMPUTING in the transaction that totals it, so a completion that
+     * fails leaves it COMPUTING, never approvable without totals.
+     *
+     * @return the completed run, or null if it was no longer COMPUTING
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRunDTO completeClusterRun(Long runId, String computedBy) {
+        try {
+            return completeAndAudit(runId, computedBy, true);
+        } finally {
+            payrollTelemetry.discardRun(runId);
+        }
+    }
+
+    private PayrollRunDTO completeAndAudit(Long runId, String computedBy, boolean claim) {
+        PayrollRun saved = payrollTelemetry.time(runId, PayrollTelemetry.Phase.COMPLETION, () -> transactionTemplate.execute(status -> {
+            if (claim && payrollRunRepository.claimCompletion(runId) != 1) {
+                return null;
+            }
+            PayrollRun run = payrollRunRepository.findById(runId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+
+            long totalGross = 0;
+            long totalDeductions = 0;
+            long totalNetPay = 0;
+            List<Object[]> amounts = payrollDetailRepository.findAmountsByPayrollRunOrderByEmployee(runId);
+            for (Object[] row : amounts) {
+                totalGross += MoneyUtil.toToeaOrZero((Double) row[1]);
+                totalDeductions += MoneyUtil.toToeaOrZero((Double) row[2]);
+                totalNetPay += MoneyUtil.toToeaOrZero((Double) row[3]);
+            }
+            departmentSummaryService.rebuild(run, amounts);
+
+            run.setTotalEmployees(amounts.size());
+            run.setTotalGross(MoneyUtil.toKina(totalGross));
+            run.setTotalDeductions(MoneyUtil.toKina(totalDeductions));
+            run.setTotalNetPay(MoneyUtil.toKina(totalNetPay));
+            run.setStatus(PayrollStatus.CHECKED);  // Auto-checked after computation (Step 1 complete)
+            run.setCheckedBy(computedBy);  // Same person who computed
+            run.setCheckedAt(LocalDateTime.now());
+            return run;
+        }));
+        if (saved == null) {
+            return null;
+        }
         
-        auditService.logAction("PayrollRun", saved.getId(), "COMPUTE_AND_CHECK", computedBy, 
-                null, "Computed and verified payroll for Fortnight " + fortnight + ", " + year);
+        payrollTelemetry.time(runId, PayrollTelemetry.Phase.AUDIT, () -> auditService.logAction("PayrollRun",
+                saved.getId(), "COMPUTE_AND_CHECK", computedBy, null,
+                "Computed and verified payroll for Fortnight " + saved.getFortnight() + ", " + saved.getYear()));
+        payrollTelemetry.finishRun(runId, saved.getTotalEmployees());
         
         log.info("Fortnightly payroll computed and checked for Fortnight {}/{} by {} - Total Net Pay: {}", 
-                fortnight, year, computedBy, totalNetPay);
+                saved.getFortnight(), saved.getYear(), computedBy, saved.getTotalNetPay());
         return mapToDTO(saved);
     }
 
+    // ============ OFF-CYCLE PAYROLL (PAYROLL ADMIN) ============
+
     /**
-     * Calculate the start and end dates for a given fortnight.
-     * Fortnight 1 starts on Jan 1 of the year.
+     * Pay one employee or a short list for a fortnight outside its regular run, e.g. a final
+     * settlement or pay the regular run missed. Only the listed employees are read, consumed
+     * and written, in a single transaction, with the configurations and tax tables cached for
+     * regular runs. The run is processed and locked straight away, and the regular run of the
+     * fortnight skips the employees it paid. Inactive employees can be paid, for settlements.
      */
-    private LocalDate[] calculateFortnightDates(int fortnight, int year) {
-        LocalDate yearStart = LocalDate.of(year, 1, 1);
-        LocalDate periodStart = yearStart.plusDays((long) (fortnight - 1) * DAYS_IN_FORTNIGHT);
-        LocalDate periodEnd = periodStart.plusDays(DAYS_IN_FORTNIGHT - 1);
-        
-        // Ensure period end doesn't exceed year boundary
-        LocalDate yearEnd = LocalDate.of(year, 12, 31);
-        if (periodEnd.isAfter(yearEnd)) {
-            periodEnd = yearEnd;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollRunDTO computeOffCycle(PayrollOffCycleRequestDTO request, String processedBy) {
+        long started = System.currentTimeMillis();
+        int fortnight = request.getFortnight();
+        int year = request.getYear();
+        Set<Long> employeeIds = new TreeSet<>(request.getEmployeeIds());
+
+        if (employeeIds.isEmpty()) {
+            throw new IllegalStateException("An off-cycle run needs at least one employee");
         }
-        
-        return new LocalDate[] { periodStart, periodEnd };
+        if (employeeIds.size() > maxOffCycleEmployees) {
+            throw new IllegalStateException("An off-cycle run can pay at most " + maxOffCycleEmployees
+                    + " employees; use a regular run for more");
+        }
+        validatePayrollPeriod(fortnight, year);
+
+        List<Employee> employees = new ArrayList<>(employeeRepository.findAllById(employeeIds));
+        if (employees.size() != employeeIds.size()) {
+            throw new ResourceNotFoundException("Employee not found");
+        }
+        employees.sort(Comparator.comparing(Employee::getId));
+
+        List<Long> alreadyPaid = payrollDetailRepository.findEmployeeIdsPaidInPeriod(fortnight, year, employeeIds);
+        if (!alreadyPaid.isEmpty()) {
+            throw new IllegalStateException("Employees " + alreadyPaid + " are already in a payroll run for Fortnight "
+                    + fortnight + ", " + year);
+        }
+
+        LocalDate[] periodDates = calculateFortnightDates(fortnight, year);
+        LocalDateTime now = LocalDateTime.now();
+        PayrollRun payrollRun = PayrollRun.builder()
+                .fortnight(fortnight)
+                .year(year)
+                .runType(PayrollRunType.OFF_CYCLE)
+                .offCycleReason(request.getReason())
+                .periodStart(periodDates[0])
+                .periodEnd(periodDates[1])
+                .status(PayrollStatus.COMPUTING)
+                .runDate(now)
+                .totalEmployees(employees.size())
+                .computedBy(processedBy)
+                .computedAt(now)
+                .build();
+
+        PayrollRun saved = transactionTemplate.execute(status -> {
+            // Flushed so the bulk updates below can reference the new row
+            PayrollRun run = payrollRunRepository.saveAndFlush(payrollRun);
+            requestRepository.consumeApprovedOvertimeForEmployees(run, run.getPeriodStart(), run.getPeriodEnd(), employeeIds);
+            adjustmentRepository.consumePendingForEmployees(run, employeeIds);
+
+            PayrollRunContext context = resolveRunContext(run, getActivePayrollConfiguration(LocalDate.of(year, 1, 1)));
+            PayrollInputTable inputs = payrollInputService.loadInputsForEmployees(run, employeeIds);
+            List<PayrollDetail> details = payrollCalculator.calculateAll(employees, run, context, inputs);
+
+            long totalGross = 0;
+            long totalDeductions = 0;
+            long totalNetPay = 0;
+            for (PayrollDetail detail : details) {
+                totalGross += MoneyUtil.toToea(detail.getGrossSalary());
+                totalDeductions += MoneyUtil.toToea(detail.getTotalDeductions());
+                totalNetPay += MoneyUtil.toToea(detail.getNetPay());
+            }
+            // The writer clears the persistence context, so the run is merged back below
+            payrollDetailWriter.write(details);
+
+            LocalDateTime processedAt = LocalDateTime.now();
+            run.setTotalGross(MoneyUtil.toKina(totalGross));
+            run.setTotalDeductions(MoneyUtil.toKina(totalDeductions));
+            run.setTotalNetPay(MoneyUtil.toKina(totalNetPay));
+            run.setStatus(PayrollStatus.PROCESSED);
+            run.setCheckedBy(processedBy);
+            run.setCheckedAt(processedAt);
+            run.setAuthorizedBy(processedBy);
+            run.setAuthorizedAt(processedAt);
+            run.setAuthorizationRemarks(request.getReason());
+            run.setProcessedBy(processedBy);
+            run.setProcessedAt(processedAt);
+            run.setIsLocked(true);
+            PayrollRun processed = payrollRunRepository.save(run);
+
+            departmentSummaryService.rebuild(processed);
+            yearToDateService.apply(processed);
+            return processed;
+        });
+
+        auditService.logAction("PayrollRun", saved.getId(), "OFF_CYCLE", processedBy, null,
+                "Off-cycle payroll for Fortnight " + fortnight + ", " + year + " - employees " + employeeIds
+                        + ": " + request.getReason());
+
+        log.info("Off-cycle payroll run {} for Fortnight {}/{} processed by {} for {} employees in {} ms - Total Net Pay: {}",
+                saved.getId(), fortnight, year, processedBy, employees.size(),
+                System.currentTimeMillis() - started, saved.getTotalNetPay());
+        return mapToDTO(saved);
     }
 
+    // ============ MULTI-PERIOD BACKFILL (HR) ============
+
     /**
-     * Calculate working days (Mon-Fri) in a date range.
+     * Compute a range of fortnights of one year in a single pass, e.g. to load the history of
+     * a newly onboarded subsidiary. The payroll configuration and roster are read once and all
+     * runs are saved together; attendance and leave for the whole range are read once and
+     * bucketed into each fortnight by {@link PayrollInputService#loadInputsForRuns}. Each run is
+     * then computed in partitions as in {@link #computePayroll} and completed once all are computed.
+     * The backfill is all-or-nothing: if any fortnight fails, every run it opened is discarded.
      */
-    private int calculateWorkingDaysInPeriod(LocalDate start, LocalDate end) {
-        int workingDays = 0;
-        LocalDate current = start;
-        while (!current.isAfter(end)) {
-            DayOfWeek day = current.getDayOfWeek();
-            if (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY) {
-                workingDays++;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<PayrollRunDTO> backfillPayroll(int year, int fromFortnight, int toFortnight, String computedBy) {
+        long started = System.currentTimeMillis();
+        PayrollConfiguration payrollConfig = getActivePayrollConfiguration(LocalDate.of(year, 1, 1));
+        int fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
+        if (fromFortnight < 1 || toFortnight > fortnightsPerYear || fromFortnight > toFortnight) {
+            throw new IllegalArgumentException("Fortnights must be an ascending range between 1 and " + fortnightsPerYear);
+        }
+
+        List<PayrollRun> existing = payrollRunRepository
+                .findByYearAndFortnightBetweenOrderByFortnight(year, fromFortnight, toFortnight);
+        if (!existing.isEmpty()) {
+            throw new IllegalStateException("Payroll already exists for Fortnight " + existing.get(0).getFortnight() + ", " + year);
+        }
+
+        List<Employee> employees = employeeRepository.findByIsActiveTrue();
+        LocalDateTime now = LocalDateTime.now();
+        List<PayrollRun> runs = new ArrayList<>();
+        for (int fortnight = fromFortnight; fortnight <= toFortnight; fortnight++) {
+            LocalDate[] periodDates = calculateFortnightDates(fortnight, year);
+            runs.add(PayrollRun.builder()
+                    .fortnight(fortnight)
+                    .year(year)
+                    .periodStart(periodDates[0])
+                    .periodEnd(periodDates[1])
+                    .status(PayrollStatus.COMPUTING)
+                    .runDate(now)
+                    .totalEmployees(employees.size())
+                    .computedBy(computedBy)
+                    .computedAt(now)
+                    .build());
+        }
+
+        List<PayrollRun> opened = transactionTemplate.execute(status -> {
+            // Flushed so the bulk updates below can reference the new rows
+            List<PayrollRun> saved = payrollRunRepository.saveAllAndFlush(runs);
+            int overtime = 0;
+            for (PayrollRun run : saved) {
+                overtime += requestRepository.consumeApprovedOvertime(run, run.getPeriodStart(), run.getPeriodEnd());
+            }
+            log.info("Payroll backfill opened {} runs for {}, consuming {} approved overtime requests",
+                    saved.size(), year, overtime);
+            return saved;
+        });
+
+        for (PayrollRun run : opened) {
+            payrollTelemetry.beginRun(run.getId(), PayrollTelemetry.OPERATION_COMPUTE);
+        }
+
+        List<PayrollRunDTO> completed = new ArrayList<>(opened.size());
+        try {
+            long inputsStarted = System.nanoTime();
+            List<PayrollInputTable> inputs = payrollInputService.loadInputsForRuns(opened);
+            // Read once for the whole range, so each run is charged an equal share
+            long inputsNanos = (System.nanoTime() - inputsStarted) / opened.size();
+            for (PayrollRun run : opened) {
+                payrollTelemetry.record(run.getId(), PayrollTelemetry.Phase.INPUTS, inputsNanos);
+            }
+            for (int i = 0; i < opened.size(); i++) {
+                PayrollRun run = opened.get(i);
+                // Employees paid off-cycle for the fortnight stay out of its regular run
+                Set<Long> paidOffCycle = findEmployeeIdsPaidOffCycle(run);
+                List<Employee> unpaid = paidOffCycle.isEmpty() ? employees : employees.stream()
+                        .filter(employee -> !paidOffCycle.contains(employee.getId()))
+                        .collect(Collectors.toList());
+                payrollComputeEngine.compute(run, unpaid, buildRunContext(run, payrollConfig), inputs.get(i));
             }
-            current = current.plusDays(1);
+            for (PayrollRun run : opened) {
+                completed.add(completePayrollRun(run.getId(), computedBy));
+            }
+        } catch (RuntimeException e) {
+            log.error("Payroll backfill of Fortnights {}-{}/{} failed, discarding {} runs",
+                    fromFortnight, toFortnight, year, opened.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PayrollRun run : opened) {
+                    requestRepository.releaseOvertimeByPayrollRun(run.getId());
+                    departmentSummaryService.delete(run.getId());
+                    payrollDetailRepository.deleteByPayrollRunId(run.getId());
+                    payrollRunRepository.deleteById(run.getId());
+                }
+            });
+            opened.forEach(run -> payrollTelemetry.discardRun(run.getId()));
+            throw e;
         }
-        return workingDays;
+
+        log.info("Backfilled {} fortnights of {} for {} employees in {} ms",
+                completed.size(), year, employees.size(), System.currentTimeMillis() - started);
+        return completed;
     }
 
-    // ============ TAX CALCULATION METHODS ============
+    // ============ DRY RUN (HR) ============
 
     /**
-     * Get active tax configuration for the payroll period.
-     * Falls back to default rates if no configuration found.
+     * Preview a fortnight without saving anything. Every active employee is computed in
+     * memory with the same inputs a real run would use and handed to the sink in employee
+     * id order; the returned totals have no id or status. No run, details or overtime flags
+     * are written, so it can be repeated freely, also for fortnights already computed
+     * (whose included overtime then no longer counts).
      */
-    private TaxConfiguration getActiveTaxConfiguration(LocalDate periodDate) {
-        return taxConfigurationRepository.findActiveConfigurationForDate(periodDate)
-                .orElseGet(() -> {
-                    log.warn("No active tax configuration found for date {}. Using default rates.", periodDate);
-                    return null;
-                });
+    @Transactional(readOnly = true)
+    public PayrollRunDTO simulatePayroll(int fortnight, int year, Consumer<PayrollDetailDTO> sink) {
+        long started = System.currentTimeMillis();
+        validatePayrollPeriod(fortnight, year);
+
+        LocalDate[] periodDates = calculateFortnightDates(fortnight, year);
+        PayrollRun preview = PayrollRun.builder()
+                .fortnight(fortnight)
+                .year(year)
+                .periodStart(periodDates[0])
+                .periodEnd(periodDates[1])
+                .status(PayrollStatus.COMPUTING)
+                .build();
+
+        PayrollRunContext context = buildRunContext(preview);
+        PayrollInputTable inputs = payrollTelemetry.time(null, PayrollTelemetry.Phase.INPUTS,
+                () -> payrollInputService.loadUnpaidInputs(context.getPeriodStart(), context.getPeriodEnd()));
+
+        List<Employee> employees = new ArrayList<>(employeeRepository.findByIsActiveTrue());
+        employees.sort(Comparator.comparing(Employee::getId));
+
+        long totalGross = 0;
+        long totalDeductions = 0;
+        long totalNetPay = 0;
+        // Computed in batches so the preview never holds every detail at once
+        for (List<Employee> batch : Lists.partition(employees, SIMULATION_BATCH_SIZE)) {
+            List<PayrollDetail> details = payrollTelemetry.time(null, PayrollTelemetry.Phase.CALCULATION,
+                    () -> payrollCalculator.calculateAll(batch, preview, context, inputs));
+            for (PayrollDetail detail : details) {
+                totalGross += MoneyUtil.toToea(detail.getGrossSalary());
+                totalDeductions += MoneyUtil.toToea(detail.getTotalDeductions());
+                totalNetPay += MoneyUtil.toToea(detail.getNetPay());
+
+                PayrollDetailDTO dto = mapDetailToDTO(detail);
+                dto.setStatus(DRY_RUN_STATUS);
+                sink.accept(dto);
+            }
+        }
+
+        log.info("Simulated payroll for Fortnight {}/{}: {} employees in {} ms",
+                fortnight, year, employees.size(), System.currentTimeMillis() - started);
+
+        PayrollRunDTO summary = mapToDTO(preview);
+        summary.setStatus(null);
+        summary.setTotalEmployees(employees.size());
+        summary.setTotalGross(MoneyUtil.toKina(totalGross));
+        summary.setTotalDeductions(MoneyUtil.toKina(totalDeductions));
+        summary.setTotalNetPay(MoneyUtil.toKina(totalNetPay));
+        return summary;
     }
 
+    // ============ PRE-COMPUTATION (SCHEDULED) ============
+
     /**
-     * Calculate Salary and Wages Tax (SWT) using PNG progressive tax slabs.
-     * Converts annual salary to fortnightly tax amount.
+     * Compute a fortnight ahead of its regular run into a PRECOMPUTED run, which stays in
+     * COMPUTING status outside the approval workflow until the regular run takes it over.
+     * Inputs are those not yet paid, as in a dry run, and nothing is consumed. If the run
+     * exists, only employees whose inputs changed since its last refresh, employees with
+     * pending retro adjustments and employees missing from it are computed again, unless the
+     * payroll or tax configuration or the working days changed, which recomputes everyone.
+     * A pre-computed run left behind by a regular run computed some other way is discarded.
+     *
+     * @param buildIfMissing whether to compute the whole fortnight if it has no pre-computed run yet
+     * @return the number of employees computed
      */
-    private double calculateSWT(double fortnightlyTaxableIncome, TaxConfiguration taxConfig, 
-                                PayrollConfiguration payrollConfig, boolean isResident) {
-        int fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
-        
-        if (taxConfig == null) {
-            log.debug("Using default flat tax rate: {}", DEFAULT_TAX_PERCENTAGE);
-            return fortnightlyTaxableIncome * DEFAULT_TAX_PERCENTAGE;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int precomputePayroll(int fortnight, int year, boolean buildIfMissing) {
+        long started = System.currentTimeMillis();
+        validatePayrollPeriod(fortnight, year);
+
+        Optional<PayrollRun> existing = payrollRunRepository.findPrecomputed(fortnight, year);
+        if (payrollRunRepository.findByFortnightAndYear(fortnight, year).isPresent()) {
+            existing.ifPresent(run -> discardPrecomputedRun(run.getId()));
+            return 0;
         }
 
-        // Convert fortnightly income to annual for slab calculation
-        double annualTaxableIncome = fortnightlyTaxableIncome * fortnightsPerYear;
+        // Changes made while this refresh reads its inputs are picked up by the next one
+        LocalDateTime refreshedAt = LocalDateTime.now();
+        PayrollRun payrollRun;
+        if (existing.isPresent()) {
+            payrollRun = existing.get();
+        } else if (buildIfMissing) {
+            LocalDate[] periodDates = calculateFortnightDates(fortnight, year);
+            payrollRun = payrollRunRepository.save(PayrollRun.builder()
+                    .fortnight(fortnight)
+                    .year(year)
+                    .runType(PayrollRunType.PRECOMPUTED)
+                    .periodStart(periodDates[0])
+                    .periodEnd(periodDates[1])
+                    .status(PayrollStatus.COMPUTING)
+                    .runDate(refreshedAt)
+                    .totalEmployees((int) employeeRepository.countByIsActiveTrue())
+                    .computedBy(PRECOMPUTED_BY)
+                    .computedAt(refreshedAt)
+                    .build());
+        } else {
+            return 0;
+        }
 
-        // Get tax slabs for resident/non-resident
-        List<TaxSlab> slabs = taxSlabRepository.findByConfigurationAndRegime(taxConfig.getId(), isResident);
-        
-        if (slabs == null || slabs.isEmpty()) {
-            log.warn("No tax slabs found for configuration {}. Using default rate.", taxConfig.getId());
-            return fortnightlyTaxableIncome * DEFAULT_TAX_PERCENTAGE;
+        int computed;
+        String fingerprint;
+        try {
+            PayrollRunContext context = buildRunContext(payrollRun);
+            fingerprint = contextFingerprint(context);
+            existing.ifPresent(run -> transactionTemplate.executeWithoutResult(status ->
+                    dropStalePrecomputedDetails(run, fingerprint)));
+            List<Employee> employees = findEmployeesWithoutDetail(payrollRun);
+            PayrollInputTable inputs = payrollTelemetry.time(null, PayrollTelemetry.Phase.INPUTS,
+                    () -> payrollInputService.loadUnpaidInputs(context.getPeriodStart(), context.getPeriodEnd()));
+            // Committed partitions are kept on failure; the next refresh computes the employees still missing
+            computed = payrollComputeEngine.compute(payrollRun, employees, context, inputs, partition -> { })
+                    .employeeCount;
+        } finally {
+            // Phases reach the timers only; the run's summary is stored once it is computed for real
+            payrollTelemetry.forgetRun(payrollRun.getId());
         }
 
-        slabs.sort(Comparator.comparingInt(TaxSlab::getSlabOrder));
+        payrollRun.setComputedAt(refreshedAt);
+        payrollRun.setContextFingerprint(fingerprint);
+        payrollRunRepository.save(payrollRun);
 
-        double annualTax = 0.0;
+        log.info("Pre-computed {} employees of Fortnight {}/{} in {} ms",
+                computed, fortnight, year, System.currentTimeMillis() - started);
+        return computed;
+    }
 
-        for (TaxSlab slab : slabs) {
-            double slabFrom = slab.getIncomeFrom();
-            double slabTo = slab.getIncomeTo() != null ? slab.getIncomeTo() : Double.MAX_VALUE;
-            double taxRate = slab.getTaxRate();
+    /**
+     * The fortnight payroll is due for next on a day: the one before the day's fortnight until
+     * its regular run exists, then the day's fortnight.
+     *
+     * @return the fortnight and its year
+     */
+    @Transactional(readOnly = true)
+    public int[] findDueFortnight(LocalDate day) {
+        int year = day.getYear();
+        int fortnight = Math.min((day.getDayOfYear() - 1) / DAYS_IN_FORTNIGHT + 1, getFortnightsPerYear(year));
+
+        int previousYear = fortnight > 1 ? year : year - 1;
+        int previous = fortnight > 1 ? fortnight - 1 : getFortnightsPerYear(previousYear);
+        if (payrollRunRepository.findByFortnightAndYear(previous, previousYear).isEmpty()) {
+            return new int[] { previous, previousYear };
+        }
+        return new int[] { fortnight, year };
+    }
 
-            if (annualTaxableIncome > slabFrom) {
-                double taxableInSlab;
-                if (annualTaxableIncome >= slabTo) {
-                    taxableInSlab = slabTo - slabFrom;
-                } else {
-                    taxableInSlab = annualTaxableIncome - slabFrom;
-                }
-                
-                if (taxableInSlab > 0) {
-                    annualTax += taxableInSlab * taxRate;
+    private int getFortnightsPerYear(int year) {
+        PayrollConfiguration payrollConfig = getActivePayrollConfiguration(LocalDate.of(year, 1, 1));
+        return payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
+    }
+
+    /**
+     * Turn a pre-computed run into the fortnight's regular run. Its stale details are dropped
+     * and the run consumes overtime and adjustments as a new run would.
+     * Called with the pre-computation lock held.
+     */
+    private PayrollRun takeOverPrecomputedRun(Long runId, String computedBy) {
+        long started = System.nanoTime();
+        PayrollRun opened = transactionTemplate.execute(status -> {
+            PayrollRun run = payrollRunRepository.findById(runId)
+                    .filter(found -> found.getRunType() == PayrollRunType.PRECOMPUTED)
+                    .orElseThrow(() -> new IllegalStateException("Pre-computed payroll run " + runId + " was already taken over"));
+
+            int stale = dropStalePrecomputedDetails(run, contextFingerprint(resolveRunContext(
+                    run, getActivePayrollConfiguration(LocalDate.of(run.getYear(), 1, 1)))));
+
+            LocalDateTime now = LocalDateTime.now();
+            run.setRunType(PayrollRunType.REGULAR);
+            run.setRunDate(now);
+            run.setTotalEmployees((int) employeeRepository.countByIsActiveTrue());
+            run.setComputedBy(computedBy);
+            run.setComputedAt(now);
+            PayrollRun saved = payrollRunRepository.saveAndFlush(run);
+            int overtime = requestRepository.consumeApprovedOvertime(saved, saved.getPeriodStart(), saved.getPeriodEnd());
+            int adjustments = adjustmentRepository.consumePending(saved);
+            log.info("Payroll run {} taken over from pre-computation: {} employees to compute again, "
+                    + "consumed {} approved overtime requests and {} retro adjustments",
+                    runId, stale, overtime, adjustments);
+            return saved;
+        });
+        payrollTelemetry.beginRun(opened.getId(), PayrollTelemetry.OPERATION_COMPUTE);
+        payrollTelemetry.record(opened.getId(), PayrollTelemetry.Phase.PERSISTENCE, System.nanoTime() - started);
+        return opened;
+    }
+
+    /**
+     * Delete the details of a pre-computed run that no longer hold: all of them if the run's
+     * context fingerprint differs from the current one, otherwise those of employees whose
+     * inputs changed since its last refresh, who have retro adjustments or who were paid off-cycle.
+     *
+     * @return the number of details deleted
+     */
+    private int dropStalePrecomputedDetails(PayrollRun run, String fingerprint) {
+        if (!fingerprint.equals(run.getContextFingerprint())) {
+            log.info("Payroll or tax configuration of pre-computed run {} changed, computing all employees again",
+                    run.getId());
+            return payrollDetailRepository.deleteByPayrollRunId(run.getId());
+        }
+
+        Set<Long> stale = findEmployeeIdsChangedSince(run, run.getComputedAt());
+        stale.addAll(adjustmentRepository.findEmployeeIdsPendingOrPaidBy(run.getId()));
+        stale.addAll(findEmployeeIdsPaidOffCycle(run));
+        return stale.isEmpty() ? 0 : payrollDetailRepository.deleteByPayrollRunIdAndEmployeeIdIn(run.getId(), stale);
+    }
+
+    /**
+     * Digest of what a run context feeds into every detail: the working days, which reflect
+     * public holidays, the payroll and tax configurations and the tax slabs.
+     */
+    private String contextFingerprint(PayrollRunContext context) {
+        StringBuilder key = new StringBuilder().append(context.getTotalWorkingDays());
+
+        PayrollConfiguration payrollConfig = context.getPayrollConfig();
+        if (payrollConfig != null) {
+            key.append("|payroll:").append(payrollConfig.getId())
+                    .append(',').append(payrollConfig.getOvertimeRateMultiplier())
+                    .append(',').append(payrollConfig.getWeekendOvertimeMultiplier())
+                    .append(',').append(payrollConfig.getHolidayOvertimeMultiplier())
+                    .append(',').append(payrollConfig.getLateDeductionAmount())
+                    .append(',').append(payrollConfig.getDeductAbsentDays())
+                    .append(',').append(payrollConfig.getStandardHoursPerDay())
+                    .append(',').append(payrollConfig.getFortnightsPerYear())
+                    .append(',').append(payrollConfig.getRoundNetPay())
+                    .append(',').append(payrollConfig.getRoundingPrecision());
+        }
+
+        TaxConfiguration taxConfig = context.getTaxConfig();
+        if (taxConfig != null) {
+            key.append("|tax:").append(taxConfig.getId())
+                    .append(',').append(taxConfig.getSuperEmployeePercentage())
+                    .append(',').append(taxConfig.getSuperEmployerPercentage())
+                    .append(',').append(taxConfig.getSuperMinimumSalary())
+                    .append(',').append(taxConfig.getTaxFreeThreshold())
+                    .append(',').append(taxConfig.getDefaultResidentStatus())
+                    .append(',').append(taxConfig.getFortnightsPerYear());
+            for (TaxSlab slab : taxSlabRepository.findByTaxConfigurationIdOrderBySlabOrderAsc(taxConfig.getId())) {
+                key.append("|slab:").append(slab.getIsResident())
+                        .append(',').append(slab.getIncomeFrom())
+                        .append(',').append(slab.getIncomeTo())
+                        .append(',').append(slab.getTaxRate());
+            }
+        }
+        return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void discardPrecomputedRun(Long runId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            payrollDetailRepository.deleteByPayrollRunId(runId);
+            payrollRunRepository.deleteById(runId);
+        });
+        log.info("Discarded pre-computed payroll run {}", runId);
+    }
+
+    // ============ INCREMENTAL RECOMPUTE (HR) ============
+
+    /**
+     * Recompute only the employees whose inputs changed since the run was last computed:
+     * attendance and leave/overtime requests in the period, and employee records such as
+     * salary or active status. Their detail rows are rewritten in place and the run totals
+     * adjusted by the difference. Deleted attendance rows are not detected.
+     */
+    public PayrollRunDTO recomputePayroll(Long runId, String recomputedBy) {
+        long started = System.currentTimeMillis();
+        PayrollRun payrollRun = payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+
+        if (payrollRun.getStatus() != PayrollStatus.COMPUTED &&
+            payrollRun.getStatus() != PayrollStatus.CHECKED &&
+            payrollRun.getStatus() != PayrollStatus.REJECTED) {
+            throw new InvalidPayrollStateException("Payroll must be in COMPUTED, CHECKED or REJECTED status to recompute");
+        }
+        if (payrollRun.getRunType() == PayrollRunType.OFF_CYCLE) {
+            throw new InvalidPayrollStateException("Off-cycle payroll runs cannot be recomputed");
+        }
+
+        payrollTelemetry.beginRun(runId, PayrollTelemetry.OPERATION_RECOMPUTE);
+        try {
+            return recomputeChangedEmployees(payrollRun, recomputedBy, started);
+        } finally {
+            // Already gone once the recompute finished; only a failed one leaves its timings behind
+            payrollTelemetry.discardRun(runId);
+        }
+    }
+
+    private PayrollRunDTO recomputeChangedEmployees(PayrollRun payrollRun, String recomputedBy, long started) {
+        Long runId = payrollRun.getId();
+        LocalDate periodStart = payrollRun.getPeriodStart();
+        LocalDate periodEnd = payrollRun.getPeriodEnd();
+        LocalDateTime since = payrollRun.getComputedAt() != null ? payrollRun.getComputedAt() : payrollRun.getCreatedAt();
+        LocalDateTime recomputedAt = LocalDateTime.now();
+
+        long inputsStarted = System.nanoTime();
+        Set<Long> changed = findEmployeeIdsChangedSince(payrollRun, since);
+        // Retro adjustments are re-consumed below, so their employees are recomputed whenever there are any
+        changed.addAll(adjustmentRepository.findEmployeeIdsPendingOrPaidBy(runId));
+        // Employees paid off-cycle for the fortnight stay out of its regular run
+        changed.removeAll(findEmployeeIdsPaidOffCycle(payrollRun));
+        payrollTelemetry.record(runId, PayrollTelemetry.Phase.INPUTS, System.nanoTime() - inputsStarted);
+
+        if (changed.isEmpty()) {
+            log.info("No payroll inputs changed for run {} since {}", runId, since);
+            payrollTelemetry.forgetRun(runId);
+            return mapToDTO(payrollRun);
+        }
+
+        // Re-consume the period's overtime so approvals and cancellations since the run are reflected,
+        // and the retro adjustments pending now; employees whose overtime or adjustments changed are
+        // among the changed ones
+        payrollTelemetry.time(runId, PayrollTelemetry.Phase.PERSISTENCE, () -> {
+            requestRepository.releaseOvertimeByPayrollRun(runId);
+            requestRepository.consumeApprovedOvertime(payrollRun, periodStart, periodEnd);
+            adjustmentRepository.releaseByPayrollRun(runId);
+            adjustmentRepository.consumePending(payrollRun);
+        });
+
+        PayrollRunContext context = buildRunContext(payrollRun);
+        inputsStarted = System.nanoTime();
+        PayrollInputTable inputs = payrollInputService.loadInputsForEmployees(payrollRun, changed);
+        Map<Long, PayrollDetail> previousDetails = payrollDetailRepository
+                .findByPayrollRunIdAndEmployeeIdIn(runId, changed).stream()
+                .collect(Collectors.toMap(detail -> detail.getEmployee().getId(), detail -> detail));
+        List<Employee> changedEmployees = employeeRepository.findAllById(changed);
+        payrollTelemetry.record(runId, PayrollTelemetry.Phase.INPUTS, System.nanoTime() - inputsStarted);
+
+        // Deltas in toea, applied to the run totals below
+        long grossDelta = 0;
+        long deductionsDelta = 0;
+        long netPayDelta = 0;
+        int employeesDelta = 0;
+
+        for (Employee employee : changedEmployees) {
+            PayrollDetail previous = previousDetails.get(employee.getId());
+            if (previous != null) {
+                grossDelta -= MoneyUtil.toToeaOrZero(previous.getGrossSalary());
+                deductionsDelta -= MoneyUtil.toToeaOrZero(previous.getTotalDeductions());
+                netPayDelta -= MoneyUtil.toToeaOrZero(previous.getNetPay());
+            }
+
+            if (!Boolean.TRUE.equals(employee.getIsActive())) {
+                // Deactivated since the run was computed
+                if (previous != null) {
+                    payrollTelemetry.time(runId, PayrollTelemetry.Phase.PERSISTENCE,
+                            () -> payrollDetailRepository.delete(previous));
+                    employeesDelta--;
                 }
+                continue;
             }
+
+            PayrollDetail detail = payrollTelemetry.time(runId, PayrollTelemetry.Phase.CALCULATION,
+                    () -> payrollCalculator.calculate(employee, payrollRun, context, inputs));
+            if (previous != null) {
+                detail.setId(previous.getId());
+                detail.setCreatedAt(previous.getCreatedAt());
+            } else {
+                employeesDelta++;
+            }
+            payrollTelemetry.time(runId, PayrollTelemetry.Phase.PERSISTENCE, () -> payrollDetailRepository.save(detail));
+
+            grossDelta += MoneyUtil.toToeaOrZero(detail.getGrossSalary());
+            deductionsDelta += MoneyUtil.toToeaOrZero(detail.getTotalDeductions());
+            netPayDelta += MoneyUtil.toToeaOrZero(detail.getNetPay());
         }
 
-        double fortnightlyTax = annualTax / fortnightsPerYear;
-        log.info("SWT Calculation: Annual Income={}, Annual Tax={}, Fortnightly Tax={}", 
-                annualTaxableIncome, annualTax, fortnightlyTax);
-        
-        return fortnightlyTax;
+        String oldStatus = payrollRun.getStatus().name();
+
+        payrollRun.setTotalGross(MoneyUtil.toKina(MoneyUtil.toToeaOrZero(payrollRun.getTotalGross()) + grossDelta));
+        payrollRun.setTotalDeductions(MoneyUtil.toKina(
+                MoneyUtil.toToeaOrZero(payrollRun.getTotalDeductions()) + deductionsDelta));
+        payrollRun.setTotalNetPay(MoneyUtil.toKina(MoneyUtil.toToeaOrZero(payrollRun.getTotalNetPay()) + netPayDelta));
+        payrollRun.setTotalEmployees(payrollRun.getTotalEmployees() + employeesDelta);
+        payrollRun.setComputedAt(recomputedAt);
+        payrollRun.setStatus(PayrollStatus.CHECKED);  // Auto-checked after computation, as in computePayroll
+        payrollRun.setCheckedBy(recomputedBy);
+        payrollRun.setCheckedAt(recomputedAt);
+
+        PayrollRun saved = payrollTelemetry.time(runId, PayrollTelemetry.Phase.COMPLETION, () -> {
+            PayrollRun run = payrollRunRepository.save(payrollRun);
+            departmentSummaryService.rebuild(run);
+            return run;
+        });
+
+        long netPayChange = netPayDelta;
+        payrollTelemetry.time(runId, PayrollTelemetry.Phase.AUDIT, () -> auditService.logAction("PayrollRun",
+                saved.getId(), "RECOMPUTE", recomputedBy, "status=" + oldStatus,
+                "Recomputed " + changed.size() + " employees, net pay change " + MoneyUtil.toKina(netPayChange)));
+        payrollTelemetry.finishRun(runId, changed.size());
+
+        log.info("Recomputed {} employees of payroll run {} in {} ms - net pay change {}",
+                changed.size(), runId, System.currentTimeMillis() - started, MoneyUtil.toKina(netPayDelta));
+        return mapToDTO(saved);
     }
 
     /**
-     * Calculate Superannuation deduction (employee contribution).
-     * Rate comes from TaxConfiguration.
+     * Employees whose payroll inputs for the run's period changed since a time: attendance and
+     * leave/overtime requests in the period, employee records and compensation.
      */
-    private double calculateSuperannuation(double fortnightlyBasicSalary, TaxConfiguration taxConfig) {
-        double superRate = (taxConfig != null && taxConfig.getSuperEmployeePercentage() != null) 
-                ? taxConfig.getSuperEmployeePercentage() 
-                : DEFAULT_SUPER_EMPLOYEE_PERCENTAGE;
-        
-        return fortnightlyBasicSalary * superRate;
+    private Set<Long> findEmployeeIdsChangedSince(PayrollRun payrollRun, LocalDateTime since) {
+        LocalDate periodStart = payrollRun.getPeriodStart();
+        LocalDate periodEnd = payrollRun.getPeriodEnd();
+        Set<Long> changed = new TreeSet<>();
+        changed.addAll(attendanceRepository.findEmployeeIdsWithAttendanceChangedSince(periodStart, periodEnd, since));
+        changed.addAll(requestRepository.findEmployeeIdsWithRequestsChangedSince(periodStart, periodEnd, since));
+        changed.addAll(employeeRepository.findIdsUpdatedSince(since));
+        changed.addAll(compensationRepository.findEmployeeIdsChangedSince(since));
+        return changed;
     }
 
     /**
-     * Get active payroll configuration.
+     * Resolve the configurations and working days a run is computed with.
      */
-    private PayrollConfiguration getActivePayrollConfiguration(LocalDate date) {
-        return payrollConfigurationRepository.findActiveConfigurationForDate(date)
-                .orElseGet(() -> {
-                    log.warn("No active payroll configuration found. Using default values.");
-                    return null;
-                });
+    private PayrollRunContext buildRunContext(PayrollRun payrollRun) {
+        return payrollTelemetry.time(payrollRun.getId(), PayrollTelemetry.Phase.CONFIGURATION, () -> resolveRunContext(
+                payrollRun, getActivePayrollConfiguration(LocalDate.of(payrollRun.getYear(), 1, 1))));
     }
 
     /**
-     * Compute payroll for a single employee.
-     * NO HARDCODED ALLOWANCES - only Basic Salary + Overtime from approved requests.
+     * Resolve the tax configuration and working days of a run whose payroll configuration is known.
      */
-    private PayrollDetail computeEmployeePayroll(Employee employee, PayrollRun payrollRun, 
-            int fortnight, int year, int totalWorkingDays, LocalDate startDate, LocalDate endDate,
-            TaxConfiguration taxConfig, PayrollConfiguration payrollConfig) {
-        
-        // Get configuration values (with defaults)
-        int fortnightsPerYear = payrollConfig != null ? payrollConfig.getFortnightsPerYear() : DEFAULT_FORTNIGHTS_PER_YEAR;
-        double standardHoursPerDay = payrollConfig != null ? payrollConfig.getStandardHoursPerDay() : DEFAULT_STANDARD_HOURS_PER_DAY;
-        double overtimeMultiplier = payrollConfig != null ? payrollConfig.getOvertimeRateMultiplier() : DEFAULT_OVERTIME_MULTIPLIER;
-        double lateDeductionAmount = payrollConfig != null ? payrollConfig.getLateDeductionAmount() : DEFAULT_LATE_DEDUCTION;
-        double superEmployerRate = (taxConfig != null && taxConfig.getSuperEmployerPercentage() != null) 
-                ? taxConfig.getSuperEmployerPercentage() : 0.084;
-        
-        // Get annual basic salary and convert to fortnightly
-        Double annualBasicSalary = employee.getBasicSalary() != null ? employee.getBasicSalary() : 0.0;
-        Double fortnightlyBasicSalary = annualBasicSalary / fortnightsPerYear;
-        
-        log.info("Computing payroll for employee {}: Annual Basic={}, Fortnightly Basic={}", 
-                employee.getEmpCode(), annualBasicSalary, fortnightlyBasicSalary);
-        
-        // Calculate attendance
-        Integer daysWorked = attendanceRepository.countPresentDaysInPeriod(employee.getId(), startDate, endDate);
-        if (daysWorked == null || daysWorked == 0) {
-            daysWorked = totalWorkingDays;
-            log.info("No attendance data for employee {}, assuming {} working days", 
-                    employee.getEmpCode(), totalWorkingDays);
+    private PayrollRunContext buildRunContext(PayrollRun payrollRun, PayrollConfiguration payrollConfig) {
+        return payrollTelemetry.time(payrollRun.getId(), PayrollTelemetry.Phase.CONFIGURATION,
+                () -> resolveRunContext(payrollRun, payrollConfig));
+    }
+
+    /**
+     * The configurations and working days of a saved run's period, for recomputing it in memory:
+     * the tax and payroll configurations that were active then, not the current ones.
+     */
+    @Transactional(readOnly = true)
+    public PayrollRunContext getRunContext(PayrollRun payrollRun) {
+        return resolveRunContext(payrollRun, getActivePayrollConfiguration(LocalDate.of(payrollRun.getYear(), 1, 1)));
+    }
+
+    private PayrollRunContext resolveRunContext(PayrollRun payrollRun, PayrollConfiguration payrollConfig) {
+        LocalDate periodStart = payrollRun.getPeriodStart();
+        LocalDate periodEnd = payrollRun.getPeriodEnd();
+
+        // Fetch active tax configuration for this period
+        TaxConfiguration taxConfig = getActiveTaxConfiguration(periodStart);
+        if (taxConfig != null) {
+            log.info("Using tax configuration: {} (Financial Year {})", 
+                    taxConfig.getDescription(), taxConfig.getFinancialYear());
         }
         
-        Integer lateCount = attendanceRepository.countLateDaysInPeriod(employee.getId(), startDate, endDate);
-        lateCount = lateCount != null ? lateCount : 0;
-
-        // Get approved overtime requests from EmployeeRequest table
-        List<EmployeeRequest> approvedOvertimes = requestRepository.findApprovedOvertimeNotInPayroll(
-                employee.getId(), startDate, endDate);
-        double approvedOvertimeHours = approvedOvertimes.stream()
-                .mapToDouble(r -> r.getOvertimeHours() != null ? r.getOvertimeHours() : 0.0)
-                .sum();
-
-        // Get approved leaves
-        List<EmployeeRequest> approvedLeaves = requestRepository.findApprovedLeavesInPeriod(
-                employee.getId(), startDate, endDate);
-        double leavesTaken = approvedLeaves.stream()
-                .mapToDouble(r -> r.getTotalDays() != null ? r.getTotalDays() : 0.0)
-                .sum();
-
-        // Calculate earnings - ONLY Basic Salary + Overtime (no hardcoded allowances)
-        double dailyRate = fortnightlyBasicSalary / totalWorkingDays;
-        double hourlyRate = dailyRate / standardHoursPerDay;
-        double proRataBasic = dailyRate * daysWorked;
-        
-        // Overtime pay from approved requests only
-        double overtimePay = hourlyRate * approvedOvertimeHours * overtimeMultiplier;
+        if (payrollConfig != null) {
+            log.info("Using payroll configuration: {} (Overtime multiplier: {}x)", 
+                    payrollConfig.getConfigName(), payrollConfig.getOvertimeRateMultiplier());
+        }
+
+        return PayrollRunContext.builder()
+                .periodStart(periodStart)
+                .periodEnd(periodEnd)
+                .totalWorkingDays(calendarService.countWorkingDays(periodStart, periodEnd))
+                .taxConfig(taxConfig)
+                .payrollConfig(payrollConfig)
+                .residentTaxTable(taxConfig != null ? taxTableCache.getTable(taxConfig.getId(), true) : null)
+                .build();
+    }
 
-        // GROSS = Basic + Overtime (no hardcoded allowances)
-        double grossSalary = proRataBasic + overtimePay;
+    /**
+     * Calculate the start and end dates for a given fortnight.
+     * Fortnight 1 starts on Jan 1 of the year.
+     */
+    private LocalDate[] calculateFortnightDates(int fortnight, int year) {
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        LocalDate periodStart = yearStart.plusDays((long) (fortnight - 1) * DAYS_IN_FORTNIGHT);
+        LocalDate periodEnd = periodStart.plusDays(DAYS_IN_FORTNIGHT - 1);
         
-        // Taxable income is the gross salary
-        double taxableIncome = grossSalary;
-        double annualTaxableIncome = taxableIncome * fortnightsPerYear;
+        // Ensure period end doesn't exceed year boundary
+        LocalDate yearEnd = LocalDate.of(year, 12, 31);
+        if (periodEnd.isAfter(yearEnd)) {
+            periodEnd = yearEnd;
+        }
         
-        // Calculate deductions using configurations
-        double superEmployee = calculateSuperannuation(proRataBasic, taxConfig);
-        double superEmployer = proRataBasic * superEmployerRate;
-        double salaryWagesTax = calculateSWT(taxableIncome, taxConfig, payrollConfig, true);
-        double lateDeduction = lateCount * lateDeductionAmount;
-
-        log.info("Employee {}: Basic={}, Overtime={}hrs(K{}), Gross={}, Super={}, SWT={}", 
-                employee.getEmpCode(), proRataBasic, approvedOvertimeHours, overtimePay, 
-                grossSalary, superEmployee, salaryWagesTax);
-
-        PayrollDetail detail = PayrollDetail.builder()
-                .payrollRun(payrollRun)
-                .employee(employee)
-                .basicSalary(proRataBasic)
-                // NO housing/transport/medical allowances - removed hardcoding
-                .housingAllowance(0.0)
-                .transportAllowance(0.0)
-                .mealAllowance(0.0)
-                .medicalAllowance(0.0)
-                .hra(0.0)
-                .overtimePay(overtimePay)
-                .salaryWagesTax(salaryWagesTax)
-                .superEmployee(superEmployee)
-                .superEmployer(superEmployer)
-                .pfDeduction(0.0)  // PF deduction removed
-                .taxDeduction(salaryWagesTax)
-                .taxableIncome(taxableIncome)
-                .projectedAnnualIncome(annualTaxableIncome)
-                .isTaxResident(true)
-                .lateDeduction(lateDeduction)
-                .totalWorkingDays(totalWorkingDays)
-                .daysWorked(daysWorked)
-                .leavesTaken(leavesTaken)
-                .approvedOvertimeHours(approvedOvertimeHours)
-                .lateCount(lateCount)
-                .build();
+        return new LocalDate[] { periodStart, periodEnd };
+    }
 
-        detail.calculateTotals();
+    // ============ TAX CALCULATION METHODS ============
 
-        // Mark overtime requests as included in payroll
-        for (EmployeeRequest overtime : approvedOvertimes) {
-            overtime.setIncludedInPayroll(true);
-            requestRepository.save(overtime);
-        }
+    /**
+     * Get active tax configuration for the payroll period.
+     * Falls back to default rates if no configuration found.
+     */
+    private TaxConfiguration getActiveTaxConfiguration(LocalDate periodDate) {
+        return taxConfigurationRepository.findActiveConfigurationForDate(periodDate)
+                .orElseGet(() -> {
+                    log.warn("No active tax configuration found for date {}. Using default rates.", periodDate);
+                    return null;
+                });
+    }
 
-        return payrollDetailRepository.save(detail);
+    /**
+     * Get active payroll configuration.
+     */
+    private PayrollConfiguration getActivePayrollConfiguration(LocalDate date) {
+        return payrollConfigurationRepository.findActiveConfigurationForDate(date)
+                .orElseGet(() -> {
+                    log.warn("No active payroll configuration found. Using default values.");
+                    return null;
+                });
     }
 
     // ============ PAYROLL CHECK (PAYROLL CHECKER) ============
@@ -405,6 +1131,8 @@ public class PayrollService {
 
         String oldStatus = payrollRun.getStatus().name();
         
+        // The run keeps its overtime and retro adjustments: it can be checked again as it is,
+        // and recomputing it releases and consumes them again
         payrollRun.setStatus(PayrollStatus.REJECTED);
         payrollRun.setCheckerRemarks(action.getRemarks());
         payrollRun.setCheckedBy(rejectedBy);
@@ -451,6 +1179,7 @@ public class PayrollService {
         payrollRun.setIsLocked(true);
 
         PayrollRun saved = payrollRunRepository.save(payrollRun);
+        yearToDateService.apply(saved);
         
         auditService.logAction("PayrollRun", saved.getId(), "AUTHORIZE_AND_PROCESS", authorizedBy, 
                 "status=CHECKED", "status=PROCESSED");
@@ -480,6 +1209,7 @@ public class PayrollService {
         payrollRun.setIsLocked(true);
 
         PayrollRun saved = payrollRunRepository.save(payrollRun);
+        yearToDateService.apply(saved);
         
         auditService.logAction("PayrollRun", saved.getId(), "PROCESS", processedBy, 
                 "status=AUTHORIZED", "status=PROCESSED");
@@ -488,6 +1218,49 @@ public class PayrollService {
         return mapToDTO(saved);
     }
 
+    // ============ PAYROLL CORRECTION (PAYROLL ADMIN) ============
+
+    /**
+     * Reopen a processed run for correction. Its amounts are taken off the employees'
+     * year-to-date totals; the run goes back to REJECTED, keeping its overtime and retro
+     * adjustments, so it can be recomputed, checked and authorized again.
+     * A run that retro adjustments were raised against is not reopened, as recomputing it
+     * would pay the corrections those adjustments already carry a second time.
+     */
+    public PayrollRunDTO reopenPayroll(PayrollActionDTO action, String reopenedBy) {
+        PayrollRun payrollRun = payrollRunRepository.findById(action.getPayrollRunId())
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+
+        if (payrollRun.getStatus() != PayrollStatus.PROCESSED) {
+            throw new InvalidPayrollStateException("Payroll must be in PROCESSED status to reopen for correction");
+        }
+        if (payrollRun.getRunType() == PayrollRunType.OFF_CYCLE) {
+            throw new InvalidPayrollStateException("Off-cycle payroll runs cannot be reopened; correct them with a retro adjustment");
+        }
+        if (adjustmentRepository.existsBySourceRunId(payrollRun.getId())) {
+            throw new InvalidPayrollStateException("Payroll run has retro adjustments raised against it; correct it with a retro adjustment");
+        }
+
+        int reversedEmployees = yearToDateService.reverse(payrollRun);
+
+        payrollRun.setStatus(PayrollStatus.REJECTED);
+        payrollRun.setIsLocked(false);
+        payrollRun.setCheckerRemarks(action.getRemarks());
+        payrollRun.setAuthorizedBy(null);
+        payrollRun.setAuthorizedAt(null);
+        payrollRun.setProcessedBy(null);
+        payrollRun.setProcessedAt(null);
+
+        PayrollRun saved = payrollRunRepository.save(payrollRun);
+
+        auditService.logAction("PayrollRun", saved.getId(), "REOPEN", reopenedBy,
+                "status=PROCESSED", "status=REJECTED");
+
+        log.info("Payroll {} reopened for correction by {}: {} - reversed year-to-date of {} employees",
+                action.getPayrollRunId(), reopenedBy, action.getRemarks(), reversedEmployees);
+        return mapToDTO(saved);
+    }
+
     // ============ QUERY METHODS ============
 
     public List<PayrollRunDTO> getAllPayrollRuns() {
@@ -514,16 +1287,79 @@ public class PayrollService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A run without its details.
+     */
+    public PayrollRunDTO getPayrollRunSummary(Long id) {
+        return mapToDTO(findPayrollRun(id));
+    }
+
     public PayrollRunDTO getPayrollRunById(Long id) {
-        PayrollRun payrollRun = payrollRunRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
-        return mapToDTOWithDetails(payrollRun);
+        PayrollRun payrollRun = findPayrollRun(id);
+        PayrollRunDTO dto = mapToDTO(payrollRun);
+        dto.setPayrollDetails(getDetailViews(payrollRun));
+        return dto;
     }
 
     public List<PayrollDetailDTO> getPayrollDetailsByRun(Long runId) {
-        return payrollDetailRepository.findByPayrollRunId(runId).stream()
-                .map(this::mapDetailToDTO)
-                .collect(Collectors.toList());
+        return getDetailViews(findPayrollRun(runId));
+    }
+
+    /**
+     * One keyset page of a run's details, ordered by detail id or employee code.
+     * The cursor is the last id or emp code of the previous page; omit it for the first page.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<PayrollDetailDTO> getPayrollDetailsPage(Long runId, String sortBy, String after, int size) {
+        PayrollRun payrollRun = findPayrollRun(runId);
+        int pageSize = Math.min(Math.max(size, 1), MAX_DETAIL_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<PayrollDetailDTO> rows;
+        if (DETAIL_SORT_EMP_CODE.equals(sortBy)) {
+            rows = payrollDetailRepository.findDetailViewsByRunAfterEmpCode(runId, after != null ? after : "", limit);
+        } else if (sortBy == null || DETAIL_SORT_ID.equals(sortBy)) {
+            rows = payrollDetailRepository.findDetailViewsByRunAfterId(runId, parseIdCursor(after), limit);
+        } else {
+            throw new IllegalStateException("Payroll details can be sorted by " + DETAIL_SORT_ID + " or " + DETAIL_SORT_EMP_CODE);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PayrollDetailDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        items.forEach(detail -> applyRunFields(detail, payrollRun));
+
+        String nextCursor = null;
+        if (hasMore) {
+            PayrollDetailDTO last = items.get(items.size() - 1);
+            nextCursor = DETAIL_SORT_EMP_CODE.equals(sortBy) ? last.getEmpCode() : String.valueOf(last.getId());
+        }
+
+        return KeysetPageDTO.<PayrollDetailDTO>builder()
+                .items(new ArrayList<>(items))
+                .sortBy(sortBy != null ? sortBy : DETAIL_SORT_ID)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Hand every detail of a run to the sink in id order. Rows are read through a
+     * server-side cursor and never become managed entities, so memory stays flat
+     * however large the run is.
+     */
+    @Transactional(readOnly = true)
+    public int streamPayrollDetails(Long runId, Consumer<PayrollDetailDTO> sink) {
+        PayrollRun payrollRun = findPayrollRun(runId);
+        int count = 0;
+        try (Stream<PayrollDetailDTO> details = payrollDetailRepository.streamDetailViewsByRun(runId)) {
+            for (Iterator<PayrollDetailDTO> it = details.iterator(); it.hasNext(); count++) {
+                PayrollDetailDTO detail = it.next();
+                applyRunFields(detail, payrollRun);
+                sink.accept(detail);
+            }
+        }
+        return count;
     }
 
     public List<PayrollDetailDTO> getEmployeePayslips(Long employeeId) {
@@ -533,17 +1369,15 @@ public class PayrollService {
     }
 
     public PayrollDetailDTO getPayslip(Long employeeId, int fortnight, int year) {
+        // An employee is paid by one run per fortnight, regular or off-cycle
+        PayrollDetail detail = payrollDetailRepository.findByEmployeeAndPeriod(employeeId, fortnight, year)
+                .orElseThrow(() -> new ResourceNotFoundException("Payslip not found"));
+
         // Check if payroll is processed
-        PayrollRun payrollRun = payrollRunRepository.findByFortnightAndYear(fortnight, year)
-                .orElseThrow(() -> new ResourceNotFoundException("Payroll not found for this period"));
-        
-        if (payrollRun.getStatus() != PayrollStatus.PROCESSED) {
+        if (detail.getPayrollRun().getStatus() != PayrollStatus.PROCESSED) {
             throw new InvalidPayrollStateException("Payslip is only available after payroll is processed");
         }
 
-        PayrollDetail detail = payrollDetailRepository.findByEmployeeAndPeriod(employeeId, fortnight, year)
-                .orElseThrow(() -> new ResourceNotFoundException("Payslip not found"));
-        
         return mapDetailToDTO(detail);
     }
 
@@ -554,6 +1388,8 @@ public class PayrollService {
                 .id(payrollRun.getId())
                 .fortnight(payrollRun.getFortnight())
                 .year(payrollRun.getYear())
+                .runType(payrollRun.getRunType())
+                .offCycleReason(payrollRun.getOffCycleReason())
                 .periodStart(payrollRun.getPeriodStart())
                 .periodEnd(payrollRun.getPeriodEnd())
                 .period(payrollRun.getPeriod())
@@ -577,12 +1413,43 @@ public class PayrollService {
                 .build();
     }
 
-    private PayrollRunDTO mapToDTOWithDetails(PayrollRun payrollRun) {
-        PayrollRunDTO dto = mapToDTO(payrollRun);
-        dto.setPayrollDetails(payrollRun.getPayrollDetails().stream()
-                .map(this::mapDetailToDTO)
-                .collect(Collectors.toList()));
-        return dto;
+    private long parseIdCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid cursor for id order: " + after);
+        }
+    }
+
+    // Employees paid for the run's fortnight by off-cycle runs; empty for an off-cycle run itself
+    private Set<Long> findEmployeeIdsPaidOffCycle(PayrollRun payrollRun) {
+        if (payrollRun.getRunType() == PayrollRunType.OFF_CYCLE) {
+            return Set.of();
+        }
+        return new HashSet<>(payrollDetailRepository.findEmployeeIdsPaidOffCycle(payrollRun.getFortnight(), payrollRun.getYear()));
+    }
+
+    private PayrollRun findPayrollRun(Long runId) {
+        return payrollRunRepository.findVisibleById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+    }
+
+    private List<PayrollDetailDTO> getDetailViews(PayrollRun payrollRun) {
+        List<PayrollDetailDTO> details = payrollDetailRepository.findDetailViewsByRun(payrollRun.getId());
+        details.forEach(detail -> applyRunFields(detail, payrollRun));
+        return details;
+    }
+
+    // Run-level fields are the same for every detail, so projections leave them out
+    private void applyRunFields(PayrollDetailDTO detail, PayrollRun payrollRun) {
+        detail.setPayrollRunId(payrollRun.getId());
+        detail.setMonth(payrollRun.getMonth());
+        detail.setYear(payrollRun.getYear());
+        detail.setPeriod(payrollRun.getPeriod());
+        detail.setStatus(payrollRun.getStatus().name());
     }
 
     private PayrollDetailDTO mapDetailToDTO(PayrollDetail detail) {
@@ -603,6 +1470,7 @@ public class PayrollService {
                 .specialAllowance(detail.getSpecialAllowance())
                 .overtimePay(detail.getOvertimePay())
                 .bonus(detail.getBonus())
+                .retroPay(detail.getRetroPay())
                 .pfDeduction(detail.getPfDeduction())
                 .taxDeduction(detail.getTaxDeduction())
                 .insuranceDeduction(detail.getInsuranceDeduction())
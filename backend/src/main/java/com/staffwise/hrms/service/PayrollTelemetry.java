@@ -0,0 +1,261 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.PayrollRunTelemetryDTO;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollRunTelemetry;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import com.staffwise.hrms.repository.PayrollRunTelemetryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Payroll timings per phase.
+ *
+ * Every phase is recorded on the Micrometer timer payroll.phase, tagged with the phase,
+ * and published through the actuator metrics endpoint. Phases of a saved run are also
+ * accumulated in memory from the moment the run is opened and stored as its
+ * {@link PayrollRunTelemetry} once it completes. Phases recorded without a run, such as
+ * those of a dry run, only reach the timers.
+ *
+ * In cluster mode each node times its own partitions; the stored summary holds what the
+ * node completing the run recorded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollTelemetry {
+
+    public static final String OPERATION_COMPUTE = "COMPUTE";
+    public static final String OPERATION_RECOMPUTE = "RECOMPUTE";
+
+    private static final int SLOWEST_RUNS = 20;
+
+    public enum Phase {
+        CONFIGURATION,
+        INPUTS,
+        CALCULATION,
+        PERSISTENCE,
+        COMPLETION,
+        AUDIT
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final PayrollRunTelemetryRepository telemetryRepository;
+    private final PayrollRunRepository payrollRunRepository;
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private Timer runTimer;
+    private Counter employeesComputed;
+    private Counter partitionsComputed;
+    private Counter runsDiscarded;
+
+    // Runs being computed on this node
+    private final Map<Long, RunTimings> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Phase totals of one run, added to from the compute worker threads.
+     */
+    private static class RunTimings {
+        final String operation;
+        final long startedNanos = System.nanoTime();
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+        final AtomicInteger partitions = new AtomicInteger();
+
+        RunTimings(String operation) {
+            this.operation = operation;
+            for (int i = 0; i < phaseNanos.length; i++) {
+                phaseNanos[i] = new LongAdder();
+            }
+        }
+
+        long millis(Phase phase) {
+            return TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()].sum());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("payroll.phase")
+                    .description("Time spent in one phase of payroll computation")
+                    .tag("phase", phase.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        runTimer = Timer.builder("payroll.run")
+                .description("Wall time of payroll runs from opening to completion")
+                .register(meterRegistry);
+        employeesComputed = Counter.builder("payroll.employees.computed")
+                .description("Employees whose payroll details were written")
+                .register(meterRegistry);
+        partitionsComputed = Counter.builder("payroll.partitions.computed")
+                .description("Partitions committed by the payroll compute engine")
+                .register(meterRegistry);
+        runsDiscarded = Counter.builder("payroll.runs.discarded")
+                .description("Payroll runs discarded after a failed computation")
+                .register(meterRegistry);
+    }
+
+    // ============ RECORDING ============
+
+    /**
+     * Start timing a run, replacing whatever was recorded for it before.
+     */
+    public void beginRun(Long runId, String operation) {
+        runs.put(runId, new RunTimings(operation));
+    }
+
+    /**
+     * Run an action and record its time against the phase, and against the run if it has one.
+     */
+    public <T> T time(Long runId, Phase phase, Supplier<T> action) {
+        long started = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(runId, phase, System.nanoTime() - started);
+        }
+    }
+
+    public void time(Long runId, Phase phase, Runnable action) {
+        time(runId, phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void record(Long runId, Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        if (runId != null) {
+            runs.computeIfAbsent(runId, id -> new RunTimings(OPERATION_COMPUTE)).phaseNanos[phase.ordinal()].add(nanos);
+        }
+    }
+
+    /**
+     * Count a committed partition of a run.
+     */
+    public void partitionComputed(Long runId, int employees) {
+        partitionsComputed.increment();
+        employeesComputed.increment(employees);
+        RunTimings timings = runs.get(runId);
+        if (timings != null) {
+            timings.partitions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Store the summary of a completed run, replacing the one of an earlier computation.
+     */
+    @Transactional
+    public void finishRun(Long runId, int employees) {
+        RunTimings timings = runs.remove(runId);
+        if (timings == null) {
+            return;
+        }
+
+        long wallNanos = System.nanoTime() - timings.startedNanos;
+        runTimer.record(wallNanos, TimeUnit.NANOSECONDS);
+
+        PayrollRunTelemetry telemetry = telemetryRepository.findByPayrollRunId(runId)
+                .orElseGet(() -> PayrollRunTelemetry.builder()
+                        .payrollRun(payrollRunRepository.getReferenceById(runId))
+                        .build());
+        telemetry.setOperation(timings.operation);
+        telemetry.setEmployees(employees);
+        telemetry.setPartitions(timings.partitions.get());
+        telemetry.setConfigurationMillis(timings.millis(Phase.CONFIGURATION));
+        telemetry.setInputsMillis(timings.millis(Phase.INPUTS));
+        telemetry.setCalculationMillis(timings.millis(Phase.CALCULATION));
+        telemetry.setPersistenceMillis(timings.millis(Phase.PERSISTENCE));
+        telemetry.setCompletionMillis(timings.millis(Phase.COMPLETION));
+        telemetry.setAuditMillis(timings.millis(Phase.AUDIT));
+        telemetry.setWallMillis(TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        telemetry.setStartedAt(timings.startedAt);
+        telemetry.setFinishedAt(LocalDateTime.now());
+        telemetryRepository.save(telemetry);
+
+        log.info("Payroll run {} {} timings: configuration {} ms, inputs {} ms, calculation {} ms, "
+                        + "persistence {} ms, completion {} ms, audit {} ms, wall {} ms",
+                runId, timings.operation, telemetry.getConfigurationMillis(), telemetry.getInputsMillis(),
+                telemetry.getCalculationMillis(), telemetry.getPersistenceMillis(),
+                telemetry.getCompletionMillis(), telemetry.getAuditMillis(), telemetry.getWallMillis());
+    }
+
+    /**
+     * Drop the timings of a run whose computation was abandoned.
+     */
+    public void discardRun(Long runId) {
+        if (runs.remove(runId) != null) {
+            runsDiscarded.increment();
+        }
+    }
+
+    /**
+     * Drop what this node timed for a run that another node completes.
+     */
+    public void forgetRun(Long runId) {
+        runs.remove(runId);
+    }
+
+    // ============ QUERIES ============
+
+    @Transactional(readOnly = true)
+    public PayrollRunTelemetryDTO getRunTelemetry(Long runId) {
+        return telemetryRepository.findByPayrollRunId(runId)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("No telemetry recorded for payroll run " + runId));
+    }
+
+    /**
+     * The runs that took longest to compute, slowest first.
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollRunTelemetryDTO> getSlowestRuns() {
+        return telemetryRepository.findSlowest(PageRequest.of(0, SLOWEST_RUNS)).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private PayrollRunTelemetryDTO mapToDTO(PayrollRunTelemetry telemetry) {
+        PayrollRun run = telemetry.getPayrollRun();
+        long wall = telemetry.getWallMillis() != null ? telemetry.getWallMillis() : 0;
+        int employees = telemetry.getEmployees() != null ? telemetry.getEmployees() : 0;
+
+        return PayrollRunTelemetryDTO.builder()
+                .payrollRunId(run.getId())
+                .period(run.getPeriod())
+                .operation(telemetry.getOperation())
+                .employees(telemetry.getEmployees())
+                .partitions(telemetry.getPartitions())
+                .configurationMillis(telemetry.getConfigurationMillis())
+                .inputsMillis(telemetry.getInputsMillis())
+                .calculationMillis(telemetry.getCalculationMillis())
+                .persistenceMillis(telemetry.getPersistenceMillis())
+                .completionMillis(telemetry.getCompletionMillis())
+                .auditMillis(telemetry.getAuditMillis())
+                .wallMillis(telemetry.getWallMillis())
+                .employeesPerSecond(employees * 1000.0 / Math.max(wall, 1))
+                .startedAt(telemetry.getStartedAt())
+                .finishedAt(telemetry.getFinishedAt())
+                .build();
+    }
+}
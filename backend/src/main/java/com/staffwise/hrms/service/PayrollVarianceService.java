@@ -0,0 +1,215 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.dto.PayrollVarianceDTO;
+import com.staffwise.hrms.dto.PayrollVarianceLineDTO;
+import com.staffwise.hrms.dto.PayrollVarianceLineDTO.VarianceType;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollRunType;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.PayrollDetailRepository;
+import com.staffwise.hrms.repository.PayrollRunRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compares a payroll run with a base run, usually the previous fortnight, employee by employee.
+ *
+ * Both runs' details are read through one cursor ordered by employee id, so an employee's
+ * rows are adjacent and are merge-joined in a single sequential pass holding at most one
+ * unmatched row. Employees only in the run are joiners, employees only in the base run are
+ * leavers, and employees in both are flagged when any compared amount changes by more than
+ * the threshold percentage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class PayrollVarianceService {
+
+    // Amounts compared, in the column order of streamVarianceRowsByRuns starting at FIRST_AMOUNT
+    private static final String[] FIELDS = {
+            "basicSalary", "overtimePay", "retroPay", "grossSalary", "salaryWagesTax",
+            "superEmployee", "lateDeduction", "totalDeductions", "netPay" };
+    private static final int FIRST_AMOUNT = 5;
+    private static final int NET_PAY = FIRST_AMOUNT + FIELDS.length - 1;
+
+    private final PayrollRunRepository payrollRunRepository;
+    private final PayrollDetailRepository payrollDetailRepository;
+
+    @Value("${payroll.variance.threshold-percent:10}")
+    private double defaultThresholdPercent;
+
+    /**
+     * Running counts of one comparison.
+     */
+    private static class Tally {
+        int employees;
+        int joiners;
+        int leavers;
+        int changed;
+        long baseNetPay;
+        long netPay;
+    }
+
+    /**
+     * Compare and return the summary together with every flagged employee.
+     */
+    public PayrollVarianceDTO compareRuns(Long runId, Long baseRunId, Double thresholdPercent) {
+        List<PayrollVarianceLineDTO> lines = new ArrayList<>();
+        PayrollVarianceDTO variance = compareRuns(runId, baseRunId, thresholdPercent, lines::add);
+        variance.setLines(lines);
+        return variance;
+    }
+
+    /**
+     * Compare and hand each flagged employee to the sink in employee id order, as found.
+     * Without a base run id the run is compared with the latest run before its period.
+     *
+     * @return the summary, without lines
+     */
+    public PayrollVarianceDTO compareRuns(Long runId, Long baseRunId, Double thresholdPercent,
+                                          Consumer<PayrollVarianceLineDTO> sink) {
+        long started = System.currentTimeMillis();
+        PayrollRun run = findPayrollRun(runId);
+        PayrollRun baseRun = resolveBaseRun(run, baseRunId);
+        double threshold = thresholdPercent != null ? thresholdPercent : defaultThresholdPercent;
+        if (threshold < 0) {
+            throw new IllegalStateException("Variance threshold must not be negative");
+        }
+
+        Tally tally = new Tally();
+        Object[] pending = null;
+        try (Stream<Object[]> rows = payrollDetailRepository.streamVarianceRowsByRuns(baseRun.getId(), run.getId())) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                if (pending != null && pending[0].equals(row[0])) {
+                    boolean pendingIsBase = baseRun.getId().equals(pending[1]);
+                    compare(pendingIsBase ? pending : row, pendingIsBase ? row : pending, threshold, tally, sink);
+                    pending = null;
+                } else {
+                    if (pending != null) {
+                        unmatched(pending, baseRun, tally, sink);
+                    }
+                    pending = row;
+                }
+            }
+        }
+        if (pending != null) {
+            unmatched(pending, baseRun, tally, sink);
+        }
+
+        log.info("Compared payroll run {} with {} in {} ms: {} employees, {} joiners, {} leavers, {} changed over {}%",
+                run.getId(), baseRun.getId(), System.currentTimeMillis() - started,
+                tally.employees, tally.joiners, tally.leavers, tally.changed, threshold);
+
+        return PayrollVarianceDTO.builder()
+                .baseRunId(baseRun.getId())
+                .basePeriod(baseRun.getPeriod())
+                .runId(run.getId())
+                .period(run.getPeriod())
+                .thresholdPercent(threshold)
+                .employeesCompared(tally.employees)
+                .joiners(tally.joiners)
+                .leavers(tally.leavers)
+                .changed(tally.changed)
+                .baseTotalNetPay(MoneyUtil.toKina(tally.baseNetPay))
+                .totalNetPay(MoneyUtil.toKina(tally.netPay))
+                .build();
+    }
+
+    /**
+     * The id of the run a comparison uses as its base, so callers can fail before streaming.
+     */
+    public Long resolveBaseRunId(Long runId, Long baseRunId) {
+        return resolveBaseRun(findPayrollRun(runId), baseRunId).getId();
+    }
+
+    private PayrollRun resolveBaseRun(PayrollRun run, Long baseRunId) {
+        PayrollRun baseRun = baseRunId != null
+                ? findPayrollRun(baseRunId)
+                : payrollRunRepository.findFirstByRunTypeAndPeriodStartBeforeOrderByPeriodStartDesc(
+                        PayrollRunType.REGULAR, run.getPeriodStart())
+                        .orElseThrow(() -> new ResourceNotFoundException("No earlier payroll run to compare with"));
+        if (baseRun.getId().equals(run.getId())) {
+            throw new IllegalStateException("A payroll run cannot be compared with itself");
+        }
+        return baseRun;
+    }
+
+    private void compare(Object[] base, Object[] current, double threshold, Tally tally,
+                         Consumer<PayrollVarianceLineDTO> sink) {
+        tally.employees++;
+        tally.baseNetPay += toea(base[NET_PAY]);
+        tally.netPay += toea(current[NET_PAY]);
+
+        List<PayrollVarianceLineDTO.FieldChange> changes = null;
+        for (int i = 0; i < FIELDS.length; i++) {
+            long baseValue = toea(base[FIRST_AMOUNT + i]);
+            long value = toea(current[FIRST_AMOUNT + i]);
+            long change = value - baseValue;
+            boolean flagged = baseValue == 0
+                    ? change != 0
+                    : Math.abs(change) * 100.0 > threshold * Math.abs(baseValue);
+            if (flagged) {
+                if (changes == null) {
+                    changes = new ArrayList<>();
+                }
+                changes.add(PayrollVarianceLineDTO.FieldChange.builder()
+                        .field(FIELDS[i])
+                        .baseValue(MoneyUtil.toKina(baseValue))
+                        .value(MoneyUtil.toKina(value))
+                        .change(MoneyUtil.toKina(change))
+                        .changePercent(baseValue != 0 ? change * 100.0 / Math.abs(baseValue) : null)
+                        .build());
+            }
+        }
+
+        if (changes != null) {
+            tally.changed++;
+            sink.accept(line(current, VarianceType.CHANGED, base[NET_PAY], current[NET_PAY], changes));
+        }
+    }
+
+    private void unmatched(Object[] row, PayrollRun baseRun, Tally tally, Consumer<PayrollVarianceLineDTO> sink) {
+        tally.employees++;
+        if (baseRun.getId().equals(row[1])) {
+            tally.leavers++;
+            tally.baseNetPay += toea(row[NET_PAY]);
+            sink.accept(line(row, VarianceType.LEAVER, row[NET_PAY], null, List.of()));
+        } else {
+            tally.joiners++;
+            tally.netPay += toea(row[NET_PAY]);
+            sink.accept(line(row, VarianceType.JOINER, null, row[NET_PAY], List.of()));
+        }
+    }
+
+    private PayrollVarianceLineDTO line(Object[] row, VarianceType type, Object baseNetPay, Object netPay,
+                                        List<PayrollVarianceLineDTO.FieldChange> changes) {
+        return PayrollVarianceLineDTO.builder()
+                .employeeId((Long) row[0])
+                .empCode((String) row[2])
+                .employeeName(row[3] + " " + row[4])
+                .type(type)
+                .baseNetPay(baseNetPay != null ? MoneyUtil.toKina(toea(baseNetPay)) : null)
+                .netPay(netPay != null ? MoneyUtil.toKina(toea(netPay)) : null)
+                .changes(changes)
+                .build();
+    }
+
+    private long toea(Object amount) {
+        return amount != null ? MoneyUtil.toToea(((Number) amount).doubleValue()) : 0L;
+    }
+
+    private PayrollRun findPayrollRun(Long runId) {
+        return payrollRunRepository.findVisibleById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payroll run not found"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.collect.Lists;
+import com.staffwise.hrms.dto.PayrollYearToDateDTO;
+import com.staffwise.hrms.entity.PayrollRun;
+import com.staffwise.hrms.entity.PayrollYearToDate;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import com.staffwise.hrms.repository.EmployeeRepository;
+import com.staffwise.hrms.repository.PayrollDetailRepository;
+import com.staffwise.hrms.repository.PayrollYearToDateRepository;
+import com.staffwise.hrms.util.MoneyUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-employee year-to-date accumulator. A run's details are added when it
+ * moves to PROCESSED and subtracted again when a processed run is reopened for correction,
+ * so year-to-date lookups read a single row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PayrollYearToDateService {
+
+    // Employees whose accumulator rows are loaded and written together
+    private static final int CHUNK_SIZE = 1000;
+
+    private final PayrollYearToDateRepository yearToDateRepository;
+    private final PayrollDetailRepository payrollDetailRepository;
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * Add a processed run's details to its employees' year-to-date totals.
+     */
+    public int apply(PayrollRun payrollRun) {
+        return accumulate(payrollRun, 1);
+    }
+
+    /**
+     * Take a processed run's details off its employees' year-to-date totals.
+     */
+    public int reverse(PayrollRun payrollRun) {
+        return accumulate(payrollRun, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public PayrollYearToDateDTO getYearToDate(Long employeeId, int financialYear) {
+        return yearToDateRepository.findByEmployeeAndFinancialYear(employeeId, financialYear)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "No processed payroll for this employee in " + financialYear));
+    }
+
+    /**
+     * Recreate a financial year's totals from the details of its processed runs, e.g. after
+     * loading historical runs directly into the database.
+     */
+    public int rebuild(int financialYear) {
+        yearToDateRepository.deleteByFinancialYear(financialYear);
+        List<PayrollYearToDate> rows = new ArrayList<>();
+        for (Object[] row : payrollDetailRepository.sumProcessedAmountsByEmployeeForYear(financialYear)) {
+            rows.add(PayrollYearToDate.builder()
+                    .employee(employeeRepository.getReferenceById((Long) row[0]))
+                    .financialYear(financialYear)
+                    .runCount(((Number) row[1]).intValue())
+                    .grossSalary(MoneyUtil.toKina(toea(row[2])))
+                    .salaryWagesTax(MoneyUtil.toKina(toea(row[3])))
+                    .superEmployee(MoneyUtil.toKina(toea(row[4])))
+                    .superEmployer(MoneyUtil.toKina(toea(row[5])))
+                    .netPay(MoneyUtil.toKina(toea(row[6])))
+                    .build());
+        }
+        yearToDateRepository.saveAll(rows);
+        log.info("Rebuilt year-to-date payroll for {} employees in {}", rows.size(), financialYear);
+        return rows.size();
+    }
+
+    /**
+     * Add (sign 1) or subtract (sign -1) a run's amounts. Rows are loaded and saved per chunk
+     * of employees, so the work is one read and one batched write per chunk. The rows read are
+     * locked until the transaction commits, so two runs processed or reopened together do not
+     * overwrite each other's totals. Two runs creating an employee's first row together collide
+     * on its unique key and the later one rolls back.
+     */
+    private int accumulate(PayrollRun payrollRun, int sign) {
+        Integer financialYear = payrollRun.getYear();
+        List<Object[]> amounts = payrollDetailRepository.findYearToDateAmountsByPayrollRun(payrollRun.getId());
+
+        for (List<Object[]> chunk : Lists.partition(amounts, CHUNK_SIZE)) {
+            List<Long> employeeIds = chunk.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+            Map<Long, PayrollYearToDate> existing = yearToDateRepository
+                    .findByFinancialYearAndEmployeeIdsForUpdate(financialYear, employeeIds).stream()
+                    .collect(Collectors.toMap(y -> y.getEmployee().getId(), Function.identity()));
+
+            List<PayrollYearToDate> rows = new ArrayList<>(chunk.size());
+            for (Object[] row : chunk) {
+                Long employeeId = (Long) row[0];
+                PayrollYearToDate ytd = existing.get(employeeId);
+                if (ytd == null) {
+                    ytd = PayrollYearToDate.builder()
+                            .employee(employeeRepository.getReferenceById(employeeId))
+                            .financialYear(financialYear)
+                            .build();
+                }
+                ytd.setRunCount(ytd.getRunCount() + sign);
+                ytd.setGrossSalary(add(ytd.getGrossSalary(), row[1], sign));
+                ytd.setSalaryWagesTax(add(ytd.getSalaryWagesTax(), row[2], sign));
+                ytd.setSuperEmployee(add(ytd.getSuperEmployee(), row[3], sign));
+                ytd.setSuperEmployer(add(ytd.getSuperEmployer(), row[4], sign));
+                ytd.setNetPay(add(ytd.getNetPay(), row[5], sign));
+                rows.add(ytd);
+            }
+            yearToDateRepository.saveAll(rows);
+        }
+
+        log.info("{} payroll run {} {} year-to-date totals of {} employees",
+                sign > 0 ? "Added" : "Reversed", payrollRun.getId(), sign > 0 ? "to" : "from", amounts.size());
+        return amounts.size();
+    }
+
+    private Double add(Double total, Object amount, int sign) {
+        return MoneyUtil.toKina(MoneyUtil.toToeaOrZero(total) + sign * toea(amount));
+    }
+
+    private long toea(Object amount) {
+        return amount != null ? MoneyUtil.toToea(((Number) amount).doubleValue()) : 0L;
+    }
+
+    private PayrollYearToDateDTO mapToDTO(PayrollYearToDate ytd) {
+        return PayrollYearToDateDTO.builder()
+                .employeeId(ytd.getEmployee().getId())
+                .empCode(ytd.getEmployee().getEmpCode())
+                .employeeName(ytd.getEmployee().getFullName())
+                .financialYear(ytd.getFinancialYear())
+                .runCount(ytd.getRunCount())
+                .grossSalary(ytd.getGrossSalary())
+                .salaryWagesTax(ytd.getSalaryWagesTax())
+                .superEmployee(ytd.getSuperEmployee())
+                .superEmployer(ytd.getSuperEmployer())
+                .netPay(ytd.getNetPay())
+                .build();
+    }
+}
@@ -76,6 +76,7 @@ public class PayslipPdfService {
             addAmountRowIfNonZero(earningsTable, "Special Allowance", payroll.getSpecialAllowance());
             addAmountRowIfNonZero(earningsTable, "Overtime Pay", payroll.getOvertimePay());
             addAmountRowIfNonZero(earningsTable, "Bonus", payroll.getBonus());
+            addAmountRowIfNonZero(earningsTable, "Retro Pay (Arrears)", payroll.getRetroPay());
             
             Cell grossCell = new Cell().add(new Paragraph("Gross Salary").setBold());
             Cell grossAmtCell = new Cell().add(new Paragraph(formatAmount(payroll.getGrossSalary())).setBold())
@@ -15,7 +15,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,6 +28,7 @@ public class RequestService {
     private final EmployeeRepository employeeRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final AuditService auditService;
+    private final CalendarService calendarService;
 
     // ============ LEAVE REQUESTS ============
 
@@ -347,8 +347,16 @@ public class RequestService {
 
     // ============ HELPER METHODS ============
 
+    /**
+     * Leave is only taken on working days: weekends and public holidays inside the range are not counted.
+     */
     private double calculateLeaveDays(LocalDate fromDate, LocalDate toDate) {
-        return ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        int workingDays = calendarService.countWorkingDays(fromDate, toDate);
+        if (workingDays == 0) {
+            throw new IllegalStateException("Leave period from " + fromDate + " to " + toDate
+                    + " contains no working days");
+        }
+        return workingDays;
     }
 
     private RequestDTO mapToDTO(EmployeeRequest request) {
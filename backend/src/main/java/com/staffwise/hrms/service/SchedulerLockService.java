@@ -0,0 +1,58 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.SchedulerLock;
+import com.staffwise.hrms.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cluster-wide named locks for scheduled tasks, held in scheduler_locks.
+ * A lock is a lease: if its holder stops without releasing it, it becomes free again once
+ * the lease runs out, so keep the lease above the longest expected run of the task.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLockService {
+
+    // lockedUntil of a lock nobody has taken yet
+    private static final LocalDateTime NEVER_LOCKED = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final SchedulerLockRepository lockRepository;
+
+    /**
+     * Take a named lock for at most the lease.
+     *
+     * @return the token to release the lock with, or null if another holder has it
+     */
+    public String tryLock(String name, Duration lease) {
+        if (!lockRepository.existsByName(name)) {
+            try {
+                lockRepository.saveAndFlush(SchedulerLock.builder()
+                        .name(name)
+                        .lockedUntil(NEVER_LOCKED)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // Created by another node at the same time
+                log.debug("Scheduler lock {} created concurrently", name);
+            }
+        }
+
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        return lockRepository.acquire(name, token, now, now.plus(lease)) == 1 ? token : null;
+    }
+
+    /**
+     * Release a lock taken with {@link #tryLock}; does nothing once its lease passed to another holder.
+     */
+    public void unlock(String name, String token) {
+        lockRepository.release(name, token, LocalDateTime.now());
+    }
+}
@@ -30,6 +30,7 @@ public class TaxService {
 
     private final TaxConfigurationRepository taxConfigurationRepository;
     private final TaxSlabRepository taxSlabRepository;
+    private final TaxTableCache taxTableCache;
 
     // PNG Default values
     private static final double DEFAULT_SUPER_EMPLOYEE_RATE = 0.06;  // 6%
@@ -124,32 +125,17 @@ public class TaxService {
             return annualIncome * 0.22;
         }
 
-        // Get tax slabs from configuration
-        List<TaxSlab> slabs = taxSlabRepository.findByConfigurationAndRegime(config.getId(), isResident);
+        // Compiled slabs from configuration
+        CompiledTaxTable table = config.getId() != null
+                ? taxTableCache.getTable(config.getId(), isResident)
+                : null;
         
-        if (slabs.isEmpty()) {
+        if (table == null || table.isEmpty()) {
             // Use default PNG resident slabs
             return calculateSwtWithDefaultSlabs(annualIncome);
         }
 
-        double totalTax = 0;
-        
-        for (TaxSlab slab : slabs) {
-            double slabLower = slab.getIncomeFrom();
-            double slabUpper = slab.getIncomeTo() != null ? slab.getIncomeTo() : Double.MAX_VALUE;
-            
-            if (annualIncome > slabLower) {
-                double taxableInSlab;
-                if (annualIncome >= slabUpper) {
-                    taxableInSlab = slabUpper - slabLower;
-                } else {
-                    taxableInSlab = annualIncome - slabLower;
-                }
-                totalTax += taxableInSlab * slab.getTaxRate();
-            }
-        }
-
-        return totalTax;
+        return table.annualTax(annualIncome);
     }
 
     /**
@@ -0,0 +1,69 @@
+package com.staffwise.hrms.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.staffwise.hrms.repository.TaxSlabRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache of compiled tax tables, keyed by tax configuration and regime.
+ *
+ * Entries are invalidated whenever a configuration or its slabs change through
+ * TaxConfigurationController; the expiry only bounds staleness for changes made
+ * on another node or directly in the database.
+ */
+@Service
+@Slf4j
+public class TaxTableCache {
+
+    private static final int EXPIRY_MINUTES = 30;
+
+    private final TaxSlabRepository taxSlabRepository;
+
+    private final LoadingCache<TaxTableKey, CompiledTaxTable> tables;
+
+    private record TaxTableKey(Long configurationId, boolean isResident) {
+    }
+
+    public TaxTableCache(TaxSlabRepository taxSlabRepository) {
+        this.taxSlabRepository = taxSlabRepository;
+        this.tables = CacheBuilder.newBuilder()
+                .expireAfterWrite(EXPIRY_MINUTES, TimeUnit.MINUTES)
+                .build(new CacheLoader<TaxTableKey, CompiledTaxTable>() {
+                    @Override
+                    public CompiledTaxTable load(TaxTableKey key) {
+                        return compile(key);
+                    }
+                });
+    }
+
+    /**
+     * Compiled slabs for a configuration and regime. Empty when the configuration has no slabs.
+     */
+    public CompiledTaxTable getTable(Long configurationId, boolean isResident) {
+        return tables.getUnchecked(new TaxTableKey(configurationId, isResident));
+    }
+
+    /**
+     * Drop the compiled tables of a configuration after it or one of its slabs changed.
+     */
+    public void invalidate(Long configurationId) {
+        tables.invalidate(new TaxTableKey(configurationId, true));
+        tables.invalidate(new TaxTableKey(configurationId, false));
+        log.debug("Invalidated compiled tax tables for configuration {}", configurationId);
+    }
+
+    private CompiledTaxTable compile(TaxTableKey key) {
+        CompiledTaxTable table = CompiledTaxTable.compile(
+                taxSlabRepository.findByConfigurationAndRegime(key.configurationId(), key.isResident()));
+        if (!table.isEmpty() && !table.isCompiled()) {
+            log.warn("Tax slabs for configuration {} (resident={}) overlap or are out of order; "
+                    + "falling back to a slab-by-slab walk", key.configurationId(), key.isResident());
+        }
+        return table;
+    }
+}
@@ -0,0 +1,106 @@
+package com.staffwise.hrms.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * The working days of one calendar year as a bitset, one bit per day of the year.
+ *
+ * A day is a working day unless it falls on a Saturday or Sunday or is a public holiday.
+ * Alongside the bits, the number of working days before each 64-day word is kept, so the
+ * working days in any range of the year are two prefix lookups plus a masked popcount of
+ * the word at each end.
+ *
+ * Instances are immutable and safe to share between compute threads.
+ */
+public final class WorkingDayYear {
+
+    private final int year;
+    private final long[] workingDays;
+    private final long[] holidays;
+
+    // Working days in the words before each word, plus the year total at the end
+    private final int[] workingBefore;
+
+    private WorkingDayYear(int year, long[] workingDays, long[] holidays) {
+        this.year = year;
+        this.workingDays = workingDays;
+        this.holidays = holidays;
+        this.workingBefore = new int[workingDays.length + 1];
+        for (int word = 0; word < workingDays.length; word++) {
+            workingBefore[word + 1] = workingBefore[word] + Long.bitCount(workingDays[word]);
+        }
+    }
+
+    /**
+     * Build the bitset of a year, ignoring holiday dates that fall in other years.
+     */
+    public static WorkingDayYear of(int year, Collection<LocalDate> holidayDates) {
+        LocalDate first = LocalDate.of(year, 1, 1);
+        int length = first.lengthOfYear();
+        long[] workingDays = new long[(length + 63) >>> 6];
+        long[] holidays = new long[workingDays.length];
+
+        int dayOfWeek = first.getDayOfWeek().getValue();
+        for (int day = 0; day < length; day++) {
+            if (dayOfWeek < DayOfWeek.SATURDAY.getValue()) {
+                workingDays[day >>> 6] |= 1L << day;
+            }
+            dayOfWeek = dayOfWeek == DayOfWeek.SUNDAY.getValue() ? DayOfWeek.MONDAY.getValue() : dayOfWeek + 1;
+        }
+        for (LocalDate date : holidayDates) {
+            if (date.getYear() == year) {
+                int day = date.getDayOfYear() - 1;
+                holidays[day >>> 6] |= 1L << day;
+                workingDays[day >>> 6] &= ~(1L << day);
+            }
+        }
+        return new WorkingDayYear(year, workingDays, holidays);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Working days in the whole year.
+     */
+    public int countWorkingDays() {
+        return workingBefore[workingDays.length];
+    }
+
+    /**
+     * Working days between two days of this year, both inclusive.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        return countBefore(index(end) + 1) - countBefore(index(start));
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        int day = index(date);
+        return (workingDays[day >>> 6] & (1L << day)) != 0;
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        int day = index(date);
+        return (holidays[day >>> 6] & (1L << day)) != 0;
+    }
+
+    // Working days among the first n days of the year
+    private int countBefore(int n) {
+        int word = n >>> 6;
+        int bits = n & 63;
+        if (bits == 0) {
+            return workingBefore[word];
+        }
+        return workingBefore[word] + Long.bitCount(workingDays[word] & ((1L << bits) - 1));
+    }
+
+    private int index(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException("Date " + date + " is not in " + year);
+        }
+        return date.getDayOfYear() - 1;
+    }
+}
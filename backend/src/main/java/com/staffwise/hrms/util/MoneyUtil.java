@@ -0,0 +1,80 @@
+package com.staffwise.hrms.util;
+
+/**
+ * Fixed-point money arithmetic in toea (1 Kina = 100 toea) held in primitive longs.
+ *
+ * Payroll amounts are computed as whole toea and only converted to Kina doubles where
+ * they are stored on entities or DTOs. Every conversion from a fractional amount rounds
+ * half away from zero exactly once, so sums of converted amounts carry no drift.
+ */
+public final class MoneyUtil {
+
+    public static final int TOEA_PER_KINA = 100;
+
+    // Toea in one unit of the last kept digit, indexed by rounding precision (0, 1 or 2 decimals)
+    private static final long[] ROUNDING_STEP = { 100, 10, 1 };
+
+    private MoneyUtil() {
+    }
+
+    /**
+     * Kina to toea, rounded to the nearest toea.
+     */
+    public static long toToea(double kina) {
+        return roundHalfAway(kina * TOEA_PER_KINA);
+    }
+
+    /**
+     * Kina to toea, treating a missing amount as zero.
+     */
+    public static long toToeaOrZero(Double kina) {
+        return kina != null ? toToea(kina) : 0L;
+    }
+
+    public static double toKina(long toea) {
+        return (double) toea / TOEA_PER_KINA;
+    }
+
+    /**
+     * An amount multiplied by a fractional factor such as a rate, rounded to the nearest toea.
+     */
+    public static long multiply(long toea, double factor) {
+        return roundHalfAway(toea * factor);
+    }
+
+    /**
+     * toea * numerator / denominator in integer arithmetic, rounded to the nearest toea.
+     * Used for pro-rating where both parts are whole counts (days, periods).
+     */
+    public static long prorate(long toea, long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive: " + denominator);
+        }
+        long product = toea * numerator;
+        long quotient = product / denominator;
+        long remainder = Math.abs(product % denominator);
+        if (remainder * 2 >= denominator) {
+            quotient += product < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Round to PayrollConfiguration.roundingPrecision decimals of a Kina: 2 keeps whole toea,
+     * 1 rounds to ten toea and 0 to whole Kina. Precisions outside 0..2 are clamped.
+     */
+    public static long round(long toea, int precision) {
+        long step = ROUNDING_STEP[Math.max(0, Math.min(2, precision))];
+        if (step == 1) {
+            return toea;
+        }
+        long half = step / 2;
+        return toea >= 0
+                ? (toea + half) / step * step
+                : -((-toea + half) / step * step);
+    }
+
+    private static long roundHalfAway(double toea) {
+        return toea >= 0 ? (long) (toea + 0.5) : -(long) (-toea + 0.5);
+    }
+}
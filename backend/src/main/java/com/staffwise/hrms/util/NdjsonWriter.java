@@ -0,0 +1,61 @@
+package com.staffwise.hrms.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes objects as newline-delimited JSON (application/x-ndjson), one object per line.
+ *
+ * Lines are handed to the underlying stream as they are written and flushed every
+ * {@code flushEvery} lines, so clients can consume large results while they are produced.
+ */
+public class NdjsonWriter {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private static final int DEFAULT_FLUSH_EVERY = 100;
+
+    private final OutputStream out;
+    private final ObjectWriter writer;
+    private final int flushEvery;
+    private int pending;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+        this(out, objectMapper, DEFAULT_FLUSH_EVERY);
+    }
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper, int flushEvery) {
+        this.out = out;
+        this.writer = objectMapper.writer();
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * Write one object as a line. IO failures, typically a disconnected client,
+     * are rethrown unchecked so they can abort the producer.
+     */
+    public void write(Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write('\n');
+            if (++pending >= flushEvery) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+            pending = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
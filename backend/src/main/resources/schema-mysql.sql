@@ -0,0 +1,5 @@
+-- Column changes that ddl-auto: update does not make to an existing schema.
+-- Each statement leaves an already migrated schema as it is, so the script runs on every start.
+
+-- payroll_runs.status was created as a native ENUM, which rejects statuses added since (COMPUTING)
+ALTER TABLE payroll_runs MODIFY COLUMN status varchar(20) NOT NULL;
@@ -2,8 +2,12 @@ package com.staffwise.hrms;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.staffwise.hrms.dto.PayrollActionDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
 import com.staffwise.hrms.entity.*;
 import com.staffwise.hrms.repository.*;
+import com.staffwise.hrms.service.CalendarService;
+import com.staffwise.hrms.service.PayrollService;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -42,12 +46,45 @@ public abstract class BaseIntegrationTest {
     @Autowired
     protected PayrollDetailRepository payrollDetailRepository;
 
+    @Autowired
+    protected PayrollJobRepository payrollJobRepository;
+
+    @Autowired
+    protected PayrollPartitionRepository payrollPartitionRepository;
+
+    @Autowired
+    protected PayrollRunTelemetryRepository payrollRunTelemetryRepository;
+
+    @Autowired
+    protected PayrollAdjustmentRepository payrollAdjustmentRepository;
+
+    @Autowired
+    protected PayrollDepartmentSummaryRepository payrollDepartmentSummaryRepository;
+
+    @Autowired
+    protected PayrollYearToDateRepository payrollYearToDateRepository;
+
     @Autowired
     protected EmployeeRequestRepository employeeRequestRepository;
 
     @Autowired
     protected AttendanceRepository attendanceRepository;
 
+    @Autowired
+    protected PublicHolidayRepository publicHolidayRepository;
+
+    @Autowired
+    protected EmployeeCompensationRepository employeeCompensationRepository;
+
+    @Autowired
+    protected SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    protected CalendarService calendarService;
+
+    @Autowired
+    protected PayrollService payrollService;
+
     @Autowired
     protected PasswordEncoder passwordEncoder;
 
@@ -76,13 +113,23 @@ public abstract class BaseIntegrationTest {
     }
 
     protected void cleanDatabase() {
+        schedulerLockRepository.deleteAll();
+        payrollJobRepository.deleteAll();
+        payrollPartitionRepository.deleteAll();
+        payrollRunTelemetryRepository.deleteAll();
+        payrollAdjustmentRepository.deleteAll();
+        payrollDepartmentSummaryRepository.deleteAll();
+        payrollYearToDateRepository.deleteAll();
         payrollDetailRepository.deleteAll();
-        payrollRunRepository.deleteAll();
         employeeRequestRepository.deleteAll();
+        payrollRunRepository.deleteAll();
         attendanceRepository.deleteAll();
         leaveBalanceRepository.deleteAll();
+        employeeCompensationRepository.deleteAll();
         employeeRepository.deleteAll();
         departmentRepository.deleteAll();
+        // Through the calendar, so the cached working days of each year are dropped too
+        publicHolidayRepository.findAll().forEach(holiday -> calendarService.deleteHoliday(holiday.getId(), "test"));
     }
 
     protected void setupTestData() {
@@ -205,6 +252,20 @@ public abstract class BaseIntegrationTest {
                 .build());
     }
 
+    protected Employee createEmployee(String empCode, double basicSalary) {
+        return employeeRepository.save(Employee.builder()
+                .empCode(empCode)
+                .firstName("Test")
+                .lastName(empCode)
+                .email(empCode.toLowerCase() + "@test.com")
+                .password("not-used")
+                .role(Role.EMPLOYEE)
+                .department(testDepartment)
+                .basicSalary(basicSalary)
+                .isActive(true)
+                .build());
+    }
+
     protected PayrollRun createPayrollRun(int fortnight, int year, PayrollStatus status) {
         List<Employee> employees = employeeRepository.findByIsActiveTrue();
         
@@ -292,6 +353,13 @@ public abstract class BaseIntegrationTest {
                 .build());
     }
 
+    protected PayrollRunDTO computeAndAuthorize(int fortnight, int year) {
+        PayrollRunDTO run = payrollService.computePayroll(fortnight, year, hrUser.getEmail());
+        return payrollService.authorizePayroll(PayrollActionDTO.builder()
+                .payrollRunId(run.getId())
+                .build(), payrollAdmin.getEmail());
+    }
+
     protected EmployeeRequest createLateComingRequest(Employee employee, LocalDate date, String time) {
         return employeeRequestRepository.save(EmployeeRequest.builder()
                 .employee(employee)
@@ -10,7 +10,9 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -185,8 +187,9 @@ class EmployeeControllerTest extends BaseIntegrationTest {
         @Test
         @DisplayName("Should submit leave request successfully")
         void shouldSubmitLeaveRequest() throws Exception {
-            LocalDate fromDate = LocalDate.now().plusDays(7);
-            LocalDate toDate = LocalDate.now().plusDays(9);
+            // Monday to Wednesday, so all three days are working days
+            LocalDate fromDate = LocalDate.now().plusDays(7).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+            LocalDate toDate = fromDate.plusDays(2);
 
             RequestDTO request = RequestDTO.builder()
                     .leaveType(LeaveType.ANNUAL)
@@ -1,5 +1,6 @@
 package com.staffwise.hrms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.staffwise.hrms.BaseIntegrationTest;
 import com.staffwise.hrms.dto.AuthRequest;
 import com.staffwise.hrms.dto.EmployeeDTO;
@@ -9,10 +10,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -416,5 +420,73 @@ class HRControllerTest extends BaseIntegrationTest {
             EmployeeRequest updated = employeeRequestRepository.findById(overtimeRequest.getId()).orElseThrow();
             assert updated.getIncludedInPayroll() : "Overtime should be marked as included in payroll";
         }
+
+        @Test
+        @DisplayName("Should submit a payroll job and report its progress")
+        void shouldSubmitPayrollJob() throws Exception {
+            String response = mockMvc.perform(post("/api/hr/payroll/jobs")
+                    .header("Authorization", "Bearer " + hrToken)
+                    .param("fortnight", "7")
+                    .param("year", "2025"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.status").value("QUEUED"))
+                    .andReturn().getResponse().getContentAsString();
+            long jobId = objectMapper.readTree(response).get("data").get("id").asLong();
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            String status;
+            do {
+                Thread.sleep(50);
+                String progress = mockMvc.perform(get("/api/hr/payroll/jobs/" + jobId)
+                        .header("Authorization", "Bearer " + hrToken))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.employeesDone").isNumber())
+                        .andReturn().getResponse().getContentAsString();
+                status = objectMapper.readTree(progress).get("data").get("status").asText();
+            } while (!status.equals("COMPLETED") && !status.equals("FAILED")
+                    && System.currentTimeMillis() < deadline);
+
+            assertEquals("COMPLETED", status);
+        }
+
+        @Test
+        @DisplayName("Should stream a payroll dry run without saving anything")
+        void shouldStreamPayrollDryRun() throws Exception {
+            EmployeeRequest overtimeRequest = createOvertimeRequest(regularEmployee, LocalDate.of(2025, 1, 3), 4.0);
+            overtimeRequest.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(overtimeRequest);
+
+            MvcResult started = mockMvc.perform(get("/api/hr/payroll/simulate")
+                    .header("Authorization", "Bearer " + hrToken)
+                    .param("fortnight", "1")
+                    .param("year", "2025"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String[] lines = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString().split("\n");
+
+            int employees = employeeRepository.findByIsActiveTrue().size();
+            assertEquals(employees + 1, lines.length);
+
+            double netPay = 0;
+            for (int i = 0; i < employees; i++) {
+                JsonNode line = objectMapper.readTree(lines[i]);
+                assertEquals("DETAIL", line.get("type").asText());
+                assertEquals("DRY_RUN", line.get("detail").get("status").asText());
+                netPay += line.get("detail").get("netPay").asDouble();
+            }
+            JsonNode summary = objectMapper.readTree(lines[employees]);
+            assertEquals("SUMMARY", summary.get("type").asText());
+            assertEquals(employees, summary.get("summary").get("totalEmployees").asInt());
+            assertEquals(netPay, summary.get("summary").get("totalNetPay").asDouble(), 1e-6);
+
+            assertEquals(0, payrollRunRepository.count());
+            assertEquals(0, payrollDetailRepository.count());
+            assertFalse(employeeRequestRepository.findById(overtimeRequest.getId()).orElseThrow().getIncludedInPayroll());
+        }
     }
 }
@@ -1,8 +1,10 @@
 package com.staffwise.hrms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.staffwise.hrms.BaseIntegrationTest;
 import com.staffwise.hrms.dto.AuthRequest;
 import com.staffwise.hrms.dto.PayrollActionDTO;
+import com.staffwise.hrms.entity.PayrollDetail;
 import com.staffwise.hrms.entity.PayrollRun;
 import com.staffwise.hrms.entity.PayrollStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +12,17 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -131,6 +139,106 @@ class PayrollControllerTest extends BaseIntegrationTest {
                     .andExpect(jsonPath("$.data[*].netPay").isNotEmpty());
         }
 
+        @Test
+        @DisplayName("Should page through payroll details by employee code")
+        void shouldPagePayrollDetailsByEmpCode() throws Exception {
+            PayrollRun payrollRun = createPayrollRun(11, 2025, PayrollStatus.COMPUTED);
+
+            List<String> empCodes = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                MockHttpServletRequestBuilder request = get("/api/payroll/view/runs/" + payrollRun.getId() + "/details/page")
+                        .header("Authorization", "Bearer " + hrToken)
+                        .param("sortBy", "empCode")
+                        .param("size", "2");
+                if (cursor != null) {
+                    request.param("after", cursor);
+                }
+                String response = mockMvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.items", hasSize(lessThanOrEqualTo(2))))
+                        .andReturn().getResponse().getContentAsString();
+
+                JsonNode page = objectMapper.readTree(response).get("data");
+                page.get("items").forEach(item -> empCodes.add(item.get("empCode").asText()));
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(3, pages);
+            assertEquals(5, empCodes.size());
+            assertEquals(empCodes.stream().sorted().toList(), empCodes);
+        }
+
+        @Test
+        @DisplayName("Should stream payroll details as NDJSON")
+        void shouldStreamPayrollDetails() throws Exception {
+            PayrollRun payrollRun = createPayrollRun(11, 2025, PayrollStatus.COMPUTED);
+
+            MvcResult started = mockMvc.perform(get("/api/payroll/view/runs/" + payrollRun.getId() + "/details/stream")
+                    .header("Authorization", "Bearer " + checkerToken))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String[] lines = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString().split("\\n");
+
+            assertEquals(5, lines.length);
+            for (String line : lines) {
+                JsonNode detail = objectMapper.readTree(line);
+                assertEquals(payrollRun.getId(), detail.get("payrollRunId").asLong());
+                assertEquals("COMPUTED", detail.get("status").asText());
+                assertFalse(detail.get("employeeName").asText().isBlank());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return not found when streaming details of an unknown run")
+        void shouldNotStreamUnknownRun() throws Exception {
+            mockMvc.perform(get("/api/payroll/view/runs/999999/details/stream")
+                    .header("Authorization", "Bearer " + hrToken))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Should stream employees that changed since the previous run as NDJSON")
+        void shouldStreamVariance() throws Exception {
+            createPayrollRun(10, 2025, PayrollStatus.PROCESSED);
+            PayrollRun payrollRun = createPayrollRun(11, 2025, PayrollStatus.COMPUTED);
+            PayrollDetail raised = payrollDetailRepository
+                    .findByPayrollRunIdAndEmployeeId(payrollRun.getId(), regularEmployee.getId()).orElseThrow();
+            raised.setNetPay(raised.getNetPay() * 1.5);
+            payrollDetailRepository.save(raised);
+
+            MvcResult started = mockMvc.perform(get("/api/payroll/view/runs/" + payrollRun.getId() + "/variance/stream")
+                    .header("Authorization", "Bearer " + checkerToken))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String[] lines = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString().split("\\n");
+
+            assertEquals(1, lines.length);
+            JsonNode line = objectMapper.readTree(lines[0]);
+            assertEquals(regularEmployee.getId(), line.get("employeeId").asLong());
+            assertEquals("CHANGED", line.get("type").asText());
+        }
+
+        @Test
+        @DisplayName("Should return not found for variance of a run without an earlier run")
+        void shouldNotStreamVarianceWithoutBaseRun() throws Exception {
+            PayrollRun payrollRun = createPayrollRun(1, 2025, PayrollStatus.COMPUTED);
+
+            mockMvc.perform(get("/api/payroll/view/runs/" + payrollRun.getId() + "/variance/stream")
+                    .header("Authorization", "Bearer " + hrToken))
+                    .andExpect(status().isNotFound());
+        }
+
         @Test
         @DisplayName("Should deny view access to regular employee")
         void shouldDenyViewToEmployee() throws Exception {
@@ -0,0 +1,153 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.AttendanceDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.dto.PublicHolidayDTO;
+import com.staffwise.hrms.dto.RequestDTO;
+import com.staffwise.hrms.entity.Attendance.AttendanceStatus;
+import com.staffwise.hrms.entity.LeaveType;
+import com.staffwise.hrms.entity.PayrollDetail;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    private PublicHolidayDTO addHoliday(LocalDate date) {
+        return calendarService.addHoliday(PublicHolidayDTO.builder()
+                .holidayDate(date)
+                .name("Holiday " + date)
+                .build(), hrUser.getEmail());
+    }
+
+    private static int walkWorkingDays(LocalDate start, LocalDate end, Set<LocalDate> holidays) {
+        int workingDays = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                    && !holidays.contains(date)) {
+                workingDays++;
+            }
+        }
+        return workingDays;
+    }
+
+    @Test
+    @DisplayName("Should count working days of any range like a walk over its dates")
+    void shouldMatchDateWalk() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2023, 1, 1);
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            LocalDate date = origin.plusDays(random.nextInt(4 * 365));
+            if (holidays.add(date)) {
+                addHoliday(date);
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(4 * 365));
+            LocalDate end = start.plusDays(random.nextInt(800));
+            assertEquals(walkWorkingDays(start, end, holidays), calendarService.countWorkingDays(start, end),
+                    () -> "Working days from " + start + " to " + end);
+        }
+        assertEquals(0, calendarService.countWorkingDays(origin.plusDays(1), origin));
+    }
+
+    @Test
+    @DisplayName("Should classify weekends and holidays, and forget a deleted holiday")
+    void shouldClassifyDays() {
+        LocalDate christmas = LocalDate.of(2025, 12, 25);
+        assertEquals(CalendarService.DayType.WORKING, calendarService.getDayType(christmas));
+
+        PublicHolidayDTO holiday = addHoliday(christmas);
+        assertEquals(CalendarService.DayType.HOLIDAY, calendarService.getDayType(christmas));
+        assertEquals(CalendarService.DayType.WEEKEND, calendarService.getDayType(LocalDate.of(2025, 12, 27)));
+        assertFalse(calendarService.isWorkingDay(christmas));
+        assertEquals(1, calendarService.getHolidays(2025).size());
+
+        assertThrows(IllegalStateException.class, () -> addHoliday(christmas));
+
+        calendarService.deleteHoliday(holiday.getId(), hrUser.getEmail());
+        assertTrue(calendarService.isWorkingDay(christmas));
+        assertThrows(ResourceNotFoundException.class,
+                () -> calendarService.deleteHoliday(holiday.getId(), hrUser.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Should leave public holidays out of the payroll working days")
+    void shouldExcludeHolidaysFromPayroll() {
+        // Fortnight 1 of 2025 runs Wednesday 1 to Tuesday 14 January: ten weekdays
+        addHoliday(LocalDate.of(2025, 1, 1));
+
+        PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+        PayrollDetail detail = payrollDetailRepository
+                .findByPayrollRunIdAndEmployeeId(run.getId(), regularEmployee.getId()).orElseThrow();
+        assertEquals(9, detail.getTotalWorkingDays());
+    }
+
+    @Test
+    @DisplayName("Should count only working days of a leave request")
+    void shouldExcludeWeekendsAndHolidaysFromLeave() {
+        addHoliday(LocalDate.of(2025, 12, 25));
+
+        // Monday 22 to Sunday 28 December, with Christmas on the Thursday
+        RequestDTO leave = requestService.submitLeaveRequest(RequestDTO.builder()
+                .employeeId(regularEmployee.getId())
+                .leaveType(LeaveType.ANNUAL)
+                .fromDate(LocalDate.of(2025, 12, 22))
+                .toDate(LocalDate.of(2025, 12, 28))
+                .reason("Christmas break")
+                .build(), regularEmployee.getEmail());
+        assertEquals(4.0, leave.getTotalDays());
+
+        assertThrows(IllegalStateException.class, () -> requestService.submitLeaveRequest(RequestDTO.builder()
+                .employeeId(regularEmployee.getId())
+                .leaveType(LeaveType.ANNUAL)
+                .fromDate(LocalDate.of(2025, 12, 27))
+                .toDate(LocalDate.of(2025, 12, 28))
+                .reason("Weekend only")
+                .build(), regularEmployee.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Should only accept holiday and weekend attendance on such days")
+    void shouldValidateAttendanceStatus() {
+        LocalDate christmas = LocalDate.of(2025, 12, 25);
+        AttendanceDTO onWorkingDay = AttendanceDTO.builder()
+                .employeeId(regularEmployee.getId())
+                .attendanceDate(christmas)
+                .status(AttendanceStatus.HOLIDAY)
+                .build();
+        assertThrows(IllegalStateException.class,
+                () -> attendanceService.createAttendanceRecord(onWorkingDay, hrUser.getEmail()));
+
+        addHoliday(christmas);
+        assertEquals(AttendanceStatus.HOLIDAY,
+                attendanceService.createAttendanceRecord(onWorkingDay, hrUser.getEmail()).getStatus());
+
+        AttendanceDTO onSaturday = AttendanceDTO.builder()
+                .employeeId(regularEmployee.getId())
+                .attendanceDate(LocalDate.of(2025, 12, 27))
+                .status(AttendanceStatus.WEEKEND)
+                .build();
+        assertEquals(AttendanceStatus.WEEKEND,
+                attendanceService.createAttendanceRecord(onSaturday, hrUser.getEmail()).getStatus());
+    }
+}
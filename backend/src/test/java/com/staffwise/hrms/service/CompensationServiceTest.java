@@ -0,0 +1,138 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.EmployeeCompensationDTO;
+import com.staffwise.hrms.dto.PayrollRetroRequestDTO;
+import com.staffwise.hrms.dto.PayrollRetroResultDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompensationServiceTest extends BaseIntegrationTest {
+
+    private static final int YEAR = 2025;
+
+    @Autowired
+    private CompensationService compensationService;
+
+    @Autowired
+    private PayrollRetroService payrollRetroService;
+
+    @Autowired
+    private CompensationSyncService compensationSyncService;
+
+    private Employee employee;
+
+    @BeforeEach
+    void createEmployee() {
+        employee = createEmployee("COMP1", 52000.0);
+        employee.setDateOfJoining(LocalDate.of(2024, 1, 1));
+        employee = employeeRepository.save(employee);
+    }
+
+    private EmployeeCompensationDTO change(LocalDate effectiveFrom, Double basicSalary, Boolean taxResident) {
+        return compensationService.changeCompensation(employee.getId(), EmployeeCompensationDTO.builder()
+                .effectiveFrom(effectiveFrom)
+                .basicSalary(basicSalary)
+                .isTaxResident(taxResident)
+                .reason("Review")
+                .build(), hrUser.getEmail());
+    }
+
+    private PayrollDetail detail(Long runId) {
+        return payrollDetailRepository.findByPayrollRunIdAndEmployeeId(runId, employee.getId()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should split the history around backdated changes")
+    void shouldSplitHistory() {
+        change(LocalDate.of(YEAR, 3, 1), 60000.0, null);
+        change(LocalDate.of(YEAR, 1, 22), 55000.0, null);
+        // A second change on the same day corrects the first
+        change(LocalDate.of(YEAR, 1, 22), 56000.0, null);
+
+        List<EmployeeCompensationDTO> history = compensationService.getHistory(employee.getId());
+        assertEquals(3, history.size());
+        assertEquals(LocalDate.of(2024, 1, 1), history.get(0).getEffectiveFrom());
+        assertEquals(LocalDate.of(YEAR, 1, 21), history.get(0).getEffectiveTo());
+        assertEquals(52000.0, history.get(0).getBasicSalary());
+        assertEquals(LocalDate.of(YEAR, 2, 28), history.get(1).getEffectiveTo());
+        assertEquals(56000.0, history.get(1).getBasicSalary());
+        assertNull(history.get(2).getEffectiveTo());
+        assertEquals(testDepartment.getId(), history.get(2).getDepartmentId());
+
+        // The record in force today is the employee's salary
+        assertEquals(60000.0, employeeRepository.findById(employee.getId()).orElseThrow().getBasicSalary());
+    }
+
+    @Test
+    @DisplayName("Should move a future-dated change onto the employee once it takes effect")
+    void shouldSyncFutureDatedChange() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        change(tomorrow, 58000.0, null);
+        assertEquals(52000.0, employeeRepository.findById(employee.getId()).orElseThrow().getBasicSalary());
+        assertEquals(0, compensationSyncService.sync(LocalDate.now()));
+
+        assertEquals(1, compensationSyncService.sync(tomorrow));
+        assertEquals(58000.0, employeeRepository.findById(employee.getId()).orElseThrow().getBasicSalary());
+        assertEquals(0, compensationSyncService.sync(tomorrow));
+    }
+
+    @Test
+    @DisplayName("Should look up the record in force and weight a period by calendar days")
+    void shouldIndexHistory() {
+        change(LocalDate.of(YEAR, 1, 22), 65000.0, null);
+
+        CompensationIndex index = CompensationIndex.of(employeeCompensationRepository.findIndexRowsInPeriod(
+                LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31)));
+        assertEquals(52000_00L, index.find(employee.getId(), LocalDate.of(YEAR, 1, 21)).annualBasic());
+        assertEquals(65000_00L, index.find(employee.getId(), LocalDate.of(YEAR, 1, 22)).annualBasic());
+        assertNull(index.find(employee.getId(), LocalDate.of(2023, 12, 31)));
+        // Seven days at each salary in a fortnight starting 15 January
+        assertEquals(58500_00L, index.findForPeriod(employee.getId(),
+                LocalDate.of(YEAR, 1, 15), LocalDate.of(YEAR, 1, 28)).annualBasic());
+    }
+
+    @Test
+    @DisplayName("Should settle processed runs at the salary in force in each period")
+    void shouldRetroAtHistoricalSalary() {
+        PayrollRunDTO first = computeAndAuthorize(1, YEAR);
+        PayrollRunDTO second = computeAndAuthorize(2, YEAR);
+        double firstNet = detail(first.getId()).getNetPay();
+
+        // Effective halfway through the second fortnight
+        change(LocalDate.of(YEAR, 1, 22), 65000.0, null);
+
+        PayrollRetroResultDTO result = payrollRetroService.runRetro(PayrollRetroRequestDTO.builder()
+                .effectiveFrom(LocalDate.of(YEAR, 1, 1))
+                .employeeIds(List.of(employee.getId()))
+                .reason("Backdated raise")
+                .build(), hrUser.getEmail());
+        assertEquals(2, result.getRunsRecomputed());
+        assertEquals(1, result.getAdjustmentsCreated());
+        // 6,500 a year more on average over 10 of 260 working days
+        assertEquals(250.0, result.getTotalGrossDelta());
+        assertEquals(second.getId(), payrollRetroService.getPendingAdjustments().get(0).getSourceRunId());
+        assertEquals(firstNet, detail(first.getId()).getNetPay());
+    }
+
+    @Test
+    @DisplayName("Should tax a non-resident period at the flat rate")
+    void shouldTaxNonResidentAtFlatRate() {
+        change(LocalDate.of(YEAR, 1, 1), null, false);
+
+        PayrollRunDTO run = payrollService.computePayroll(1, YEAR, hrUser.getEmail());
+        PayrollDetail paid = detail(run.getId());
+        assertFalse(paid.getIsTaxResident());
+        assertEquals(testDepartment.getId(), paid.getDepartmentId());
+        assertEquals(paid.getGrossSalary() * 0.22, paid.getSalaryWagesTax(), 0.01);
+    }
+}
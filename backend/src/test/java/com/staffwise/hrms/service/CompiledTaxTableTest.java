@@ -0,0 +1,144 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.TaxSlab;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Property tests for CompiledTaxTable against the slab-by-slab SWT walk.
+ */
+class CompiledTaxTableTest {
+
+    private static final int SAMPLES = 20_000;
+
+    private static TaxSlab slab(double from, Double to, double rate, int order) {
+        return TaxSlab.builder()
+                .incomeFrom(from)
+                .incomeTo(to)
+                .taxRate(rate)
+                .slabOrder(order)
+                .build();
+    }
+
+    private static List<TaxSlab> pngResidentSlabs() {
+        return List.of(
+                slab(0.0, 12500.0, 0.0, 1),
+                slab(12500.0, 20000.0, 0.22, 2),
+                slab(20000.0, 33000.0, 0.30, 3),
+                slab(33000.0, 70000.0, 0.35, 4),
+                slab(70000.0, 250000.0, 0.40, 5),
+                slab(250000.0, null, 0.42, 6));
+    }
+
+    /**
+     * The slab loop previously used by PayrollService.calculateSWT.
+     */
+    private static double walkSlabs(List<TaxSlab> slabs, double annualIncome) {
+        double annualTax = 0.0;
+        for (TaxSlab slab : slabs) {
+            double slabFrom = slab.getIncomeFrom();
+            double slabTo = slab.getIncomeTo() != null ? slab.getIncomeTo() : Double.MAX_VALUE;
+            if (annualIncome > slabFrom) {
+                double taxableInSlab = annualIncome >= slabTo ? slabTo - slabFrom : annualIncome - slabFrom;
+                if (taxableInSlab > 0) {
+                    annualTax += taxableInSlab * slab.getTaxRate();
+                }
+            }
+        }
+        return annualTax;
+    }
+
+    /**
+     * Random ascending slabs, sometimes with gaps between brackets and sometimes open-ended.
+     */
+    private static List<TaxSlab> randomRegularSlabs(Random random) {
+        int count = 1 + random.nextInt(8);
+        List<TaxSlab> slabs = new ArrayList<>();
+        double from = random.nextBoolean() ? 0.0 : random.nextInt(5000);
+        for (int i = 0; i < count; i++) {
+            double to = from + 1 + random.nextInt(60000);
+            boolean last = i == count - 1;
+            slabs.add(slab(from, last && random.nextBoolean() ? null : to, random.nextInt(50) / 100.0, i + 1));
+            from = to + (random.nextInt(4) == 0 ? random.nextInt(2000) : 0);
+        }
+        return slabs;
+    }
+
+    private static void assertMatchesWalk(List<TaxSlab> slabs, Random random) {
+        CompiledTaxTable table = CompiledTaxTable.compile(slabs);
+        double top = slabs.get(slabs.size() - 1).getIncomeFrom() * 1.5 + 10000;
+        for (int i = 0; i < SAMPLES / 20; i++) {
+            double income = random.nextDouble() * top;
+            assertEquals(walkSlabs(slabs, income), table.annualTax(income), 1e-9,
+                    "Tax mismatch for income " + income + " on slabs " + describe(slabs));
+        }
+        for (TaxSlab slab : slabs) {
+            double bound = slab.getIncomeFrom();
+            for (double income : new double[] { bound - 0.01, bound, bound + 0.01 }) {
+                assertEquals(walkSlabs(slabs, income), table.annualTax(income), 1e-9,
+                        "Tax mismatch at bracket bound " + income + " on slabs " + describe(slabs));
+            }
+        }
+    }
+
+    private static String describe(List<TaxSlab> slabs) {
+        StringBuilder sb = new StringBuilder();
+        for (TaxSlab slab : slabs) {
+            sb.append('[').append(slab.getIncomeFrom()).append(", ").append(slab.getIncomeTo())
+                    .append(") @ ").append(slab.getTaxRate()).append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("Should match the slab walk for PNG resident slabs")
+    void shouldMatchWalkForDefaultSlabs() {
+        List<TaxSlab> slabs = pngResidentSlabs();
+        CompiledTaxTable table = CompiledTaxTable.compile(slabs);
+        assertTrue(table.isCompiled());
+
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double income = random.nextDouble() * 400000;
+            assertEquals(walkSlabs(slabs, income), table.annualTax(income), 1e-9);
+        }
+        assertEquals(0.0, table.annualTax(12500));
+        assertEquals(7500 * 0.22, table.annualTax(20000), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should match the slab walk for random ascending slabs")
+    void shouldMatchWalkForRandomSlabs() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            List<TaxSlab> slabs = randomRegularSlabs(random);
+            assertTrue(CompiledTaxTable.compile(slabs).isCompiled(), describe(slabs));
+            assertMatchesWalk(slabs, random);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to the slab walk for overlapping slabs")
+    void shouldFallBackForIrregularSlabs() {
+        List<TaxSlab> slabs = List.of(
+                slab(0.0, 20000.0, 0.10, 1),
+                slab(15000.0, 40000.0, 0.20, 2),
+                slab(30000.0, null, 0.30, 3));
+        CompiledTaxTable table = CompiledTaxTable.compile(slabs);
+        assertFalse(table.isCompiled());
+        assertMatchesWalk(slabs, new Random(3));
+    }
+
+    @Test
+    @DisplayName("Should report empty tables for missing slabs")
+    void shouldBeEmptyWithoutSlabs() {
+        assertTrue(CompiledTaxTable.compile(List.of()).isEmpty());
+        assertTrue(CompiledTaxTable.compile(null).isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.entity.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the column-oriented payroll kernel behind PayrollCalculator.
+ */
+class PayrollBatchTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2025, 1, 14);
+
+    private final PayrollCalculator calculator = new PayrollCalculator();
+
+    private static PayrollRunContext context(Integer roundingPrecision) {
+        TaxConfiguration taxConfig = TaxConfiguration.builder()
+                .financialYear("2025")
+                .startDate(PERIOD_START)
+                .endDate(LocalDate.of(2025, 12, 31))
+                .build();
+        PayrollConfiguration payrollConfig = PayrollConfiguration.builder()
+                .configName("2025")
+                .effectiveFrom(PERIOD_START)
+                .roundingPrecision(roundingPrecision)
+                .build();
+        List<TaxSlab> slabs = List.of(
+                TaxSlab.builder().incomeFrom(0.0).incomeTo(12500.0).taxRate(0.0).slabOrder(1).build(),
+                TaxSlab.builder().incomeFrom(12500.0).incomeTo(20000.0).taxRate(0.22).slabOrder(2).build(),
+                TaxSlab.builder().incomeFrom(20000.0).incomeTo(33000.0).taxRate(0.30).slabOrder(3).build(),
+                TaxSlab.builder().incomeFrom(33000.0).incomeTo(70000.0).taxRate(0.35).slabOrder(4).build(),
+                TaxSlab.builder().incomeFrom(70000.0).incomeTo(250000.0).taxRate(0.40).slabOrder(5).build(),
+                TaxSlab.builder().incomeFrom(250000.0).incomeTo(null).taxRate(0.42).slabOrder(6).build());
+        return PayrollRunContext.builder()
+                .periodStart(PERIOD_START)
+                .periodEnd(PERIOD_END)
+                .totalWorkingDays(10)
+                .taxConfig(taxConfig)
+                .payrollConfig(payrollConfig)
+                .residentTaxTable(CompiledTaxTable.compile(slabs))
+                .build();
+    }
+
+    private static List<Employee> employees(int count, Random random) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Employee employee = Employee.builder()
+                    .empCode("E" + i)
+                    .basicSalary(random.nextInt(10) == 0 ? null : 10000 + random.nextInt(300000) + random.nextInt(100) / 100.0)
+                    .build();
+            employee.setId((long) i + 1);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private static PayrollInputTable inputs(List<Employee> employees, Random random) {
+        PayrollInputTable inputs = new PayrollInputTable(PERIOD_START, PERIOD_END);
+        for (Employee employee : employees) {
+            if (random.nextInt(5) > 0) {
+                inputs.putAttendance(employee.getId(), 1 + random.nextInt(10), random.nextInt(3));
+            }
+            if (random.nextBoolean()) {
+                inputs.putApprovedOvertimeHours(employee.getId(), random.nextInt(40) / 4.0);
+            }
+        }
+        return inputs;
+    }
+
+    @Test
+    @DisplayName("Should compute a batch exactly like employees one at a time")
+    void shouldMatchSingleEmployeeCalculation() {
+        Random random = new Random(21);
+        PayrollRunContext context = context(2);
+        List<Employee> employees = employees(500, random);
+        PayrollInputTable inputs = inputs(employees, random);
+        PayrollRun run = PayrollRun.builder().fortnight(1).year(2025).build();
+
+        List<PayrollDetail> batch = calculator.calculateAll(employees, run, context, inputs);
+
+        assertEquals(employees.size(), batch.size());
+        for (int i = 0; i < employees.size(); i++) {
+            PayrollDetail single = calculator.calculate(employees.get(i), run, context, inputs);
+            PayrollDetail batched = batch.get(i);
+            assertSame(employees.get(i), batched.getEmployee());
+            assertEquals(single.getGrossSalary(), batched.getGrossSalary());
+            assertEquals(single.getSalaryWagesTax(), batched.getSalaryWagesTax());
+            assertEquals(single.getNetPay(), batched.getNetPay());
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce totals consistent with calculateTotals")
+    void shouldMatchCalculateTotals() {
+        Random random = new Random(8);
+        List<Employee> employees = employees(300, random);
+        PayrollInputTable inputs = inputs(employees, random);
+
+        for (PayrollDetail detail : calculator.calculateAll(employees, PayrollRun.builder().build(), context(2), inputs)) {
+            double gross = detail.getGrossSalary();
+            double deductions = detail.getTotalDeductions();
+            double netPay = detail.getNetPay();
+            double ctc = detail.getCtc();
+
+            detail.calculateTotals();
+            assertEquals(gross, detail.getGrossSalary());
+            assertEquals(deductions, detail.getTotalDeductions());
+            assertEquals(netPay, detail.getNetPay());
+            assertEquals(ctc, detail.getCtc());
+        }
+    }
+
+    @Test
+    @DisplayName("Should round every amount to the configured precision")
+    void shouldRoundToConfiguredPrecision() {
+        Random random = new Random(3);
+        List<Employee> employees = employees(200, random);
+        PayrollInputTable inputs = inputs(employees, random);
+
+        for (PayrollDetail detail : calculator.calculateAll(employees, PayrollRun.builder().build(), context(0), inputs)) {
+            for (double amount : new double[] { detail.getBasicSalary(), detail.getOvertimePay(),
+                    detail.getSalaryWagesTax(), detail.getSuperEmployee(), detail.getNetPay() }) {
+                assertEquals(Math.rint(amount), amount, "Not a whole Kina: " + amount);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should pay full working days without attendance and nothing without salary")
+    void shouldApplyFallbacks() {
+        Employee unpaid = Employee.builder().empCode("NONE").build();
+        unpaid.setId(1L);
+        PayrollInputTable inputs = new PayrollInputTable(PERIOD_START, PERIOD_END);
+
+        PayrollDetail detail = calculator.calculate(unpaid, PayrollRun.builder().build(), context(2), inputs);
+
+        assertEquals(10, detail.getDaysWorked());
+        assertEquals(0.0, detail.getGrossSalary());
+        assertEquals(0.0, detail.getNetPay());
+    }
+}
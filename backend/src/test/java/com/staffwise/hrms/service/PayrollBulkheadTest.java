@@ -0,0 +1,98 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.exception.BatchCapacityExceededException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayrollBulkheadTest extends BaseIntegrationTest {
+
+    @Autowired
+    private PayrollBulkhead payrollBulkhead;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("batchDataSource")
+    private HikariDataSource batchDataSource;
+
+    @Autowired
+    @Qualifier("interactiveDataSource")
+    private HikariDataSource interactiveDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should run batch work on a bulkhead thread with a connection from the batch pool")
+    void shouldUseBatchPool() {
+        int interactiveActive = interactiveDataSource.getHikariPoolMXBean().getActiveConnections();
+
+        int batchActive = payrollBulkhead.call("test", () -> {
+            assertTrue(Thread.currentThread().getName().startsWith("payroll-batch-"));
+            try (Connection ignored = dataSource.getConnection()) {
+                return batchDataSource.getHikariPoolMXBean().getActiveConnections();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(1, batchActive);
+        assertEquals(interactiveActive, interactiveDataSource.getHikariPoolMXBean().getActiveConnections());
+        // Exceptions reach the caller unchanged
+        assertThrows(IllegalArgumentException.class, () -> payrollBulkhead.call("test", () -> {
+            throw new IllegalArgumentException("failed");
+        }));
+    }
+
+    @Test
+    @DisplayName("Should refuse batch work once every thread is busy and the queue is full")
+    void shouldRefuseWhenFull() throws Exception {
+        // 2 threads and 4 queued with the default settings
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Thread caller = new Thread(() -> payrollBulkhead.call("test", () -> {
+                try {
+                    return release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            caller.start();
+            callers.add(caller);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get("executor.queued").tag("name", "payroll.batch").gauge().value() < 4) {
+            assertTrue(System.currentTimeMillis() < deadline, "Bulkhead did not fill up");
+            Thread.sleep(20);
+        }
+
+        try {
+            assertThrows(BatchCapacityExceededException.class, () -> payrollBulkhead.call("test", () -> 1));
+            assertEquals(1.0, meterRegistry.get("payroll.batch.rejected").tag("workload", "test").counter().count());
+        } finally {
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join(10_000);
+            }
+        }
+
+        assertEquals(2, payrollBulkhead.call("test", () -> 2));
+    }
+}
@@ -0,0 +1,177 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.HrmsApplication;
+import com.staffwise.hrms.dto.PayrollPartitionProgressDTO;
+import com.staffwise.hrms.entity.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cluster compute across two nodes: this test context as node-a and a second application
+ * context, node-b, sharing the same in-memory database.
+ */
+class PayrollClusterServiceTest extends BaseIntegrationTest {
+
+    private static final int FORTNIGHT = 1;
+    private static final int YEAR = 2025;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private PayrollClusterService nodeA;
+
+    @BeforeEach
+    void startNodes() {
+        ReflectionTestUtils.setField(nodeA, "nodeId", "node-a");
+        ReflectionTestUtils.setField(nodeA, "partitionSize", 2);
+        if (nodeB == null) {
+            nodeB = new SpringApplicationBuilder(HrmsApplication.class)
+                    .profiles("test")
+                    .web(WebApplicationType.NONE)
+                    // Arguments, so they override the profile's schema handling and the cluster defaults
+                    .run("--spring.jpa.hibernate.ddl-auto=none",
+                            "--payroll.cluster.enabled=true",
+                            "--payroll.cluster.node-id=node-b",
+                            "--payroll.cluster.partition-size=2",
+                            "--payroll.cluster.poll-initial-delay-ms=3600000",
+                            "--payroll.job.sweep-initial-delay-ms=3600000",
+                            "--logging.level.com.staffwise=INFO");
+        }
+    }
+
+    @AfterEach
+    void restoreNode() {
+        ReflectionTestUtils.setField(nodeA, "enabled", false);
+        ReflectionTestUtils.setField(nodeA, "partitionSize", 500);
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+            nodeB = null;
+        }
+    }
+
+    private PayrollClusterService nodeB() {
+        return nodeB.getBean(PayrollClusterService.class);
+    }
+
+    private void createEmployees(int count) {
+        for (int i = 0; i < count; i++) {
+            createEmployee("CLU" + i, 40000.0 + i * 1000);
+        }
+    }
+
+    @Test
+    @DisplayName("Should split a run into partitions computed once each by two nodes")
+    void shouldComputePartitionsOnBothNodes() {
+        ReflectionTestUtils.setField(nodeA, "enabled", true);
+        createEmployees(7);
+        long active = employeeRepository.countByIsActiveTrue();
+
+        PayrollPartitionProgressDTO submitted = nodeA.submitClusterRun(FORTNIGHT, YEAR, hrUser.getEmail());
+        assertEquals((int) Math.ceil(active / 2.0), submitted.getPartitions());
+        assertEquals(submitted.getPartitions(), submitted.getPending());
+        assertEquals(PayrollStatus.COMPUTING.name(), submitted.getRunStatus());
+
+        CompletableFuture<Integer> onA = CompletableFuture.supplyAsync(nodeA::processPartitions);
+        CompletableFuture<Integer> onB = CompletableFuture.supplyAsync(() -> nodeB().processPartitions());
+        CompletableFuture.allOf(onA, onB).join();
+
+        PayrollRun run = payrollRunRepository.findById(submitted.getPayrollRunId()).orElseThrow();
+        assertEquals(PayrollStatus.CHECKED, run.getStatus());
+        assertEquals(hrUser.getEmail(), run.getComputedBy());
+        assertEquals(active, run.getTotalEmployees().longValue());
+
+        List<Long> paid = payrollDetailRepository.findEmployeeIdsByPayrollRunId(run.getId());
+        assertEquals(active, paid.size());
+        assertEquals(paid.size(), new HashSet<>(paid).size());
+
+        PayrollPartitionProgressDTO progress = nodeA.getProgress(run.getId());
+        assertEquals(progress.getPartitions(), progress.getDone());
+        assertEquals((int) active, progress.getEmployeesDone());
+        assertTrue(progress.getDetails().stream().allMatch(partition -> partition.getAttempts() == 1));
+    }
+
+    @Test
+    @DisplayName("Should reclaim a partition only after the lease of a dead node expires")
+    void shouldReclaimExpiredLease() {
+        // Only node-b computes here
+        createEmployees(3);
+        PayrollPartitionProgressDTO submitted = nodeB().submitClusterRun(FORTNIGHT, YEAR, hrUser.getEmail());
+        Long runId = submitted.getPayrollRunId();
+
+        // A node that leased the first partition and then stopped
+        PayrollPartition first = payrollPartitionRepository.findByPayrollRunIdOrderByPartitionIndex(runId).get(0);
+        assertEquals(1, payrollPartitionRepository.claim(first.getId(), first.getVersion(), "node-dead",
+                LocalDateTime.now().plusMinutes(5)));
+
+        assertEquals(submitted.getPartitions() - 1, nodeB().processPartitions());
+        PayrollPartitionProgressDTO progress = nodeA.getProgress(runId);
+        assertEquals(1, progress.getLeased());
+        assertEquals(PayrollStatus.COMPUTING.name(), progress.getRunStatus());
+
+        // The lease runs out: the partition is taken over and the run completes
+        PayrollPartition leased = payrollPartitionRepository.findById(first.getId()).orElseThrow();
+        leased.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        payrollPartitionRepository.save(leased);
+
+        assertEquals(1, nodeB().processPartitions());
+        PayrollPartition reclaimed = payrollPartitionRepository.findById(first.getId()).orElseThrow();
+        assertEquals(PayrollPartitionStatus.DONE, reclaimed.getStatus());
+        assertEquals("node-b", reclaimed.getLeaseOwner());
+        assertEquals(2, reclaimed.getAttempts());
+
+        assertEquals(PayrollStatus.CHECKED, payrollRunRepository.findById(runId).orElseThrow().getStatus());
+        assertEquals(employeeRepository.countByIsActiveTrue(),
+                payrollDetailRepository.findEmployeeIdsByPayrollRunId(runId).size());
+    }
+
+    @Test
+    @DisplayName("Should leave a run whose completion failed computing until completion is retried")
+    void shouldRetryFailedCompletion() {
+        createEmployees(3);
+        PayrollPartitionProgressDTO submitted = nodeB().submitClusterRun(FORTNIGHT, YEAR, hrUser.getEmail());
+        Long runId = submitted.getPayrollRunId();
+        nodeB().processPartitions();
+        double totalNetPay = payrollRunRepository.findById(runId).orElseThrow().getTotalNetPay();
+
+        // What a completion rolled back leaves: every partition done, the run computing without totals
+        PayrollRun run = payrollRunRepository.findById(runId).orElseThrow();
+        run.setStatus(PayrollStatus.COMPUTING);
+        run.setTotalNetPay(null);
+        payrollRunRepository.save(run);
+        assertEquals(0, nodeB().processPartitions());
+        assertEquals(PayrollStatus.COMPUTING, payrollRunRepository.findById(runId).orElseThrow().getStatus());
+
+        PayrollPartitionProgressDTO retried = nodeA.retryFailedPartitions(runId, payrollAdmin.getEmail());
+        assertEquals(PayrollStatus.CHECKED.name(), retried.getRunStatus());
+        assertEquals(totalNetPay, payrollRunRepository.findById(runId).orElseThrow().getTotalNetPay(), 1e-6);
+        assertThrows(IllegalStateException.class, () -> nodeA.retryFailedPartitions(runId, payrollAdmin.getEmail()));
+    }
+
+    @Test
+    @DisplayName("Should not submit a cluster run when cluster compute is disabled")
+    void shouldRejectWhenDisabled() {
+        assertThrows(IllegalStateException.class,
+                () -> nodeA.submitClusterRun(FORTNIGHT, YEAR, hrUser.getEmail()));
+        assertTrue(payrollRunRepository.findByFortnightAndYear(FORTNIGHT, YEAR).isEmpty());
+    }
+}
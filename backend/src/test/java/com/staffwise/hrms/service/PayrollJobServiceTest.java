@@ -0,0 +1,257 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.PayrollJobDTO;
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.util.MoneyUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Service-level tests for background payroll jobs.
+ */
+class PayrollJobServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private PayrollJobService payrollJobService;
+
+    @Autowired
+    private PayrollComputeEngine payrollComputeEngine;
+
+    @AfterEach
+    void restoreEngine() {
+        ReflectionTestUtils.setField(payrollComputeEngine, "parallelism", 4);
+        ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 500);
+    }
+
+    private void createEmployeesWithOvertime(int count, LocalDate periodStart) {
+        for (int i = 0; i < count; i++) {
+            Employee employee = createEmployee("JOB" + i, 45000.0 + i * 1000);
+
+            EmployeeRequest overtime = createOvertimeRequest(employee, periodStart.plusDays(1), 3.0);
+            overtime.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(overtime);
+        }
+    }
+
+    private PayrollJobDTO awaitJob(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        PayrollJobDTO job = payrollJobService.getJob(jobId);
+        while (job.getStatus() != PayrollJobStatus.COMPLETED && job.getStatus() != PayrollJobStatus.FAILED) {
+            assertTrue(System.currentTimeMillis() < deadline, "Payroll job " + jobId + " did not finish");
+            Thread.sleep(50);
+            job = payrollJobService.getJob(jobId);
+        }
+        return job;
+    }
+
+    @Nested
+    @DisplayName("Job Submission Tests")
+    class JobSubmissionTests {
+
+        @Test
+        @DisplayName("Should compute payroll in the background and report progress")
+        void shouldComputeInBackground() throws Exception {
+            createEmployeesWithOvertime(6, LocalDate.of(2025, 1, 1));
+            ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 3);
+            int active = employeeRepository.findByIsActiveTrue().size();
+
+            PayrollJobDTO submitted = payrollJobService.submitJob(1, 2025, hrUser.getEmail());
+            assertEquals(PayrollJobStatus.QUEUED, submitted.getStatus());
+
+            PayrollJobDTO job = awaitJob(submitted.getId());
+            assertEquals(PayrollJobStatus.COMPLETED, job.getStatus(), job.getErrorMessage());
+            assertEquals(active, job.getTotalEmployees());
+            assertEquals(active, job.getEmployeesDone());
+            assertEquals(100.0, job.getPercentComplete());
+            assertNotNull(job.getEmployeesPerSecond());
+
+            PayrollRun run = payrollRunRepository.findById(job.getPayrollRunId()).orElseThrow();
+            assertEquals(PayrollStatus.CHECKED, run.getStatus());
+            assertEquals(active, payrollDetailRepository.findByPayrollRunId(run.getId()).size());
+        }
+
+        @Test
+        @DisplayName("Should hold a fortnight for one active job only")
+        void shouldKeepOneActiveJobPerFortnight() {
+            // A submission that passed the in-progress check at the same time as this one
+            payrollJobRepository.saveAndFlush(PayrollJob.builder()
+                    .fortnight(4)
+                    .year(2025)
+                    .status(PayrollJobStatus.QUEUED)
+                    .activePeriod("4/2025")
+                    .requestedBy(hrUser.getEmail())
+                    .build());
+
+            assertThrows(DataIntegrityViolationException.class, () -> payrollJobRepository.saveAndFlush(PayrollJob.builder()
+                    .fortnight(4)
+                    .year(2025)
+                    .status(PayrollJobStatus.QUEUED)
+                    .activePeriod("4/2025")
+                    .requestedBy(hrUser.getEmail())
+                    .build()));
+        }
+
+        @Test
+        @DisplayName("Should not start an attempt another node already started")
+        void shouldRunOnceWhenDispatchedTwice() {
+            PayrollJob taken = payrollJobRepository.save(PayrollJob.builder()
+                    .fortnight(1)
+                    .year(2025)
+                    .status(PayrollJobStatus.RUNNING)
+                    .activePeriod("1/2025")
+                    .requestedBy(hrUser.getEmail())
+                    .attempts(1)
+                    .heartbeatAt(LocalDateTime.now())
+                    .build());
+
+            // Still queued here from before the other node started it
+            ReflectionTestUtils.invokeMethod(payrollJobService, "runJob", taken.getId(), 0);
+
+            PayrollJob job = payrollJobRepository.findById(taken.getId()).orElseThrow();
+            assertEquals(1, job.getAttempts());
+            assertEquals(PayrollJobStatus.RUNNING, job.getStatus());
+            assertNull(job.getPayrollRun());
+            assertEquals(0, payrollRunRepository.count());
+        }
+
+        @Test
+        @DisplayName("Should reject a job for a fortnight that already has a payroll run")
+        void shouldRejectExistingPeriod() {
+            payrollService.computePayroll(2, 2025, hrUser.getEmail());
+
+            assertThrows(IllegalStateException.class,
+                    () -> payrollJobService.submitJob(2, 2025, hrUser.getEmail()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Job Resume Tests")
+    class JobResumeTests {
+
+        @Test
+        @DisplayName("Should resume an abandoned job from the last committed partition")
+        void shouldResumeFromCheckpoint() throws Exception {
+            createEmployeesWithOvertime(6, LocalDate.of(2025, 1, 1));
+            ReflectionTestUtils.setField(payrollComputeEngine, "parallelism", 1);
+            ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 2);
+            int active = employeeRepository.findByIsActiveTrue().size();
+
+            // A node computes the first partition and then dies
+            PayrollRun run = payrollService.openPayrollRun(1, 2025, hrUser.getEmail());
+            AtomicInteger partitions = new AtomicInteger();
+            assertThrows(IllegalStateException.class, () -> payrollService.computeRemainingEmployees(run.getId(),
+                    employees -> {
+                        if (partitions.incrementAndGet() > 1) {
+                            throw new IllegalStateException("Simulated crash");
+                        }
+                    }));
+            assertEquals(2, payrollDetailRepository.findByPayrollRunId(run.getId()).size());
+
+            PayrollJob abandoned = payrollJobRepository.save(PayrollJob.builder()
+                    .fortnight(1)
+                    .year(2025)
+                    .status(PayrollJobStatus.RUNNING)
+                    .payrollRun(run)
+                    .requestedBy(hrUser.getEmail())
+                    .totalEmployees(active)
+                    .employeesDone(2)
+                    .attempts(1)
+                    .heartbeatAt(LocalDateTime.now().minusHours(1))
+                    .build());
+
+            payrollJobService.resumeAbandonedJobs();
+            PayrollJobDTO job = awaitJob(abandoned.getId());
+
+            assertEquals(PayrollJobStatus.COMPLETED, job.getStatus(), job.getErrorMessage());
+            assertEquals(2, job.getAttempts());
+            assertEquals(active, job.getEmployeesDone());
+
+            List<PayrollDetail> details = payrollDetailRepository.findByPayrollRunId(run.getId());
+            assertEquals(active, details.size());
+            assertEquals(active, details.stream().map(d -> d.getEmployee().getId()).distinct().count());
+
+            PayrollRun completed = payrollRunRepository.findById(run.getId()).orElseThrow();
+            assertEquals(PayrollStatus.CHECKED, completed.getStatus());
+            long expectedNetPay = 0;
+            for (PayrollDetail detail : details) {
+                expectedNetPay += MoneyUtil.toToea(detail.getNetPay());
+            }
+            assertEquals(MoneyUtil.toKina(expectedNetPay), completed.getTotalNetPay());
+
+            assertTrue(employeeRequestRepository.findAll().stream()
+                    .filter(r -> r.getRequestType() == RequestType.OVERTIME)
+                    .allMatch(EmployeeRequest::getIncludedInPayroll));
+        }
+
+        @Test
+        @DisplayName("Should discard the run of a failed job and compute it again on resume")
+        void shouldDiscardRunOfFailedJob() throws Exception {
+            createEmployeesWithOvertime(4, LocalDate.of(2025, 1, 1));
+            ReflectionTestUtils.setField(payrollComputeEngine, "parallelism", 1);
+            ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 2);
+            int active = employeeRepository.findByIsActiveTrue().size();
+
+            PayrollRun run = payrollService.openPayrollRun(1, 2025, hrUser.getEmail());
+            AtomicInteger partitions = new AtomicInteger();
+            assertThrows(IllegalStateException.class, () -> payrollService.computeRemainingEmployees(run.getId(),
+                    employees -> {
+                        if (partitions.incrementAndGet() > 1) {
+                            throw new IllegalStateException("Simulated failure");
+                        }
+                    }));
+            PayrollJob failing = payrollJobRepository.save(PayrollJob.builder()
+                    .fortnight(1)
+                    .year(2025)
+                    .status(PayrollJobStatus.RUNNING)
+                    .activePeriod("1/2025")
+                    .payrollRun(run)
+                    .requestedBy(hrUser.getEmail())
+                    .totalEmployees(active)
+                    .employeesDone(2)
+                    .attempts(1)
+                    .heartbeatAt(LocalDateTime.now())
+                    .build());
+
+            ReflectionTestUtils.invokeMethod(payrollJobService, "failJob", failing.getId(), run.getId(), "Simulated failure");
+
+            PayrollJob failed = payrollJobRepository.findById(failing.getId()).orElseThrow();
+            assertEquals(PayrollJobStatus.FAILED, failed.getStatus());
+            assertNull(failed.getPayrollRun());
+            assertNull(failed.getActivePeriod());
+            assertEquals(0, failed.getEmployeesDone());
+            assertTrue(payrollRunRepository.findById(run.getId()).isEmpty());
+            assertTrue(payrollDetailRepository.findByPayrollRunId(run.getId()).isEmpty());
+            assertTrue(employeeRequestRepository.findAll().stream()
+                    .filter(r -> r.getRequestType() == RequestType.OVERTIME)
+                    .noneMatch(EmployeeRequest::getIncludedInPayroll));
+
+            PayrollJobDTO job = awaitJob(payrollJobService.resumeJob(failing.getId(), hrUser.getEmail()).getId());
+            assertEquals(PayrollJobStatus.COMPLETED, job.getStatus(), job.getErrorMessage());
+            assertEquals(2, job.getAttempts());
+            assertEquals(active, payrollDetailRepository.findByPayrollRunId(job.getPayrollRunId()).size());
+        }
+
+        @Test
+        @DisplayName("Should only resume failed jobs on request")
+        void shouldRejectResumeOfCompletedJob() throws Exception {
+            PayrollJobDTO job = awaitJob(payrollJobService.submitJob(3, 2025, hrUser.getEmail()).getId());
+            assertEquals(PayrollJobStatus.COMPLETED, job.getStatus(), job.getErrorMessage());
+
+            assertThrows(IllegalStateException.class,
+                    () -> payrollJobService.resumeJob(job.getId(), hrUser.getEmail()));
+        }
+    }
+}
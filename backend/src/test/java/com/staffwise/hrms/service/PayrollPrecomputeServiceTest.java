@@ -0,0 +1,178 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.dto.PublicHolidayDTO;
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayrollPrecomputeServiceTest extends BaseIntegrationTest {
+
+    private static final int YEAR = 2025;
+
+    // In fortnight 2, while fortnight 1 has no regular run yet
+    private static final LocalDate TODAY = LocalDate.of(YEAR, 1, 20);
+
+    @Autowired
+    private PayrollPrecomputeService payrollPrecomputeService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Autowired
+    private PayrollDepartmentSummaryService departmentSummaryService;
+
+    @Autowired
+    private PayrollVarianceService varianceService;
+
+    private Employee raised;
+
+    @BeforeEach
+    void createEmployee() {
+        raised = createEmployee("PRE1", 52000.0);
+    }
+
+    private void raiseSalary() {
+        Employee employee = employeeRepository.findById(raised.getId()).orElseThrow();
+        employee.setBasicSalary(65000.0);
+        employeeRepository.save(employee);
+    }
+
+    private void addHoliday(LocalDate date) {
+        calendarService.addHoliday(PublicHolidayDTO.builder().holidayDate(date).name("Holiday " + date).build(),
+                hrUser.getEmail());
+    }
+
+    private PayrollDetail detail(Long runId, Employee employee) {
+        return payrollDetailRepository.findByPayrollRunIdAndEmployeeId(runId, employee.getId()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should refresh only the employees whose inputs changed")
+    void shouldRefreshChangedEmployees() {
+        int active = (int) employeeRepository.countByIsActiveTrue();
+        assertEquals(active, payrollPrecomputeService.precompute(TODAY, true));
+
+        PayrollRun precomputed = payrollRunRepository.findPrecomputed(1, YEAR).orElseThrow();
+        assertEquals(PayrollStatus.COMPUTING, precomputed.getStatus());
+        assertTrue(payrollRunRepository.findByFortnightAndYear(1, YEAR).isEmpty());
+        assertTrue(payrollService.getPayrollsForChecking().isEmpty());
+        Long keptId = detail(precomputed.getId(), regularEmployee).getId();
+
+        // Nothing changed, nothing to do
+        assertEquals(0, payrollPrecomputeService.precompute(TODAY, false));
+
+        raiseSalary();
+        assertEquals(1, payrollPrecomputeService.precompute(TODAY, false));
+        assertEquals(2500.0, detail(precomputed.getId(), raised).getBasicSalary());
+        assertEquals(keptId, detail(precomputed.getId(), regularEmployee).getId());
+    }
+
+    @Test
+    @DisplayName("Should compute everyone again when the working days changed")
+    void shouldRefreshAllOnContextChange() {
+        int active = (int) employeeRepository.countByIsActiveTrue();
+        payrollPrecomputeService.precompute(TODAY, true);
+        PayrollRun precomputed = payrollRunRepository.findPrecomputed(1, YEAR).orElseThrow();
+        Long refreshedId = detail(precomputed.getId(), regularEmployee).getId();
+
+        addHoliday(LocalDate.of(YEAR, 1, 8));
+        assertEquals(active, payrollPrecomputeService.precompute(TODAY, false));
+        assertNotEquals(refreshedId, detail(precomputed.getId(), regularEmployee).getId());
+        assertEquals(0, payrollPrecomputeService.precompute(TODAY, false));
+
+        // A change after the last refresh is caught when the run is taken over
+        refreshedId = detail(precomputed.getId(), regularEmployee).getId();
+        addHoliday(LocalDate.of(YEAR, 1, 9));
+        PayrollRunDTO run = payrollService.computePayroll(1, YEAR, hrUser.getEmail());
+
+        assertEquals(precomputed.getId(), run.getId());
+        assertNotEquals(refreshedId, detail(run.getId(), regularEmployee).getId());
+        assertEquals(active, payrollDetailRepository.findByPayrollRunId(run.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Should keep the pre-computed run out of run lists and lookups")
+    void shouldHidePrecomputedRun() {
+        payrollPrecomputeService.precompute(TODAY, true);
+        Long precomputedId = payrollRunRepository.findPrecomputed(1, YEAR).orElseThrow().getId();
+
+        assertTrue(payrollService.getAllPayrollRuns().isEmpty());
+        assertTrue(payrollRunRepository.findByYear(YEAR).isEmpty());
+        assertTrue(payrollRunRepository.findByMonthAndYear(1, 2, YEAR).isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> payrollService.getPayrollRunById(precomputedId));
+        assertThrows(ResourceNotFoundException.class, () -> payrollService.getPayrollDetailsByRun(precomputedId));
+        assertThrows(ResourceNotFoundException.class, () -> departmentSummaryService.getSummaries(precomputedId));
+        assertThrows(ResourceNotFoundException.class, () -> varianceService.compareRuns(precomputedId, null, null));
+
+        // Once taken over it is the fortnight's run
+        PayrollRunDTO run = payrollService.computePayroll(1, YEAR, hrUser.getEmail());
+        assertEquals(List.of(run.getId()), payrollService.getAllPayrollRuns().stream().map(PayrollRunDTO::getId).toList());
+        assertEquals(run.getId(), payrollService.getPayrollRunById(precomputedId).getId());
+    }
+
+    @Test
+    @DisplayName("Should take the pre-computed run over when the fortnight is computed")
+    void shouldTakeOverPrecomputedRun() {
+        EmployeeRequest overtime = createOvertimeRequest(regularEmployee, LocalDate.of(YEAR, 1, 6), 4.0);
+        overtime.setStatus(RequestStatus.APPROVED);
+        employeeRequestRepository.save(overtime);
+
+        payrollPrecomputeService.precompute(TODAY, true);
+        PayrollRun precomputed = payrollRunRepository.findPrecomputed(1, YEAR).orElseThrow();
+        Long keptId = detail(precomputed.getId(), regularEmployee).getId();
+        assertEquals(4.0, detail(precomputed.getId(), regularEmployee).getApprovedOvertimeHours());
+        // Nothing is consumed ahead of the regular run
+        assertNull(employeeRequestRepository.findById(overtime.getId()).orElseThrow().getPayrollRun());
+
+        raiseSalary();
+        PayrollRunDTO run = payrollService.computePayroll(1, YEAR, hrUser.getEmail());
+
+        assertEquals(precomputed.getId(), run.getId());
+        assertEquals(PayrollRunType.REGULAR, run.getRunType());
+        assertEquals(PayrollStatus.CHECKED, run.getStatus());
+        assertEquals(hrUser.getEmail(), run.getComputedBy());
+        assertEquals((int) employeeRepository.countByIsActiveTrue(), run.getTotalEmployees());
+        assertTrue(payrollRunRepository.findPrecomputed(1, YEAR).isEmpty());
+
+        // The unchanged employee keeps the pre-computed detail, the raised one is computed again
+        assertEquals(keptId, detail(run.getId(), regularEmployee).getId());
+        assertEquals(2500.0, detail(run.getId(), raised).getBasicSalary());
+        assertEquals(run.getId(), employeeRequestRepository.findById(overtime.getId()).orElseThrow()
+                .getPayrollRun().getId());
+        assertEquals(payrollDetailRepository.sumNetPayByPayrollRun(run.getId()), run.getTotalNetPay(), 0.001);
+
+        // The next fortnight is due now
+        assertArrayEquals(new int[] { 2, YEAR }, payrollService.findDueFortnight(TODAY));
+    }
+
+    @Test
+    @DisplayName("Should let one holder of the lock pre-compute at a time")
+    void shouldRunOnceAcrossNodes() {
+        String lock = schedulerLockService.tryLock(PayrollPrecomputeService.LOCK_NAME, Duration.ofHours(1));
+        assertNotNull(lock);
+        assertNull(schedulerLockService.tryLock(PayrollPrecomputeService.LOCK_NAME, Duration.ofHours(1)));
+        assertEquals(-1, payrollPrecomputeService.precompute(TODAY, true));
+        assertTrue(payrollRunRepository.findPrecomputed(1, YEAR).isEmpty());
+        schedulerLockService.unlock(PayrollPrecomputeService.LOCK_NAME, lock);
+
+        payrollPrecomputeService.precompute(TODAY, true);
+
+        // Taking the run over waits for no refresh in progress
+        lock = schedulerLockService.tryLock(PayrollPrecomputeService.LOCK_NAME, Duration.ofHours(1));
+        assertThrows(IllegalStateException.class, () -> payrollService.computePayroll(1, YEAR, hrUser.getEmail()));
+        schedulerLockService.unlock(PayrollPrecomputeService.LOCK_NAME, lock);
+
+        assertNotNull(payrollService.computePayroll(1, YEAR, hrUser.getEmail()).getId());
+    }
+}
@@ -0,0 +1,143 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.PayrollActionDTO;
+import com.staffwise.hrms.dto.PayrollAdjustmentDTO;
+import com.staffwise.hrms.dto.PayrollRetroRequestDTO;
+import com.staffwise.hrms.dto.PayrollRetroResultDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.exception.InvalidPayrollStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayrollRetroServiceTest extends BaseIntegrationTest {
+
+    private static final int YEAR = 2025;
+
+    @Autowired
+    private PayrollRetroService payrollRetroService;
+
+    private Employee raised;
+
+    @BeforeEach
+    void createEmployee() {
+        raised = createEmployee("RETRO1", 52000.0);
+    }
+
+    private void raiseSalary(double basicSalary) {
+        Employee employee = employeeRepository.findByEmpCode("RETRO1").orElseThrow();
+        employee.setBasicSalary(basicSalary);
+        employeeRepository.save(employee);
+    }
+
+    private PayrollRetroResultDTO runRetro(LocalDate effectiveFrom, List<Long> employeeIds) {
+        return payrollRetroService.runRetro(PayrollRetroRequestDTO.builder()
+                .effectiveFrom(effectiveFrom)
+                .employeeIds(employeeIds)
+                .reason("Backdated raise")
+                .build(), hrUser.getEmail());
+    }
+
+    private PayrollDetail detail(Long runId) {
+        return payrollDetailRepository.findByPayrollRunIdAndEmployeeId(runId, raised.getId()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should emit a backdated raise once and pay it in the next run")
+    void shouldPayBackdatedRaiseInNextRun() {
+        PayrollRunDTO first = computeAndAuthorize(1, YEAR);
+        PayrollDetail paid = detail(first.getId());
+        raiseSalary(65000.0);
+
+        PayrollRetroResultDTO result = runRetro(LocalDate.of(YEAR, 1, 1), null);
+        assertEquals(1, result.getRunsRecomputed());
+        assertEquals(1, result.getAdjustmentsCreated());
+        // 13,000 a year more over 10 of 260 working days
+        assertEquals(500.0, result.getTotalGrossDelta());
+
+        List<PayrollAdjustmentDTO> pending = payrollRetroService.getPendingAdjustments();
+        assertEquals(1, pending.size());
+        PayrollAdjustmentDTO adjustment = pending.get(0);
+        assertEquals(first.getId(), adjustment.getSourceRunId());
+        assertEquals(raised.getId(), adjustment.getEmployeeId());
+        assertEquals(500.0, adjustment.getGrossDelta());
+        assertTrue(adjustment.getSalaryWagesTaxDelta() > 0);
+        assertEquals(adjustment.getGrossDelta() - adjustment.getSalaryWagesTaxDelta()
+                        - adjustment.getSuperEmployeeDelta() - adjustment.getLateDeductionDelta(),
+                adjustment.getNetPayDelta(), 0.001);
+
+        // The locked run is left as it was
+        PayrollRun locked = payrollRunRepository.findById(first.getId()).orElseThrow();
+        assertEquals(PayrollStatus.PROCESSED, locked.getStatus());
+        assertEquals(paid.getNetPay(), detail(first.getId()).getNetPay());
+
+        // Nothing more is owed for the same change
+        assertEquals(0, runRetro(LocalDate.of(YEAR, 1, 1), null).getAdjustmentsCreated());
+
+        PayrollRunDTO second = payrollService.computePayroll(2, YEAR, hrUser.getEmail());
+        PayrollDetail arrears = detail(second.getId());
+        assertEquals(500.0, arrears.getRetroPay());
+        assertEquals(2500.0 + 500.0, arrears.getGrossSalary());
+        assertTrue(payrollRetroService.getPendingAdjustments().isEmpty());
+        assertEquals(1, payrollRetroService.getAdjustmentsPaidBy(second.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Should not reopen a run that retro adjustments were raised against")
+    void shouldRefuseReopenOfCorrectedRun() {
+        PayrollRunDTO first = computeAndAuthorize(1, YEAR);
+        raiseSalary(65000.0);
+        runRetro(LocalDate.of(YEAR, 1, 1), List.of(raised.getId()));
+
+        assertThrows(InvalidPayrollStateException.class, () -> payrollService.reopenPayroll(PayrollActionDTO.builder()
+                .payrollRunId(first.getId())
+                .remarks("Pay the raise in the run itself")
+                .build(), payrollAdmin.getEmail()));
+        assertEquals(PayrollStatus.PROCESSED, payrollRunRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(1, payrollRetroService.getPendingAdjustments().size());
+    }
+
+    @Test
+    @DisplayName("Should keep adjustments with the run paying them when it is rejected")
+    void shouldKeepAdjustmentsOfRejectedRun() {
+        computeAndAuthorize(1, YEAR);
+        raiseSalary(65000.0);
+        runRetro(LocalDate.of(YEAR, 1, 1), List.of(raised.getId()));
+
+        PayrollRunDTO second = payrollService.computePayroll(2, YEAR, hrUser.getEmail());
+        assertTrue(payrollRetroService.getPendingAdjustments().isEmpty());
+
+        payrollService.rejectPayroll(PayrollActionDTO.builder()
+                .payrollRunId(second.getId())
+                .remarks("Wrong period")
+                .build(), payrollChecker.getEmail());
+        assertTrue(payrollRetroService.getPendingAdjustments().isEmpty());
+        assertEquals(1, payrollRetroService.getAdjustmentsPaidBy(second.getId()).size());
+
+        // Recomputing the rejected run consumes the adjustment again
+        payrollService.recomputePayroll(second.getId(), hrUser.getEmail());
+        assertEquals(500.0, detail(second.getId()).getRetroPay());
+        assertTrue(payrollRetroService.getPendingAdjustments().isEmpty());
+        assertEquals(1, payrollRetroService.getAdjustmentsPaidBy(second.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Should only recompute the employees listed")
+    void shouldLimitToListedEmployees() {
+        computeAndAuthorize(1, YEAR);
+        raiseSalary(65000.0);
+
+        PayrollRetroResultDTO result = runRetro(LocalDate.of(YEAR, 1, 1), List.of(regularEmployee.getId()));
+        assertEquals(1, result.getEmployeesRecomputed());
+        assertEquals(0, result.getAdjustmentsCreated());
+        assertTrue(payrollRetroService.getPendingAdjustments().isEmpty());
+    }
+}
@@ -0,0 +1,271 @@
+package com.staffwise.hrms.service;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.KeysetPageDTO;
+import com.staffwise.hrms.dto.PayrollActionDTO;
+import com.staffwise.hrms.dto.PayrollDetailDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end payroll scale benchmark on the H2 test profile.
+ *
+ * For every roster size it seeds N employees with a fortnight of attendance, leave and
+ * overtime, then runs compute, the checker's review of all details, authorization and
+ * payslip retrieval for every employee. Wall time, SQL statements, peak heap and
+ * allocation rate are reported per phase in the log and in target/payroll-scale-benchmark.json.
+ *
+ * Skipped unless sizes are given, e.g.
+ * mvn test -Dtest=PayrollScaleBenchmarkTest -Dpayroll.scale.sizes=10000,50000,100000 -DargLine=-Xmx4g
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.staffwise=WARN",
+        "logging.level.com.staffwise.hrms.service.PayrollScaleBenchmarkTest=INFO"
+})
+@EnabledIfSystemProperty(named = "payroll.scale.sizes", matches = "\\d+(,\\d+)*")
+class PayrollScaleBenchmarkTest extends BaseIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollScaleBenchmarkTest.class);
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2025, 1, 1);
+    private static final int FORTNIGHT = 1;
+    private static final int YEAR = 2025;
+    private static final int SEED_CHUNK = 1000;
+    private static final int REVIEW_PAGE_SIZE = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    /**
+     * Measurements of one phase at one roster size.
+     */
+    record PhaseResult(int employees, String phase, long wallMillis, long sqlStatements,
+                       long peakHeapBytes, long allocatedBytes, double allocationMbPerSecond) {
+    }
+
+    @Test
+    @DisplayName("Should report compute, review, authorize and payslip costs per roster size")
+    void shouldMeasurePayrollAtScale() throws IOException {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<PhaseResult> results = new ArrayList<>();
+
+        boolean first = true;
+        for (String size : System.getProperty("payroll.scale.sizes").split(",")) {
+            if (!first) {
+                setUp();
+            }
+            first = false;
+            results.addAll(runScenario(Integer.parseInt(size)));
+        }
+
+        print(results);
+        File report = new File("target/payroll-scale-benchmark.json");
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, results);
+        log.info("Payroll scale benchmark written to {}", report.getAbsolutePath());
+    }
+
+    private List<PhaseResult> runScenario(int employees) {
+        List<PhaseResult> results = new ArrayList<>();
+
+        long[] employeeIds = measure(employees, "seed", results, () -> seedEmployees(employees));
+
+        PayrollRunDTO run = measure(employees, "compute", results,
+                () -> payrollService.computePayroll(FORTNIGHT, YEAR, hrUser.getEmail()));
+        // The users created by BaseIntegrationTest are paid as well
+        assertTrue(run.getTotalEmployees() >= employees);
+
+        int reviewed = measure(employees, "check", results, () -> reviewRun(run.getId()));
+        assertEquals(run.getTotalEmployees(), reviewed);
+
+        PayrollRunDTO authorized = measure(employees, "authorize", results,
+                () -> payrollService.authorizePayroll(PayrollActionDTO.builder()
+                        .payrollRunId(run.getId())
+                        .remarks("Scale benchmark")
+                        .build(), payrollAdmin.getEmail()));
+        assertEquals(PayrollStatus.PROCESSED, authorized.getStatus());
+
+        int payslips = measure(employees, "payslips", results, () -> {
+            int count = 0;
+            for (long employeeId : employeeIds) {
+                assertNotNull(payrollService.getPayslip(employeeId, FORTNIGHT, YEAR).getNetPay());
+                count++;
+            }
+            return count;
+        });
+        assertEquals(employees, payslips);
+
+        return results;
+    }
+
+    /**
+     * The checker's review: run summary plus every detail, page by page.
+     */
+    private int reviewRun(Long runId) {
+        payrollService.getPayrollRunSummary(runId);
+        int reviewed = 0;
+        String after = null;
+        do {
+            KeysetPageDTO<PayrollDetailDTO> page = payrollService.getPayrollDetailsPage(
+                    runId, PayrollService.DETAIL_SORT_ID, after, REVIEW_PAGE_SIZE);
+            reviewed += page.getItems().size();
+            after = page.getNextCursor();
+        } while (after != null);
+        return reviewed;
+    }
+
+    /**
+     * Seed employees with ten working days of attendance, a one day leave and an overtime
+     * request, all approved and inside the fortnight. Persisted in chunks so the batch
+     * size from application.yml applies.
+     */
+    private long[] seedEmployees(int count) {
+        Random random = new Random(count);
+        long[] ids = new long[count];
+
+        for (int from = 0; from < count; from += SEED_CHUNK) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(count, from + SEED_CHUNK);
+            transactionTemplate.executeWithoutResult(status -> {
+                Department department = entityManager.getReference(Department.class, testDepartment.getId());
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    Employee employee = Employee.builder()
+                            .empCode("SCALE" + i)
+                            .firstName("Scale")
+                            .lastName("Employee" + i)
+                            .email("scale" + i + "@test.com")
+                            .password("not-used")
+                            .role(Role.EMPLOYEE)
+                            .department(department)
+                            .basicSalary(15000.0 + random.nextInt(285000))
+                            .isActive(true)
+                            .build();
+                    entityManager.persist(employee);
+                    ids[i] = employee.getId();
+
+                    int present = 7 + random.nextInt(4);
+                    for (int day = 0, worked = 0; worked < present; day++) {
+                        LocalDate date = PERIOD_START.plusDays(day);
+                        if (date.getDayOfWeek().getValue() > 5) {
+                            continue;
+                        }
+                        entityManager.persist(Attendance.builder()
+                                .employee(employee)
+                                .attendanceDate(date)
+                                .status(Attendance.AttendanceStatus.PRESENT)
+                                .isLate(random.nextInt(10) == 0)
+                                .build());
+                        worked++;
+                    }
+
+                    LocalDate leaveDate = PERIOD_START.plusDays(9);
+                    entityManager.persist(EmployeeRequest.builder()
+                            .employee(employee)
+                            .requestType(RequestType.LEAVE)
+                            .leaveType(LeaveType.ANNUAL)
+                            .fromDate(leaveDate)
+                            .toDate(leaveDate)
+                            .totalDays(1.0)
+                            .reason("Scale benchmark leave")
+                            .status(RequestStatus.APPROVED)
+                            .build());
+                    entityManager.persist(EmployeeRequest.builder()
+                            .employee(employee)
+                            .requestType(RequestType.OVERTIME)
+                            .overtimeDate(PERIOD_START.plusDays(random.nextInt(10)))
+                            .overtimeHours(1 + random.nextInt(8) / 2.0)
+                            .reason("Scale benchmark overtime")
+                            .status(RequestStatus.APPROVED)
+                            .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return ids;
+    }
+
+    // ============ MEASUREMENT ============
+
+    private <T> T measure(int employees, String phase, List<PhaseResult> results, Supplier<T> action) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        statistics.clear();
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+
+        T result = action.get();
+
+        long elapsedNanos = System.nanoTime() - started;
+        long allocated = allocatedBytes() - allocatedBefore;
+        // Upper bound: the pools need not all peak at the same moment
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+
+        results.add(new PhaseResult(employees, phase, elapsedNanos / 1_000_000,
+                statistics.getPrepareStatementCount(), peakHeap, allocated,
+                allocated / 1024.0 / 1024.0 / seconds));
+        return result;
+    }
+
+    /**
+     * Bytes allocated so far by all live threads, including the payroll compute workers.
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static void print(List<PhaseResult> results) {
+        StringBuilder table = new StringBuilder(String.format("%n%10s %-10s %10s %12s %12s %14s %12s",
+                "employees", "phase", "wall ms", "statements", "peak heap MB", "allocated MB", "alloc MB/s"));
+        for (PhaseResult result : results) {
+            table.append(String.format("%n%10d %-10s %10d %12d %12.1f %14.1f %12.1f",
+                    result.employees(), result.phase(), result.wallMillis(), result.sqlStatements(),
+                    result.peakHeapBytes() / 1024.0 / 1024.0, result.allocatedBytes() / 1024.0 / 1024.0,
+                    result.allocationMbPerSecond()));
+        }
+        log.info("Payroll scale benchmark:{}", table);
+    }
+}
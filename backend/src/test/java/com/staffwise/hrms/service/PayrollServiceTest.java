@@ -0,0 +1,792 @@
+package com.staffwise.hrms.service;
+
+import com.staffwise.hrms.BaseIntegrationTest;
+import com.staffwise.hrms.dto.PayrollActionDTO;
+import com.staffwise.hrms.dto.PayrollDepartmentSummaryDTO;
+import com.staffwise.hrms.dto.PayrollOffCycleRequestDTO;
+import com.staffwise.hrms.dto.PayrollRunDTO;
+import com.staffwise.hrms.dto.PayrollRunTelemetryDTO;
+import com.staffwise.hrms.dto.PayrollVarianceDTO;
+import com.staffwise.hrms.dto.PayrollVarianceLineDTO;
+import com.staffwise.hrms.dto.PayrollYearToDateDTO;
+import com.staffwise.hrms.entity.*;
+import com.staffwise.hrms.exception.InvalidPayrollStateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Service-level tests for PayrollService computation.
+ */
+class PayrollServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private PayrollComputeEngine payrollComputeEngine;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    @Override
+    public void setUp() {
+        super.setUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    /**
+     * Seed employees with attendance, an approved leave and an approved overtime request
+     * inside the given period so every prefetch query has rows to return.
+     */
+    private void createEmployeesWithHistory(int from, int count, LocalDate periodStart) {
+        for (int i = from; i < from + count; i++) {
+            Employee employee = createEmployee("BULK" + i, 40000.0 + i * 1000);
+
+            for (int day = 0; day < 5; day++) {
+                attendanceRepository.save(Attendance.builder()
+                        .employee(employee)
+                        .attendanceDate(periodStart.plusDays(day))
+                        .status(Attendance.AttendanceStatus.PRESENT)
+                        .isLate(day == 0)
+                        .build());
+            }
+
+            EmployeeRequest leave = createLeaveRequest(employee, LeaveType.ANNUAL,
+                    periodStart.plusDays(7), periodStart.plusDays(8));
+            leave.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(leave);
+
+            EmployeeRequest overtime = createOvertimeRequest(employee, periodStart.plusDays(2), 2.0);
+            overtime.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(overtime);
+        }
+    }
+
+    private Map<Long, Double> netPayByEmployee(Long runId) {
+        return payrollDetailRepository.findByPayrollRunId(runId).stream()
+                .collect(Collectors.toMap(d -> d.getEmployee().getId(), PayrollDetail::getNetPay));
+    }
+
+    private double consumedHours(Long runId) {
+        return employeeRequestRepository.sumOvertimeHoursByPayrollRun(runId).stream()
+                .mapToDouble(row -> ((Number) row[1]).doubleValue())
+                .sum();
+    }
+
+    /**
+     * Delete a computed run so its fortnight can be computed again, in the order
+     * PayrollService.discardPayrollRun uses for runs still COMPUTING: hand back what the
+     * run consumed, then delete its summaries, telemetry, details and the run itself.
+     */
+    private void discardRun(Long runId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            employeeRequestRepository.releaseOvertimeByPayrollRun(runId);
+            payrollAdjustmentRepository.releaseByPayrollRun(runId);
+            payrollDepartmentSummaryRepository.deleteByPayrollRunId(runId);
+            payrollRunTelemetryRepository.findByPayrollRunId(runId).ifPresent(payrollRunTelemetryRepository::delete);
+            payrollDetailRepository.deleteByPayrollRunId(runId);
+            payrollRunRepository.deleteById(runId);
+        });
+    }
+
+    private long countReadStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getQueryExecutionCount()
+                + statistics.getEntityFetchCount()
+                + statistics.getCollectionFetchCount();
+    }
+
+    @Nested
+    @DisplayName("Input Prefetch Tests")
+    class InputPrefetchTests {
+
+        @Test
+        @DisplayName("Should issue the same number of read statements as the roster grows")
+        void shouldKeepReadStatementsConstantAsRosterGrows() {
+            createEmployeesWithHistory(0, 3, LocalDate.of(2025, 1, 1));
+            long smallRoster = countReadStatements(
+                    () -> payrollService.computePayroll(1, 2025, hrUser.getEmail()));
+
+            createEmployeesWithHistory(3, 30, LocalDate.of(2025, 1, 15));
+            long largeRoster = countReadStatements(
+                    () -> payrollService.computePayroll(2, 2025, hrUser.getEmail()));
+
+            assertEquals(38, employeeRepository.findByIsActiveTrue().size());
+            assertEquals(smallRoster, largeRoster,
+                    "Read statements should not depend on the number of employees");
+        }
+
+        @Test
+        @DisplayName("Should apply prefetched attendance, leave and overtime per employee")
+        void shouldApplyPrefetchedInputs() {
+            LocalDate periodStart = LocalDate.of(2025, 1, 1);
+            createEmployeesWithHistory(0, 2, periodStart);
+
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            Employee bulk = employeeRepository.findByEmpCode("BULK1").orElseThrow();
+            PayrollDetail detail = payrollDetailRepository
+                    .findByPayrollRunIdAndEmployeeId(run.getId(), bulk.getId()).orElseThrow();
+            assertEquals(5, detail.getDaysWorked());
+            assertEquals(1, detail.getLateCount());
+            assertEquals(2.0, detail.getLeavesTaken());
+            assertEquals(2.0, detail.getApprovedOvertimeHours());
+            assertTrue(detail.getOvertimePay() > 0);
+
+            assertTrue(employeeRequestRepository.findByEmployeeIdAndRequestType(bulk.getId(), RequestType.OVERTIME)
+                    .stream().allMatch(EmployeeRequest::getIncludedInPayroll));
+
+            // Employees without attendance rows fall back to the full working period
+            PayrollDetail noAttendance = payrollDetailRepository
+                    .findByPayrollRunIdAndEmployeeId(run.getId(), regularEmployee.getId()).orElseThrow();
+            assertEquals(noAttendance.getTotalWorkingDays(), noAttendance.getDaysWorked());
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel Compute Tests")
+    class ParallelComputeTests {
+
+        private PayrollRunDTO computeWith(int parallelism, int partitionSize) {
+            ReflectionTestUtils.setField(payrollComputeEngine, "parallelism", parallelism);
+            ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", partitionSize);
+            try {
+                return payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            } finally {
+                ReflectionTestUtils.setField(payrollComputeEngine, "parallelism", 4);
+                ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 500);
+            }
+        }
+
+        @Test
+        @DisplayName("Should produce identical totals and details in parallel and sequentially")
+        void shouldMatchSequentialComputation() {
+            createEmployeesWithHistory(0, 20, LocalDate.of(2025, 1, 1));
+
+            PayrollRunDTO sequential = computeWith(1, 500);
+            Map<Long, Double> sequentialNetPay = netPayByEmployee(sequential.getId());
+            discardRun(sequential.getId());
+
+            PayrollRunDTO parallel = computeWith(4, 3);
+            Map<Long, Double> parallelNetPay = netPayByEmployee(parallel.getId());
+
+            assertEquals(PayrollStatus.CHECKED, parallel.getStatus());
+            assertEquals(sequential.getTotalEmployees(), parallel.getTotalEmployees());
+            assertEquals(sequential.getTotalGross(), parallel.getTotalGross());
+            assertEquals(sequential.getTotalDeductions(), parallel.getTotalDeductions());
+            assertEquals(sequential.getTotalNetPay(), parallel.getTotalNetPay());
+            assertEquals(sequentialNetPay, parallelNetPay);
+
+            assertTrue(employeeRequestRepository.findAll().stream()
+                    .filter(r -> r.getRequestType() == RequestType.OVERTIME)
+                    .allMatch(EmployeeRequest::getIncludedInPayroll));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Persistence Tests")
+    class BatchPersistenceTests {
+
+        @Test
+        @DisplayName("Should insert payroll details in JDBC batches")
+        void shouldBatchDetailInserts() {
+            createEmployeesWithHistory(0, 60, LocalDate.of(2025, 1, 1));
+            int employees = employeeRepository.findByIsActiveTrue().size();
+
+            statistics.clear();
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            assertEquals(employees, payrollDetailRepository.findByPayrollRunId(run.getId()).size());
+            assertTrue(statistics.getPrepareStatementCount() < employees,
+                    "Expected batched inserts but prepared " + statistics.getPrepareStatementCount()
+                            + " statements for " + employees + " employees");
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Recompute Tests")
+    class IncrementalRecomputeTests {
+
+        private Map<Long, PayrollDetail> detailsByEmployee(Long runId) {
+            return payrollDetailRepository.findByPayrollRunId(runId).stream()
+                    .collect(Collectors.toMap(d -> d.getEmployee().getId(), d -> d));
+        }
+
+        @Test
+        @DisplayName("Should recompute only employees whose inputs changed")
+        void shouldRecomputeOnlyChangedEmployees() {
+            LocalDate periodStart = LocalDate.of(2025, 1, 1);
+            createEmployeesWithHistory(0, 5, periodStart);
+            PayrollRunDTO computed = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            Map<Long, PayrollDetail> before = detailsByEmployee(computed.getId());
+
+            Employee bulk = employeeRepository.findByEmpCode("BULK2").orElseThrow();
+            attendanceRepository.save(Attendance.builder()
+                    .employee(bulk)
+                    .attendanceDate(periodStart.plusDays(5))
+                    .status(Attendance.AttendanceStatus.PRESENT)
+                    .isLate(true)
+                    .build());
+            Employee promoted = employeeRepository.findByEmpCode("BULK3").orElseThrow();
+            promoted.setBasicSalary(promoted.getBasicSalary() + 5200);
+            employeeRepository.save(promoted);
+
+            PayrollRunDTO recomputed = payrollService.recomputePayroll(computed.getId(), hrUser.getEmail());
+            Map<Long, PayrollDetail> after = detailsByEmployee(computed.getId());
+
+            assertEquals(PayrollStatus.CHECKED, recomputed.getStatus());
+            assertEquals(before.size(), after.size());
+            assertEquals(computed.getTotalEmployees(), recomputed.getTotalEmployees());
+
+            PayrollDetail changedAttendance = after.get(bulk.getId());
+            assertEquals(before.get(bulk.getId()).getId(), changedAttendance.getId());
+            assertEquals(6, changedAttendance.getDaysWorked());
+            assertEquals(2, changedAttendance.getLateCount());
+            assertEquals(2.0, changedAttendance.getApprovedOvertimeHours());
+            assertTrue(after.get(promoted.getId()).getBasicSalary()
+                    > before.get(promoted.getId()).getBasicSalary());
+
+            // Everyone else keeps the row written by the original computation
+            before.forEach((employeeId, detail) -> {
+                if (!employeeId.equals(bulk.getId()) && !employeeId.equals(promoted.getId())) {
+                    assertEquals(detail.getUpdatedAt(), after.get(employeeId).getUpdatedAt());
+                    assertEquals(detail.getNetPay(), after.get(employeeId).getNetPay());
+                }
+            });
+
+            double netPay = after.values().stream().mapToDouble(PayrollDetail::getNetPay).sum();
+            double gross = after.values().stream().mapToDouble(PayrollDetail::getGrossSalary).sum();
+            assertEquals(netPay, recomputed.getTotalNetPay(), 1e-6);
+            assertEquals(gross, recomputed.getTotalGross(), 1e-6);
+
+            assertTrue(employeeRequestRepository.findByEmployeeIdAndRequestType(bulk.getId(), RequestType.OVERTIME)
+                    .stream().allMatch(EmployeeRequest::getIncludedInPayroll));
+        }
+
+        @Test
+        @DisplayName("Should drop details of employees deactivated since computation")
+        void shouldDropDeactivatedEmployees() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            PayrollRunDTO computed = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            Employee bulk = employeeRepository.findByEmpCode("BULK1").orElseThrow();
+            bulk.setIsActive(false);
+            employeeRepository.save(bulk);
+
+            PayrollRunDTO recomputed = payrollService.recomputePayroll(computed.getId(), hrUser.getEmail());
+
+            assertEquals(computed.getTotalEmployees() - 1, recomputed.getTotalEmployees());
+            assertTrue(payrollDetailRepository.findByPayrollRunIdAndEmployeeId(computed.getId(), bulk.getId()).isEmpty());
+            assertEquals(payrollDetailRepository.findByPayrollRunId(computed.getId()).stream()
+                    .mapToDouble(PayrollDetail::getNetPay).sum(), recomputed.getTotalNetPay(), 1e-6);
+        }
+
+        @Test
+        @DisplayName("Should refuse to recompute authorized payroll")
+        void shouldRejectRecomputeOfAuthorizedPayroll() {
+            PayrollRun run = createPayrollRun(1, 2025, PayrollStatus.AUTHORIZED);
+
+            assertThrows(InvalidPayrollStateException.class,
+                    () -> payrollService.recomputePayroll(run.getId(), hrUser.getEmail()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Overtime Consumption Tests")
+    class OvertimeConsumptionTests {
+
+        @Test
+        @DisplayName("Should consume overtime with the run and keep it through reject and approval")
+        void shouldKeepOvertimeOfRejectedRun() {
+            createEmployeesWithHistory(0, 3, LocalDate.of(2025, 1, 1));
+
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            assertEquals(6.0, consumedHours(run.getId()), 1e-9);
+            assertEquals(6.0, payrollDetailRepository.findByPayrollRunId(run.getId()).stream()
+                    .mapToDouble(PayrollDetail::getApprovedOvertimeHours).sum(), 1e-9);
+
+            PayrollActionDTO action = PayrollActionDTO.builder()
+                    .payrollRunId(run.getId())
+                    .remarks("Wrong period")
+                    .build();
+            payrollService.rejectPayroll(action, payrollChecker.getEmail());
+            assertEquals(6.0, consumedHours(run.getId()), 1e-9);
+
+            // Checked again as it is, the run still pays the overtime it consumed
+            payrollService.checkPayroll(action, payrollChecker.getEmail());
+            PayrollRunDTO processed = payrollService.authorizePayroll(action, payrollAdmin.getEmail());
+            assertEquals(PayrollStatus.PROCESSED, processed.getStatus());
+            assertEquals(6.0, consumedHours(run.getId()), 1e-9);
+            assertTrue(employeeRequestRepository.findAll().stream()
+                    .filter(r -> r.getRequestType() == RequestType.OVERTIME)
+                    .allMatch(r -> r.getIncludedInPayroll() && run.getId().equals(r.getPayrollRun().getId())));
+        }
+
+        @Test
+        @DisplayName("Should pick up overtime approved after computation on recompute")
+        void shouldConsumeNewOvertimeOnRecompute() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            Employee bulk = employeeRepository.findByEmpCode("BULK1").orElseThrow();
+            EmployeeRequest late = createOvertimeRequest(bulk, LocalDate.of(2025, 1, 8), 3.0);
+            late.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(late);
+
+            payrollService.recomputePayroll(run.getId(), hrUser.getEmail());
+
+            assertEquals(7.0, consumedHours(run.getId()), 1e-9);
+            assertEquals(5.0, payrollDetailRepository.findByPayrollRunIdAndEmployeeId(run.getId(), bulk.getId())
+                    .orElseThrow().getApprovedOvertimeHours(), 1e-9);
+        }
+    }
+
+    @Nested
+    @DisplayName("Multi-Period Backfill Tests")
+    class BackfillTests {
+
+        @Test
+        @DisplayName("Should match fortnight-by-fortnight computation")
+        void shouldMatchSingleFortnightRuns() {
+            createEmployeesWithHistory(0, 3, LocalDate.of(2025, 1, 1));
+            createEmployeesWithHistory(3, 2, LocalDate.of(2025, 1, 15));
+            // Leave across the boundary of fortnights 1 and 2 counts towards both
+            EmployeeRequest leave = createLeaveRequest(employeeRepository.findByEmpCode("BULK0").orElseThrow(),
+                    LeaveType.ANNUAL, LocalDate.of(2025, 1, 13), LocalDate.of(2025, 1, 16));
+            leave.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(leave);
+
+            List<PayrollRunDTO> backfilled = payrollService.backfillPayroll(2025, 1, 3, hrUser.getEmail());
+            assertEquals(List.of(1, 2, 3), backfilled.stream().map(PayrollRunDTO::getFortnight).toList());
+            assertTrue(backfilled.stream().allMatch(run -> run.getStatus() == PayrollStatus.CHECKED));
+            List<Map<Long, Double>> backfilledNetPay = backfilled.stream()
+                    .map(run -> netPayByEmployee(run.getId()))
+                    .toList();
+            backfilled.forEach(run -> discardRun(run.getId()));
+
+            for (int fortnight = 1; fortnight <= 3; fortnight++) {
+                PayrollRunDTO single = payrollService.computePayroll(fortnight, 2025, hrUser.getEmail());
+                PayrollRunDTO expected = backfilled.get(fortnight - 1);
+                assertEquals(single.getTotalEmployees(), expected.getTotalEmployees());
+                assertEquals(single.getTotalGross(), expected.getTotalGross());
+                assertEquals(single.getTotalNetPay(), expected.getTotalNetPay());
+                assertEquals(netPayByEmployee(single.getId()), backfilledNetPay.get(fortnight - 1));
+            }
+        }
+
+        @Test
+        @DisplayName("Should refuse a range that overlaps an existing run")
+        void shouldRejectExistingFortnight() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            payrollService.computePayroll(2, 2025, hrUser.getEmail());
+
+            assertThrows(IllegalStateException.class,
+                    () -> payrollService.backfillPayroll(2025, 1, 4, hrUser.getEmail()));
+            assertEquals(1, payrollRunRepository.count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Year-To-Date Tests")
+    class YearToDateTests {
+
+        @Autowired
+        private PayrollYearToDateService yearToDateService;
+
+        private double sumNetPay(Long employeeId, Long... runIds) {
+            double total = 0;
+            for (Long runId : runIds) {
+                total += payrollDetailRepository.findByPayrollRunIdAndEmployeeId(runId, employeeId)
+                        .orElseThrow().getNetPay();
+            }
+            return total;
+        }
+
+        @Test
+        @DisplayName("Should accumulate processed runs and reverse a reopened run")
+        void shouldAccumulateAndReverse() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            Long bulk = employeeRepository.findByEmpCode("BULK0").orElseThrow().getId();
+
+            PayrollRunDTO first = computeAndAuthorize(1, 2025);
+            PayrollRunDTO second = computeAndAuthorize(2, 2025);
+
+            PayrollYearToDateDTO ytd = yearToDateService.getYearToDate(bulk, 2025);
+            assertEquals(2, ytd.getRunCount());
+            assertEquals(sumNetPay(bulk, first.getId(), second.getId()), ytd.getNetPay(), 1e-6);
+
+            PayrollRunDTO reopened = payrollService.reopenPayroll(PayrollActionDTO.builder()
+                    .payrollRunId(second.getId())
+                    .remarks("Wrong bank file")
+                    .build(), payrollAdmin.getEmail());
+            assertEquals(PayrollStatus.REJECTED, reopened.getStatus());
+            assertFalse(reopened.getIsLocked());
+
+            ytd = yearToDateService.getYearToDate(bulk, 2025);
+            assertEquals(1, ytd.getRunCount());
+            assertEquals(sumNetPay(bulk, first.getId()), ytd.getNetPay(), 1e-6);
+
+            Employee promoted = employeeRepository.findByEmpCode("BULK0").orElseThrow();
+            promoted.setBasicSalary(promoted.getBasicSalary() * 2);
+            employeeRepository.save(promoted);
+            payrollService.recomputePayroll(second.getId(), hrUser.getEmail());
+            payrollService.authorizePayroll(PayrollActionDTO.builder()
+                    .payrollRunId(second.getId())
+                    .build(), payrollAdmin.getEmail());
+
+            ytd = yearToDateService.getYearToDate(bulk, 2025);
+            assertEquals(2, ytd.getRunCount());
+            assertEquals(sumNetPay(bulk, first.getId(), second.getId()), ytd.getNetPay(), 1e-6);
+
+            PayrollYearToDateDTO incremental = ytd;
+            yearToDateService.rebuild(2025);
+            assertEquals(incremental, yearToDateService.getYearToDate(bulk, 2025));
+        }
+
+        @Test
+        @DisplayName("Should only reopen processed payroll")
+        void shouldRejectReopenOfUnprocessedPayroll() {
+            createEmployeesWithHistory(0, 1, LocalDate.of(2025, 1, 1));
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            assertThrows(InvalidPayrollStateException.class, () -> payrollService.reopenPayroll(
+                    PayrollActionDTO.builder().payrollRunId(run.getId()).build(), payrollAdmin.getEmail()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Off-Cycle Tests")
+    class OffCycleTests {
+
+        @Autowired
+        private PayrollYearToDateService yearToDateService;
+
+        private PayrollRunDTO payOffCycle(int fortnight, Long... employeeIds) {
+            return payrollService.computeOffCycle(PayrollOffCycleRequestDTO.builder()
+                    .fortnight(fortnight)
+                    .year(2025)
+                    .employeeIds(List.of(employeeIds))
+                    .reason("Final settlement")
+                    .build(), payrollAdmin.getEmail());
+        }
+
+        @Test
+        @DisplayName("Should process an off-cycle run and leave its employees out of the regular run")
+        void shouldPayOffCycleOutsideRegularRun() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            Long settled = employeeRepository.findByEmpCode("BULK0").orElseThrow().getId();
+            Long other = employeeRepository.findByEmpCode("BULK1").orElseThrow().getId();
+
+            PayrollRunDTO offCycle = payOffCycle(1, settled);
+            assertEquals(PayrollRunType.OFF_CYCLE, offCycle.getRunType());
+            assertEquals(PayrollStatus.PROCESSED, offCycle.getStatus());
+            assertTrue(offCycle.getIsLocked());
+            assertEquals(1, offCycle.getTotalEmployees());
+            assertEquals(2.0, consumedHours(offCycle.getId()), 1e-9);
+
+            PayrollDetail paid = payrollDetailRepository.findByPayrollRunIdAndEmployeeId(offCycle.getId(), settled)
+                    .orElseThrow();
+            assertEquals(paid.getNetPay(), offCycle.getTotalNetPay(), 1e-6);
+            assertEquals(paid.getNetPay(), payrollService.getPayslip(settled, 1, 2025).getNetPay(), 1e-6);
+            assertEquals(1, yearToDateService.getYearToDate(settled, 2025).getRunCount());
+
+            PayrollRunDTO regular = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            assertEquals(PayrollRunType.REGULAR, regular.getRunType());
+            Set<Long> regularEmployees = new HashSet<>(payrollDetailRepository.findEmployeeIdsByPayrollRunId(regular.getId()));
+            assertFalse(regularEmployees.contains(settled));
+            assertTrue(regularEmployees.contains(other));
+            assertEquals(2.0, consumedHours(regular.getId()), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Should leave overtime approved after an off-cycle payment for a later run")
+        void shouldKeepOvertimeApprovedAfterOffCycle() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            Employee settled = employeeRepository.findByEmpCode("BULK0").orElseThrow();
+
+            payOffCycle(1, settled.getId());
+            EmployeeRequest late = createOvertimeRequest(settled, LocalDate.of(2025, 1, 10), 3.0);
+            late.setStatus(RequestStatus.APPROVED);
+            employeeRequestRepository.save(late);
+
+            PayrollRunDTO regular = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            EmployeeRequest unpaid = employeeRequestRepository.findById(late.getId()).orElseThrow();
+            assertFalse(unpaid.getIncludedInPayroll());
+            assertNull(unpaid.getPayrollRun());
+            assertEquals(2.0, consumedHours(regular.getId()), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Should leave employees paid off-cycle out of a backfilled fortnight")
+        void shouldBackfillAroundOffCycle() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            Long settled = employeeRepository.findByEmpCode("BULK0").orElseThrow().getId();
+            Long other = employeeRepository.findByEmpCode("BULK1").orElseThrow().getId();
+
+            payOffCycle(2, settled);
+            List<PayrollRunDTO> backfilled = payrollService.backfillPayroll(2025, 1, 2, hrUser.getEmail());
+
+            Set<Long> first = new HashSet<>(payrollDetailRepository.findEmployeeIdsByPayrollRunId(backfilled.get(0).getId()));
+            Set<Long> second = new HashSet<>(payrollDetailRepository.findEmployeeIdsByPayrollRunId(backfilled.get(1).getId()));
+            assertTrue(first.contains(settled));
+            assertFalse(second.contains(settled));
+            assertTrue(second.contains(other));
+            assertEquals(second.size(), backfilled.get(1).getTotalEmployees());
+        }
+
+        @Test
+        @DisplayName("Should reject employees already paid for the fortnight and reopening an off-cycle run")
+        void shouldRejectDoublePayment() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            Long first = employeeRepository.findByEmpCode("BULK0").orElseThrow().getId();
+            Long second = employeeRepository.findByEmpCode("BULK1").orElseThrow().getId();
+
+            payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            assertThrows(IllegalStateException.class, () -> payOffCycle(1, first));
+
+            PayrollRunDTO offCycle = payOffCycle(2, second);
+            assertThrows(IllegalStateException.class, () -> payOffCycle(2, first, second));
+            assertThrows(InvalidPayrollStateException.class, () -> payrollService.reopenPayroll(
+                    PayrollActionDTO.builder().payrollRunId(offCycle.getId()).build(), payrollAdmin.getEmail()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Run Variance Tests")
+    class VarianceTests {
+
+        @Autowired
+        private PayrollVarianceService varianceService;
+
+        @Test
+        @DisplayName("Should flag joiners, leavers and changes over the threshold against the previous run")
+        void shouldFlagVariances() {
+            // No attendance, so both fortnights pay the full ten working days
+            createEmployee("VAR1", 52000.0);
+            createEmployee("VAR2", 52000.0);
+            createEmployee("VAR3", 52000.0);
+            PayrollRunDTO first = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            Employee raised = employeeRepository.findByEmpCode("VAR1").orElseThrow();
+            raised.setBasicSalary(62000.0);
+            employeeRepository.save(raised);
+            Employee nudged = employeeRepository.findByEmpCode("VAR2").orElseThrow();
+            nudged.setBasicSalary(52520.0);
+            employeeRepository.save(nudged);
+            Employee leaver = employeeRepository.findByEmpCode("VAR3").orElseThrow();
+            leaver.setIsActive(false);
+            employeeRepository.save(leaver);
+            Employee joiner = createEmployee("VAR4", 30000.0);
+            PayrollRunDTO second = payrollService.computePayroll(2, 2025, hrUser.getEmail());
+
+            PayrollVarianceDTO variance = varianceService.compareRuns(second.getId(), null, 5.0);
+
+            assertEquals(first.getId(), variance.getBaseRunId());
+            assertEquals(1, variance.getJoiners());
+            assertEquals(1, variance.getLeavers());
+            assertEquals(1, variance.getChanged());
+            assertEquals(first.getTotalEmployees() + 1, variance.getEmployeesCompared());
+            assertEquals(first.getTotalNetPay(), variance.getBaseTotalNetPay(), 1e-6);
+            assertEquals(second.getTotalNetPay(), variance.getTotalNetPay(), 1e-6);
+
+            Map<String, PayrollVarianceLineDTO> lines = variance.getLines().stream()
+                    .collect(Collectors.toMap(PayrollVarianceLineDTO::getEmpCode, line -> line));
+            assertEquals(Set.of("VAR1", "VAR3", "VAR4"), lines.keySet());
+            assertEquals(PayrollVarianceLineDTO.VarianceType.LEAVER, lines.get("VAR3").getType());
+            assertEquals(PayrollVarianceLineDTO.VarianceType.JOINER, lines.get("VAR4").getType());
+            assertEquals(joiner.getId(), lines.get("VAR4").getEmployeeId());
+            assertTrue(lines.get("VAR1").getChanges().stream()
+                    .anyMatch(change -> change.getField().equals("basicSalary") && change.getChange() > 0));
+
+            // A 1% raise is flagged once the threshold is below it
+            assertEquals(2, varianceService.compareRuns(second.getId(), first.getId(), 0.5).getChanged());
+        }
+
+        @Test
+        @DisplayName("Should refuse to compare a run with itself")
+        void shouldRejectSameRun() {
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            assertThrows(IllegalStateException.class,
+                    () -> varianceService.compareRuns(run.getId(), run.getId(), null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Department Summary Tests")
+    class DepartmentSummaryTests {
+
+        @Autowired
+        private PayrollDepartmentSummaryService departmentSummaryService;
+
+        @Autowired
+        private PayrollDepartmentSummaryBackfill summaryBackfill;
+
+        private Map<Long, PayrollDepartmentSummaryDTO> summariesByDepartment(Long runId) {
+            return departmentSummaryService.getSummaries(runId).stream()
+                    .collect(Collectors.toMap(PayrollDepartmentSummaryDTO::getDepartmentId, s -> s));
+        }
+
+        private void assertMatchesDetails(Long runId, Set<Long> employeeIds, PayrollDepartmentSummaryDTO summary) {
+            List<PayrollDetail> details = payrollDetailRepository.findByPayrollRunId(runId).stream()
+                    .filter(d -> employeeIds.contains(d.getEmployee().getId()))
+                    .collect(Collectors.toList());
+            assertEquals(details.size(), summary.getHeadcount());
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getGrossSalary).sum(), summary.getTotalGross(), 1e-6);
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getSalaryWagesTax).sum(), summary.getTotalSalaryWagesTax(), 1e-6);
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getSuperEmployee).sum(), summary.getTotalSuperEmployee(), 1e-6);
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getSuperEmployer).sum(), summary.getTotalSuperEmployer(), 1e-6);
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getNetPay).sum(), summary.getTotalNetPay(), 1e-6);
+            assertEquals(details.stream().mapToDouble(PayrollDetail::getApprovedOvertimeHours).sum(), summary.getTotalOvertimeHours(), 1e-6);
+        }
+
+        @Test
+        @DisplayName("Should summarize each department when payroll is computed and recomputed")
+        void shouldSummarizeDepartments() {
+            createEmployeesWithHistory(0, 4, LocalDate.of(2025, 1, 1));
+            Department finance = departmentRepository.save(Department.builder()
+                    .deptCode("FIN")
+                    .name("Finance")
+                    .isActive(true)
+                    .build());
+            Set<Long> financeIds = new HashSet<>();
+            for (String code : List.of("BULK2", "BULK3")) {
+                Employee employee = employeeRepository.findByEmpCode(code).orElseThrow();
+                employee.setDepartment(finance);
+                financeIds.add(employeeRepository.save(employee).getId());
+            }
+            Set<Long> otherIds = employeeRepository.findByIsActiveTrue().stream()
+                    .map(Employee::getId)
+                    .filter(id -> !financeIds.contains(id))
+                    .collect(Collectors.toSet());
+
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+
+            Map<Long, PayrollDepartmentSummaryDTO> summaries = summariesByDepartment(run.getId());
+            assertEquals(2, summaries.size());
+            assertEquals(2, summaries.get(finance.getId()).getHeadcount());
+            assertEquals("Finance", summaries.get(finance.getId()).getDepartmentName());
+            assertEquals(run.getTotalEmployees(),
+                    summaries.values().stream().mapToInt(PayrollDepartmentSummaryDTO::getHeadcount).sum());
+            assertEquals(4.0, summaries.get(finance.getId()).getTotalOvertimeHours(), 1e-9);
+            assertMatchesDetails(run.getId(), financeIds, summaries.get(finance.getId()));
+            assertMatchesDetails(run.getId(), otherIds, summaries.get(testDepartment.getId()));
+
+            Employee promoted = employeeRepository.findByEmpCode("BULK3").orElseThrow();
+            promoted.setBasicSalary(promoted.getBasicSalary() * 2);
+            employeeRepository.save(promoted);
+            payrollService.recomputePayroll(run.getId(), hrUser.getEmail());
+
+            assertMatchesDetails(run.getId(), financeIds, summariesByDepartment(run.getId()).get(finance.getId()));
+        }
+
+        @Test
+        @DisplayName("Should summarize runs computed before summaries existed at startup, not on read")
+        void shouldBackfillLegacyRuns() {
+            createEmployeesWithHistory(0, 2, LocalDate.of(2025, 1, 1));
+            PayrollRunDTO run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            payrollDepartmentSummaryRepository.deleteAll();
+
+            assertTrue(departmentSummaryService.getSummaries(run.getId()).isEmpty());
+            assertFalse(payrollDepartmentSummaryRepository.existsByPayrollRunId(run.getId()));
+
+            summaryBackfill.run(null);
+            assertEquals(run.getTotalEmployees(), departmentSummaryService.getSummaries(run.getId()).stream()
+                    .mapToInt(PayrollDepartmentSummaryDTO::getHeadcount).sum());
+            assertEquals(0, departmentSummaryService.rebuildMissing());
+        }
+    }
+
+    @Nested
+    @DisplayName("Telemetry Tests")
+    class TelemetryTests {
+
+        @Autowired
+        private PayrollTelemetry payrollTelemetry;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        private long phaseCount(PayrollTelemetry.Phase phase) {
+            return meterRegistry.get("payroll.phase").tag("phase", phase.name().toLowerCase()).timer().count();
+        }
+
+        @Test
+        @DisplayName("Should time every phase of a run and store its summary")
+        void shouldRecordRunTelemetry() {
+            createEmployeesWithHistory(0, 5, LocalDate.of(2025, 1, 1));
+            ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 2);
+            long calculationsBefore = phaseCount(PayrollTelemetry.Phase.CALCULATION);
+            double employeesBefore = meterRegistry.get("payroll.employees.computed").counter().count();
+
+            PayrollRunDTO run;
+            try {
+                run = payrollService.computePayroll(1, 2025, hrUser.getEmail());
+            } finally {
+                ReflectionTestUtils.setField(payrollComputeEngine, "partitionSize", 500);
+            }
+
+            PayrollRunTelemetryDTO telemetry = payrollTelemetry.getRunTelemetry(run.getId());
+            assertEquals(PayrollTelemetry.OPERATION_COMPUTE, telemetry.getOperation());
+            assertEquals(run.getTotalEmployees(), telemetry.getEmployees());
+            assertEquals((run.getTotalEmployees() + 1) / 2, telemetry.getPartitions());
+            assertTrue(telemetry.getWallMillis() >= telemetry.getConfigurationMillis() + telemetry.getInputsMillis()
+                    + telemetry.getCompletionMillis() + telemetry.getAuditMillis());
+            assertNotNull(telemetry.getFinishedAt());
+
+            assertEquals(calculationsBefore + telemetry.getPartitions(), phaseCount(PayrollTelemetry.Phase.CALCULATION));
+            assertEquals(employeesBefore + run.getTotalEmployees(),
+                    meterRegistry.get("payroll.employees.computed").counter().count(), 1e-9);
+
+            // A recompute replaces the summary with its own
+            Employee promoted = employeeRepository.findByEmpCode("BULK1").orElseThrow();
+            promoted.setBasicSalary(promoted.getBasicSalary() * 2);
+            employeeRepository.save(promoted);
+            payrollService.recomputePayroll(run.getId(), hrUser.getEmail());
+
+            PayrollRunTelemetryDTO recomputed = payrollTelemetry.getRunTelemetry(run.getId());
+            assertEquals(PayrollTelemetry.OPERATION_RECOMPUTE, recomputed.getOperation());
+            assertEquals(1, recomputed.getEmployees());
+            assertEquals(1, payrollRunTelemetryRepository.count());
+            assertEquals(run.getId(), payrollTelemetry.getSlowestRuns().get(0).getPayrollRunId());
+        }
+
+        @Test
+        @DisplayName("Should time a dry run on the phase timers without storing a summary")
+        void shouldTimeDryRunWithoutSummary() {
+            createEmployeesWithHistory(0, 3, LocalDate.of(2025, 1, 1));
+            long inputsBefore = phaseCount(PayrollTelemetry.Phase.INPUTS);
+            long calculationsBefore = phaseCount(PayrollTelemetry.Phase.CALCULATION);
+
+            payrollService.simulatePayroll(1, 2025, detail -> { });
+
+            assertEquals(inputsBefore + 1, phaseCount(PayrollTelemetry.Phase.INPUTS));
+            assertEquals(calculationsBefore + 1, phaseCount(PayrollTelemetry.Phase.CALCULATION));
+            assertEquals(0, payrollRunTelemetryRepository.count());
+        }
+    }
+}
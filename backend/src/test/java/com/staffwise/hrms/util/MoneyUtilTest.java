@@ -0,0 +1,75 @@
+package com.staffwise.hrms.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rounding rules of the toea money kernel.
+ */
+class MoneyUtilTest {
+
+    @Test
+    @DisplayName("Should convert Kina to the nearest toea and back")
+    void shouldConvertBetweenKinaAndToea() {
+        assertEquals(1234L, MoneyUtil.toToea(12.34));
+        assertEquals(29L, MoneyUtil.toToea(0.29));
+        assertEquals(101L, MoneyUtil.toToea(1.005000001));
+        assertEquals(-1234L, MoneyUtil.toToea(-12.34));
+        assertEquals(0L, MoneyUtil.toToeaOrZero(null));
+        assertEquals(12.34, MoneyUtil.toKina(1234L));
+
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            long toea = random.nextInt(100_000_000);
+            assertEquals(toea, MoneyUtil.toToea(MoneyUtil.toKina(toea)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should pro-rate with a single half-up rounding")
+    void shouldProrate() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            long toea = random.nextInt(50_000_000);
+            int numerator = random.nextInt(11);
+            int denominator = 1 + random.nextInt(300);
+            long expected = BigDecimal.valueOf(toea).multiply(BigDecimal.valueOf(numerator))
+                    .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, MoneyUtil.prorate(toea, numerator, denominator));
+        }
+        assertEquals(-2L, MoneyUtil.prorate(-3, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> MoneyUtil.prorate(100, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Should round to the configured precision half away from zero")
+    void shouldRoundToPrecision() {
+        assertEquals(12345L, MoneyUtil.round(12345L, 2));
+        assertEquals(12350L, MoneyUtil.round(12345L, 1));
+        assertEquals(12340L, MoneyUtil.round(12344L, 1));
+        assertEquals(12300L, MoneyUtil.round(12345L, 0));
+        assertEquals(12400L, MoneyUtil.round(12350L, 0));
+        assertEquals(-12400L, MoneyUtil.round(-12350L, 0));
+        assertEquals(12345L, MoneyUtil.round(12345L, 4));
+        assertEquals(12300L, MoneyUtil.round(12345L, -1));
+    }
+
+    @Test
+    @DisplayName("Should sum converted amounts without drift")
+    void shouldSumWithoutDrift() {
+        double kina = 0;
+        long toea = 0;
+        for (int fortnight = 0; fortnight < 26 * 40; fortnight++) {
+            kina += 1234.57;
+            toea += MoneyUtil.toToea(1234.57);
+        }
+        assertEquals(1283952.80, MoneyUtil.toKina(toea));
+        assertNotEquals(1283952.80, kina);
+    }
+}
@@ -151,6 +151,53 @@ export interface PayrollRun {
   payrollDetails?: PayrollDetail[];
 }
 
+export interface PayrollJob {
+  id: number;
+  fortnight: number;
+  year: number;
+  status: PayrollJobStatus;
+  payrollRunId?: number;
+  requestedBy?: string;
+  attempts?: number;
+  totalEmployees: number;
+  employeesDone: number;
+  percentComplete: number;
+  employeesPerSecond?: number;
+  etaSeconds?: number;
+  startedAt?: string;
+  finishedAt?: string;
+  heartbeatAt?: string;
+  errorMessage?: string;
+}
+
+export interface PayrollDepartmentSummary {
+  payrollRunId: number;
+  departmentId?: number;
+  departmentCode?: string;
+  departmentName?: string;
+  headcount: number;
+  totalGross: number;
+  totalSalaryWagesTax: number;
+  totalSuperEmployee: number;
+  totalSuperEmployer: number;
+  totalNetPay: number;
+  totalOvertimeHours: number;
+}
+
+export interface KeysetPage<T> {
+  items: T[];
+  sortBy: string;
+  nextCursor?: string;
+  hasMore: boolean;
+}
+
+export interface PayrollSimulationLine {
+  type: 'DETAIL' | 'SUMMARY' | 'ERROR';
+  detail?: PayrollDetail;
+  summary?: PayrollRun;
+  message?: string;
+}
+
 export interface PayrollDetail {
   id?: number;
   payrollRunId?: number;
@@ -222,4 +269,5 @@ export type RequestType = 'LEAVE' | 'LATE_COMING' | 'OVERTIME';
 export type RequestStatus = 'PENDING' | 'SUBMITTED' | 'APPROVED' | 'REJECTED';
 export type LeaveType = 'ANNUAL' | 'SICK' | 'CASUAL' | 'MATERNITY' | 'PATERNITY' | 'UNPAID' | 'COMPENSATORY' | 'PERSONAL';
 export type AttendanceStatus = 'PRESENT' | 'ABSENT' | 'HALF_DAY' | 'ON_LEAVE' | 'HOLIDAY' | 'WEEKEND' | 'LATE' | 'LEAVE';
-export type PayrollStatus = 'COMPUTED' | 'CHECKED' | 'REJECTED' | 'AUTHORIZED' | 'PROCESSED';
+export type PayrollJobStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+export type PayrollStatus = 'COMPUTING' | 'COMPUTED' | 'CHECKED' | 'REJECTED' | 'AUTHORIZED' | 'PROCESSED';
@@ -1,13 +1,15 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, map } from 'rxjs';
 import { environment } from '../../../environments/environment';
 import { 
   ApiResponse, 
   Employee, 
   Attendance, 
   EmployeeRequest, 
-  PayrollRun 
+  PayrollRun,
+  PayrollJob,
+  PayrollSimulationLine
 } from '../models';
 
 @Injectable({
@@ -121,6 +123,37 @@ export class HrService {
     return this.http.post<ApiResponse<PayrollRun>>(`${this.API_URL}/payroll/compute`, {}, { params });
   }
 
+  submitPayrollJob(fortnight: number, year: number): Observable<ApiResponse<PayrollJob>> {
+    const params = new HttpParams()
+      .set('fortnight', fortnight.toString())
+      .set('year', year.toString());
+    return this.http.post<ApiResponse<PayrollJob>>(`${this.API_URL}/payroll/jobs`, {}, { params });
+  }
+
+  getPayrollJob(jobId: number): Observable<ApiResponse<PayrollJob>> {
+    return this.http.get<ApiResponse<PayrollJob>>(`${this.API_URL}/payroll/jobs/${jobId}`);
+  }
+
+  resumePayrollJob(jobId: number): Observable<ApiResponse<PayrollJob>> {
+    return this.http.post<ApiResponse<PayrollJob>>(`${this.API_URL}/payroll/jobs/${jobId}/resume`, {});
+  }
+
+  // Dry run streamed as NDJSON: one DETAIL line per employee, then a SUMMARY line
+  simulatePayroll(fortnight: number, year: number): Observable<PayrollSimulationLine[]> {
+    const params = new HttpParams()
+      .set('fortnight', fortnight.toString())
+      .set('year', year.toString());
+    return this.http.get(`${this.API_URL}/payroll/simulate`, { params, responseType: 'text' }).pipe(
+      map(body => body.split('\n')
+        .filter(line => line.trim().length > 0)
+        .map(line => JSON.parse(line) as PayrollSimulationLine))
+    );
+  }
+
+  recomputePayroll(runId: number): Observable<ApiResponse<PayrollRun>> {
+    return this.http.post<ApiResponse<PayrollRun>>(`${this.API_URL}/payroll/runs/${runId}/recompute`, {});
+  }
+
   getPayrollRuns(): Observable<ApiResponse<PayrollRun[]>> {
     return this.http.get<ApiResponse<PayrollRun[]>>(`${this.API_URL}/payroll/runs`);
   }
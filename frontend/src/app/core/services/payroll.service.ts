@@ -1,8 +1,8 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../../environments/environment';
-import { ApiResponse, PayrollRun, PayrollDetail } from '../models';
+import { ApiResponse, PayrollRun, PayrollDetail, KeysetPage, PayrollDepartmentSummary } from '../models';
 
 export interface PayrollAction {
   payrollRunId: number;
@@ -41,6 +41,23 @@ export class PayrollService {
     return this.http.get<ApiResponse<PayrollDetail[]>>(`${this.API_URL}/view/runs/${runId}/details`);
   }
 
+  getDepartmentSummaries(runId: number): Observable<ApiResponse<PayrollDepartmentSummary[]>> {
+    return this.http.get<ApiResponse<PayrollDepartmentSummary[]>>(`${this.API_URL}/view/runs/${runId}/departments`);
+  }
+
+  // Keyset pages: pass the previous page's nextCursor as `after`
+  getPayrollDetailsPage(runId: number, sortBy: 'id' | 'empCode' = 'id', after?: string, size = 100):
+      Observable<ApiResponse<KeysetPage<PayrollDetail>>> {
+    let params = new HttpParams()
+      .set('sortBy', sortBy)
+      .set('size', size.toString());
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<ApiResponse<KeysetPage<PayrollDetail>>>(
+      `${this.API_URL}/view/runs/${runId}/details/page`, { params });
+  }
+
   // Checker Endpoints - Pending Check
   getPendingCheck(): Observable<ApiResponse<PayrollRun[]>> {
     return this.http.get<ApiResponse<PayrollRun[]>>(`${this.API_URL}/check/pending`);
@@ -1,8 +1,9 @@
-import { Component, OnInit, inject, signal } from '@angular/core';
+import { Component, OnDestroy, OnInit, inject, signal } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { HrService } from '../../../core/services/hr.service';
-import { PayrollRun } from '../../../core/models';
+import { PayrollJob, PayrollRun } from '../../../core/models';
+import { Subscription, timer, switchMap, takeWhile } from 'rxjs';
 
 @Component({
   selector: 'app-payroll-compute',
@@ -43,6 +44,10 @@ import { PayrollRun } from '../../../core/models';
                   Compute Payroll
                 }
               </button>
+              <button class="btn btn-secondary btn-lg" (click)="previewPayroll()" [disabled]="isComputing() || isPreviewing()">
+                <span class="material-icons">visibility</span>
+                {{ isPreviewing() ? 'Previewing...' : 'Preview' }}
+              </button>
             </div>
 
             <div class="period-info">
@@ -50,6 +55,40 @@ import { PayrollRun } from '../../../core/models';
               <span>Period: {{ getFortnightDateRange() }}</span>
             </div>
 
+            @if (currentJob(); as job) {
+              <div class="job-progress">
+                <div class="job-progress-header">
+                  <span>{{ job.status }} - {{ job.employeesDone }} / {{ job.totalEmployees }} employees</span>
+                  <span>{{ job.percentComplete | number:'1.0-0' }}%</span>
+                </div>
+                <div class="progress-bar">
+                  <div class="progress-fill" [style.width.%]="job.percentComplete"></div>
+                </div>
+                <div class="job-progress-meta">
+                  @if (job.employeesPerSecond) {
+                    <span>{{ job.employeesPerSecond | number:'1.0-1' }} employees/s</span>
+                  }
+                  @if (job.etaSeconds !== null && job.etaSeconds !== undefined) {
+                    <span>ETA {{ job.etaSeconds }}s</span>
+                  }
+                  @if (job.status === 'FAILED') {
+                    <button class="btn btn-secondary btn-sm" (click)="resumeJob(job.id)">Resume</button>
+                  }
+                </div>
+              </div>
+            }
+
+            @if (preview(); as summary) {
+              <div class="period-info">
+                <span class="material-icons">visibility</span>
+                <span>
+                  Preview: {{ summary.totalEmployees }} employees,
+                  gross K{{ summary.totalGross | number:'1.2-2' }},
+                  net K{{ summary.totalNetPay | number:'1.2-2' }} (not saved)
+                </span>
+              </div>
+            }
+
             @if (successMessage()) {
               <div class="alert alert-success">
                 <span class="material-icons">check_circle</span>
@@ -84,6 +123,7 @@ import { PayrollRun } from '../../../core/models';
                   <th>Status</th>
                   <th>Computed By</th>
                   <th>Computed At</th>
+                  <th></th>
                 </tr>
               </thead>
               <tbody>
@@ -104,6 +144,13 @@ import { PayrollRun } from '../../../core/models';
                     </td>
                     <td>{{ run.computedBy }}</td>
                     <td>{{ run.computedAt | date:'medium' }}</td>
+                    <td>
+                      @if (run.status === 'COMPUTED' || run.status === 'CHECKED' || run.status === 'REJECTED') {
+                        <button class="btn btn-secondary btn-sm" (click)="recomputePayroll(run.id)" [disabled]="isComputing()">
+                          Recompute
+                        </button>
+                      }
+                    </td>
                   </tr>
                 }
               </tbody>
@@ -239,6 +286,34 @@ import { PayrollRun } from '../../../core/models';
       &.alert-error { background: #fef2f2; color: var(--error-color); }
     }
 
+    .job-progress {
+      margin-top: 1rem;
+
+      .job-progress-header,
+      .job-progress-meta {
+        display: flex;
+        justify-content: space-between;
+        align-items: center;
+        gap: 1rem;
+        font-size: 0.875rem;
+        color: var(--text-secondary);
+      }
+
+      .progress-bar {
+        height: 8px;
+        margin: 0.5rem 0;
+        border-radius: 4px;
+        background: var(--border-color);
+        overflow: hidden;
+      }
+
+      .progress-fill {
+        height: 100%;
+        background: var(--primary-color);
+        transition: width 0.3s ease;
+      }
+    }
+
     .data-table {
       width: 100%;
       border-collapse: collapse;
@@ -351,11 +426,15 @@ import { PayrollRun } from '../../../core/models';
     }
   `]
 })
-export class PayrollComputeComponent implements OnInit {
+export class PayrollComputeComponent implements OnInit, OnDestroy {
   private hrService = inject(HrService);
+  private jobPolling?: Subscription;
 
   payrollRuns = signal<PayrollRun[]>([]);
+  currentJob = signal<PayrollJob | null>(null);
   isComputing = signal(false);
+  isPreviewing = signal(false);
+  preview = signal<PayrollRun | null>(null);
   successMessage = signal('');
   errorMessage = signal('');
 
@@ -375,6 +454,10 @@ export class PayrollComputeComponent implements OnInit {
     this.updateFortnightLabels();
   }
 
+  ngOnDestroy(): void {
+    this.jobPolling?.unsubscribe();
+  }
+
   // Calculate current fortnight based on today's date
   getCurrentFortnight(): number {
     const now = new Date();
@@ -421,14 +504,14 @@ export class PayrollComputeComponent implements OnInit {
     this.isComputing.set(true);
     this.successMessage.set('');
     this.errorMessage.set('');
+    this.currentJob.set(null);
 
-    this.hrService.computePayroll(this.selectedFortnight, this.selectedYear).subscribe({
+    this.hrService.submitPayrollJob(this.selectedFortnight, this.selectedYear).subscribe({
       next: (res) => {
-        this.isComputing.set(false);
-        if (res.success) {
-          this.successMessage.set(`Payroll for Fortnight ${this.selectedFortnight}, ${this.selectedYear} computed successfully!`);
-          this.loadPayrollRuns();
+        if (res.success && res.data) {
+          this.trackJob(res.data);
         } else {
+          this.isComputing.set(false);
           this.errorMessage.set(res.message || 'Failed to compute payroll');
         }
       },
@@ -439,6 +522,96 @@ export class PayrollComputeComponent implements OnInit {
     });
   }
 
+  // Dry run of the selected fortnight; nothing is saved
+  previewPayroll(): void {
+    this.isPreviewing.set(true);
+    this.preview.set(null);
+    this.errorMessage.set('');
+
+    this.hrService.simulatePayroll(this.selectedFortnight, this.selectedYear).subscribe({
+      next: (lines) => {
+        this.isPreviewing.set(false);
+        const last = lines[lines.length - 1];
+        if (last?.type === 'SUMMARY' && last.summary) {
+          this.preview.set(last.summary);
+        } else {
+          this.errorMessage.set(last?.message || 'Payroll preview was interrupted');
+        }
+      },
+      error: (err) => {
+        this.isPreviewing.set(false);
+        this.errorMessage.set(err.error?.message || 'Failed to preview payroll');
+      }
+    });
+  }
+
+  resumeJob(jobId: number): void {
+    this.isComputing.set(true);
+    this.errorMessage.set('');
+
+    this.hrService.resumePayrollJob(jobId).subscribe({
+      next: (res) => {
+        if (res.success && res.data) {
+          this.trackJob(res.data);
+        }
+      },
+      error: (err) => {
+        this.isComputing.set(false);
+        this.errorMessage.set(err.error?.message || 'Failed to resume payroll job');
+      }
+    });
+  }
+
+  // Recompute only employees whose attendance, requests or records changed since the run
+  recomputePayroll(runId: number): void {
+    this.isComputing.set(true);
+    this.successMessage.set('');
+    this.errorMessage.set('');
+
+    this.hrService.recomputePayroll(runId).subscribe({
+      next: (res) => {
+        this.isComputing.set(false);
+        if (res.success && res.data) {
+          this.successMessage.set(res.message || 'Payroll recomputed successfully!');
+          this.loadPayrollRuns();
+        }
+      },
+      error: (err) => {
+        this.isComputing.set(false);
+        this.errorMessage.set(err.error?.message || 'Failed to recompute payroll');
+      }
+    });
+  }
+
+  // Poll job progress until it completes or fails
+  private trackJob(job: PayrollJob): void {
+    this.currentJob.set(job);
+    this.jobPolling?.unsubscribe();
+    this.jobPolling = timer(1000, 2000).pipe(
+      switchMap(() => this.hrService.getPayrollJob(job.id)),
+      takeWhile(res => res.data?.status === 'QUEUED' || res.data?.status === 'RUNNING', true)
+    ).subscribe({
+      next: (res) => {
+        if (!res.data) {
+          return;
+        }
+        this.currentJob.set(res.data);
+        if (res.data.status === 'COMPLETED') {
+          this.isComputing.set(false);
+          this.successMessage.set(`Payroll for Fortnight ${res.data.fortnight}, ${res.data.year} computed successfully!`);
+          this.loadPayrollRuns();
+        } else if (res.data.status === 'FAILED') {
+          this.isComputing.set(false);
+          this.errorMessage.set(res.data.errorMessage || 'Failed to compute payroll');
+        }
+      },
+      error: (err) => {
+        this.isComputing.set(false);
+        this.errorMessage.set(err.error?.message || 'Failed to load payroll job progress');
+      }
+    });
+  }
+
   onYearChange(): void {
     this.updateFortnightLabels();
   }